@@ -1,5 +1,8 @@
 package um.edu.ar.config;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +16,36 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Ventas ventas = new Ventas();
+
+    private final Catedra catedra = new Catedra();
+
+    private final Tareas tareas = new Tareas();
+
+    private final Busqueda busqueda = new Busqueda();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Ventas getVentas() {
+        return ventas;
+    }
+
+    public Catedra getCatedra() {
+        return catedra;
+    }
+
+    public Tareas getTareas() {
+        return tareas;
+    }
+
+    public Busqueda getBusqueda() {
+        return busqueda;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +60,754 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Ventas {
+
+        private final Outbox outbox = new Outbox();
+
+        private final Idempotencia idempotencia = new Idempotencia();
+
+        private final Lote lote = new Lote();
+
+        private final Exportacion exportacion = new Exportacion();
+
+        public Outbox getOutbox() {
+            return outbox;
+        }
+
+        public Idempotencia getIdempotencia() {
+            return idempotencia;
+        }
+
+        public Lote getLote() {
+            return lote;
+        }
+
+        public Exportacion getExportacion() {
+            return exportacion;
+        }
+
+        /**
+         * Settings of the asynchronous sale pipeline backed by the {@code venta_pendiente} outbox table.
+         */
+        public static class Outbox {
+
+            /**
+             * Number of worker threads draining the outbox towards the catedra API.
+             */
+            private int workerThreads = 4;
+
+            /**
+             * Delay between two polls of the outbox table.
+             */
+            private Duration pollInterval = Duration.ofSeconds(1);
+
+            /**
+             * Maximum number of rows claimed on each poll.
+             */
+            private int batchSize = 20;
+
+            /**
+             * Attempts before a pending sale is marked as failed.
+             */
+            private int maxIntentos = 5;
+
+            /**
+             * Time after which a row stuck in EN_PROCESO (e.g. node crash) is handed back to the queue.
+             */
+            private Duration leaseTimeout = Duration.ofMinutes(5);
+
+            public int getWorkerThreads() {
+                return workerThreads;
+            }
+
+            public void setWorkerThreads(int workerThreads) {
+                this.workerThreads = workerThreads;
+            }
+
+            public Duration getPollInterval() {
+                return pollInterval;
+            }
+
+            public void setPollInterval(Duration pollInterval) {
+                this.pollInterval = pollInterval;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getMaxIntentos() {
+                return maxIntentos;
+            }
+
+            public void setMaxIntentos(int maxIntentos) {
+                this.maxIntentos = maxIntentos;
+            }
+
+            public Duration getLeaseTimeout() {
+                return leaseTimeout;
+            }
+
+            public void setLeaseTimeout(Duration leaseTimeout) {
+                this.leaseTimeout = leaseTimeout;
+            }
+        }
+
+        /**
+         * Settings of the {@code Idempotency-Key} support of {@code POST /api/ventas}.
+         */
+        public static class Idempotencia {
+
+            /**
+             * How long a key is remembered.
+             */
+            private Duration ttl = Duration.ofHours(24);
+
+            /**
+             * Maximum number of keys kept in memory; older keys are still found in the database.
+             */
+            private long maxEntries = 10000;
+
+            /**
+             * Maximum time a duplicate request waits for the in-flight request with the same key.
+             */
+            private Duration esperaMaxima = Duration.ofSeconds(30);
+
+            public Duration getTtl() {
+                return ttl;
+            }
+
+            public void setTtl(Duration ttl) {
+                this.ttl = ttl;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Duration getEsperaMaxima() {
+                return esperaMaxima;
+            }
+
+            public void setEsperaMaxima(Duration esperaMaxima) {
+                this.esperaMaxima = esperaMaxima;
+            }
+        }
+
+        /**
+         * Settings of the {@code POST /api/ventas/batch} endpoint.
+         */
+        public static class Lote {
+
+            /**
+             * Maximum number of concurrent calls to {@code /vender}, shared by all batch requests.
+             */
+            private int paralelismo = 4;
+
+            /**
+             * Maximum number of sales waiting for a thread, shared by all batch requests; beyond it a sale is rejected.
+             */
+            private int capacidadCola = 200;
+
+            /**
+             * Maximum number of sales accepted in a single batch request, at most 1000.
+             */
+            private int maxItems = 100;
+
+            public int getParalelismo() {
+                return paralelismo;
+            }
+
+            public void setParalelismo(int paralelismo) {
+                this.paralelismo = paralelismo;
+            }
+
+            public int getCapacidadCola() {
+                return capacidadCola;
+            }
+
+            public void setCapacidadCola(int capacidadCola) {
+                this.capacidadCola = capacidadCola;
+            }
+
+            public int getMaxItems() {
+                return maxItems;
+            }
+
+            public void setMaxItems(int maxItems) {
+                this.maxItems = maxItems;
+            }
+        }
+
+        /**
+         * Settings of the {@code GET /api/ventas/export} endpoint.
+         */
+        public static class Exportacion {
+
+            /**
+             * Rows fetched from the database per round trip while streaming an export.
+             */
+            private int fetchSize = 500;
+
+            /**
+             * Upper bound on the time an export may take to stream, instead of the default async request timeout.
+             */
+            private Duration timeout = Duration.ofMinutes(30);
+
+            public int getFetchSize() {
+                return fetchSize;
+            }
+
+            public void setFetchSize(int fetchSize) {
+                this.fetchSize = fetchSize;
+            }
+
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(Duration timeout) {
+                this.timeout = timeout;
+            }
+        }
+    }
+
+    public static class Catedra {
+
+        private final Http http = new Http();
+
+        private final Resilience resilience = new Resilience();
+
+        private final Sync sync = new Sync();
+
+        private final Cache cache = new Cache();
+
+        /**
+         * File holding the bearer token used to call the catedra API.
+         */
+        private String tokenFile = "token.json";
+
+        /**
+         * Minimum time between two checks of the token file modification time.
+         */
+        private Duration tokenCheckInterval = Duration.ofSeconds(5);
+
+        public Http getHttp() {
+            return http;
+        }
+
+        public Resilience getResilience() {
+            return resilience;
+        }
+
+        public Sync getSync() {
+            return sync;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public String getTokenFile() {
+            return tokenFile;
+        }
+
+        public void setTokenFile(String tokenFile) {
+            this.tokenFile = tokenFile;
+        }
+
+        public Duration getTokenCheckInterval() {
+            return tokenCheckInterval;
+        }
+
+        public void setTokenCheckInterval(Duration tokenCheckInterval) {
+            this.tokenCheckInterval = tokenCheckInterval;
+        }
+
+        /**
+         * Connection pool and timeouts of the HTTP client used for every call to the catedra API.
+         */
+        public static class Http {
+
+            /**
+             * Maximum number of pooled connections.
+             */
+            private int maxTotal = 50;
+
+            /**
+             * Maximum number of pooled connections per route (host).
+             */
+            private int maxPerRoute = 20;
+
+            private Duration connectTimeout = Duration.ofSeconds(2);
+
+            /**
+             * Maximum time waiting for a response (socket read timeout).
+             */
+            private Duration readTimeout = Duration.ofSeconds(10);
+
+            /**
+             * Maximum time waiting for a free connection from the pool.
+             */
+            private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+            /**
+             * Maximum lifetime of a pooled connection.
+             */
+            private Duration timeToLive = Duration.ofMinutes(5);
+
+            /**
+             * Idle connections are closed after this time.
+             */
+            private Duration idleTimeout = Duration.ofSeconds(30);
+
+            public int getMaxTotal() {
+                return maxTotal;
+            }
+
+            public void setMaxTotal(int maxTotal) {
+                this.maxTotal = maxTotal;
+            }
+
+            public int getMaxPerRoute() {
+                return maxPerRoute;
+            }
+
+            public void setMaxPerRoute(int maxPerRoute) {
+                this.maxPerRoute = maxPerRoute;
+            }
+
+            public Duration getConnectTimeout() {
+                return connectTimeout;
+            }
+
+            public void setConnectTimeout(Duration connectTimeout) {
+                this.connectTimeout = connectTimeout;
+            }
+
+            public Duration getReadTimeout() {
+                return readTimeout;
+            }
+
+            public void setReadTimeout(Duration readTimeout) {
+                this.readTimeout = readTimeout;
+            }
+
+            public Duration getConnectionRequestTimeout() {
+                return connectionRequestTimeout;
+            }
+
+            public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+                this.connectionRequestTimeout = connectionRequestTimeout;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getIdleTimeout() {
+                return idleTimeout;
+            }
+
+            public void setIdleTimeout(Duration idleTimeout) {
+                this.idleTimeout = idleTimeout;
+            }
+        }
+
+        /**
+         * Circuit breaker, bulkhead and retry settings of the calls to the catedra API.
+         */
+        public static class Resilience {
+
+            /**
+             * Failure rate, in percent, above which the circuit opens.
+             */
+            private int failureRateThreshold = 50;
+
+            /**
+             * Calls slower than this count as slow calls.
+             */
+            private Duration slowCallDurationThreshold = Duration.ofSeconds(5);
+
+            /**
+             * Slow call rate, in percent, above which the circuit opens.
+             */
+            private int slowCallRateThreshold = 50;
+
+            /**
+             * Number of recent calls used to compute the failure and slow call rates.
+             */
+            private int slidingWindowSize = 20;
+
+            /**
+             * Minimum number of calls before the rates are evaluated.
+             */
+            private int minimumNumberOfCalls = 10;
+
+            /**
+             * Time the circuit stays open, failing fast, before letting trial calls through.
+             */
+            private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+
+            /**
+             * Number of trial calls allowed while the circuit is half open.
+             */
+            private int permittedCallsInHalfOpenState = 3;
+
+            /**
+             * Maximum number of concurrent calls to the catedra API (bulkhead).
+             */
+            private int maxConcurrentCalls = 20;
+
+            /**
+             * Time a call may wait for a bulkhead slot before being rejected.
+             */
+            private Duration maxWaitDuration = Duration.ZERO;
+
+            /**
+             * Attempts, including the first one, for idempotent GET calls.
+             */
+            private int retryMaxAttempts = 3;
+
+            /**
+             * Backoff before the first retry; it grows exponentially with random jitter.
+             */
+            private Duration retryInitialInterval = Duration.ofMillis(500);
+
+            /**
+             * Growth factor of the retry backoff.
+             */
+            private double retryMultiplier = 2;
+
+            /**
+             * Jitter applied to each retry backoff, as a fraction of it.
+             */
+            private double retryRandomizationFactor = 0.5;
+
+            public int getFailureRateThreshold() {
+                return failureRateThreshold;
+            }
+
+            public void setFailureRateThreshold(int failureRateThreshold) {
+                this.failureRateThreshold = failureRateThreshold;
+            }
+
+            public Duration getSlowCallDurationThreshold() {
+                return slowCallDurationThreshold;
+            }
+
+            public void setSlowCallDurationThreshold(Duration slowCallDurationThreshold) {
+                this.slowCallDurationThreshold = slowCallDurationThreshold;
+            }
+
+            public int getSlowCallRateThreshold() {
+                return slowCallRateThreshold;
+            }
+
+            public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+                this.slowCallRateThreshold = slowCallRateThreshold;
+            }
+
+            public int getSlidingWindowSize() {
+                return slidingWindowSize;
+            }
+
+            public void setSlidingWindowSize(int slidingWindowSize) {
+                this.slidingWindowSize = slidingWindowSize;
+            }
+
+            public int getMinimumNumberOfCalls() {
+                return minimumNumberOfCalls;
+            }
+
+            public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+                this.minimumNumberOfCalls = minimumNumberOfCalls;
+            }
+
+            public Duration getWaitDurationInOpenState() {
+                return waitDurationInOpenState;
+            }
+
+            public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+                this.waitDurationInOpenState = waitDurationInOpenState;
+            }
+
+            public int getPermittedCallsInHalfOpenState() {
+                return permittedCallsInHalfOpenState;
+            }
+
+            public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+                this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+            }
+
+            public int getMaxConcurrentCalls() {
+                return maxConcurrentCalls;
+            }
+
+            public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+                this.maxConcurrentCalls = maxConcurrentCalls;
+            }
+
+            public Duration getMaxWaitDuration() {
+                return maxWaitDuration;
+            }
+
+            public void setMaxWaitDuration(Duration maxWaitDuration) {
+                this.maxWaitDuration = maxWaitDuration;
+            }
+
+            public int getRetryMaxAttempts() {
+                return retryMaxAttempts;
+            }
+
+            public void setRetryMaxAttempts(int retryMaxAttempts) {
+                this.retryMaxAttempts = retryMaxAttempts;
+            }
+
+            public Duration getRetryInitialInterval() {
+                return retryInitialInterval;
+            }
+
+            public void setRetryInitialInterval(Duration retryInitialInterval) {
+                this.retryInitialInterval = retryInitialInterval;
+            }
+
+            public double getRetryMultiplier() {
+                return retryMultiplier;
+            }
+
+            public void setRetryMultiplier(double retryMultiplier) {
+                this.retryMultiplier = retryMultiplier;
+            }
+
+            public double getRetryRandomizationFactor() {
+                return retryRandomizationFactor;
+            }
+
+            public void setRetryRandomizationFactor(double retryRandomizationFactor) {
+                this.retryRandomizationFactor = retryRandomizationFactor;
+            }
+        }
+
+        /**
+         * Synchronization of the local catalog with the catedra one.
+         */
+        public static class Sync {
+
+            /**
+             * Number of changed dispositivos written per transaction.
+             */
+            private int chunkSize = 500;
+
+            /**
+             * Parse the remote catalog as it is received instead of reading the whole response first.
+             */
+            private boolean streaming = true;
+
+            /**
+             * Directory holding the compressed copy of the last good catalog, used to sync right away on startup.
+             */
+            private String snapshotDir = "catalogo";
+
+            /**
+             * Time after startup when a catalog loaded from the snapshot is enough for readiness, even if stale, while
+             * the remote catalog is still unavailable.
+             */
+            private Duration readinessGracePeriod = Duration.ofMinutes(2);
+
+            /**
+             * Partitions of changed dispositivos written at the same time, each in its own transaction; {@code 0} uses one
+             * per core. Capped below the size of the connection pool.
+             */
+            private int parallelism = 0;
+
+            /**
+             * Attempts to write a partition before it is given up, without affecting the other partitions.
+             */
+            private int partitionAttempts = 3;
+
+            /**
+             * Load the whole remote catalog into staging tables and apply it with set-based statements, deleting the
+             * dispositivos missing from it, instead of writing only the changed dispositivos.
+             */
+            private boolean reconcile = false;
+
+            public int getChunkSize() {
+                return chunkSize;
+            }
+
+            public void setChunkSize(int chunkSize) {
+                this.chunkSize = chunkSize;
+            }
+
+            public boolean isStreaming() {
+                return streaming;
+            }
+
+            public void setStreaming(boolean streaming) {
+                this.streaming = streaming;
+            }
+
+            public String getSnapshotDir() {
+                return snapshotDir;
+            }
+
+            public void setSnapshotDir(String snapshotDir) {
+                this.snapshotDir = snapshotDir;
+            }
+
+            public Duration getReadinessGracePeriod() {
+                return readinessGracePeriod;
+            }
+
+            public void setReadinessGracePeriod(Duration readinessGracePeriod) {
+                this.readinessGracePeriod = readinessGracePeriod;
+            }
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public int getPartitionAttempts() {
+                return partitionAttempts;
+            }
+
+            public void setPartitionAttempts(int partitionAttempts) {
+                this.partitionAttempts = partitionAttempts;
+            }
+
+            public boolean isReconcile() {
+                return reconcile;
+            }
+
+            public void setReconcile(boolean reconcile) {
+                this.reconcile = reconcile;
+            }
+        }
+
+        /**
+         * Second-level cache regions of the catalog entities. Every write evicts the entries it changes on its node, and
+         * the other nodes evict the whole catalog once they poll its new version, so the time to live only bounds how long
+         * an entry changed outside the application is served.
+         */
+        public static class Cache {
+
+            /**
+             * How long a catalog entry is kept.
+             */
+            private Duration ttl = Duration.ofHours(6);
+
+            /**
+             * Maximum number of entries of each region. A change touching more rows than this clears the whole region
+             * instead of evicting them one by one.
+             */
+            private long maxEntries = 10000;
+
+            /**
+             * How often each node checks the catalog version shared by the cluster, and evicts its cached catalog and
+             * reloads its in-memory one when another node changed it.
+             */
+            private Duration pollInterval = Duration.ofSeconds(5);
+
+            public Duration getTtl() {
+                return ttl;
+            }
+
+            public void setTtl(Duration ttl) {
+                this.ttl = ttl;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Duration getPollInterval() {
+                return pollInterval;
+            }
+
+            public void setPollInterval(Duration pollInterval) {
+                this.pollInterval = pollInterval;
+            }
+        }
+    }
+
+    /**
+     * Locks that let a single node of the cluster run each scheduled job.
+     */
+    public static class Tareas {
+
+        /**
+         * How long a lease lasts without a heartbeat: the time before another node takes over the job of a node that
+         * died. The running node renews it every third of this.
+         */
+        private Duration lease = Duration.ofMinutes(1);
+
+        /**
+         * Minimum time a job stays locked after it starts, so that nodes whose clocks or schedules are slightly apart do
+         * not run it again right after it finishes. It must be shorter than the interval of the most frequent job.
+         */
+        private Duration retencionMinima = Duration.ofMinutes(5);
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public Duration getRetencionMinima() {
+            return retencionMinima;
+        }
+
+        public void setRetencionMinima(Duration retencionMinima) {
+            this.retencionMinima = retencionMinima;
+        }
+    }
+
+    /**
+     * Search over the in-memory catalog.
+     */
+    public static class Busqueda {
+
+        /**
+         * Limits of the precioBase buckets counted by every search, in ascending order: n limits make n + 1 buckets.
+         */
+        private List<BigDecimal> rangosPrecio = List.of(
+            new BigDecimal("500"),
+            new BigDecimal("1000"),
+            new BigDecimal("2000"),
+            new BigDecimal("5000")
+        );
+
+        public List<BigDecimal> getRangosPrecio() {
+            return rangosPrecio;
+        }
+
+        public void setRangosPrecio(List<BigDecimal> rangosPrecio) {
+            this.rangosPrecio = rangosPrecio;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
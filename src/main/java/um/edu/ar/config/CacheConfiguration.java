@@ -22,9 +22,13 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final javax.cache.configuration.Configuration<Object, Object> idempotenciaCacheConfiguration;
+    private final javax.cache.configuration.Configuration<Object, Object> catalogoCacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+        ApplicationProperties.Ventas.Idempotencia idempotencia = applicationProperties.getVentas().getIdempotencia();
+        ApplicationProperties.Catedra.Cache catalogo = applicationProperties.getCatedra().getCache();
 
         jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
             CacheConfigurationBuilder.newCacheConfigurationBuilder(
@@ -35,6 +39,27 @@ public class CacheConfiguration {
                 .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
                 .build()
         );
+
+        idempotenciaCacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                Object.class,
+                Object.class,
+                ResourcePoolsBuilder.heap(idempotencia.getMaxEntries())
+            )
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(idempotencia.getTtl()))
+                .build()
+        );
+
+        // Writes evict exactly the catalog entries they change, so these can live longer than the rest
+        catalogoCacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                Object.class,
+                Object.class,
+                ResourcePoolsBuilder.heap(catalogo.getMaxEntries())
+            )
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(catalogo.getTtl()))
+                .build()
+        );
     }
 
     @Bean
@@ -51,26 +76,35 @@ public class CacheConfiguration {
             createCache(cm, um.edu.ar.domain.Authority.class.getName());
             createCache(cm, um.edu.ar.domain.User.class.getName() + ".authorities");
             createCache(cm, um.edu.ar.domain.Venta.class.getName());
-            createCache(cm, um.edu.ar.domain.Dispositivo.class.getName());
-            createCache(cm, um.edu.ar.domain.Dispositivo.class.getName() + ".caracteristicas");
-            createCache(cm, um.edu.ar.domain.Dispositivo.class.getName() + ".personalizaciones");
-            createCache(cm, um.edu.ar.domain.Dispositivo.class.getName() + ".adicionales");
-            createCache(cm, um.edu.ar.domain.Caracteristica.class.getName());
-            createCache(cm, um.edu.ar.domain.Personalizacion.class.getName());
-            createCache(cm, um.edu.ar.domain.Personalizacion.class.getName() + ".opciones");
-            createCache(cm, um.edu.ar.domain.Opcion.class.getName());
-            createCache(cm, um.edu.ar.domain.Adicional.class.getName());
-            createCache(cm, um.edu.ar.domain.Adicional.class.getName() + ".dispositivos");
+            createCache(cm, um.edu.ar.domain.Dispositivo.class.getName(), catalogoCacheConfiguration);
+            createCache(cm, um.edu.ar.domain.Dispositivo.class.getName() + ".caracteristicas", catalogoCacheConfiguration);
+            createCache(cm, um.edu.ar.domain.Dispositivo.class.getName() + ".personalizaciones", catalogoCacheConfiguration);
+            createCache(cm, um.edu.ar.domain.Dispositivo.class.getName() + ".adicionales", catalogoCacheConfiguration);
+            createCache(cm, um.edu.ar.domain.Caracteristica.class.getName(), catalogoCacheConfiguration);
+            createCache(cm, um.edu.ar.domain.Personalizacion.class.getName(), catalogoCacheConfiguration);
+            createCache(cm, um.edu.ar.domain.Personalizacion.class.getName() + ".opciones", catalogoCacheConfiguration);
+            createCache(cm, um.edu.ar.domain.Opcion.class.getName(), catalogoCacheConfiguration);
+            createCache(cm, um.edu.ar.domain.Adicional.class.getName(), catalogoCacheConfiguration);
+            createCache(cm, um.edu.ar.domain.Adicional.class.getName() + ".dispositivos", catalogoCacheConfiguration);
+            createCache(cm, um.edu.ar.repository.VentaIdempotenciaRepository.VENTAS_BY_IDEMPOTENCY_KEY_CACHE, idempotenciaCacheConfiguration);
             // jhipster-needle-ehcache-add-entry
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration);
+    }
+
+    private void createCache(
+        javax.cache.CacheManager cm,
+        String cacheName,
+        javax.cache.configuration.Configuration<Object, Object> configuration
+    ) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, configuration);
         }
     }
 
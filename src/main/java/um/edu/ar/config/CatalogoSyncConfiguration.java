@@ -0,0 +1,56 @@
+package um.edu.ar.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class CatalogoSyncConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogoSyncConfiguration.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    public CatalogoSyncConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Pool writing the partitions of the catalog sync, each on its own connection. It is kept one thread below the size
+     * of the connection pool, so that requests can still get a connection while the sync runs.
+     */
+    @Bean(name = "catalogoSyncExecutor")
+    public ThreadPoolTaskExecutor catalogoSyncExecutor(DataSource dataSource) {
+        int paralelismo = applicationProperties.getCatedra().getSync().getParallelism();
+        if (paralelismo <= 0) {
+            paralelismo = Runtime.getRuntime().availableProcessors();
+        }
+        int poolSize = connectionPoolSize(dataSource);
+        if (poolSize > 0) {
+            paralelismo = Math.min(paralelismo, Math.max(1, poolSize - 1));
+        }
+        LOG.debug("Creating catalog sync executor with {} threads", paralelismo);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(paralelismo);
+        executor.setMaxPoolSize(paralelismo);
+        executor.setThreadNamePrefix("catalogo-sync-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    private static int connectionPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            LOG.warn("Could not read the size of the connection pool: {}", e.getMessage());
+        }
+        return 0;
+    }
+}
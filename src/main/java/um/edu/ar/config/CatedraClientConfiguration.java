@@ -0,0 +1,84 @@
+package um.edu.ar.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP client shared by every call to the catedra API ({@link Constants#API_URL}).
+ * <p>
+ * Connections are pooled and kept alive between calls, every call is bounded by connect/read timeouts,
+ * and both the pool and the calls are exported as Micrometer meters.
+ */
+@Configuration
+public class CatedraClientConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatedraClientConfiguration.class);
+
+    private final ApplicationProperties.Catedra.Http properties;
+
+    public CatedraClientConfiguration(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getCatedra().getHttp();
+    }
+
+    @Bean
+    public PoolingHttpClientConnectionManager catedraConnectionManager(MeterRegistry meterRegistry) {
+        LOG.debug("Creating catedra connection pool: maxTotal={}, maxPerRoute={}", properties.getMaxTotal(), properties.getMaxPerRoute());
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(properties.getMaxTotal())
+            .setMaxConnPerRoute(properties.getMaxPerRoute())
+            .setDefaultConnectionConfig(
+                ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                    .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                    .setTimeToLive(TimeValue.of(properties.getTimeToLive()))
+                    .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                    .build()
+            )
+            .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "catedra").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient catedraHttpClient(@Qualifier("catedraConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(
+                RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                    .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                    .build()
+            )
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(properties.getIdleTimeout()))
+            .build();
+    }
+
+    @Bean(name = "catedraRestTemplate")
+    public RestTemplate catedraRestTemplate(
+        RestTemplateBuilder restTemplateBuilder,
+        @Qualifier("catedraHttpClient") CloseableHttpClient httpClient,
+        MeterRegistry meterRegistry
+    ) {
+        return restTemplateBuilder
+            .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+            .additionalInterceptors(new CatedraMetricsInterceptor(meterRegistry))
+            .build();
+    }
+}
@@ -0,0 +1,55 @@
+package um.edu.ar.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.net.URI;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Records a {@code catedra.client.requests} timer for every call to the catedra API,
+ * tagged by endpoint (e.g. {@code /vender}, {@code /dispositivos}), method and status.
+ */
+class CatedraMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    static final String METRIC_NAME = "catedra.client.requests";
+
+    private static final String BASE_PATH = URI.create(Constants.API_URL).getPath();
+
+    private final MeterRegistry meterRegistry;
+
+    CatedraMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            sample.stop(
+                Timer.builder(METRIC_NAME)
+                    .description("Calls to the catedra API")
+                    .tag("endpoint", endpoint(request.getURI()))
+                    .tag("method", request.getMethod().name())
+                    .tag("status", status)
+                    .register(meterRegistry)
+            );
+        }
+    }
+
+    static String endpoint(URI uri) {
+        String path = uri.getPath();
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        return path.startsWith(BASE_PATH) ? path.substring(BASE_PATH.length()) : path;
+    }
+}
@@ -0,0 +1,105 @@
+package um.edu.ar.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Circuit breaker, bulkhead and retry guarding every call to the catedra API ({@link Constants#API_URL}).
+ * <p>
+ * Their state, call outcomes and rejections are exported as Micrometer meters under {@code resilience4j.*}.
+ */
+@Configuration
+public class CatedraResilienceConfiguration {
+
+    public static final String CATEDRA = "catedra";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatedraResilienceConfiguration.class);
+
+    private final ApplicationProperties.Catedra.Resilience properties;
+
+    public CatedraResilienceConfiguration(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getCatedra().getResilience();
+    }
+
+    @Bean
+    public CircuitBreaker catedraCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(circuitBreakerConfig(properties));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(CATEDRA);
+        circuitBreaker
+            .getEventPublisher()
+            .onStateTransition(event -> LOG.warn("Catedra circuit breaker: {}", event.getStateTransition()));
+        return circuitBreaker;
+    }
+
+    @Bean
+    public Bulkhead catedraBulkhead(MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(bulkheadConfig(properties));
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(CATEDRA);
+    }
+
+    @Bean
+    public Retry catedraRetry(MeterRegistry meterRegistry) {
+        RetryRegistry registry = RetryRegistry.of(retryConfig(properties));
+        TaggedRetryMetrics.ofRetryRegistry(registry).bindTo(meterRegistry);
+        return registry.retry(CATEDRA);
+    }
+
+    public static CircuitBreakerConfig circuitBreakerConfig(ApplicationProperties.Catedra.Resilience properties) {
+        return CircuitBreakerConfig.custom()
+            .failureRateThreshold(properties.getFailureRateThreshold())
+            .slowCallDurationThreshold(properties.getSlowCallDurationThreshold())
+            .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+            .slidingWindowSize(properties.getSlidingWindowSize())
+            .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+            .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+            .permittedNumberOfCallsInHalfOpenState(properties.getPermittedCallsInHalfOpenState())
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            // A 4xx means the request was wrong, and a full bulkhead that this node is busy: not that the catedra API is unhealthy
+            .ignoreExceptions(HttpClientErrorException.class, BulkheadFullException.class)
+            .build();
+    }
+
+    public static BulkheadConfig bulkheadConfig(ApplicationProperties.Catedra.Resilience properties) {
+        return BulkheadConfig.custom()
+            .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+            .maxWaitDuration(properties.getMaxWaitDuration())
+            .build();
+    }
+
+    public static RetryConfig retryConfig(ApplicationProperties.Catedra.Resilience properties) {
+        return RetryConfig.custom()
+            .maxAttempts(properties.getRetryMaxAttempts())
+            .intervalFunction(
+                IntervalFunction.ofExponentialRandomBackoff(
+                    properties.getRetryInitialInterval(),
+                    properties.getRetryMultiplier(),
+                    properties.getRetryRandomizationFactor()
+                )
+            )
+            // Only transport errors and 5xx; rejections by the breaker or the bulkhead must fail fast
+            .retryExceptions(ResourceAccessException.class, HttpServerErrorException.class)
+            .build();
+    }
+}
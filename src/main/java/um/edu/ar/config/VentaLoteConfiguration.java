@@ -0,0 +1,38 @@
+package um.edu.ar.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class VentaLoteConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaLoteConfiguration.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    public VentaLoteConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Pool sending the sales of batch requests to {@code /vender}; its size is the parallelism cap towards the catedra API.
+     * Its queue is bounded too: once full, further sales are rejected instead of piling up.
+     */
+    @Bean(name = "ventaLoteExecutor")
+    public ThreadPoolTaskExecutor ventaLoteExecutor() {
+        ApplicationProperties.Ventas.Lote lote = applicationProperties.getVentas().getLote();
+        LOG.debug("Creating sale batch executor with {} threads", lote.getParalelismo());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(lote.getParalelismo());
+        executor.setMaxPoolSize(lote.getParalelismo());
+        executor.setQueueCapacity(lote.getCapacidadCola());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadNamePrefix("venta-lote-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,35 @@
+package um.edu.ar.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class VentaOutboxConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaOutboxConfiguration.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    public VentaOutboxConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Bounded pool draining the sale outbox; its size caps the number of concurrent calls to {@code /vender}.
+     */
+    @Bean(name = "ventaOutboxExecutor")
+    public ThreadPoolTaskExecutor ventaOutboxExecutor() {
+        ApplicationProperties.Ventas.Outbox outbox = applicationProperties.getVentas().getOutbox();
+        LOG.debug("Creating sale outbox executor with {} threads", outbox.getWorkerThreads());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(outbox.getWorkerThreads());
+        executor.setMaxPoolSize(outbox.getWorkerThreads());
+        executor.setQueueCapacity(outbox.getBatchSize());
+        executor.setThreadNamePrefix("venta-outbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
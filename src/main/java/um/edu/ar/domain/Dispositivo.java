@@ -21,8 +21,11 @@ public class Dispositivo implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Generated by the database, unless the dispositivo comes from the catedra catalog and keeps the id it has there.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdentidadAsignable
     @Column(name = "id")
     private Long id;
 
@@ -46,6 +49,12 @@ public class Dispositivo implements Serializable {
     @Column(name = "moneda", nullable = false)
     private String moneda;
 
+    /**
+     * SHA-256 of the catedra representation of the device when it was last synchronized, {@code null} once edited locally.
+     */
+    @Column(name = "huella", length = 64)
+    private String huella;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "dispositivo", cascade = CascadeType.ALL)
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "dispositivo" }, allowSetters = true)
@@ -146,6 +155,19 @@ public class Dispositivo implements Serializable {
         this.moneda = moneda;
     }
 
+    public String getHuella() {
+        return this.huella;
+    }
+
+    public Dispositivo huella(String huella) {
+        this.setHuella(huella);
+        return this;
+    }
+
+    public void setHuella(String huella) {
+        this.huella = huella;
+    }
+
     public Set<Caracteristica> getCaracteristicas() {
         return this.caracteristicas;
     }
@@ -0,0 +1,21 @@
+package um.edu.ar.domain;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Identity column whose value can also be assigned before persisting, for rows whose id comes from an external system.
+ * <p>
+ * When the id is {@code null} the database generates it as with {@code GenerationType.IDENTITY}; otherwise the assigned
+ * value is inserted as is.
+ */
+@IdGeneratorType(IdentidadAsignableGenerator.class)
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD })
+public @interface IdentidadAsignable {
+}
@@ -0,0 +1,43 @@
+package um.edu.ar.domain;
+
+import java.util.EnumSet;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.IdentityGenerator;
+
+/**
+ * Generator behind {@link IdentidadAsignable}: an identity column that keeps the id already set on the entity, if any.
+ */
+public class IdentidadAsignableGenerator extends IdentityGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+    @Override
+    public boolean generatedOnExecution() {
+        return true;
+    }
+
+    @Override
+    public boolean generatedOnExecution(Object owner, SharedSessionContractImplementor session) {
+        return idAsignado(owner, session) == null;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return idAsignado(owner, session);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    private static Object idAsignado(Object owner, SharedSessionContractImplementor session) {
+        return session.getEntityPersister(null, owner).getIdentifier(owner, session);
+    }
+}
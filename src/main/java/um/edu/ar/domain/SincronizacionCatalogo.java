@@ -0,0 +1,190 @@
+package um.edu.ar.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+import um.edu.ar.domain.enumeration.EstadoSincronizacion;
+import um.edu.ar.domain.enumeration.OrigenSincronizacion;
+
+/**
+ * A run of the catalog sync, with how long each step took and how many devices it changed.
+ */
+@Entity
+@Table(name = "sincronizacion_catalogo")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class SincronizacionCatalogo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "origen", nullable = false)
+    private OrigenSincronizacion origen;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    private EstadoSincronizacion estado;
+
+    @NotNull
+    @Column(name = "inicio", nullable = false)
+    private Instant inicio;
+
+    @Column(name = "fin")
+    private Instant fin;
+
+    @Column(name = "descarga_ms")
+    private Long descargaMs;
+
+    @Column(name = "lectura_ms")
+    private Long lecturaMs;
+
+    @Column(name = "escritura_ms")
+    private Long escrituraMs;
+
+    @Column(name = "dispositivos_leidos")
+    private Integer dispositivosLeidos;
+
+    @Column(name = "dispositivos_actualizados")
+    private Integer dispositivosActualizados;
+
+    @Column(name = "filas_escritas")
+    private Integer filasEscritas;
+
+    @Size(max = 1000)
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OrigenSincronizacion getOrigen() {
+        return this.origen;
+    }
+
+    public void setOrigen(OrigenSincronizacion origen) {
+        this.origen = origen;
+    }
+
+    public EstadoSincronizacion getEstado() {
+        return this.estado;
+    }
+
+    public void setEstado(EstadoSincronizacion estado) {
+        this.estado = estado;
+    }
+
+    public Instant getInicio() {
+        return this.inicio;
+    }
+
+    public void setInicio(Instant inicio) {
+        this.inicio = inicio;
+    }
+
+    public Instant getFin() {
+        return this.fin;
+    }
+
+    public void setFin(Instant fin) {
+        this.fin = fin;
+    }
+
+    public Long getDescargaMs() {
+        return this.descargaMs;
+    }
+
+    public void setDescargaMs(Long descargaMs) {
+        this.descargaMs = descargaMs;
+    }
+
+    public Long getLecturaMs() {
+        return this.lecturaMs;
+    }
+
+    public void setLecturaMs(Long lecturaMs) {
+        this.lecturaMs = lecturaMs;
+    }
+
+    public Long getEscrituraMs() {
+        return this.escrituraMs;
+    }
+
+    public void setEscrituraMs(Long escrituraMs) {
+        this.escrituraMs = escrituraMs;
+    }
+
+    public Integer getDispositivosLeidos() {
+        return this.dispositivosLeidos;
+    }
+
+    public void setDispositivosLeidos(Integer dispositivosLeidos) {
+        this.dispositivosLeidos = dispositivosLeidos;
+    }
+
+    public Integer getDispositivosActualizados() {
+        return this.dispositivosActualizados;
+    }
+
+    public void setDispositivosActualizados(Integer dispositivosActualizados) {
+        this.dispositivosActualizados = dispositivosActualizados;
+    }
+
+    public Integer getFilasEscritas() {
+        return this.filasEscritas;
+    }
+
+    public void setFilasEscritas(Integer filasEscritas) {
+        this.filasEscritas = filasEscritas;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SincronizacionCatalogo)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((SincronizacionCatalogo) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SincronizacionCatalogo{" +
+            "id=" + getId() +
+            ", origen='" + getOrigen() + "'" +
+            ", estado='" + getEstado() + "'" +
+            ", inicio='" + getInicio() + "'" +
+            ", fin='" + getFin() + "'" +
+            ", dispositivosLeidos=" + getDispositivosLeidos() +
+            ", dispositivosActualizados=" + getDispositivosActualizados() +
+            "}";
+    }
+}
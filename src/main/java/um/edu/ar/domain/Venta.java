@@ -1,5 +1,6 @@
 package um.edu.ar.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
@@ -7,6 +8,7 @@ import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.domain.Persistable;
 
 /**
  * A Venta.
@@ -14,13 +16,17 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "venta")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@JsonIgnoreProperties(value = { "new" })
 @SuppressWarnings("common-java:DuplicatedBlocks")
-public class Venta implements Serializable {
+public class Venta implements Serializable, Persistable<Long> {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Generated by the database, unless the sale was registered remotely first and keeps the id assigned there.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdentidadAsignable
     @Column(name = "id")
     private Long id;
 
@@ -34,6 +40,9 @@ public class Venta implements Serializable {
     @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
+    @Transient
+    private boolean isPersisted;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -88,6 +97,27 @@ public class Venta implements Serializable {
         return this;
     }
 
+    @PostLoad
+    @PostPersist
+    public void updateEntityState() {
+        this.setIsPersisted();
+    }
+
+    /**
+     * Whether the venta has not been stored yet, even if its id is already set: lets {@code save()} persist a sale with
+     * a remote id through a single insert instead of merging it.
+     */
+    @Transient
+    @Override
+    public boolean isNew() {
+        return !this.isPersisted;
+    }
+
+    public Venta setIsPersisted() {
+        this.isPersisted = true;
+        return this;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
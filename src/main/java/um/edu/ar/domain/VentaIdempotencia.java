@@ -0,0 +1,150 @@
+package um.edu.ar.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * The outcome of a sale submitted with an {@code Idempotency-Key} header, kept so that retries
+ * of the same request return the original sale instead of calling the catedra API again.
+ * <p>
+ * A key belongs to the login that sent it. The row is written before the sale is sent, without
+ * {@code respuesta}, which is filled in once the sale is done.
+ */
+@Entity
+@Table(name = "venta_idempotencia")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class VentaIdempotencia implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "usuario", length = 50, nullable = false)
+    private String usuario;
+
+    @NotNull
+    @Size(max = 255)
+    @Column(name = "clave", length = 255, nullable = false)
+    private String clave;
+
+    @NotNull
+    @Size(max = 64)
+    @Column(name = "huella_peticion", length = 64, nullable = false)
+    private String huellaPeticion;
+
+    @Column(name = "venta_id")
+    private Long ventaId;
+
+    @Lob
+    @Column(name = "respuesta")
+    private String respuesta;
+
+    @Size(max = 1000)
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @NotNull
+    @Column(name = "fecha_creacion", nullable = false)
+    private Instant fechaCreacion;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsuario() {
+        return this.usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public String getClave() {
+        return this.clave;
+    }
+
+    public void setClave(String clave) {
+        this.clave = clave;
+    }
+
+    public String getHuellaPeticion() {
+        return this.huellaPeticion;
+    }
+
+    public void setHuellaPeticion(String huellaPeticion) {
+        this.huellaPeticion = huellaPeticion;
+    }
+
+    public Long getVentaId() {
+        return this.ventaId;
+    }
+
+    public void setVentaId(Long ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public String getRespuesta() {
+        return this.respuesta;
+    }
+
+    public void setRespuesta(String respuesta) {
+        this.respuesta = respuesta;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getFechaCreacion() {
+        return this.fechaCreacion;
+    }
+
+    public void setFechaCreacion(Instant fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VentaIdempotencia)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((VentaIdempotencia) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaIdempotencia{" +
+            "id=" + getId() +
+            ", usuario='" + getUsuario() + "'" +
+            ", clave='" + getClave() + "'" +
+            ", ventaId=" + getVentaId() +
+            ", error='" + getError() + "'" +
+            ", fechaCreacion='" + getFechaCreacion() + "'" +
+            "}";
+    }
+}
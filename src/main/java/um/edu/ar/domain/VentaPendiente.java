@@ -0,0 +1,161 @@
+package um.edu.ar.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+import um.edu.ar.domain.enumeration.EstadoVentaPendiente;
+
+/**
+ * A sale accepted for asynchronous processing (transactional outbox).
+ * <p>
+ * Rows are written in the same short transaction that accepts the sale and drained later
+ * by the outbox worker, which submits them to the catedra API and creates the final {@link Venta}.
+ */
+@Entity
+@Table(name = "venta_pendiente")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class VentaPendiente implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Size(max = 36)
+    @Column(name = "tracking_id", length = 36, nullable = false, unique = true)
+    private String trackingId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    private EstadoVentaPendiente estado;
+
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @NotNull
+    @Column(name = "intentos", nullable = false)
+    private Integer intentos = 0;
+
+    @Column(name = "venta_id")
+    private Long ventaId;
+
+    @Size(max = 1000)
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @NotNull
+    @Column(name = "fecha_creacion", nullable = false)
+    private Instant fechaCreacion;
+
+    @NotNull
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private Instant fechaActualizacion;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTrackingId() {
+        return this.trackingId;
+    }
+
+    public void setTrackingId(String trackingId) {
+        this.trackingId = trackingId;
+    }
+
+    public EstadoVentaPendiente getEstado() {
+        return this.estado;
+    }
+
+    public void setEstado(EstadoVentaPendiente estado) {
+        this.estado = estado;
+    }
+
+    public String getPayload() {
+        return this.payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Integer getIntentos() {
+        return this.intentos;
+    }
+
+    public void setIntentos(Integer intentos) {
+        this.intentos = intentos;
+    }
+
+    public Long getVentaId() {
+        return this.ventaId;
+    }
+
+    public void setVentaId(Long ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getFechaCreacion() {
+        return this.fechaCreacion;
+    }
+
+    public void setFechaCreacion(Instant fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    public Instant getFechaActualizacion() {
+        return this.fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(Instant fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VentaPendiente)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((VentaPendiente) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaPendiente{" +
+            "id=" + getId() +
+            ", trackingId='" + getTrackingId() + "'" +
+            ", estado='" + getEstado() + "'" +
+            ", intentos=" + getIntentos() +
+            ", ventaId=" + getVentaId() +
+            ", fechaCreacion='" + getFechaCreacion() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,11 @@
+package um.edu.ar.domain.enumeration;
+
+/**
+ * The EstadoSincronizacion enumeration.
+ */
+public enum EstadoSincronizacion {
+    EN_CURSO,
+    COMPLETADA,
+    SIN_CAMBIOS,
+    FALLIDA,
+}
@@ -0,0 +1,12 @@
+package um.edu.ar.domain.enumeration;
+
+/**
+ * The EstadoVentaPendiente enumeration.
+ */
+public enum EstadoVentaPendiente {
+    PENDIENTE,
+    EN_PROCESO,
+    ENVIADA,
+    COMPLETADA,
+    FALLIDA,
+}
@@ -0,0 +1,11 @@
+package um.edu.ar.domain.enumeration;
+
+/**
+ * The OrigenSincronizacion enumeration.
+ */
+public enum OrigenSincronizacion {
+    INICIO,
+    SNAPSHOT,
+    PROGRAMADA,
+    MANUAL,
+}
@@ -0,0 +1,4 @@
+/**
+ * Domain enumerations.
+ */
+package um.edu.ar.domain.enumeration;
@@ -0,0 +1,111 @@
+package um.edu.ar.domain.event;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The catalog rows touched by a write, by table: the ones written, and also the ones deleted or moved to another parent.
+ * Published once the write is done, so that exactly these entries are evicted from the caches.
+ *
+ * @param dispositivos ids of the dispositivos, whose collections are affected too.
+ * @param caracteristicas ids of the caracteristicas.
+ * @param personalizaciones ids of the personalizaciones, whose opciones are affected too.
+ * @param opciones ids of the opciones.
+ * @param adicionales ids of the adicionales, whose dispositivos are affected too.
+ */
+public record CambioCatalogo(
+    Set<Long> dispositivos,
+    Set<Long> caracteristicas,
+    Set<Long> personalizaciones,
+    Set<Long> opciones,
+    Set<Long> adicionales
+) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isEmpty() {
+        return (
+            dispositivos.isEmpty() && caracteristicas.isEmpty() && personalizaciones.isEmpty() && opciones.isEmpty() && adicionales.isEmpty()
+        );
+    }
+
+    /**
+     * Collects the ids of a {@link CambioCatalogo}; {@code null} ids, of rows not saved yet, are ignored.
+     */
+    public static final class Builder {
+
+        private final Set<Long> dispositivos = new HashSet<>();
+        private final Set<Long> caracteristicas = new HashSet<>();
+        private final Set<Long> personalizaciones = new HashSet<>();
+        private final Set<Long> opciones = new HashSet<>();
+        private final Set<Long> adicionales = new HashSet<>();
+
+        private Builder() {}
+
+        public Builder dispositivo(Long id) {
+            return add(dispositivos, id);
+        }
+
+        public Builder dispositivos(Collection<Long> ids) {
+            return addAll(dispositivos, ids);
+        }
+
+        public Builder caracteristica(Long id) {
+            return add(caracteristicas, id);
+        }
+
+        public Builder caracteristicas(Collection<Long> ids) {
+            return addAll(caracteristicas, ids);
+        }
+
+        public Builder personalizacion(Long id) {
+            return add(personalizaciones, id);
+        }
+
+        public Builder personalizaciones(Collection<Long> ids) {
+            return addAll(personalizaciones, ids);
+        }
+
+        public Builder opcion(Long id) {
+            return add(opciones, id);
+        }
+
+        public Builder opciones(Collection<Long> ids) {
+            return addAll(opciones, ids);
+        }
+
+        public Builder adicional(Long id) {
+            return add(adicionales, id);
+        }
+
+        public Builder adicionales(Collection<Long> ids) {
+            return addAll(adicionales, ids);
+        }
+
+        public CambioCatalogo build() {
+            return new CambioCatalogo(
+                Set.copyOf(dispositivos),
+                Set.copyOf(caracteristicas),
+                Set.copyOf(personalizaciones),
+                Set.copyOf(opciones),
+                Set.copyOf(adicionales)
+            );
+        }
+
+        private Builder add(Set<Long> ids, Long id) {
+            if (id != null) {
+                ids.add(id);
+            }
+            return this;
+        }
+
+        private Builder addAll(Set<Long> ids, Collection<Long> nuevos) {
+            for (Long id : nuevos) {
+                add(ids, id);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Domain events.
+ */
+package um.edu.ar.domain.event;
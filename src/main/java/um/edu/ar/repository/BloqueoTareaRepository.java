@@ -0,0 +1,106 @@
+package um.edu.ar.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import javax.sql.DataSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Leases on the {@code bloqueo_tarea} table, one row per scheduled job.
+ * <p>
+ * A node holds a job while {@code bloqueado_hasta} is in the future and {@code bloqueado_por} is its own id. Each
+ * operation is a single conditional statement committed in its own transaction, so two nodes can never both get the
+ * same job, and a lease left by a node that died expires on its own. {@link #retener} is the exception: it joins the
+ * transaction of a write that must only commit while the node holds the job.
+ */
+@Repository
+public class BloqueoTareaRepository {
+
+    private static final String ADQUIRIR_SQL =
+        "update bloqueo_tarea set bloqueado_hasta = ?, bloqueado_en = ?, bloqueado_por = ? where nombre = ? and bloqueado_hasta <= ?";
+
+    private static final String INSERTAR_SQL =
+        "insert into bloqueo_tarea (bloqueado_hasta, bloqueado_en, bloqueado_por, nombre) values (?, ?, ?, ?)";
+
+    private static final String EXTENDER_SQL =
+        "update bloqueo_tarea set bloqueado_hasta = ? where nombre = ? and bloqueado_por = ? and bloqueado_hasta > ?";
+
+    private static final String RETENER_SQL =
+        "select nombre from bloqueo_tarea where nombre = ? and bloqueado_por = ? and bloqueado_hasta > ? for update";
+
+    private static final String LIBERAR_SQL = "update bloqueo_tarea set bloqueado_hasta = ? where nombre = ? and bloqueado_por = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BloqueoTareaRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Take the lease of a job, if no other node holds it.
+     *
+     * @param nombre the job.
+     * @param propietario the id of the node.
+     * @param ahora the current time.
+     * @param hasta when the lease expires.
+     * @return whether the node got the lease.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean adquirir(String nombre, String propietario, Instant ahora, Instant hasta) {
+        int filas = jdbcTemplate.update(ADQUIRIR_SQL, Timestamp.from(hasta), Timestamp.from(ahora), propietario, nombre, Timestamp.from(ahora));
+        if (filas > 0) {
+            return true;
+        }
+        try {
+            // First run of the job: there is no row to take over yet
+            return jdbcTemplate.update(INSERTAR_SQL, Timestamp.from(hasta), Timestamp.from(ahora), propietario, nombre) > 0;
+        } catch (DuplicateKeyException e) {
+            // The row exists and its lease is held, or another node inserted it first
+            return false;
+        }
+    }
+
+    /**
+     * Push back the expiry of a lease held by the node.
+     *
+     * @param nombre the job.
+     * @param propietario the id of the node.
+     * @param ahora the current time.
+     * @param hasta the new expiry.
+     * @return whether the node still held the lease.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean extender(String nombre, String propietario, Instant ahora, Instant hasta) {
+        return jdbcTemplate.update(EXTENDER_SQL, Timestamp.from(hasta), nombre, propietario, Timestamp.from(ahora)) > 0;
+    }
+
+    /**
+     * Lock the lease of a job until the end of the current transaction, if the node holds it: until then, no other node
+     * can take it over, even once it expires.
+     *
+     * @param nombre the job.
+     * @param propietario the id of the node.
+     * @param ahora the current time.
+     * @return whether the node holds the lease.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean retener(String nombre, String propietario, Instant ahora) {
+        return !jdbcTemplate.queryForList(RETENER_SQL, String.class, nombre, propietario, Timestamp.from(ahora)).isEmpty();
+    }
+
+    /**
+     * Give up a lease held by the node.
+     *
+     * @param nombre the job.
+     * @param propietario the id of the node.
+     * @param hasta when other nodes may take the job, the current time to let them do it right away.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void liberar(String nombre, String propietario, Instant hasta) {
+        jdbcTemplate.update(LIBERAR_SQL, Timestamp.from(hasta), nombre, propietario);
+    }
+}
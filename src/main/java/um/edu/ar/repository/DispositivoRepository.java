@@ -1,10 +1,14 @@
 package um.edu.ar.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import um.edu.ar.domain.Dispositivo;
 
@@ -15,11 +19,16 @@ import um.edu.ar.domain.Dispositivo;
  * For more information refer to https://github.com/jhipster/generator-jhipster/issues/17990.
  */
 @Repository
-public interface DispositivoRepository extends DispositivoRepositoryWithBagRelationships, JpaRepository<Dispositivo, Long> {
+public interface DispositivoRepository
+    extends DispositivoRepositoryWithBagRelationships, DispositivoRepositoryWithBulkUpsert, JpaRepository<Dispositivo, Long> {
     default Optional<Dispositivo> findOneWithEagerRelationships(Long id) {
         return this.fetchBagRelationships(this.findById(id));
     }
 
+    default Optional<Dispositivo> findOneWithEagerRelationshipsByCodigo(String codigo) {
+        return this.fetchBagRelationships(this.findFirstByCodigoOrderByIdAsc(codigo));
+    }
+
     default List<Dispositivo> findAllWithEagerRelationships() {
         return this.fetchBagRelationships(this.findAll());
     }
@@ -27,4 +36,65 @@ public interface DispositivoRepository extends DispositivoRepositoryWithBagRelat
     default Page<Dispositivo> findAllWithEagerRelationships(Pageable pageable) {
         return this.fetchBagRelationships(this.findAll(pageable));
     }
+
+    Optional<Dispositivo> findFirstByCodigoOrderByIdAsc(String codigo);
+
+    List<Dispositivo> findAllByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query(
+        value = "select dispositivo.id as id, dispositivo.codigo as codigo, dispositivo.nombre as nombre, " +
+        "dispositivo.precioBase as precioBase, dispositivo.moneda as moneda from Dispositivo dispositivo",
+        countQuery = "select count(dispositivo) from Dispositivo dispositivo"
+    )
+    Page<ResumenDispositivo> findAllResumenes(Pageable pageable);
+
+    @Query("select dispositivo.id as id, dispositivo.huella as huella from Dispositivo dispositivo")
+    List<HuellaDispositivo> findAllHuellas();
+
+    boolean existsByHuellaIsNull();
+
+    /**
+     * Clear the sync fingerprint of dispositivos written outside the sync: they no longer match the catedra version, and
+     * the next sync writes them again.
+     */
+    @Modifying
+    @Query("update Dispositivo dispositivo set dispositivo.huella = null where dispositivo.id in :ids")
+    int borrarHuellas(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Clear the sync fingerprint of the dispositivos owning the given personalizaciones, as {@link #borrarHuellas} does.
+     */
+    @Modifying
+    @Query(
+        "update Dispositivo dispositivo set dispositivo.huella = null where dispositivo.id in " +
+        "(select personalizacion.dispositivo.id from Personalizacion personalizacion where personalizacion.id in :ids)"
+    )
+    int borrarHuellasDePersonalizaciones(@Param("ids") Collection<Long> ids);
+
+    @Query("select dispositivo.id from Dispositivo dispositivo join dispositivo.adicionales adicional where adicional.id = :adicionalId")
+    List<Long> findIdsByAdicionalId(@Param("adicionalId") Long adicionalId);
+
+    /**
+     * Id and sync fingerprint of a dispositivo, read without hydrating the entity.
+     */
+    interface HuellaDispositivo {
+        Long getId();
+
+        String getHuella();
+    }
+
+    /**
+     * Listing columns of a dispositivo, read without its descripcion nor its relationships.
+     */
+    interface ResumenDispositivo {
+        Long getId();
+
+        String getCodigo();
+
+        String getNombre();
+
+        BigDecimal getPrecioBase();
+
+        String getMoneda();
+    }
 }
@@ -13,6 +13,10 @@ import um.edu.ar.domain.Dispositivo;
 
 /**
  * Utility repository to load bag relationships based on https://vladmihalcea.com/hibernate-multiplebagfetchexception/
+ * <p>
+ * Each collection of the dispositivo graph is fetched with its own query over all the given dispositivos, so a page is
+ * loaded with the same number of statements whatever its size: the adicionales, the caracteristicas, and the
+ * personalizaciones with their opciones. A single query joining them all would multiply their rows.
  */
 public class DispositivoRepositoryWithBagRelationshipsImpl implements DispositivoRepositoryWithBagRelationships {
 
@@ -24,7 +28,7 @@ public class DispositivoRepositoryWithBagRelationshipsImpl implements Dispositiv
 
     @Override
     public Optional<Dispositivo> fetchBagRelationships(Optional<Dispositivo> dispositivo) {
-        return dispositivo.map(this::fetchAdicionales);
+        return dispositivo.map(this::fetchAdicionales).map(this::fetchCaracteristicas).map(this::fetchPersonalizaciones);
     }
 
     @Override
@@ -38,7 +42,14 @@ public class DispositivoRepositoryWithBagRelationshipsImpl implements Dispositiv
 
     @Override
     public List<Dispositivo> fetchBagRelationships(List<Dispositivo> dispositivos) {
-        return Optional.of(dispositivos).map(this::fetchAdicionales).orElse(Collections.emptyList());
+        if (dispositivos.isEmpty()) {
+            return dispositivos;
+        }
+        return Optional.of(dispositivos)
+            .map(this::fetchAdicionales)
+            .map(this::fetchCaracteristicas)
+            .map(this::fetchPersonalizaciones)
+            .orElse(Collections.emptyList());
     }
 
     Dispositivo fetchAdicionales(Dispositivo result) {
@@ -64,4 +75,38 @@ public class DispositivoRepositoryWithBagRelationshipsImpl implements Dispositiv
         Collections.sort(result, (o1, o2) -> Integer.compare(order.get(o1.getId()), order.get(o2.getId())));
         return result;
     }
+
+    Dispositivo fetchCaracteristicas(Dispositivo result) {
+        fetchCaracteristicas(List.of(result));
+        return result;
+    }
+
+    // The dispositivos are already in the persistence context: the query only initializes their collection
+    List<Dispositivo> fetchCaracteristicas(List<Dispositivo> dispositivos) {
+        entityManager
+            .createQuery(
+                "select dispositivo from Dispositivo dispositivo left join fetch dispositivo.caracteristicas where dispositivo in :dispositivos",
+                Dispositivo.class
+            )
+            .setParameter(DISPOSITIVOS_PARAMETER, dispositivos)
+            .getResultList();
+        return dispositivos;
+    }
+
+    Dispositivo fetchPersonalizaciones(Dispositivo result) {
+        fetchPersonalizaciones(List.of(result));
+        return result;
+    }
+
+    List<Dispositivo> fetchPersonalizaciones(List<Dispositivo> dispositivos) {
+        entityManager
+            .createQuery(
+                "select distinct dispositivo from Dispositivo dispositivo left join fetch dispositivo.personalizaciones personalizacion " +
+                "left join fetch personalizacion.opciones where dispositivo in :dispositivos",
+                Dispositivo.class
+            )
+            .setParameter(DISPOSITIVOS_PARAMETER, dispositivos)
+            .getResultList();
+        return dispositivos;
+    }
 }
@@ -0,0 +1,75 @@
+package um.edu.ar.repository;
+
+import java.util.List;
+import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.domain.event.CambioCatalogo;
+
+public interface DispositivoRepositoryWithBulkUpsert {
+    /**
+     * Insert or replace the given dispositivos, with their caracteristicas, personalizaciones and opciones, and link them
+     * to their adicionales, which must be written first with {@link #upsertAdicionalesEnLote(List)}.
+     *
+     * @param dispositivos the dispositivos to write, all with an id.
+     * @return the number of rows written, and the rows touched.
+     */
+    Escritura upsertEnLote(List<Dispositivo> dispositivos);
+
+    /**
+     * Insert or update the adicionales of the given dispositivos, in id order.
+     *
+     * @param dispositivos the dispositivos whose adicionales to write, all with an id.
+     * @return the number of rows written, and the adicionales touched.
+     */
+    Escritura upsertAdicionalesEnLote(List<Dispositivo> dispositivos);
+
+    /**
+     * Delete the staged rows of a sync run, and those left by earlier runs that failed or lost their lease.
+     *
+     * @param ejecucion the id of the sync run.
+     */
+    void vaciarStaging(long ejecucion);
+
+    /**
+     * Add the given dispositivos, with their caracteristicas, personalizaciones, opciones and adicionales, to the staging
+     * tables.
+     *
+     * @param ejecucion the id of the sync run staging them.
+     * @param dispositivos the dispositivos of the remote catalog, all with an id.
+     * @return the number of rows written.
+     */
+    int cargarStaging(long ejecucion, List<Dispositivo> dispositivos);
+
+    /**
+     * @param ejecucion the id of a sync run.
+     * @return the number of dispositivos it staged.
+     */
+    long contarStaging(long ejecucion);
+
+    /**
+     * Make the catalog tables match the staging tables of a sync run: dispositivos whose fingerprint differs are updated
+     * or inserted along with their children, and the ones the run did not stage are deleted.
+     *
+     * @param ejecucion the id of the sync run.
+     * @return what was changed.
+     */
+    Reconciliacion reconciliar(long ejecucion);
+
+    /**
+     * Outcome of {@link #reconciliar(long)}.
+     *
+     * @param insertados the dispositivos inserted.
+     * @param actualizados the dispositivos updated.
+     * @param eliminados the dispositivos deleted.
+     * @param filas the rows written in all the catalog tables.
+     * @param cambios the rows touched.
+     */
+    record Reconciliacion(int insertados, int actualizados, int eliminados, int filas, CambioCatalogo cambios) {}
+
+    /**
+     * Outcome of {@link #upsertEnLote(List)}.
+     *
+     * @param filas the rows written.
+     * @param cambios the rows touched.
+     */
+    record Escritura(int filas, CambioCatalogo cambios) {}
+}
@@ -0,0 +1,587 @@
+package um.edu.ar.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import um.edu.ar.domain.Adicional;
+import um.edu.ar.domain.Caracteristica;
+import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.domain.Opcion;
+import um.edu.ar.domain.Personalizacion;
+import um.edu.ar.domain.event.CambioCatalogo;
+
+/**
+ * Writes whole dispositivo graphs with JDBC batches, one statement per table and kind of change, instead of a
+ * cascaded {@code merge} per entity: Hibernate cannot batch inserts into {@code IDENTITY} tables.
+ * <p>
+ * Dispositivos and adicionales are updated when they exist and inserted otherwise. The caracteristicas, personalizaciones,
+ * opciones and {@code rel_dispositivo__adicionales} rows of the written dispositivos are replaced. As these writes bypass
+ * Hibernate, they report every row they touch, replaced ones included, for the caller to evict from the second-level
+ * cache.
+ * <p>
+ * The reconciliation writes the whole remote catalog into the {@code staging_*} tables the same way, and then applies it
+ * with one set-based statement per table and kind of change: the database compares the fingerprints, so the catalog is
+ * neither read back nor compared in the JVM, and dispositivos missing from the remote catalog are deleted. Staged rows
+ * carry the sync run that staged them, and every statement only reads the rows of its own run.
+ */
+public class DispositivoRepositoryWithBulkUpsertImpl implements DispositivoRepositoryWithBulkUpsert {
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final String IDS_PARAMETER = "ids";
+
+    private static final String EJECUCION_PARAMETER = "ejecucion";
+
+    private static final String INSERT_DISPOSITIVO_SQL =
+        "insert into dispositivo (codigo, nombre, descripcion, precio_base, moneda, huella, id) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_DISPOSITIVO_SQL =
+        "update dispositivo set codigo = ?, nombre = ?, descripcion = ?, precio_base = ?, moneda = ?, huella = ? where id = ?";
+
+    private static final String INSERT_ADICIONAL_SQL =
+        "insert into adicional (nombre, descripcion, precio, precio_gratis, id) values (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_ADICIONAL_SQL =
+        "update adicional set nombre = ?, descripcion = ?, precio = ?, precio_gratis = ? where id = ?";
+
+    private static final String INSERT_CARACTERISTICA_SQL =
+        "insert into caracteristica (id, nombre, descripcion, dispositivo_id) values (?, ?, ?, ?)";
+
+    private static final String INSERT_PERSONALIZACION_SQL =
+        "insert into personalizacion (id, nombre, descripcion, dispositivo_id) values (?, ?, ?, ?)";
+
+    private static final String INSERT_OPCION_SQL =
+        "insert into opcion (id, codigo, nombre, descripcion, precio_adicional, personalizacion_id) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_REL_ADICIONALES_SQL =
+        "insert into rel_dispositivo__adicionales (dispositivo_id, adicionales_id) values (?, ?)";
+
+    private static final List<String> STAGING_TABLES = List.of(
+        "staging_dispositivo",
+        "staging_caracteristica",
+        "staging_personalizacion",
+        "staging_opcion",
+        "staging_adicional",
+        "staging_dispositivo_adicional"
+    );
+
+    // The run is the last parameter, after the ones of the catalog table
+    private static final String INSERT_STAGING_DISPOSITIVO_SQL =
+        "insert into staging_dispositivo (codigo, nombre, descripcion, precio_base, moneda, huella, id, ejecucion)" +
+        " values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_STAGING_ADICIONAL_SQL =
+        "insert into staging_adicional (nombre, descripcion, precio, precio_gratis, id, ejecucion) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_STAGING_CARACTERISTICA_SQL =
+        "insert into staging_caracteristica (id, nombre, descripcion, dispositivo_id, ejecucion) values (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_STAGING_PERSONALIZACION_SQL =
+        "insert into staging_personalizacion (id, nombre, descripcion, dispositivo_id, ejecucion) values (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_STAGING_OPCION_SQL =
+        "insert into staging_opcion (id, codigo, nombre, descripcion, precio_adicional, personalizacion_id, dispositivo_id, ejecucion)" +
+        " values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_STAGING_REL_ADICIONALES_SQL =
+        "insert into staging_dispositivo_adicional (dispositivo_id, adicionales_id, ejecucion) values (?, ?, ?)";
+
+    private static final String CONTAR_STAGING_SQL = "select count(*) from staging_dispositivo where ejecucion = ?";
+
+    // Staged dispositivos whose fingerprint matches the local one: these and their children are left alone
+    private static final String SIN_CAMBIOS = "select s.id from staging_dispositivo s where s.ejecucion = :ejecucion and s.cambiado = false";
+
+    private static final String CAMBIADOS = "select s.id from staging_dispositivo s where s.ejecucion = :ejecucion and s.cambiado = true";
+
+    private static final String MARCAR_CAMBIADOS_SQL =
+        "update staging_dispositivo set cambiado = true where ejecucion = :ejecucion and not exists" +
+        " (select 1 from dispositivo d where d.id = staging_dispositivo.id and d.huella = staging_dispositivo.huella)";
+
+    // Children of changed or removed dispositivos, and staged children that the catedra moved to another dispositivo
+    private static final String OPCIONES_REEMPLAZADAS =
+        "personalizacion_id in (select p.id from personalizacion p where p.dispositivo_id not in (" +
+        SIN_CAMBIOS +
+        ")) or personalizacion_id in (select sp.id from staging_personalizacion sp" +
+        " where sp.ejecucion = :ejecucion and sp.dispositivo_id in (" +
+        CAMBIADOS +
+        ")) or id in (select so.id from staging_opcion so where so.ejecucion = :ejecucion and so.dispositivo_id in (" +
+        CAMBIADOS +
+        "))";
+
+    private static final String PERSONALIZACIONES_REEMPLAZADAS =
+        "dispositivo_id not in (" +
+        SIN_CAMBIOS +
+        ") or id in (select sp.id from staging_personalizacion sp where sp.ejecucion = :ejecucion and sp.dispositivo_id in (" +
+        CAMBIADOS +
+        "))";
+
+    private static final String CARACTERISTICAS_REEMPLAZADAS =
+        "dispositivo_id not in (" +
+        SIN_CAMBIOS +
+        ") or id in (select sc.id from staging_caracteristica sc where sc.ejecucion = :ejecucion and sc.dispositivo_id in (" +
+        CAMBIADOS +
+        "))";
+
+    private static final String REL_ADICIONALES_REEMPLAZADAS = "dispositivo_id not in (" + SIN_CAMBIOS + ")";
+
+    private static final String DISPOSITIVOS_RETIRADOS = "id not in (select s.id from staging_dispositivo s where s.ejecucion = :ejecucion)";
+
+    private static final String ADICIONALES_RETIRADOS = "id not in (select s.id from staging_adicional s where s.ejecucion = :ejecucion)";
+
+    // A changed adicional changes the fingerprint of every dispositivo that has it
+    private static final String ADICIONALES_CAMBIADOS =
+        "select sr.adicionales_id from staging_dispositivo_adicional sr where sr.ejecucion = :ejecucion and sr.dispositivo_id in (" +
+        CAMBIADOS +
+        ")";
+
+    private static final String STAGING_DISPOSITIVO =
+        " from staging_dispositivo s where s.ejecucion = :ejecucion and s.id = dispositivo.id)";
+
+    private static final String UPDATE_DISPOSITIVOS_SQL =
+        "update dispositivo set" +
+        " codigo = (select s.codigo" +
+        STAGING_DISPOSITIVO +
+        ", nombre = (select s.nombre" +
+        STAGING_DISPOSITIVO +
+        ", descripcion = (select s.descripcion" +
+        STAGING_DISPOSITIVO +
+        ", precio_base = (select s.precio_base" +
+        STAGING_DISPOSITIVO +
+        ", moneda = (select s.moneda" +
+        STAGING_DISPOSITIVO +
+        ", huella = (select s.huella" +
+        STAGING_DISPOSITIVO +
+        " where id in (" +
+        CAMBIADOS +
+        ")";
+
+    private static final String INSERT_DISPOSITIVOS_SQL =
+        "insert into dispositivo (id, codigo, nombre, descripcion, precio_base, moneda, huella)" +
+        " select s.id, s.codigo, s.nombre, s.descripcion, s.precio_base, s.moneda, s.huella from staging_dispositivo s" +
+        " where s.ejecucion = :ejecucion and s.cambiado = true and not exists (select 1 from dispositivo d where d.id = s.id)";
+
+    private static final String STAGING_ADICIONAL = " from staging_adicional s where s.ejecucion = :ejecucion and s.id = adicional.id)";
+
+    // An adicional may be staged once per dispositivo, hence the aggregates
+    private static final String UPDATE_ADICIONALES_SQL =
+        "update adicional set" +
+        " nombre = (select max(s.nombre)" +
+        STAGING_ADICIONAL +
+        ", descripcion = (select max(s.descripcion)" +
+        STAGING_ADICIONAL +
+        ", precio = (select max(s.precio)" +
+        STAGING_ADICIONAL +
+        ", precio_gratis = (select max(s.precio_gratis)" +
+        STAGING_ADICIONAL +
+        " where id in (" +
+        ADICIONALES_CAMBIADOS +
+        ")";
+
+    private static final String INSERT_ADICIONALES_SQL =
+        "insert into adicional (id, nombre, descripcion, precio, precio_gratis)" +
+        " select s.id, max(s.nombre), max(s.descripcion), max(s.precio), max(s.precio_gratis) from staging_adicional s" +
+        " where s.ejecucion = :ejecucion and not exists (select 1 from adicional a where a.id = s.id) group by s.id";
+
+    private static final String INSERT_CARACTERISTICAS_SQL =
+        "insert into caracteristica (id, nombre, descripcion, dispositivo_id)" +
+        " select sc.id, sc.nombre, sc.descripcion, sc.dispositivo_id from staging_caracteristica sc" +
+        " where sc.ejecucion = :ejecucion and sc.dispositivo_id in (" +
+        CAMBIADOS +
+        ")";
+
+    private static final String INSERT_PERSONALIZACIONES_SQL =
+        "insert into personalizacion (id, nombre, descripcion, dispositivo_id)" +
+        " select sp.id, sp.nombre, sp.descripcion, sp.dispositivo_id from staging_personalizacion sp" +
+        " where sp.ejecucion = :ejecucion and sp.dispositivo_id in (" +
+        CAMBIADOS +
+        ")";
+
+    private static final String INSERT_OPCIONES_SQL =
+        "insert into opcion (id, codigo, nombre, descripcion, precio_adicional, personalizacion_id)" +
+        " select so.id, so.codigo, so.nombre, so.descripcion, so.precio_adicional, so.personalizacion_id from staging_opcion so" +
+        " where so.ejecucion = :ejecucion and so.dispositivo_id in (" +
+        CAMBIADOS +
+        ")";
+
+    private static final String INSERT_REL_ADICIONALES_FROM_STAGING_SQL =
+        "insert into rel_dispositivo__adicionales (dispositivo_id, adicionales_id)" +
+        " select distinct sr.dispositivo_id, sr.adicionales_id from staging_dispositivo_adicional sr" +
+        " where sr.ejecucion = :ejecucion and sr.dispositivo_id in (" +
+        CAMBIADOS +
+        ")";
+
+    private static final ParameterizedPreparedStatementSetter<Dispositivo> DISPOSITIVO_SETTER = (ps, d) -> {
+        ps.setString(1, d.getCodigo());
+        ps.setString(2, d.getNombre());
+        ps.setString(3, d.getDescripcion());
+        ps.setBigDecimal(4, d.getPrecioBase());
+        ps.setString(5, d.getMoneda());
+        ps.setString(6, d.getHuella());
+        ps.setLong(7, d.getId());
+    };
+
+    private static final ParameterizedPreparedStatementSetter<Adicional> ADICIONAL_SETTER = (ps, a) -> {
+        ps.setString(1, a.getNombre());
+        ps.setString(2, a.getDescripcion());
+        ps.setBigDecimal(3, a.getPrecio());
+        ps.setBigDecimal(4, a.getPrecioGratis());
+        ps.setLong(5, a.getId());
+    };
+
+    private static final ParameterizedPreparedStatementSetter<Caracteristica> CARACTERISTICA_SETTER = (ps, c) -> {
+        ps.setLong(1, c.getId());
+        ps.setString(2, c.getNombre());
+        ps.setString(3, c.getDescripcion());
+        ps.setLong(4, c.getDispositivo().getId());
+    };
+
+    private static final ParameterizedPreparedStatementSetter<Personalizacion> PERSONALIZACION_SETTER = (ps, p) -> {
+        ps.setLong(1, p.getId());
+        ps.setString(2, p.getNombre());
+        ps.setString(3, p.getDescripcion());
+        ps.setLong(4, p.getDispositivo().getId());
+    };
+
+    // The parameters from the sixth on depend on the table
+    private static final ParameterizedPreparedStatementSetter<Opcion> OPCION_SETTER = (ps, o) -> {
+        ps.setLong(1, o.getId());
+        ps.setString(2, o.getCodigo());
+        ps.setString(3, o.getNombre());
+        ps.setString(4, o.getDescripcion());
+        ps.setBigDecimal(5, o.getPrecioAdicional());
+    };
+
+    private static final ParameterizedPreparedStatementSetter<Long[]> REL_ADICIONALES_SETTER = (ps, r) -> {
+        ps.setLong(1, r[0]);
+        ps.setLong(2, r[1]);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public DispositivoRepositoryWithBulkUpsertImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public Escritura upsertEnLote(List<Dispositivo> dispositivos) {
+        if (dispositivos.isEmpty()) {
+            return new Escritura(0, CambioCatalogo.builder().build());
+        }
+        Grafo grafo = new Grafo(dispositivos);
+        CambioCatalogo.Builder cambios = CambioCatalogo.builder()
+            .dispositivos(ids(dispositivos, Dispositivo::getId))
+            .caracteristicas(ids(grafo.caracteristicas, Caracteristica::getId))
+            .personalizaciones(ids(grafo.personalizaciones, Personalizacion::getId))
+            .opciones(ids(grafo.opciones, Opcion::getId))
+            .adicionales(grafo.adicionales.keySet());
+
+        int filas = 0;
+        filas += upsert("dispositivo", dispositivos, Dispositivo::getId, INSERT_DISPOSITIVO_SQL, UPDATE_DISPOSITIVO_SQL, DISPOSITIVO_SETTER);
+
+        borrarHijos(ids(dispositivos, Dispositivo::getId), grafo.caracteristicas, grafo.personalizaciones, grafo.opciones, cambios);
+
+        filas += batch(INSERT_CARACTERISTICA_SQL, grafo.caracteristicas, CARACTERISTICA_SETTER);
+        filas += batch(INSERT_PERSONALIZACION_SQL, grafo.personalizaciones, PERSONALIZACION_SETTER);
+        filas += batch(INSERT_OPCION_SQL, grafo.opciones, (ps, o) -> {
+            OPCION_SETTER.setValues(ps, o);
+            ps.setLong(6, o.getPersonalizacion().getId());
+        });
+        filas += batch(INSERT_REL_ADICIONALES_SQL, grafo.relaciones, REL_ADICIONALES_SETTER);
+
+        return new Escritura(filas, cambios.build());
+    }
+
+    @Override
+    public Escritura upsertAdicionalesEnLote(List<Dispositivo> dispositivos) {
+        Grafo grafo = new Grafo(dispositivos);
+        // In id order, so that writers sharing adicionales lock them in the same order
+        List<Adicional> adicionales = grafo.adicionales.values().stream().sorted(Comparator.comparing(Adicional::getId)).toList();
+        int filas = upsert("adicional", adicionales, Adicional::getId, INSERT_ADICIONAL_SQL, UPDATE_ADICIONAL_SQL, ADICIONAL_SETTER);
+        return new Escritura(filas, CambioCatalogo.builder().adicionales(grafo.adicionales.keySet()).build());
+    }
+
+    @Override
+    public void vaciarStaging(long ejecucion) {
+        for (String tabla : STAGING_TABLES) {
+            jdbcTemplate.update("delete from " + tabla + " where ejecucion <= ?", ejecucion);
+        }
+    }
+
+    @Override
+    public int cargarStaging(long ejecucion, List<Dispositivo> dispositivos) {
+        if (dispositivos.isEmpty()) {
+            return 0;
+        }
+        Grafo grafo = new Grafo(dispositivos);
+
+        int filas = 0;
+        filas += batch(INSERT_STAGING_DISPOSITIVO_SQL, dispositivos, conEjecucion(DISPOSITIVO_SETTER, 8, ejecucion));
+        filas += batch(INSERT_STAGING_ADICIONAL_SQL, grafo.adicionales.values(), conEjecucion(ADICIONAL_SETTER, 6, ejecucion));
+        filas += batch(INSERT_STAGING_CARACTERISTICA_SQL, grafo.caracteristicas, conEjecucion(CARACTERISTICA_SETTER, 5, ejecucion));
+        filas += batch(INSERT_STAGING_PERSONALIZACION_SQL, grafo.personalizaciones, conEjecucion(PERSONALIZACION_SETTER, 5, ejecucion));
+        filas += batch(INSERT_STAGING_OPCION_SQL, grafo.opciones, (ps, o) -> {
+            OPCION_SETTER.setValues(ps, o);
+            ps.setLong(6, o.getPersonalizacion().getId());
+            ps.setLong(7, o.getPersonalizacion().getDispositivo().getId());
+            ps.setLong(8, ejecucion);
+        });
+        filas += batch(INSERT_STAGING_REL_ADICIONALES_SQL, grafo.relaciones, conEjecucion(REL_ADICIONALES_SETTER, 3, ejecucion));
+        return filas;
+    }
+
+    @Override
+    public long contarStaging(long ejecucion) {
+        return jdbcTemplate.queryForObject(CONTAR_STAGING_SQL, Long.class, ejecucion);
+    }
+
+    @Override
+    public Reconciliacion reconciliar(long ejecucion) {
+        Map<String, Long> run = Map.of(EJECUCION_PARAMETER, ejecucion);
+        namedParameterJdbcTemplate.update(MARCAR_CAMBIADOS_SQL, run);
+
+        // What is about to be replaced or deleted, then what replaces it
+        CambioCatalogo.Builder cambios = CambioCatalogo.builder();
+        recolectar(
+            "select id, personalizacion_id from opcion where " + OPCIONES_REEMPLAZADAS,
+            run,
+            cambios::opcion,
+            cambios::personalizacion
+        );
+        recolectar(
+            "select id, dispositivo_id from personalizacion where " + PERSONALIZACIONES_REEMPLAZADAS,
+            run,
+            cambios::personalizacion,
+            cambios::dispositivo
+        );
+        recolectar(
+            "select id, dispositivo_id from caracteristica where " + CARACTERISTICAS_REEMPLAZADAS,
+            run,
+            cambios::caracteristica,
+            cambios::dispositivo
+        );
+        recolectar(
+            "select adicionales_id from rel_dispositivo__adicionales where " + REL_ADICIONALES_REEMPLAZADAS,
+            run,
+            cambios::adicional,
+            null
+        );
+        recolectar("select id from dispositivo where " + DISPOSITIVOS_RETIRADOS, run, cambios::dispositivo, null);
+        recolectar("select id from adicional where " + ADICIONALES_RETIRADOS, run, cambios::adicional, null);
+        recolectar(CAMBIADOS, run, cambios::dispositivo, null);
+        recolectar(
+            "select id, personalizacion_id from staging_opcion where ejecucion = :ejecucion and dispositivo_id in (" + CAMBIADOS + ")",
+            run,
+            cambios::opcion,
+            cambios::personalizacion
+        );
+        recolectar(
+            "select id from staging_personalizacion where ejecucion = :ejecucion and dispositivo_id in (" + CAMBIADOS + ")",
+            run,
+            cambios::personalizacion,
+            null
+        );
+        recolectar(
+            "select id from staging_caracteristica where ejecucion = :ejecucion and dispositivo_id in (" + CAMBIADOS + ")",
+            run,
+            cambios::caracteristica,
+            null
+        );
+        recolectar(ADICIONALES_CAMBIADOS, run, cambios::adicional, null);
+
+        // Children first, their foreign keys point to the dispositivos
+        int filas = 0;
+        filas += namedParameterJdbcTemplate.update("delete from opcion where " + OPCIONES_REEMPLAZADAS, run);
+        filas += namedParameterJdbcTemplate.update("delete from personalizacion where " + PERSONALIZACIONES_REEMPLAZADAS, run);
+        filas += namedParameterJdbcTemplate.update("delete from caracteristica where " + CARACTERISTICAS_REEMPLAZADAS, run);
+        filas += namedParameterJdbcTemplate.update("delete from rel_dispositivo__adicionales where " + REL_ADICIONALES_REEMPLAZADAS, run);
+        int eliminados = namedParameterJdbcTemplate.update("delete from dispositivo where " + DISPOSITIVOS_RETIRADOS, run);
+        int actualizados = namedParameterJdbcTemplate.update(UPDATE_DISPOSITIVOS_SQL, run);
+        int insertados = namedParameterJdbcTemplate.update(INSERT_DISPOSITIVOS_SQL, run);
+        filas += eliminados + actualizados + insertados;
+
+        filas += namedParameterJdbcTemplate.update(UPDATE_ADICIONALES_SQL, run);
+        filas += namedParameterJdbcTemplate.update(INSERT_ADICIONALES_SQL, run);
+        filas += namedParameterJdbcTemplate.update("delete from adicional where " + ADICIONALES_RETIRADOS, run);
+        filas += namedParameterJdbcTemplate.update(INSERT_CARACTERISTICAS_SQL, run);
+        filas += namedParameterJdbcTemplate.update(INSERT_PERSONALIZACIONES_SQL, run);
+        filas += namedParameterJdbcTemplate.update(INSERT_OPCIONES_SQL, run);
+        filas += namedParameterJdbcTemplate.update(INSERT_REL_ADICIONALES_FROM_STAGING_SQL, run);
+
+        return new Reconciliacion(insertados, actualizados, eliminados, filas, cambios.build());
+    }
+
+    private <T> int upsert(
+        String tabla,
+        Collection<T> filas,
+        Function<T, Long> id,
+        String insertSql,
+        String updateSql,
+        ParameterizedPreparedStatementSetter<T> setter
+    ) {
+        if (filas.isEmpty()) {
+            return 0;
+        }
+        Set<Long> existentes = new HashSet<>(
+            namedParameterJdbcTemplate.queryForList(
+                "select id from " + tabla + " where id in (:" + IDS_PARAMETER + ")",
+                Map.of(IDS_PARAMETER, ids(filas, id)),
+                Long.class
+            )
+        );
+        List<T> nuevas = new ArrayList<>();
+        List<T> actualizadas = new ArrayList<>();
+        for (T fila : filas) {
+            (existentes.contains(id.apply(fila)) ? actualizadas : nuevas).add(fila);
+        }
+        return batch(updateSql, actualizadas, setter) + batch(insertSql, nuevas, setter);
+    }
+
+    private void borrarHijos(
+        List<Long> dispositivoIds,
+        List<Caracteristica> caracteristicas,
+        List<Personalizacion> personalizaciones,
+        List<Opcion> opciones,
+        CambioCatalogo.Builder cambios
+    ) {
+        // Also by their own id, in case the catedra moved a child to another dispositivo
+        Map<String, Object> parametros = Map.of(
+            "dispositivos",
+            dispositivoIds,
+            "caracteristicas",
+            idsOrNone(caracteristicas, Caracteristica::getId),
+            "personalizaciones",
+            idsOrNone(personalizaciones, Personalizacion::getId),
+            "opciones",
+            idsOrNone(opciones, Opcion::getId)
+        );
+        String opcionesReemplazadas =
+            "id in (:opciones) or personalizacion_id in (:personalizaciones)" +
+            " or personalizacion_id in (select p.id from personalizacion p where p.dispositivo_id in (:dispositivos))";
+        String personalizacionesReemplazadas = "id in (:personalizaciones) or dispositivo_id in (:dispositivos)";
+        String caracteristicasReemplazadas = "id in (:caracteristicas) or dispositivo_id in (:dispositivos)";
+
+        // The former parents of moved children have stale collections too
+        recolectar("select id, personalizacion_id from opcion where " + opcionesReemplazadas, parametros, cambios::opcion, cambios::personalizacion);
+        recolectar(
+            "select id, dispositivo_id from personalizacion where " + personalizacionesReemplazadas,
+            parametros,
+            cambios::personalizacion,
+            cambios::dispositivo
+        );
+        recolectar(
+            "select id, dispositivo_id from caracteristica where " + caracteristicasReemplazadas,
+            parametros,
+            cambios::caracteristica,
+            cambios::dispositivo
+        );
+        recolectar(
+            "select adicionales_id from rel_dispositivo__adicionales where dispositivo_id in (:dispositivos)",
+            parametros,
+            cambios::adicional,
+            null
+        );
+
+        namedParameterJdbcTemplate.update("delete from opcion where " + opcionesReemplazadas, parametros);
+        namedParameterJdbcTemplate.update("delete from personalizacion where " + personalizacionesReemplazadas, parametros);
+        namedParameterJdbcTemplate.update("delete from caracteristica where " + caracteristicasReemplazadas, parametros);
+        namedParameterJdbcTemplate.update("delete from rel_dispositivo__adicionales where dispositivo_id in (:dispositivos)", parametros);
+    }
+
+    /**
+     * Pass the ids in the first column of the result to {@code id}, and the ones in the second, if any, to {@code padre}.
+     */
+    private void recolectar(String sql, Map<String, ?> parametros, Consumer<Long> id, Consumer<Long> padre) {
+        namedParameterJdbcTemplate.query(
+            sql,
+            parametros,
+            (RowCallbackHandler) rs -> {
+                id.accept(rs.getLong(1));
+                if (padre != null) {
+                    long padreId = rs.getLong(2);
+                    if (!rs.wasNull()) {
+                        padre.accept(padreId);
+                    }
+                }
+            }
+        );
+    }
+
+    // Sets the run as the given parameter, after the ones set by the setter of the catalog table
+    private static <T> ParameterizedPreparedStatementSetter<T> conEjecucion(
+        ParameterizedPreparedStatementSetter<T> setter,
+        int indice,
+        long ejecucion
+    ) {
+        return (ps, fila) -> {
+            setter.setValues(ps, fila);
+            ps.setLong(indice, ejecucion);
+        };
+    }
+
+    private <T> int batch(String sql, Collection<T> filas, ParameterizedPreparedStatementSetter<T> setter) {
+        if (filas.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(sql, filas, BATCH_SIZE, setter);
+        return filas.size();
+    }
+
+    /**
+     * The rows of a list of dispositivo graphs, table by table.
+     */
+    private static final class Grafo {
+
+        private final Map<Long, Adicional> adicionales = new LinkedHashMap<>();
+        private final List<Caracteristica> caracteristicas = new ArrayList<>();
+        private final List<Personalizacion> personalizaciones = new ArrayList<>();
+        private final List<Opcion> opciones = new ArrayList<>();
+        private final List<Long[]> relaciones = new ArrayList<>();
+
+        Grafo(List<Dispositivo> dispositivos) {
+            // The back-references are set here, the graphs may come straight from a DTO
+            for (Dispositivo dispositivo : dispositivos) {
+                for (Caracteristica caracteristica : orEmpty(dispositivo.getCaracteristicas())) {
+                    caracteristicas.add(caracteristica.dispositivo(dispositivo));
+                }
+                for (Personalizacion personalizacion : orEmpty(dispositivo.getPersonalizaciones())) {
+                    personalizaciones.add(personalizacion.dispositivo(dispositivo));
+                    for (Opcion opcion : orEmpty(personalizacion.getOpciones())) {
+                        opciones.add(opcion.personalizacion(personalizacion));
+                    }
+                }
+                for (Adicional adicional : orEmpty(dispositivo.getAdicionales())) {
+                    adicionales.putIfAbsent(adicional.getId(), adicional);
+                    relaciones.add(new Long[] { dispositivo.getId(), adicional.getId() });
+                }
+            }
+        }
+    }
+
+    // The mappers leave a collection null when the catedra omits it
+    private static <T> Collection<T> orEmpty(Collection<T> filas) {
+        return filas == null ? List.of() : filas;
+    }
+
+    private static <T> List<Long> ids(Collection<T> filas, Function<T, Long> id) {
+        return filas.stream().map(id).toList();
+    }
+
+    // "in ()" is not valid SQL
+    private static <T> List<Long> idsOrNone(Collection<T> filas, Function<T, Long> id) {
+        return filas.isEmpty() ? List.of(-1L) : ids(filas, id);
+    }
+}
@@ -0,0 +1,26 @@
+package um.edu.ar.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+import um.edu.ar.domain.SincronizacionCatalogo;
+import um.edu.ar.domain.enumeration.EstadoSincronizacion;
+import um.edu.ar.domain.enumeration.OrigenSincronizacion;
+
+/**
+ * Spring Data JPA repository for the {@link SincronizacionCatalogo} entity.
+ */
+@Repository
+public interface SincronizacionCatalogoRepository extends JpaRepository<SincronizacionCatalogo, Long> {
+    List<SincronizacionCatalogo> findAllByOrderByIdDesc(Pageable pageable);
+
+    Optional<SincronizacionCatalogo> findFirstByEstadoInOrderByIdDesc(Collection<EstadoSincronizacion> estados);
+
+    Optional<SincronizacionCatalogo> findFirstByEstadoInAndOrigenNotOrderByIdDesc(
+        Collection<EstadoSincronizacion> estados,
+        OrigenSincronizacion origen
+    );
+}
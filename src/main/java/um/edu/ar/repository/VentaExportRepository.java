@@ -0,0 +1,77 @@
+package um.edu.ar.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import um.edu.ar.config.ApplicationProperties;
+
+/**
+ * Read-only access to the {@code venta} table for bulk exports.
+ * <p>
+ * Rows are read with a forward-only, read-only cursor and handed one by one to a {@link RowCallbackHandler},
+ * so no entity is built and only {@code fetchSize} rows are held in memory at any time.
+ * <p>
+ * MySQL buffers the whole result unless told otherwise: on it this query alone streams its rows one by one, with the
+ * driver's {@link Integer#MIN_VALUE} fetch size, so that no other query of the connection pool pays for a server-side
+ * cursor.
+ */
+@Repository
+public class VentaExportRepository {
+
+    private static final String MYSQL = "MySQL";
+
+    private static final String SELECT_SQL = "select id, fecha_venta, ganancia, user_id from venta";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int fetchSize;
+
+    public VentaExportRepository(DataSource dataSource, ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.fetchSize = applicationProperties.getVentas().getExportacion().getFetchSize();
+    }
+
+    /**
+     * Stream the ventas ordered by {@code (fecha_venta, id)}.
+     *
+     * @param desde the inclusive lower bound on {@code fecha_venta}, or {@code null}.
+     * @param hasta the exclusive upper bound on {@code fecha_venta}, or {@code null}.
+     * @param handler called once per row, with the columns {@code id, fecha_venta, ganancia, user_id}.
+     */
+    public void recorrer(ZonedDateTime desde, ZonedDateTime hasta, RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<ZonedDateTime> parametros = new ArrayList<>(2);
+        if (desde != null) {
+            sql.append(" where fecha_venta >= ?");
+            parametros.add(desde);
+        }
+        if (hasta != null) {
+            sql.append(parametros.isEmpty() ? " where" : " and").append(" fecha_venta < ?");
+            parametros.add(hasta);
+        }
+        sql.append(" order by fecha_venta, id");
+
+        jdbcTemplate.query(
+            con -> {
+                PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(MYSQL.equals(con.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : fetchSize);
+                // Same normalization as hibernate.jdbc.time_zone
+                Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+                for (int i = 0; i < parametros.size(); i++) {
+                    ps.setTimestamp(i + 1, Timestamp.from(parametros.get(i).toInstant()), utc);
+                }
+                return ps;
+            },
+            handler
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package um.edu.ar.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import um.edu.ar.domain.VentaIdempotencia;
+
+/**
+ * Spring Data JPA repository for the {@link VentaIdempotencia} entity.
+ * <p>
+ * Lookups of completed keys go through a bounded, TTL-evicting cache so that retries rarely reach the database.
+ */
+@Repository
+public interface VentaIdempotenciaRepository extends JpaRepository<VentaIdempotencia, Long> {
+    String VENTAS_BY_IDEMPOTENCY_KEY_CACHE = "ventasByIdempotencyKey";
+
+    // A key still in flight is not cached: its respuesta is yet to come
+    @Cacheable(cacheNames = VENTAS_BY_IDEMPOTENCY_KEY_CACHE, unless = "#result == null || #result.respuesta == null")
+    Optional<VentaIdempotencia> findOneByUsuarioAndClave(String usuario, String clave);
+
+    /**
+     * Claim a failed key to save its sale again, clearing its error.
+     *
+     * @return {@code 1} if the key was claimed, {@code 0} if another request did first.
+     */
+    @Modifying
+    @Transactional
+    @Query("update VentaIdempotencia v set v.error = null where v.id = :id and v.error is not null")
+    int reintentar(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from VentaIdempotencia v where v.fechaCreacion < :limite")
+    int deleteByFechaCreacionBefore(@Param("limite") Instant limite);
+}
@@ -0,0 +1,80 @@
+package um.edu.ar.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import um.edu.ar.domain.VentaPendiente;
+import um.edu.ar.domain.enumeration.EstadoVentaPendiente;
+
+/**
+ * Spring Data JPA repository for the {@link VentaPendiente} outbox entity.
+ */
+@Repository
+public interface VentaPendienteRepository extends JpaRepository<VentaPendiente, Long> {
+    Optional<VentaPendiente> findOneByTrackingId(String trackingId);
+
+    List<VentaPendiente> findByEstadoOrderByIdAsc(EstadoVentaPendiente estado, Pageable pageable);
+
+    /**
+     * Moves a row from one state to another only if it is still in the expected state,
+     * so that two workers can never claim the same row.
+     */
+    @Modifying
+    @Query(
+        "update VentaPendiente v set v.estado = :nuevo, v.fechaActualizacion = :ahora where v.id = :id and v.estado = :actual"
+    )
+    int cambiarEstado(
+        @Param("id") Long id,
+        @Param("actual") EstadoVentaPendiente actual,
+        @Param("nuevo") EstadoVentaPendiente nuevo,
+        @Param("ahora") Instant ahora
+    );
+
+    @Modifying
+    @Query(
+        "update VentaPendiente v set v.estado = :nuevo, v.fechaActualizacion = :ahora where v.estado = :actual and v.fechaActualizacion < :limite"
+    )
+    int liberarBloqueadas(
+        @Param("actual") EstadoVentaPendiente actual,
+        @Param("nuevo") EstadoVentaPendiente nuevo,
+        @Param("limite") Instant limite,
+        @Param("ahora") Instant ahora
+    );
+
+    /**
+     * Like {@link #liberarBloqueadas}, only for the rows already registered in the catedra API.
+     */
+    @Modifying
+    @Query(
+        "update VentaPendiente v set v.estado = :nuevo, v.fechaActualizacion = :ahora where v.estado = :actual and v.ventaId is not null and v.fechaActualizacion < :limite"
+    )
+    int liberarRegistradas(
+        @Param("actual") EstadoVentaPendiente actual,
+        @Param("nuevo") EstadoVentaPendiente nuevo,
+        @Param("limite") Instant limite,
+        @Param("ahora") Instant ahora
+    );
+
+    /**
+     * Gives up on the rows not known to be registered in the catedra API, recording why.
+     */
+    @Modifying
+    @Query(
+        "update VentaPendiente v set v.estado = :nuevo, v.error = :error, v.fechaActualizacion = :ahora where v.estado = :actual and v.ventaId is null and v.fechaActualizacion < :limite"
+    )
+    int abandonarSinRegistrar(
+        @Param("actual") EstadoVentaPendiente actual,
+        @Param("nuevo") EstadoVentaPendiente nuevo,
+        @Param("error") String error,
+        @Param("limite") Instant limite,
+        @Param("ahora") Instant ahora
+    );
+
+    @Modifying
+    @Query("update VentaPendiente v set v.ventaId = :ventaId, v.fechaActualizacion = :ahora where v.id = :id")
+    int registrarVentaId(@Param("id") Long id, @Param("ventaId") Long ventaId, @Param("ahora") Instant ahora);
+}
@@ -1,5 +1,6 @@
 package um.edu.ar.repository;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -19,4 +20,30 @@ public interface VentaRepository extends JpaRepository<Venta, Long> {
 
     @Query("select venta from Venta venta where venta.user.id = :userId")
     List<Venta> findByUserId(@Param("userId") Long userId);
+
+    // Keyset pagination on (fechaVenta, id), newest first. List results avoid the count query of Page.
+
+    @Query("select venta from Venta venta order by venta.fechaVenta desc, venta.id desc")
+    List<Venta> findFirstKeysetPage(Pageable pageable);
+
+    @Query(
+        "select venta from Venta venta where venta.fechaVenta < :fechaVenta or (venta.fechaVenta = :fechaVenta and venta.id < :id) " +
+        "order by venta.fechaVenta desc, venta.id desc"
+    )
+    List<Venta> findKeysetPageAfter(@Param("fechaVenta") ZonedDateTime fechaVenta, @Param("id") Long id, Pageable pageable);
+
+    @Query("select venta from Venta venta where venta.user.id = :userId order by venta.fechaVenta desc, venta.id desc")
+    List<Venta> findFirstKeysetPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(
+        "select venta from Venta venta where venta.user.id = :userId " +
+        "and (venta.fechaVenta < :fechaVenta or (venta.fechaVenta = :fechaVenta and venta.id < :id)) " +
+        "order by venta.fechaVenta desc, venta.id desc"
+    )
+    List<Venta> findKeysetPageByUserIdAfter(
+        @Param("userId") Long userId,
+        @Param("fechaVenta") ZonedDateTime fechaVenta,
+        @Param("id") Long id,
+        Pageable pageable
+    );
 }
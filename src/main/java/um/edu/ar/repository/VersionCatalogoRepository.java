@@ -0,0 +1,58 @@
+package um.edu.ar.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The version of the catalog shared by the nodes of the cluster, the single row of the {@code version_catalogo} table.
+ * <p>
+ * Every committed change of the catalog bumps it in its own transaction: the row lock orders the changes, so each gets
+ * its own number, and a change that rolls back leaves the version as it was.
+ */
+@Repository
+public class VersionCatalogoRepository {
+
+    private static final long ID = 1;
+
+    private static final String INCREMENTAR_SQL = "update version_catalogo set numero = numero + 1, modificado = ? where id = ?";
+
+    private static final String LEER_SQL = "select numero, modificado from version_catalogo where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VersionCatalogoRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Bump the version, in the current transaction if there is one.
+     *
+     * @param ahora the current time.
+     * @return the new version.
+     */
+    @Transactional
+    public Fila incrementar(Instant ahora) {
+        jdbcTemplate.update(INCREMENTAR_SQL, Timestamp.from(ahora), ID);
+        return leer();
+    }
+
+    /**
+     * @return the current version.
+     */
+    @Transactional(readOnly = true)
+    public Fila leer() {
+        return jdbcTemplate.queryForObject(LEER_SQL, (rs, rowNum) -> new Fila(rs.getLong(1), rs.getTimestamp(2).toInstant()), ID);
+    }
+
+    /**
+     * The row of the version.
+     *
+     * @param numero the number of changes committed.
+     * @param modificado when the last of them was committed.
+     */
+    public record Fila(long numero, Instant modificado) {}
+}
@@ -1,14 +1,18 @@
 package um.edu.ar.service;
 
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import um.edu.ar.domain.Adicional;
+import um.edu.ar.domain.event.CambioCatalogo;
 import um.edu.ar.repository.AdicionalRepository;
+import um.edu.ar.repository.DispositivoRepository;
 import um.edu.ar.service.dto.AdicionalDTO;
 import um.edu.ar.service.mapper.AdicionalMapper;
 
@@ -23,11 +27,20 @@ public class AdicionalService {
 
     private final AdicionalRepository adicionalRepository;
     private final AdicionalMapper adicionalMapper;
+    private final DispositivoRepository dispositivoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AdicionalService(AdicionalRepository adicionalRepository, AdicionalMapper adicionalMapper) {
+    public AdicionalService(
+        AdicionalRepository adicionalRepository,
+        AdicionalMapper adicionalMapper,
+        DispositivoRepository dispositivoRepository,
+        ApplicationEventPublisher eventPublisher
+    ) {
         LOG.info("Initializing AdditionalService");
         this.adicionalRepository = adicionalRepository;
         this.adicionalMapper = adicionalMapper;
+        this.dispositivoRepository = dispositivoRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -43,6 +56,7 @@ public class AdicionalService {
         LOG.debug("Saving additional entity");
         adicional = adicionalRepository.save(adicional);
         LOG.info("Successfully saved additional with ID: {}", adicional.getId());
+        publicar(adicional.getId(), dispositivoRepository.findIdsByAdicionalId(adicional.getId()));
         return adicionalMapper.toDto(adicional);
     }
 
@@ -59,6 +73,7 @@ public class AdicionalService {
         LOG.debug("Updating additional entity");
         adicional = adicionalRepository.save(adicional);
         LOG.info("Successfully updated additional with ID: {}", adicional.getId());
+        publicar(adicional.getId(), dispositivoRepository.findIdsByAdicionalId(adicional.getId()));
         return adicionalMapper.toDto(adicional);
     }
 
@@ -85,6 +100,7 @@ public class AdicionalService {
             })
             .map(adicional -> {
                 LOG.info("Successfully completed partial update of additional with ID: {}", adicional.getId());
+                publicar(adicional.getId(), dispositivoRepository.findIdsByAdicionalId(adicional.getId()));
                 return adicionalMapper.toDto(adicional);
             });
     }
@@ -129,7 +145,21 @@ public class AdicionalService {
     public void delete(Long id) {
         LOG.debug("Request to delete Additional with ID: {}", id);
         LOG.debug("Executing deletion");
+        // Read while the adicional still exists
+        List<Long> dispositivoIds = dispositivoRepository.findIdsByAdicionalId(id);
         adicionalRepository.deleteById(id);
+        publicar(id, dispositivoIds);
         LOG.info("Successfully deleted additional with ID: {}", id);
     }
+
+    /**
+     * Publish a change of the adicional, clearing the sync fingerprint of every dispositivo offering it: they no longer
+     * match the catedra version, so the next sync restores them.
+     */
+    private void publicar(Long id, List<Long> dispositivoIds) {
+        if (!dispositivoIds.isEmpty()) {
+            dispositivoRepository.borrarHuellas(dispositivoIds);
+        }
+        eventPublisher.publishEvent(CambioCatalogo.builder().adicional(id).build());
+    }
 }
@@ -0,0 +1,246 @@
+package um.edu.ar.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import um.edu.ar.config.ApplicationProperties;
+import um.edu.ar.repository.BloqueoTareaRepository;
+
+/**
+ * Runs each scheduled job on a single node of the cluster, through a lease on {@code bloqueo_tarea}.
+ * <p>
+ * Every node fires the job on its own schedule; the first one to take the lease runs it and the others skip that run.
+ * While the job runs, a heartbeat renews the lease, so a long run keeps it while a node that dies loses it within
+ * {@code application.tareas.lease}. If a renewal finds the lease expired, another node may already run the job: the
+ * job is told to stop through {@link #isRetenido}. Publishes, tagged with the job:
+ * <ul>
+ * <li>{@code scheduled.job.runs}, a timer of the runs of this node, tagged with their outcome;</li>
+ * <li>{@code scheduled.job.skips}, a counter of the runs skipped because another node held the job;</li>
+ * <li>{@code scheduled.job.lock.wait}, a timer of the time taken to try to take the lease.</li>
+ * </ul>
+ */
+@Service
+public class BloqueoTareaService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BloqueoTareaService.class);
+
+    private final BloqueoTareaRepository bloqueoTareaRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration lease;
+    private final Duration retencionMinima;
+    private final String propietario;
+    // Not the scheduling pool: its threads may all be busy running the jobs themselves
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(heartbeatThreadFactory());
+    // Whether this node still holds the lease, for each job it runs
+    private final Map<String, AtomicBoolean> retenidas = new ConcurrentHashMap<>();
+
+    public BloqueoTareaService(
+        BloqueoTareaRepository bloqueoTareaRepository,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.bloqueoTareaRepository = bloqueoTareaRepository;
+        this.meterRegistry = meterRegistry;
+        this.lease = applicationProperties.getTareas().getLease();
+        this.retencionMinima = applicationProperties.getTareas().getRetencionMinima();
+        this.propietario = nodo() + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Run a job, unless another node holds it.
+     *
+     * @param tarea the name of the job, the same on every node.
+     * @param accion the job.
+     * @return whether this node ran the job.
+     */
+    public boolean ejecutar(String tarea, Runnable accion) {
+        Instant inicio = Instant.now();
+        if (!adquirir(tarea, inicio)) {
+            return false;
+        }
+        correr(tarea, inicio, accion);
+        return true;
+    }
+
+    /**
+     * Start a job on an executor, unless another node holds it: the lease is taken before this method returns, and
+     * released once the job ends.
+     *
+     * @param tarea the name of the job, the same on every node.
+     * @param executor where to run the job.
+     * @param accion the job.
+     * @return whether this node started the job.
+     */
+    public boolean ejecutarEn(String tarea, Executor executor, Runnable accion) {
+        Instant inicio = Instant.now();
+        if (!adquirir(tarea, inicio)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> correr(tarea, inicio, accion));
+        } catch (RejectedExecutionException e) {
+            liberar(tarea, inicio);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * @param tarea the name of a job.
+     * @return whether this node is running the job and still holds its lease; a job should stop once it does not.
+     */
+    public boolean isRetenido(String tarea) {
+        AtomicBoolean retenida = retenidas.get(tarea);
+        return retenida != null && retenida.get();
+    }
+
+    /**
+     * Run a write of a job in one transaction, holding its lease until it commits.
+     *
+     * @param tarea the name of the job, the same on every node.
+     * @param accion the write, which joins the transaction.
+     * @return the result of the write.
+     * @throws IllegalStateException if this node does not hold the job, because it did not take it or lost its lease.
+     */
+    @Transactional
+    public <T> T conBloqueo(String tarea, Supplier<T> accion) {
+        if (!bloqueoTareaRepository.retener(tarea, propietario, Instant.now())) {
+            throw new IllegalStateException("Job " + tarea + " is not held by this node");
+        }
+        return accion.get();
+    }
+
+    private boolean adquirir(String tarea, Instant inicio) {
+        long esperaInicio = System.nanoTime();
+        boolean adquirido;
+        try {
+            adquirido = bloqueoTareaRepository.adquirir(tarea, propietario, inicio, inicio.plus(lease));
+        } finally {
+            Timer.builder("scheduled.job.lock.wait")
+                .description("Time taken to try to take the lock of a scheduled job")
+                .tag("job", tarea)
+                .register(meterRegistry)
+                .record(System.nanoTime() - esperaInicio, TimeUnit.NANOSECONDS);
+        }
+        if (!adquirido) {
+            LOG.debug("Job {} is held by another node, skipping", tarea);
+            Counter.builder("scheduled.job.skips")
+                .description("Runs of a scheduled job skipped because another node held it")
+                .tag("job", tarea)
+                .register(meterRegistry)
+                .increment();
+        }
+        return adquirido;
+    }
+
+    private void correr(String tarea, Instant inicio, Runnable accion) {
+        LOG.debug("Running job {} as {}", tarea, propietario);
+        AtomicBoolean retenida = new AtomicBoolean(true);
+        retenidas.put(tarea, retenida);
+        long periodo = Math.max(1, lease.toMillis() / 3);
+        ScheduledFuture<?> renovacion = heartbeat.scheduleAtFixedRate(
+            () -> renovar(tarea, retenida),
+            periodo,
+            periodo,
+            TimeUnit.MILLISECONDS
+        );
+        long ejecucionInicio = System.nanoTime();
+        String resultado = "failure";
+        try {
+            accion.run();
+            resultado = "success";
+        } finally {
+            renovacion.cancel(false);
+            retenidas.remove(tarea, retenida);
+            Timer.builder("scheduled.job.runs")
+                .description("Runs of a scheduled job on this node")
+                .tag("job", tarea)
+                .tag("outcome", resultado)
+                .register(meterRegistry)
+                .record(System.nanoTime() - ejecucionInicio, TimeUnit.NANOSECONDS);
+            liberarTrasRenovacion(tarea, inicio);
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        heartbeat.shutdownNow();
+    }
+
+    private void renovar(String tarea, AtomicBoolean retenida) {
+        if (!retenida.get()) {
+            return;
+        }
+        try {
+            Instant ahora = Instant.now();
+            if (!bloqueoTareaRepository.extender(tarea, propietario, ahora, ahora.plus(lease))) {
+                LOG.warn("Lost the lock of job {}: its lease expired before the heartbeat, another node may run it", tarea);
+                retenida.set(false);
+            }
+        } catch (Exception e) {
+            // Keep the heartbeat scheduled: the next one may get through before the lease expires
+            LOG.warn("Could not renew the lock of job {}: {}", tarea, e.getMessage());
+        }
+    }
+
+    // On the heartbeat thread, after the renewal it may be running: that one would extend the lease past its release
+    private void liberarTrasRenovacion(String tarea, Instant inicio) {
+        try {
+            heartbeat.submit(() -> liberar(tarea, inicio)).get();
+        } catch (RejectedExecutionException e) {
+            // Shutting down, no renewal runs anymore
+            liberar(tarea, inicio);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while releasing the lock of job {}, it will expire on its own", tarea);
+        } catch (ExecutionException e) {
+            LOG.warn("Could not release the lock of job {}, it will expire on its own: {}", tarea, e.getMessage());
+        }
+    }
+
+    private void liberar(String tarea, Instant inicio) {
+        Instant ahora = Instant.now();
+        Instant retenidoHasta = inicio.plus(retencionMinima);
+        try {
+            bloqueoTareaRepository.liberar(tarea, propietario, retenidoHasta.isAfter(ahora) ? retenidoHasta : ahora);
+        } catch (Exception e) {
+            LOG.warn("Could not release the lock of job {}, it will expire on its own: {}", tarea, e.getMessage());
+        }
+    }
+
+    private static String nodo() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    private static CustomizableThreadFactory heartbeatThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("job-lock-heartbeat-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
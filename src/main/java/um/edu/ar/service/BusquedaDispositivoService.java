@@ -0,0 +1,81 @@
+package um.edu.ar.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import um.edu.ar.config.ApplicationProperties;
+import um.edu.ar.service.dto.BusquedaDispositivosDTO;
+import um.edu.ar.service.dto.RangoPrecioDTO;
+
+/**
+ * Full-text and faceted search of the dispositivos, over the inverted index of the in-memory catalog: it never reads
+ * the database, except to load the catalog if it is not.
+ * <p>
+ * A query finds the dispositivos holding all of its terms in their {@code nombre}, {@code codigo}, {@code descripcion},
+ * caracteristicas or opciones, ignoring case and diacritics; each term also matches the words it starts. They are
+ * ordered by relevance: a match in the nombre or codigo first, then in the caracteristicas and opciones, then in the
+ * descripcion.
+ */
+@Service
+public class BusquedaDispositivoService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BusquedaDispositivoService.class);
+
+    private final CatalogoEnMemoria catalogoEnMemoria;
+
+    private final List<BigDecimal> rangosPrecio;
+
+    public BusquedaDispositivoService(CatalogoEnMemoria catalogoEnMemoria, ApplicationProperties applicationProperties) {
+        this.catalogoEnMemoria = catalogoEnMemoria;
+        this.rangosPrecio = applicationProperties.getBusqueda().getRangosPrecio().stream().sorted().toList();
+    }
+
+    /**
+     * Search the dispositivos.
+     *
+     * @param consulta the terms to find, or none to find all the dispositivos.
+     * @param moneda the moneda of the dispositivos, or {@code null}.
+     * @param precioDesde the lowest precioBase of the dispositivos, or {@code null}.
+     * @param precioHasta the precioBase the dispositivos must be below, or {@code null}.
+     * @param pageable the pagination information; sorted by relevance unless it is sorted itself.
+     * @return the page of dispositivos found, and their counts by moneda and by precioBase bucket.
+     */
+    public BusquedaDispositivosDTO buscar(String consulta, String moneda, BigDecimal precioDesde, BigDecimal precioHasta, Pageable pageable) {
+        LOG.debug("Request to search Devices: {}, moneda: {}, precio: [{}, {}), pageable: {}", consulta, moneda, precioDesde, precioHasta, pageable);
+        CatalogoVista.ResultadoBusqueda resultado = catalogoEnMemoria
+            .catalogoCargado()
+            .buscar(consulta, moneda, precioDesde, precioHasta, rangosPrecio, pageable);
+
+        BusquedaDispositivosDTO busqueda = new BusquedaDispositivosDTO();
+        busqueda.setDispositivos(resultado.pagina().map(CatalogoVista.DispositivoVista::toResumenDto).getContent());
+        busqueda.setTotal(resultado.pagina().getTotalElements());
+        busqueda.setMonedas(new TreeMap<>(resultado.monedas()));
+        busqueda.setPrecios(
+            resultado
+                .precios()
+                .stream()
+                .map(rango -> {
+                    RangoPrecioDTO rangoPrecioDTO = new RangoPrecioDTO();
+                    rangoPrecioDTO.setDesde(rango.desde());
+                    rangoPrecioDTO.setHasta(rango.hasta());
+                    rangoPrecioDTO.setCantidad(rango.cantidad());
+                    return rangoPrecioDTO;
+                })
+                .toList()
+        );
+        LOG.debug("Found {} devices", busqueda.getTotal());
+        return busqueda;
+    }
+
+    /**
+     * @return whether the search results can be sorted as requested: by id, codigo, nombre, precioBase or moneda.
+     */
+    public boolean isOrdenable(Sort sort) {
+        return CatalogoVista.ordenable(sort);
+    }
+}
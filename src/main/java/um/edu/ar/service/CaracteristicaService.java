@@ -6,10 +6,14 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import um.edu.ar.domain.Caracteristica;
+import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.domain.event.CambioCatalogo;
 import um.edu.ar.repository.CaracteristicaRepository;
+import um.edu.ar.repository.DispositivoRepository;
 import um.edu.ar.service.dto.CaracteristicaDTO;
 import um.edu.ar.service.mapper.CaracteristicaMapper;
 
@@ -24,11 +28,20 @@ public class CaracteristicaService {
 
     private final CaracteristicaRepository caracteristicaRepository;
     private final CaracteristicaMapper caracteristicaMapper;
+    private final DispositivoRepository dispositivoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CaracteristicaService(CaracteristicaRepository caracteristicaRepository, CaracteristicaMapper caracteristicaMapper) {
+    public CaracteristicaService(
+        CaracteristicaRepository caracteristicaRepository,
+        CaracteristicaMapper caracteristicaMapper,
+        DispositivoRepository dispositivoRepository,
+        ApplicationEventPublisher eventPublisher
+    ) {
         LOG.info("Initializing CharacteristicService");
         this.caracteristicaRepository = caracteristicaRepository;
         this.caracteristicaMapper = caracteristicaMapper;
+        this.dispositivoRepository = dispositivoRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -44,6 +57,7 @@ public class CaracteristicaService {
         LOG.debug("Saving characteristic entity");
         caracteristica = caracteristicaRepository.save(caracteristica);
         LOG.info("Successfully saved characteristic with ID: {}", caracteristica.getId());
+        publicar(cambiosDe(caracteristica).build());
         return caracteristicaMapper.toDto(caracteristica);
     }
 
@@ -57,9 +71,15 @@ public class CaracteristicaService {
         LOG.debug("Request to update Characteristic: {}", caracteristicaDTO);
         LOG.debug("Converting DTO to entity for update");
         Caracteristica caracteristica = caracteristicaMapper.toEntity(caracteristicaDTO);
+        // Loaded first for the dispositivo it had; the merge below reuses it
+        CambioCatalogo.Builder cambios = caracteristicaRepository
+            .findById(caracteristicaDTO.getId())
+            .map(this::cambiosDe)
+            .orElseGet(CambioCatalogo::builder);
         LOG.debug("Updating characteristic entity");
         caracteristica = caracteristicaRepository.save(caracteristica);
         LOG.info("Successfully updated characteristic with ID: {}", caracteristica.getId());
+        publicar(cambios.caracteristica(caracteristica.getId()).dispositivo(dispositivoId(caracteristica)).build());
         return caracteristicaMapper.toDto(caracteristica);
     }
 
@@ -77,12 +97,12 @@ public class CaracteristicaService {
             .findById(caracteristicaDTO.getId())
             .map(existingCaracteristica -> {
                 LOG.debug("Found existing characteristic, applying partial update");
+                CambioCatalogo.Builder cambios = cambiosDe(existingCaracteristica);
                 caracteristicaMapper.partialUpdate(existingCaracteristica, caracteristicaDTO);
-                return existingCaracteristica;
-            })
-            .map(caracteristica -> {
                 LOG.debug("Saving partially updated characteristic");
-                return caracteristicaRepository.save(caracteristica);
+                Caracteristica caracteristica = caracteristicaRepository.save(existingCaracteristica);
+                publicar(cambios.dispositivo(dispositivoId(caracteristica)).build());
+                return caracteristica;
             })
             .map(caracteristica -> {
                 LOG.info("Successfully completed partial update of characteristic with ID: {}", caracteristica.getId());
@@ -133,7 +153,36 @@ public class CaracteristicaService {
     public void delete(Long id) {
         LOG.debug("Request to delete Characteristic with ID: {}", id);
         LOG.debug("Executing deletion");
-        caracteristicaRepository.deleteById(id);
+        caracteristicaRepository
+            .findById(id)
+            .ifPresent(caracteristica -> {
+                CambioCatalogo cambio = cambiosDe(caracteristica).build();
+                caracteristicaRepository.delete(caracteristica);
+                publicar(cambio);
+            });
         LOG.info("Successfully deleted characteristic with ID: {}", id);
     }
+
+    /**
+     * Publish a change of the catalog, clearing the sync fingerprint of the dispositivos it writes: they no longer match
+     * the catedra version, so the next sync restores them.
+     */
+    private void publicar(CambioCatalogo cambio) {
+        if (!cambio.dispositivos().isEmpty()) {
+            dispositivoRepository.borrarHuellas(cambio.dispositivos());
+        }
+        eventPublisher.publishEvent(cambio);
+    }
+
+    /**
+     * The catalog entries a write to the caracteristica affects, besides its own: the caracteristicas of its dispositivo.
+     */
+    private CambioCatalogo.Builder cambiosDe(Caracteristica caracteristica) {
+        return CambioCatalogo.builder().caracteristica(caracteristica.getId()).dispositivo(dispositivoId(caracteristica));
+    }
+
+    private static Long dispositivoId(Caracteristica caracteristica) {
+        Dispositivo dispositivo = caracteristica.getDispositivo();
+        return dispositivo == null ? null : dispositivo.getId();
+    }
 }
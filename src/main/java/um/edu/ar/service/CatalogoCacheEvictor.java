@@ -0,0 +1,108 @@
+package um.edu.ar.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import um.edu.ar.config.ApplicationProperties;
+import um.edu.ar.domain.Adicional;
+import um.edu.ar.domain.Caracteristica;
+import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.domain.Opcion;
+import um.edu.ar.domain.Personalizacion;
+import um.edu.ar.domain.event.CambioCatalogo;
+
+/**
+ * Evicts from the second-level cache the catalog entries of each {@link CambioCatalogo}, along with the collections they
+ * own, once the transaction that made the change commits: no reader can cache the old rows again after that.
+ * <p>
+ * Hibernate keeps the entries of the entities it writes itself up to date, but not the inverse side of their
+ * relationships, nor anything written with JDBC by the catalog sync. Nor does it know of the changes of the other nodes:
+ * {@link VersionCatalogo} evicts the whole catalog when it finds one.
+ */
+@Component
+public class CatalogoCacheEvictor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogoCacheEvictor.class);
+
+    // Before the other listeners of the change, which may read the changed rows again
+    static final int ORDER = 0;
+
+    // The cached collections owned by each catalog entity
+    private static final Map<Class<?>, List<String>> COLECCIONES = Map.of(
+        Dispositivo.class,
+        List.of("caracteristicas", "personalizaciones", "adicionales"),
+        Caracteristica.class,
+        List.of(),
+        Personalizacion.class,
+        List.of("opciones"),
+        Opcion.class,
+        List.of(),
+        Adicional.class,
+        List.of("dispositivos")
+    );
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final long maxEntries;
+
+    public CatalogoCacheEvictor(EntityManagerFactory entityManagerFactory, ApplicationProperties applicationProperties) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.maxEntries = applicationProperties.getCatedra().getCache().getMaxEntries();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ORDER)
+    public void evict(CambioCatalogo cambio) {
+        if (cambio.isEmpty()) {
+            return;
+        }
+        LOG.debug("Evicting catalog change from the cache: {}", cambio);
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        evict(cache, Dispositivo.class, cambio.dispositivos());
+        evict(cache, Caracteristica.class, cambio.caracteristicas());
+        evict(cache, Personalizacion.class, cambio.personalizaciones());
+        evict(cache, Opcion.class, cambio.opciones());
+        evict(cache, Adicional.class, cambio.adicionales());
+    }
+
+    /**
+     * Evict the whole catalog, when it may have been changed by another node.
+     */
+    public void evictAll() {
+        LOG.debug("Evicting the whole catalog from the cache");
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        COLECCIONES.keySet().forEach(entidad -> evictAll(cache, entidad));
+    }
+
+    private void evict(Cache cache, Class<?> entidad, Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (ids.size() > maxEntries) {
+            // More than the region holds: clearing it is cheaper than evicting each entry
+            evictAll(cache, entidad);
+            return;
+        }
+        for (Long id : ids) {
+            cache.evictEntityData(entidad, id);
+            for (String coleccion : COLECCIONES.get(entidad)) {
+                cache.evictCollectionData(entidad.getName() + "." + coleccion, id);
+            }
+        }
+    }
+
+    private static void evictAll(Cache cache, Class<?> entidad) {
+        cache.evictEntityData(entidad);
+        for (String coleccion : COLECCIONES.get(entidad)) {
+            cache.evictCollectionData(entidad.getName() + "." + coleccion);
+        }
+    }
+}
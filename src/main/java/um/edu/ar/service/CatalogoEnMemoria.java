@@ -0,0 +1,238 @@
+package um.edu.ar.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.domain.event.CambioCatalogo;
+import um.edu.ar.repository.DispositivoRepository;
+import um.edu.ar.service.CatalogoVista.AdicionalVista;
+import um.edu.ar.service.CatalogoVista.CaracteristicaVista;
+import um.edu.ar.service.CatalogoVista.DispositivoVista;
+import um.edu.ar.service.CatalogoVista.OpcionVista;
+import um.edu.ar.service.CatalogoVista.PersonalizacionVista;
+
+/**
+ * Serves the dispositivo reads from an immutable in-memory copy of the catalog, so that they do no database work.
+ * <p>
+ * The copy is loaded by {@link VersionCatalogo} once the application is ready, and again whenever another node changes
+ * the catalog. After every committed {@link CambioCatalogo} of this node, the dispositivos it affects are read again and a
+ * new copy replaces the current one: readers keep the copy they started with and never wait for a refresh. Until the
+ * copy is loaded, after a refresh fails, and inside a transaction, which may hold catalog writes not committed yet, the
+ * reads go to the database.
+ */
+@Service
+public class CatalogoEnMemoria {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogoEnMemoria.class);
+
+    // Dispositivos read per query on a full load, so that the fetch of their relationships binds a bounded id list
+    private static final int TAMANIO_LOTE = 500;
+
+    private final DispositivoRepository dispositivoRepository;
+
+    private final TransactionTemplate lectura;
+
+    // Refreshes read the database and swap the copy one at a time, in the order of the changes
+    private final ReentrantLock refresco = new ReentrantLock();
+
+    private volatile CatalogoVista catalogo;
+
+    public CatalogoEnMemoria(DispositivoRepository dispositivoRepository, PlatformTransactionManager transactionManager) {
+        this.dispositivoRepository = dispositivoRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        // Also run after the commit of the change, whose transaction is still bound to the thread
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lectura.setReadOnly(true);
+    }
+
+    /**
+     * Read the whole catalog again.
+     */
+    public void cargar() {
+        refresco.lock();
+        try {
+            recargar();
+        } finally {
+            refresco.unlock();
+        }
+    }
+
+    /**
+     * Read again the dispositivos affected by a change, once it is committed and evicted from the second-level cache.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(CatalogoCacheEvictor.ORDER + 1)
+    public void actualizar(CambioCatalogo cambio) {
+        if (cambio.isEmpty()) {
+            return;
+        }
+        refresco.lock();
+        try {
+            CatalogoVista actual = catalogo;
+            if (actual == null) {
+                recargar();
+                return;
+            }
+            Set<Long> ids = actual.afectados(cambio);
+            if (ids.size() > actual.size() / 2) {
+                // Most of the catalog changed: reading it whole is cheaper than by id
+                recargar();
+                return;
+            }
+            if (!ids.isEmpty()) {
+                catalogo = actual.con(ids, leer(ids));
+                LOG.debug("Refreshed {} dispositivos of the in-memory catalog", ids.size());
+            }
+        } catch (RuntimeException e) {
+            // Serve from the database until the next change loads the catalog again
+            catalogo = null;
+            LOG.warn("Could not refresh the in-memory catalog, reading from the database: {}", e.getMessage());
+        } finally {
+            refresco.unlock();
+        }
+    }
+
+    /**
+     * @return whether the catalog is loaded; it is not until it is first read, nor after a refresh fails.
+     */
+    public boolean isCargado() {
+        return catalogo != null;
+    }
+
+    /**
+     * @return the current copy of the catalog, or nothing if the reads must go to the database.
+     */
+    Optional<CatalogoVista> catalogo() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(catalogo);
+    }
+
+    /**
+     * @return the current copy of the catalog, loaded first if it is not. Unlike {@link #catalogo()}, also inside a
+     * transaction: the copy never holds its uncommitted writes.
+     * @throws IllegalStateException if the catalog cannot be loaded.
+     */
+    CatalogoVista catalogoCargado() {
+        CatalogoVista actual = catalogo;
+        if (actual != null) {
+            return actual;
+        }
+        refresco.lock();
+        try {
+            if (catalogo == null) {
+                recargar();
+            }
+            if (catalogo == null) {
+                throw new IllegalStateException("The in-memory catalog could not be loaded");
+            }
+            return catalogo;
+        } finally {
+            refresco.unlock();
+        }
+    }
+
+    private void recargar() {
+        try {
+            List<DispositivoVista> dispositivos = new ArrayList<>();
+            long ultimoId = Long.MIN_VALUE;
+            List<DispositivoVista> lote;
+            do {
+                // One read per chunk, keyed on the last id read: each one starts with an empty persistence context. A
+                // change committed in between is applied by its own refresh, which waits for this load
+                long desde = ultimoId;
+                lote = lectura.execute(status ->
+                    vistas(dispositivoRepository.findAllByIdGreaterThanOrderByIdAsc(desde, Limit.of(TAMANIO_LOTE)))
+                );
+                dispositivos.addAll(lote);
+                if (!lote.isEmpty()) {
+                    ultimoId = lote.get(lote.size() - 1).id();
+                }
+            } while (lote.size() == TAMANIO_LOTE);
+            catalogo = new CatalogoVista(dispositivos);
+            LOG.info("Loaded {} dispositivos into the in-memory catalog", dispositivos.size());
+        } catch (RuntimeException e) {
+            catalogo = null;
+            LOG.warn("Could not load the in-memory catalog, reading from the database: {}", e.getMessage());
+        }
+    }
+
+    private Collection<DispositivoVista> leer(Set<Long> ids) {
+        return lectura.execute(status -> vistas(dispositivoRepository.findAllById(ids)));
+    }
+
+    private List<DispositivoVista> vistas(List<Dispositivo> dispositivos) {
+        if (dispositivos.isEmpty()) {
+            return List.of();
+        }
+        return dispositivoRepository.fetchBagRelationships(dispositivos).stream().map(CatalogoEnMemoria::vista).toList();
+    }
+
+    private static DispositivoVista vista(Dispositivo dispositivo) {
+        return new DispositivoVista(
+            dispositivo.getId(),
+            dispositivo.getCodigo(),
+            dispositivo.getNombre(),
+            dispositivo.getDescripcion(),
+            dispositivo.getPrecioBase(),
+            dispositivo.getMoneda(),
+            dispositivo
+                .getCaracteristicas()
+                .stream()
+                .map(caracteristica -> new CaracteristicaVista(caracteristica.getId(), caracteristica.getNombre(), caracteristica.getDescripcion()))
+                .toList(),
+            dispositivo
+                .getPersonalizaciones()
+                .stream()
+                .map(personalizacion ->
+                    new PersonalizacionVista(
+                        personalizacion.getId(),
+                        personalizacion.getNombre(),
+                        personalizacion.getDescripcion(),
+                        personalizacion
+                            .getOpciones()
+                            .stream()
+                            .map(opcion ->
+                                new OpcionVista(
+                                    opcion.getId(),
+                                    opcion.getCodigo(),
+                                    opcion.getNombre(),
+                                    opcion.getDescripcion(),
+                                    opcion.getPrecioAdicional()
+                                )
+                            )
+                            .toList()
+                    )
+                )
+                .toList(),
+            dispositivo
+                .getAdicionales()
+                .stream()
+                .map(adicional ->
+                    new AdicionalVista(
+                        adicional.getId(),
+                        adicional.getNombre(),
+                        adicional.getDescripcion(),
+                        adicional.getPrecio(),
+                        adicional.getPrecioGratis()
+                    )
+                )
+                .toList()
+        );
+    }
+}
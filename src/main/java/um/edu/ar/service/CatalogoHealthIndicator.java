@@ -0,0 +1,46 @@
+package um.edu.ar.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+import um.edu.ar.config.ApplicationProperties;
+
+/**
+ * Readiness of the local catalog, synced in the background by {@link UpdateDatabase}.
+ * <p>
+ * Reports {@code OUT_OF_SERVICE} until the first successful sync. Once the grace period after startup is over, a catalog
+ * loaded from the on-disk snapshot is enough, even if stale, so that an unreachable catedra host does not keep every
+ * node out of service.
+ */
+@Component
+public class CatalogoHealthIndicator implements HealthIndicator {
+
+    private final UpdateDatabase updateDatabase;
+
+    private final Duration gracePeriod;
+
+    public CatalogoHealthIndicator(UpdateDatabase updateDatabase, ApplicationProperties applicationProperties) {
+        this.updateDatabase = updateDatabase;
+        this.gracePeriod = applicationProperties.getCatedra().getSync().getReadinessGracePeriod();
+    }
+
+    @Override
+    public Health health() {
+        Instant lastSync = updateDatabase.getLastSync();
+        if (lastSync != null) {
+            return Health.up().withDetail("lastSync", lastSync).build();
+        }
+        Instant startedAt = updateDatabase.getStartedAt();
+        boolean snapshotLoaded = updateDatabase.isSnapshotLoaded();
+        if (snapshotLoaded && startedAt != null && Instant.now().isAfter(startedAt.plus(gracePeriod))) {
+            return Health.up().withDetail("stale", true).withDetail("startedAt", startedAt).build();
+        }
+        Health.Builder health = Health.outOfService().withDetail("snapshotLoaded", snapshotLoaded);
+        if (startedAt != null) {
+            health.withDetail("startedAt", startedAt);
+        }
+        return health.build();
+    }
+}
@@ -0,0 +1,199 @@
+package um.edu.ar.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import um.edu.ar.config.ApplicationProperties;
+
+/**
+ * Gzipped copy on disk of the last catalog received from the catedra API, along with its HTTP validators, the SHA-256
+ * of its body and the number of local devices once it was synchronized.
+ * <p>
+ * A new copy is written to a temporary file and only replaces the current one once it has been synchronized, so the
+ * snapshot always holds the last good catalog.
+ */
+@Component
+public class CatalogoSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogoSnapshot.class);
+
+    private static final String CATALOGO = "catalogo.json.gz";
+
+    private static final String METADATOS = "catalogo.properties";
+
+    private static final String ETAG = "etag";
+
+    private static final String ULTIMA_MODIFICACION = "last-modified";
+
+    private static final String HUELLA = "sha256";
+
+    private static final String DISPOSITIVOS = "dispositivos";
+
+    private final Path directorio;
+
+    @Autowired
+    public CatalogoSnapshot(ApplicationProperties applicationProperties) {
+        this(Path.of(applicationProperties.getCatedra().getSync().getSnapshotDir()));
+    }
+
+    CatalogoSnapshot(Path directorio) {
+        this.directorio = directorio;
+    }
+
+    public boolean existe() {
+        return Files.isRegularFile(directorio.resolve(CATALOGO)) && Files.isRegularFile(directorio.resolve(METADATOS));
+    }
+
+    /**
+     * @return the validators of the catalog in the snapshot, {@link CatedraClient.Validadores#NINGUNO} if there is none.
+     */
+    public CatedraClient.Validadores validadores() {
+        Properties metadatos = metadatos();
+        return new CatedraClient.Validadores(metadatos.getProperty(ETAG), metadatos.getProperty(ULTIMA_MODIFICACION));
+    }
+
+    /**
+     * @return the SHA-256 of the body of the catalog in the snapshot, {@code null} if there is none.
+     */
+    public String huella() {
+        return metadatos().getProperty(HUELLA);
+    }
+
+    /**
+     * @return the number of local devices once the catalog in the snapshot was synchronized, {@code -1} if unknown.
+     */
+    public long dispositivos() {
+        return Long.parseLong(metadatos().getProperty(DISPOSITIVOS, "-1"));
+    }
+
+    public InputStream abrir() throws IOException {
+        return new GZIPInputStream(new BufferedInputStream(Files.newInputStream(directorio.resolve(CATALOGO))));
+    }
+
+    /**
+     * Start a new copy, which does not replace the current one until {@link Escritura#confirmar} is called.
+     */
+    public Escritura escribir() throws IOException {
+        Files.createDirectories(directorio);
+        return new Escritura(Files.createTempFile(directorio, "catalogo", ".json.gz.tmp"));
+    }
+
+    private Properties metadatos() {
+        Properties metadatos = new Properties();
+        Path archivo = directorio.resolve(METADATOS);
+        if (Files.isRegularFile(archivo)) {
+            try (Reader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+                metadatos.load(reader);
+            } catch (IOException e) {
+                LOG.warn("Ignoring unreadable catalog snapshot metadata: {}", e.getMessage());
+                return new Properties();
+            }
+        }
+        return metadatos;
+    }
+
+    /**
+     * A copy being written: the catalog body goes to {@link #salida()}, compressed on the fly.
+     */
+    public final class Escritura implements Closeable {
+
+        private final Path temporal;
+        private final MessageDigest digest;
+        private final GZIPOutputStream gzip;
+        private final OutputStream salida;
+        private String huella;
+        private boolean confirmada;
+
+        private Escritura(Path temporal) throws IOException {
+            this.temporal = temporal;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+            this.gzip = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)), 64 * 1024);
+            this.salida = new DigestOutputStream(gzip, digest);
+        }
+
+        public OutputStream salida() {
+            return salida;
+        }
+
+        /**
+         * Finish writing the copy.
+         *
+         * @return the SHA-256 of the uncompressed body.
+         */
+        public String terminar() throws IOException {
+            if (huella == null) {
+                salida.close();
+                huella = HexFormat.of().formatHex(digest.digest());
+            }
+            return huella;
+        }
+
+        /**
+         * Read back the finished copy.
+         */
+        public InputStream abrir() throws IOException {
+            return new GZIPInputStream(new BufferedInputStream(Files.newInputStream(temporal)));
+        }
+
+        /**
+         * Make this copy the snapshot.
+         *
+         * @param validadores the HTTP validators the catalog came with.
+         * @param dispositivos the number of local devices once the catalog is synchronized.
+         */
+        public void confirmar(CatedraClient.Validadores validadores, long dispositivos) throws IOException {
+            Properties metadatos = new Properties();
+            metadatos.setProperty(HUELLA, terminar());
+            metadatos.setProperty(DISPOSITIVOS, Long.toString(dispositivos));
+            if (validadores.etag() != null) {
+                metadatos.setProperty(ETAG, validadores.etag());
+            }
+            if (validadores.ultimaModificacion() != null) {
+                metadatos.setProperty(ULTIMA_MODIFICACION, validadores.ultimaModificacion());
+            }
+            Path metadatosTemporal = Files.createTempFile(directorio, "catalogo", ".properties.tmp");
+            try (Writer writer = Files.newBufferedWriter(metadatosTemporal, StandardCharsets.UTF_8)) {
+                metadatos.store(writer, "Last catalog received from the catedra API");
+            }
+            Files.move(temporal, directorio.resolve(CATALOGO), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(metadatosTemporal, directorio.resolve(METADATOS), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            confirmada = true;
+            LOG.debug("Catalog snapshot updated in {}", directorio);
+        }
+
+        /**
+         * Discard the copy unless it was confirmed.
+         */
+        @Override
+        public void close() throws IOException {
+            terminar();
+            if (!confirmada) {
+                Files.deleteIfExists(temporal);
+            }
+        }
+    }
+}
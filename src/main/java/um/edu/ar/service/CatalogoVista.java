@@ -0,0 +1,323 @@
+package um.edu.ar.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import um.edu.ar.domain.event.CambioCatalogo;
+import um.edu.ar.service.dto.AdicionalDTO;
+import um.edu.ar.service.dto.CaracteristicaDTO;
+import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.DispositivoResumenDTO;
+import um.edu.ar.service.dto.OpcionDTO;
+import um.edu.ar.service.dto.PersonalizacionDTO;
+
+/**
+ * Immutable copy of the whole catalog, as served by {@link CatalogoEnMemoria}: the dispositivos ordered by id, indexed by
+ * id, by {@code codigo} and by the terms they hold, and the dispositivo each of their caracteristicas, personalizaciones,
+ * opciones and adicionales belongs to.
+ */
+final class CatalogoVista {
+
+    private static final Map<String, Comparator<DispositivoVista>> ORDENES = Map.of(
+        "id",
+        Comparator.comparing(DispositivoVista::id),
+        "codigo",
+        Comparator.comparing(DispositivoVista::codigo, Comparator.nullsFirst(Comparator.naturalOrder())),
+        "nombre",
+        Comparator.comparing(DispositivoVista::nombre, Comparator.nullsFirst(Comparator.naturalOrder())),
+        "precioBase",
+        Comparator.comparing(DispositivoVista::precioBase, Comparator.nullsFirst(Comparator.naturalOrder())),
+        "moneda",
+        Comparator.comparing(DispositivoVista::moneda, Comparator.nullsFirst(Comparator.naturalOrder()))
+    );
+
+    private final List<DispositivoVista> dispositivos;
+    private final Map<Long, DispositivoVista> porId;
+    private final Map<String, DispositivoVista> porCodigo;
+    private final Map<Long, Long> dispositivoDeCaracteristica = new HashMap<>();
+    private final Map<Long, Long> dispositivoDePersonalizacion = new HashMap<>();
+    private final Map<Long, Long> dispositivoDeOpcion = new HashMap<>();
+    private final Map<Long, Set<Long>> dispositivosDeAdicional = new HashMap<>();
+    private final IndiceCatalogo indice;
+
+    CatalogoVista(Collection<DispositivoVista> dispositivos) {
+        this(dispositivos, new IndiceCatalogo(dispositivos));
+    }
+
+    private CatalogoVista(Collection<DispositivoVista> dispositivos, IndiceCatalogo indice) {
+        this.indice = indice;
+        this.dispositivos = dispositivos.stream().sorted(ORDENES.get("id")).toList();
+        this.porId = this.dispositivos.stream().collect(Collectors.toUnmodifiableMap(DispositivoVista::id, Function.identity()));
+        Map<String, DispositivoVista> codigos = new HashMap<>();
+        for (DispositivoVista dispositivo : this.dispositivos) {
+            // Codigos are not unique: the lowest id wins, as in the database lookup
+            codigos.putIfAbsent(dispositivo.codigo(), dispositivo);
+            dispositivo.caracteristicas().forEach(caracteristica -> dispositivoDeCaracteristica.put(caracteristica.id(), dispositivo.id()));
+            for (PersonalizacionVista personalizacion : dispositivo.personalizaciones()) {
+                dispositivoDePersonalizacion.put(personalizacion.id(), dispositivo.id());
+                personalizacion.opciones().forEach(opcion -> dispositivoDeOpcion.put(opcion.id(), dispositivo.id()));
+            }
+            dispositivo
+                .adicionales()
+                .forEach(adicional -> dispositivosDeAdicional.computeIfAbsent(adicional.id(), id -> new HashSet<>()).add(dispositivo.id()));
+        }
+        this.porCodigo = Map.copyOf(codigos);
+    }
+
+    int size() {
+        return dispositivos.size();
+    }
+
+    Optional<DispositivoVista> porId(Long id) {
+        return Optional.ofNullable(porId.get(id));
+    }
+
+    Optional<DispositivoVista> porCodigo(String codigo) {
+        return Optional.ofNullable(porCodigo.get(codigo));
+    }
+
+    /**
+     * Get a page of the dispositivos.
+     *
+     * @param pageable the pagination information.
+     * @return the page, or nothing if it is sorted in a way this copy cannot, and the database must serve it.
+     */
+    Optional<Page<DispositivoVista>> pagina(Pageable pageable) {
+        if (!ordenable(pageable.getSort())) {
+            return Optional.empty();
+        }
+        Comparator<DispositivoVista> orden = orden(pageable.getSort());
+        List<DispositivoVista> ordenados = dispositivos;
+        if (orden != null) {
+            ordenados = new ArrayList<>(dispositivos);
+            ordenados.sort(orden);
+        }
+        return Optional.of(paginar(ordenados, pageable));
+    }
+
+    /**
+     * Search the dispositivos, and count the ones found by moneda and by precioBase bucket. Each count applies the
+     * filters on the other facet only, so that it tells what choosing one of its values would find.
+     *
+     * @param consulta the terms the dispositivos must all hold, or none to find them all.
+     * @param moneda the moneda the dispositivos must have, or {@code null}.
+     * @param precioDesde the lowest precioBase of the dispositivos, or {@code null}.
+     * @param precioHasta the precioBase the dispositivos must be below, or {@code null}.
+     * @param rangos the limits of the precioBase buckets, in ascending order.
+     * @param pageable the pagination information: by relevance, then id, unless sorted in a way {@link #ordenable(Sort)}.
+     * @return the page found and the counts.
+     */
+    ResultadoBusqueda buscar(
+        String consulta,
+        String moneda,
+        BigDecimal precioDesde,
+        BigDecimal precioHasta,
+        List<BigDecimal> rangos,
+        Pageable pageable
+    ) {
+        Optional<Map<Long, Integer>> relevancias = indice.buscar(consulta);
+        List<DispositivoVista> encontrados = relevancias.map(ids -> ids.keySet().stream().map(porId::get).toList()).orElse(dispositivos);
+        Predicate<DispositivoVista> enMoneda = dispositivo -> moneda == null || moneda.equals(dispositivo.moneda());
+        Predicate<DispositivoVista> enPrecio = dispositivo -> entre(dispositivo.precioBase(), precioDesde, precioHasta);
+
+        Map<String, Long> monedas = encontrados
+            .stream()
+            .filter(enPrecio)
+            .filter(dispositivo -> dispositivo.moneda() != null)
+            .collect(Collectors.groupingBy(DispositivoVista::moneda, TreeMap::new, Collectors.counting()));
+        long[] cantidades = new long[rangos.size() + 1];
+        encontrados
+            .stream()
+            .filter(enMoneda)
+            .filter(dispositivo -> dispositivo.precioBase() != null)
+            .forEach(dispositivo -> cantidades[rango(dispositivo.precioBase(), rangos)]++);
+        List<RangoPrecio> precios = new ArrayList<>(cantidades.length);
+        for (int i = 0; i < cantidades.length; i++) {
+            precios.add(new RangoPrecio(i == 0 ? null : rangos.get(i - 1), i == rangos.size() ? null : rangos.get(i), cantidades[i]));
+        }
+
+        Comparator<DispositivoVista> orden = orden(pageable.getSort());
+        if (orden == null) {
+            Map<Long, Integer> relevancia = relevancias.orElse(Map.of());
+            orden = Comparator.<DispositivoVista>comparingInt(dispositivo -> relevancia.getOrDefault(dispositivo.id(), 0))
+                .reversed()
+                .thenComparing(ORDENES.get("id"));
+        }
+        List<DispositivoVista> filtrados = encontrados.stream().filter(enMoneda.and(enPrecio)).sorted(orden).toList();
+        return new ResultadoBusqueda(paginar(filtrados, pageable), monedas, List.copyOf(precios));
+    }
+
+    /**
+     * @return whether this copy can sort the dispositivos as requested.
+     */
+    static boolean ordenable(Sort sort) {
+        return sort.stream().allMatch(order -> ORDENES.containsKey(order.getProperty()) && !order.isIgnoreCase());
+    }
+
+    private static Comparator<DispositivoVista> orden(Sort sort) {
+        Comparator<DispositivoVista> orden = null;
+        for (Sort.Order order : sort) {
+            Comparator<DispositivoVista> comparador = ORDENES.get(order.getProperty());
+            comparador = order.isAscending() ? comparador : comparador.reversed();
+            orden = orden == null ? comparador : orden.thenComparing(comparador);
+        }
+        return orden;
+    }
+
+    private static Page<DispositivoVista> paginar(List<DispositivoVista> ordenados, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(ordenados, pageable, ordenados.size());
+        }
+        int desde = (int) Math.min(pageable.getOffset(), ordenados.size());
+        int hasta = Math.min(desde + pageable.getPageSize(), ordenados.size());
+        return new PageImpl<>(ordenados.subList(desde, hasta), pageable, ordenados.size());
+    }
+
+    private static boolean entre(BigDecimal precio, BigDecimal desde, BigDecimal hasta) {
+        if (desde == null && hasta == null) {
+            return true;
+        }
+        return precio != null && (desde == null || precio.compareTo(desde) >= 0) && (hasta == null || precio.compareTo(hasta) < 0);
+    }
+
+    private static int rango(BigDecimal precio, List<BigDecimal> rangos) {
+        int i = 0;
+        while (i < rangos.size() && precio.compareTo(rangos.get(i)) >= 0) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the dispositivos whose representation a change may alter: the ones changed, and the ones holding the
+     * caracteristicas, personalizaciones, opciones and adicionales changed. New children name their dispositivo or
+     * personalizacion in the change themselves.
+     */
+    Set<Long> afectados(CambioCatalogo cambio) {
+        Set<Long> ids = new LinkedHashSet<>(cambio.dispositivos());
+        cambio.caracteristicas().stream().map(dispositivoDeCaracteristica::get).forEach(ids::add);
+        cambio.personalizaciones().stream().map(dispositivoDePersonalizacion::get).forEach(ids::add);
+        cambio.opciones().stream().map(dispositivoDeOpcion::get).forEach(ids::add);
+        cambio.adicionales().stream().map(id -> dispositivosDeAdicional.getOrDefault(id, Set.of())).forEach(ids::addAll);
+        ids.remove(null);
+        return ids;
+    }
+
+    /**
+     * @return a copy with the given dispositivos read again: the ones found replace or join the current ones, the others
+     * are removed.
+     */
+    CatalogoVista con(Set<Long> ids, Collection<DispositivoVista> leidos) {
+        Map<Long, DispositivoVista> nuevos = new HashMap<>(porId);
+        nuevos.keySet().removeAll(ids);
+        leidos.forEach(dispositivo -> nuevos.put(dispositivo.id(), dispositivo));
+        return new CatalogoVista(nuevos.values(), indice.con(ids, leidos));
+    }
+
+    /**
+     * A page of dispositivos found, with the counts of the ones found by moneda and by precioBase bucket.
+     */
+    record ResultadoBusqueda(Page<DispositivoVista> pagina, Map<String, Long> monedas, List<RangoPrecio> precios) {}
+
+    /**
+     * A precioBase bucket, from {@code desde} included to {@code hasta} excluded; {@code null} limits are open.
+     */
+    record RangoPrecio(BigDecimal desde, BigDecimal hasta, long cantidad) {}
+
+    record DispositivoVista(
+        Long id,
+        String codigo,
+        String nombre,
+        String descripcion,
+        BigDecimal precioBase,
+        String moneda,
+        List<CaracteristicaVista> caracteristicas,
+        List<PersonalizacionVista> personalizaciones,
+        List<AdicionalVista> adicionales
+    ) {
+        DispositivoDTO toDto() {
+            DispositivoDTO dto = new DispositivoDTO();
+            dto.setId(id);
+            dto.setCodigo(codigo);
+            dto.setNombre(nombre);
+            dto.setDescripcion(descripcion);
+            dto.setPrecioBase(precioBase);
+            dto.setMoneda(moneda);
+            dto.setCaracteristicas(caracteristicas.stream().map(CaracteristicaVista::toDto).collect(Collectors.toSet()));
+            dto.setPersonalizaciones(personalizaciones.stream().map(PersonalizacionVista::toDto).collect(Collectors.toSet()));
+            dto.setAdicionales(adicionales.stream().map(AdicionalVista::toDto).collect(Collectors.toSet()));
+            return dto;
+        }
+
+        DispositivoResumenDTO toResumenDto() {
+            DispositivoResumenDTO dto = new DispositivoResumenDTO();
+            dto.setId(id);
+            dto.setCodigo(codigo);
+            dto.setNombre(nombre);
+            dto.setPrecioBase(precioBase);
+            dto.setMoneda(moneda);
+            return dto;
+        }
+    }
+
+    record CaracteristicaVista(Long id, String nombre, String descripcion) {
+        CaracteristicaDTO toDto() {
+            CaracteristicaDTO dto = new CaracteristicaDTO();
+            dto.setId(id);
+            dto.setNombre(nombre);
+            dto.setDescripcion(descripcion);
+            return dto;
+        }
+    }
+
+    record PersonalizacionVista(Long id, String nombre, String descripcion, List<OpcionVista> opciones) {
+        PersonalizacionDTO toDto() {
+            PersonalizacionDTO dto = new PersonalizacionDTO();
+            dto.setId(id);
+            dto.setNombre(nombre);
+            dto.setDescripcion(descripcion);
+            dto.setOpciones(opciones.stream().map(OpcionVista::toDto).collect(Collectors.toSet()));
+            return dto;
+        }
+    }
+
+    record OpcionVista(Long id, String codigo, String nombre, String descripcion, BigDecimal precioAdicional) {
+        OpcionDTO toDto() {
+            OpcionDTO dto = new OpcionDTO();
+            dto.setId(id);
+            dto.setCodigo(codigo);
+            dto.setNombre(nombre);
+            dto.setDescripcion(descripcion);
+            dto.setPrecioAdicional(precioAdicional);
+            return dto;
+        }
+    }
+
+    record AdicionalVista(Long id, String nombre, String descripcion, BigDecimal precio, BigDecimal precioGratis) {
+        AdicionalDTO toDto() {
+            AdicionalDTO dto = new AdicionalDTO();
+            dto.setId(id);
+            dto.setNombre(nombre);
+            dto.setDescripcion(descripcion);
+            dto.setPrecio(precio);
+            dto.setPrecioGratis(precioGratis);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package um.edu.ar.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import um.edu.ar.config.Constants;
+import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.VentaDTO;
+import um.edu.ar.service.dto.VentaProfeDTO;
+
+/**
+ * Single entry point for the calls to the catedra API.
+ * <p>
+ * Every call goes through a bulkhead, bounding the calls in flight, and a circuit breaker that fails fast with
+ * {@link CatedraUnavailableException} while the API is unhealthy. Idempotent GETs are also retried with
+ * jittered exponential backoff; {@code /vender} is never retried because it is not idempotent.
+ */
+@Service
+public class CatedraClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatedraClient.class);
+
+    private static final String REJECTED_METRIC = "catedra.client.rejected";
+
+    private final String baseUrl;
+    private final RestTemplate restTemplate;
+    private final CatedraTokenProvider catedraTokenProvider;
+    private final ObjectMapper objectMapper;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Retry retry;
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadFullRejections;
+
+    @Autowired
+    public CatedraClient(
+        @Qualifier("catedraRestTemplate") RestTemplate restTemplate,
+        CatedraTokenProvider catedraTokenProvider,
+        ObjectMapper objectMapper,
+        CircuitBreaker catedraCircuitBreaker,
+        Bulkhead catedraBulkhead,
+        Retry catedraRetry,
+        MeterRegistry meterRegistry
+    ) {
+        this(
+            Constants.API_URL,
+            restTemplate,
+            catedraTokenProvider,
+            objectMapper,
+            catedraCircuitBreaker,
+            catedraBulkhead,
+            catedraRetry,
+            meterRegistry
+        );
+    }
+
+    CatedraClient(
+        String baseUrl,
+        RestTemplate restTemplate,
+        CatedraTokenProvider catedraTokenProvider,
+        ObjectMapper objectMapper,
+        CircuitBreaker circuitBreaker,
+        Bulkhead bulkhead,
+        Retry retry,
+        MeterRegistry meterRegistry
+    ) {
+        this.baseUrl = baseUrl;
+        this.restTemplate = restTemplate;
+        this.catedraTokenProvider = catedraTokenProvider;
+        this.objectMapper = objectMapper;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.retry = retry;
+        this.circuitOpenRejections = Counter.builder(REJECTED_METRIC)
+            .description("Calls to the catedra API rejected without being sent")
+            .tag("reason", "circuit_open")
+            .register(meterRegistry);
+        this.bulkheadFullRejections = Counter.builder(REJECTED_METRIC)
+            .description("Calls to the catedra API rejected without being sent")
+            .tag("reason", "bulkhead_full")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Register a sale in the catedra API.
+     *
+     * @param ventaDTO the sale to register.
+     * @return the id assigned by the catedra API.
+     * @throws CatedraUnavailableException if the call was rejected by the circuit breaker or the bulkhead.
+     */
+    public Long vender(VentaDTO ventaDTO) {
+        HttpEntity<VentaDTO> entity = new HttpEntity<>(ventaDTO, autenticacion());
+        return ejecutar(
+            proteger(() -> {
+                LOG.debug("Sending sale request to external service");
+                ResponseEntity<VentaProfeDTO> response = restTemplate.exchange(
+                    baseUrl + "/vender",
+                    HttpMethod.POST,
+                    entity,
+                    VentaProfeDTO.class
+                );
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    LOG.error("External service request failed with status code: {}", response.getStatusCode());
+                    throw new RuntimeException("Error during sale request");
+                }
+                return Objects.requireNonNull(response.getBody()).getIdVenta();
+            })
+        );
+    }
+
+    /**
+     * Get every device offered by the catedra API.
+     *
+     * @return the devices.
+     * @throws CatedraUnavailableException if the call was rejected by the circuit breaker or the bulkhead.
+     */
+    public List<DispositivoDTO> obtenerDispositivos() {
+        HttpEntity<String> entity = new HttpEntity<>(autenticacion());
+        return ejecutar(
+            Retry.decorateSupplier(
+                retry,
+                proteger(() -> {
+                    ResponseEntity<List<DispositivoDTO>> response = restTemplate.exchange(
+                        baseUrl + "/dispositivos",
+                        HttpMethod.GET,
+                        entity,
+                        new ParameterizedTypeReference<>() {}
+                    );
+                    if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+                        LOG.error("External API request failed with status code: {}", response.getStatusCode());
+                        throw new RuntimeException("Failed to sync data: Invalid response");
+                    }
+                    return response.getBody();
+                })
+            )
+        );
+    }
+
+    /**
+     * Read every device offered by the catedra API, one at a time: the response is parsed as it arrives and each device
+     * is handed to {@code consumidor} before the next one is read, so the catalog is never held in memory as a whole.
+     * <p>
+     * Unlike {@link #obtenerDispositivos()} the call is not retried, as {@code consumidor} may already have acted on
+     * part of the catalog when it fails.
+     *
+     * @param consumidor called once per device, in the order of the response.
+     * @return the number of devices read.
+     * @throws CatedraUnavailableException if the call was rejected by the circuit breaker or the bulkhead.
+     */
+    public int recorrerDispositivos(Consumer<DispositivoDTO> consumidor) {
+        return descargarDispositivos(Validadores.NINGUNO, (cuerpo, validadores) -> leerDispositivos(cuerpo, consumidor)).orElseThrow();
+    }
+
+    /**
+     * Download the catalog unless it is unchanged since the version identified by {@code previos}: the request carries
+     * {@code If-None-Match} and {@code If-Modified-Since}, and a {@code 304 (Not Modified)} answer skips {@code lector}.
+     * <p>
+     * The call is not retried, as {@code lector} may already have acted on part of the catalog when it fails. The bulkhead
+     * and the circuit breaker only guard the exchange, up to the status and headers of the answer: the time {@code lector}
+     * takes and the errors it throws are not counted against the catedra API.
+     *
+     * @param previos the validators of the catalog already known, {@link Validadores#NINGUNO} to always download it.
+     * @param lector reads the response body; it receives the validators of the new version, which may be empty.
+     * @return what {@code lector} returned, or nothing if the catalog is not modified.
+     * @throws CatedraUnavailableException if the call was rejected by the circuit breaker or the bulkhead.
+     */
+    public OptionalInt descargarDispositivos(Validadores previos, LectorCatalogo lector) {
+        String token = catedraTokenProvider.getToken();
+        Intercambio intercambio = ejecutar(this::abrirIntercambio);
+        try {
+            return restTemplate.execute(
+                baseUrl + "/dispositivos",
+                HttpMethod.GET,
+                request -> {
+                    HttpHeaders headers = request.getHeaders();
+                    headers.setBearerAuth(token);
+                    headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+                    if (previos.etag() != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, previos.etag());
+                    }
+                    if (previos.ultimaModificacion() != null) {
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, previos.ultimaModificacion());
+                    }
+                },
+                response -> {
+                    // The catedra API has answered: reading the body, and whatever lector does with it, is not its call
+                    intercambio.cerrar(null);
+                    if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                        LOG.debug("Catalog not modified since {}", previos);
+                        return OptionalInt.empty();
+                    }
+                    HttpHeaders headers = response.getHeaders();
+                    Validadores validadores = new Validadores(headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED));
+                    return OptionalInt.of(lector.leer(response.getBody(), validadores));
+                }
+            );
+        } catch (RuntimeException e) {
+            intercambio.cerrar(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Parse a catalog in the format served by {@code /dispositivos}, one device at a time.
+     *
+     * @param cuerpo the JSON array of devices.
+     * @param consumidor called once per device, in the order of {@code cuerpo}.
+     * @return the number of devices read.
+     * @throws IOException if {@code cuerpo} cannot be read.
+     */
+    public int leerDispositivos(InputStream cuerpo, Consumer<DispositivoDTO> consumidor) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(cuerpo)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                LOG.error("External API response is not a list of devices");
+                throw new RuntimeException("Failed to sync data: Invalid response");
+            }
+            int leidos = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumidor.accept(objectMapper.readValue(parser, DispositivoDTO.class));
+                leidos++;
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                LOG.error("External API response has an unexpected {} after {} devices", parser.currentToken(), leidos);
+                throw new RuntimeException("Failed to sync data: Invalid response");
+            }
+            return leidos;
+        }
+    }
+
+    /**
+     * HTTP validators of a version of the catalog: its {@code ETag} and {@code Last-Modified}, either may be missing.
+     */
+    public record Validadores(String etag, String ultimaModificacion) {
+        public static final Validadores NINGUNO = new Validadores(null, null);
+
+        public boolean isEmpty() {
+            return etag == null && ultimaModificacion == null;
+        }
+    }
+
+    /**
+     * Reads the body of a catalog download.
+     */
+    @FunctionalInterface
+    public interface LectorCatalogo {
+        int leer(InputStream cuerpo, Validadores validadores) throws IOException;
+    }
+
+    // The bulkhead goes first: a call it rejects never reaches the circuit breaker
+    private <T> Supplier<T> proteger(Supplier<T> llamada) {
+        return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, llamada));
+    }
+
+    private Intercambio abrirIntercambio() {
+        bulkhead.acquirePermission();
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            bulkhead.onComplete();
+            throw e;
+        }
+        return new Intercambio(System.nanoTime());
+    }
+
+    /**
+     * A call holding a permission of the bulkhead and the circuit breaker until {@link #cerrar} records its outcome;
+     * only the first outcome counts.
+     */
+    private final class Intercambio {
+
+        private final long inicio;
+        private boolean cerrado;
+
+        private Intercambio(long inicio) {
+            this.inicio = inicio;
+        }
+
+        void cerrar(Throwable error) {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            bulkhead.onComplete();
+            long duracion = System.nanoTime() - inicio;
+            if (error == null) {
+                circuitBreaker.onSuccess(duracion, TimeUnit.NANOSECONDS);
+            } else {
+                circuitBreaker.onError(duracion, TimeUnit.NANOSECONDS, error);
+            }
+        }
+    }
+
+    private <T> T ejecutar(Supplier<T> llamada) {
+        try {
+            return llamada.get();
+        } catch (CallNotPermittedException e) {
+            circuitOpenRejections.increment();
+            LOG.warn("Catedra API call rejected, circuit breaker is {}", circuitBreaker.getState());
+            throw new CatedraUnavailableException("The catedra API is unavailable, try again later", e);
+        } catch (BulkheadFullException e) {
+            bulkheadFullRejections.increment();
+            LOG.warn("Catedra API call rejected, too many calls in flight");
+            throw new CatedraUnavailableException("Too many concurrent calls to the catedra API, try again later", e);
+        }
+    }
+
+    private HttpHeaders autenticacion() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(catedraTokenProvider.getToken());
+        return headers;
+    }
+}
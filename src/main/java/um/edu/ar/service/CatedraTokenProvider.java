@@ -0,0 +1,160 @@
+package um.edu.ar.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import um.edu.ar.config.ApplicationProperties;
+
+/**
+ * Provides the bearer token used to call the catedra API.
+ * <p>
+ * The token file is read once and kept in memory; it is only parsed again when its modification
+ * time changes, and the modification time itself is checked at most once per
+ * {@code application.catedra.token-check-interval}. The JWT {@code exp} and {@code iat} claims are
+ * decoded so token age and time to expiry can be exported as metrics.
+ */
+@Service
+public class CatedraTokenProvider {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatedraTokenProvider.class);
+
+    private final Path tokenFile;
+    private final long checkIntervalNanos;
+
+    private volatile CachedToken cached;
+
+    @Autowired
+    public CatedraTokenProvider(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this(
+            Paths.get(applicationProperties.getCatedra().getTokenFile()),
+            applicationProperties.getCatedra().getTokenCheckInterval(),
+            meterRegistry
+        );
+    }
+
+    CatedraTokenProvider(Path tokenFile, Duration checkInterval, MeterRegistry meterRegistry) {
+        this.tokenFile = tokenFile;
+        this.checkIntervalNanos = checkInterval.toNanos();
+        Gauge.builder("catedra.token.age", this, CatedraTokenProvider::secondsSinceIssued)
+            .description("Seconds since the catedra bearer token was issued")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("catedra.token.expires.in", this, CatedraTokenProvider::secondsUntilExpiry)
+            .description("Seconds until the catedra bearer token expires")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the current bearer token.
+     *
+     * @return the token.
+     * @throws RuntimeException if the token file cannot be read.
+     */
+    public String getToken() {
+        CachedToken current = cached;
+        if (current != null && System.nanoTime() - current.checkedAt() < checkIntervalNanos) {
+            return current.token();
+        }
+        return refresh().token();
+    }
+
+    /**
+     * Get the expiry of the current token, if the token carries an {@code exp} claim.
+     *
+     * @return the expiry instant, or {@code null} if unknown.
+     */
+    public Instant getExpiresAt() {
+        CachedToken current = cached;
+        return current != null ? current.expiresAt() : null;
+    }
+
+    private synchronized CachedToken refresh() {
+        CachedToken current = cached;
+        long now = System.nanoTime();
+        if (current != null && now - current.checkedAt() < checkIntervalNanos) {
+            return current;
+        }
+        try {
+            long lastModified = Files.getLastModifiedTime(tokenFile).toMillis();
+            if (current != null && current.lastModified() == lastModified) {
+                cached = current.checkedAt(now);
+                return cached;
+            }
+            cached = load(lastModified, now);
+            return cached;
+        } catch (IOException | JSONException e) {
+            if (current != null) {
+                LOG.warn("Failed to reload authentication token from {}, keeping the previous one: {}", tokenFile, e.getMessage());
+                return current;
+            }
+            LOG.error("Failed to load authentication token from file", e);
+            throw new RuntimeException("Error loading token from file", e);
+        }
+    }
+
+    private CachedToken load(long lastModified, long now) throws IOException {
+        LOG.debug("Loading authentication token from {}", tokenFile);
+        String token = new JSONObject(Files.readString(tokenFile, StandardCharsets.UTF_8)).getString("token");
+        Instant issuedAt = null;
+        Instant expiresAt = null;
+        JSONObject claims = decodeClaims(token);
+        if (claims != null) {
+            issuedAt = claims.has("iat") ? Instant.ofEpochSecond(claims.getLong("iat")) : null;
+            expiresAt = claims.has("exp") ? Instant.ofEpochSecond(claims.getLong("exp")) : null;
+        }
+        if (expiresAt != null && expiresAt.isBefore(Instant.now())) {
+            LOG.warn("Authentication token in {} expired at {}", tokenFile, expiresAt);
+        }
+        LOG.info("Authentication token loaded, expires at {}", expiresAt);
+        return new CachedToken(token, lastModified, issuedAt != null ? issuedAt : Instant.ofEpochMilli(lastModified), expiresAt, now);
+    }
+
+    private static JSONObject decodeClaims(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            return new JSONObject(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | JSONException e) {
+            LOG.debug("Authentication token is not a decodable JWT: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private double secondsSinceIssued() {
+        CachedToken current = cached;
+        if (current == null) {
+            return Double.NaN;
+        }
+        return Duration.between(current.issuedAt(), Instant.now()).toSeconds();
+    }
+
+    private double secondsUntilExpiry() {
+        CachedToken current = cached;
+        if (current == null || current.expiresAt() == null) {
+            return Double.NaN;
+        }
+        return Duration.between(Instant.now(), current.expiresAt()).toSeconds();
+    }
+
+    private record CachedToken(String token, long lastModified, Instant issuedAt, Instant expiresAt, long checkedAt) {
+        CachedToken checkedAt(long checkedAt) {
+            return new CachedToken(token, lastModified, issuedAt, expiresAt, checkedAt);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package um.edu.ar.service;
+
+/**
+ * Thrown when a call to the catedra API is rejected without being sent, because its circuit breaker is open
+ * or too many calls are already in flight.
+ */
+public class CatedraUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CatedraUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
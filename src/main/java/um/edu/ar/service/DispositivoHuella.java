@@ -0,0 +1,64 @@
+package um.edu.ar.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import um.edu.ar.service.dto.DispositivoDTO;
+
+/**
+ * Fingerprint of the catedra representation of a dispositivo: the SHA-256 of its JSON in a canonical form, with object
+ * keys and the elements of every collection sorted, so it does not depend on the order the sets are iterated in.
+ */
+final class DispositivoHuella {
+
+    private DispositivoHuella() {}
+
+    static String calcular(ObjectMapper objectMapper, DispositivoDTO dispositivo) {
+        StringBuilder canonico = new StringBuilder();
+        escribir(objectMapper.valueToTree(dispositivo), canonico);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonico.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void escribir(JsonNode node, StringBuilder out) {
+        if (node.isObject()) {
+            Map<String, JsonNode> campos = new TreeMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+                Map.Entry<String, JsonNode> campo = it.next();
+                campos.put(campo.getKey(), campo.getValue());
+            }
+            out.append('{');
+            String separador = "";
+            for (Map.Entry<String, JsonNode> campo : campos.entrySet()) {
+                out.append(separador).append(TextNode.valueOf(campo.getKey())).append(':');
+                escribir(campo.getValue(), out);
+                separador = ",";
+            }
+            out.append('}');
+        } else if (node.isArray()) {
+            List<String> elementos = new ArrayList<>();
+            for (JsonNode elemento : node) {
+                StringBuilder canonico = new StringBuilder();
+                escribir(elemento, canonico);
+                elementos.add(canonico.toString());
+            }
+            elementos.sort(null);
+            out.append('[').append(String.join(",", elementos)).append(']');
+        } else {
+            out.append(node);
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package um.edu.ar.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import um.edu.ar.domain.Adicional;
 import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.domain.event.CambioCatalogo;
 import um.edu.ar.repository.DispositivoRepository;
 import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.DispositivoResumenDTO;
 import um.edu.ar.service.mapper.DispositivoMapper;
 
 /**
@@ -25,11 +35,25 @@ public class DispositivoService {
 
     private final DispositivoRepository dispositivoRepository;
     private final DispositivoMapper dispositivoMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogoEnMemoria catalogoEnMemoria;
+    // The reads served from memory open no transaction; the ones falling back to the database do
+    private final TransactionTemplate lectura;
 
-    public DispositivoService(DispositivoRepository dispositivoRepository, DispositivoMapper dispositivoMapper) {
+    public DispositivoService(
+        DispositivoRepository dispositivoRepository,
+        DispositivoMapper dispositivoMapper,
+        ApplicationEventPublisher eventPublisher,
+        CatalogoEnMemoria catalogoEnMemoria,
+        PlatformTransactionManager transactionManager
+    ) {
         LOG.info("Initializing DeviceService");
         this.dispositivoRepository = dispositivoRepository;
         this.dispositivoMapper = dispositivoMapper;
+        this.eventPublisher = eventPublisher;
+        this.catalogoEnMemoria = catalogoEnMemoria;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
     }
 
     /**
@@ -45,6 +69,7 @@ public class DispositivoService {
         LOG.debug("Saving device entity");
         dispositivo = dispositivoRepository.save(dispositivo);
         LOG.info("Successfully saved device with ID: {}", dispositivo.getId());
+        eventPublisher.publishEvent(cambiosDe(dispositivo).build());
         return dispositivoMapper.toDto(dispositivo);
     }
 
@@ -58,9 +83,15 @@ public class DispositivoService {
         LOG.debug("Request to update Device: {}", dispositivoDTO);
         LOG.debug("Converting DTO to entity for update");
         Dispositivo dispositivo = dispositivoMapper.toEntity(dispositivoDTO);
+        // Loaded first for the adicionales it had; the merge below reuses it
+        CambioCatalogo.Builder cambios = dispositivoRepository
+            .findById(dispositivoDTO.getId())
+            .map(this::cambiosDe)
+            .orElseGet(CambioCatalogo::builder);
         LOG.debug("Updating device entity");
         dispositivo = dispositivoRepository.save(dispositivo);
         LOG.info("Successfully updated device with ID: {}", dispositivo.getId());
+        eventPublisher.publishEvent(cambios.dispositivo(dispositivo.getId()).adicionales(adicionalIds(dispositivo)).build());
         return dispositivoMapper.toDto(dispositivo);
     }
 
@@ -78,12 +109,14 @@ public class DispositivoService {
             .findById(dispositivoDTO.getId())
             .map(existingDispositivo -> {
                 LOG.debug("Found existing device, applying partial update");
+                CambioCatalogo.Builder cambios = cambiosDe(existingDispositivo);
                 dispositivoMapper.partialUpdate(existingDispositivo, dispositivoDTO);
-                return existingDispositivo;
-            })
-            .map(dispositivo -> {
+                // No longer matches the catedra version, the next sync restores it
+                existingDispositivo.setHuella(null);
                 LOG.debug("Saving partially updated device");
-                return dispositivoRepository.save(dispositivo);
+                Dispositivo dispositivo = dispositivoRepository.save(existingDispositivo);
+                eventPublisher.publishEvent(cambios.adicionales(adicionalIds(dispositivo)).build());
+                return dispositivo;
             })
             .map(dispositivo -> {
                 LOG.info("Successfully completed partial update of device with ID: {}", dispositivo.getId());
@@ -97,14 +130,36 @@ public class DispositivoService {
      * @param pageable the pagination information.
      * @return the list of entities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<DispositivoDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Devices with pageable: {}", pageable);
-        Page<DispositivoDTO> result = dispositivoRepository.findAll(pageable).map(dispositivoMapper::toDto);
+        Page<DispositivoDTO> result = enMemoria(pageable).orElseGet(() ->
+            lectura.execute(status ->
+                dispositivoRepository.fetchBagRelationships(dispositivoRepository.findAll(pageable)).map(dispositivoMapper::toDto)
+            )
+        );
         LOG.info("Retrieved {} devices", result.getTotalElements());
         return result;
     }
 
+    /**
+     * Get a summary of all the dispositivos, for catalog listings: their descripcion and relationships are not read.
+     *
+     * @param pageable the pagination information.
+     * @return the list of summaries.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<DispositivoResumenDTO> findAllResumenes(Pageable pageable) {
+        LOG.debug("Request to get a summary of all Devices with pageable: {}", pageable);
+        Page<DispositivoResumenDTO> result = catalogoEnMemoria
+            .catalogo()
+            .flatMap(catalogo -> catalogo.pagina(pageable))
+            .map(pagina -> pagina.map(CatalogoVista.DispositivoVista::toResumenDto))
+            .orElseGet(() -> lectura.execute(status -> dispositivoRepository.findAllResumenes(pageable).map(dispositivoMapper::toResumenDto)));
+        LOG.info("Retrieved {} device summaries", result.getTotalElements());
+        return result;
+    }
+
     @Transactional(readOnly = true)
     public List<DispositivoDTO> findAllNoPag() {
         LOG.debug("Request to get all Devices without pagination");
@@ -113,14 +168,146 @@ public class DispositivoService {
         return devices;
     }
 
+    /**
+     * Get the sync fingerprint of every dispositivo, without loading the entities.
+     *
+     * @return the fingerprints by dispositivo id; the value is {@code null} for dispositivos not synchronized as they are.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, String> findAllHuellas() {
+        LOG.debug("Request to get the fingerprints of all Devices");
+        Map<Long, String> huellas = new HashMap<>();
+        for (DispositivoRepository.HuellaDispositivo huella : dispositivoRepository.findAllHuellas()) {
+            huellas.put(huella.getId(), huella.getHuella());
+        }
+        return huellas;
+    }
+
+    /**
+     * Count the dispositivos.
+     *
+     * @return the number of dispositivos.
+     */
+    @Transactional(readOnly = true)
+    public long count() {
+        LOG.debug("Request to count Devices");
+        return dispositivoRepository.count();
+    }
+
+    /**
+     * Tell whether the dispositivos are still those left by a sync: none was deleted since, nor written outside the sync,
+     * along with any of its caracteristicas, personalizaciones, opciones or adicionales.
+     *
+     * @param dispositivos the number of dispositivos right after that sync.
+     * @return whether every dispositivo has its fingerprint, and there are as many of them.
+     */
+    @Transactional(readOnly = true)
+    public boolean isSincronizado(long dispositivos) {
+        LOG.debug("Request to check the Devices against the {} left by a sync", dispositivos);
+        return !dispositivoRepository.existsByHuellaIsNull() && dispositivoRepository.count() == dispositivos;
+    }
+
+    /**
+     * Store dispositivos as received from the catedra API, along with the fingerprint of each representation, in one
+     * transaction and with JDBC batches. Their adicionales must be stored first, with {@link #sincronizarAdicionales(List)}.
+     *
+     * @param dispositivoDTOs the remote dispositivos.
+     * @param huellas the fingerprint of each of them, by id.
+     * @return the number of rows written.
+     */
+    public int sincronizar(List<DispositivoDTO> dispositivoDTOs, Map<Long, String> huellas) {
+        LOG.debug("Request to synchronize {} Devices", dispositivoDTOs.size());
+        DispositivoRepository.Escritura escritura = dispositivoRepository.upsertEnLote(toEntities(dispositivoDTOs, huellas));
+        eventPublisher.publishEvent(escritura.cambios());
+        return escritura.filas();
+    }
+
+    /**
+     * Store the adicionales of dispositivos as received from the catedra API, in one transaction and with JDBC batches.
+     *
+     * @param dispositivoDTOs the remote dispositivos.
+     * @return the number of rows written.
+     */
+    public int sincronizarAdicionales(List<DispositivoDTO> dispositivoDTOs) {
+        LOG.debug("Request to synchronize the Adicionales of {} Devices", dispositivoDTOs.size());
+        DispositivoRepository.Escritura escritura = dispositivoRepository.upsertAdicionalesEnLote(toEntities(dispositivoDTOs, Map.of()));
+        eventPublisher.publishEvent(escritura.cambios());
+        return escritura.filas();
+    }
+
+    /**
+     * Empty the staging tables of the catalog reconciliation for a sync run, along with the rows left by earlier runs.
+     *
+     * @param ejecucion the id of the sync run.
+     */
+    public void vaciarStaging(long ejecucion) {
+        LOG.debug("Request to empty the catalog staging tables for sync run {}", ejecucion);
+        dispositivoRepository.vaciarStaging(ejecucion);
+    }
+
+    /**
+     * Stage dispositivos as received from the catedra API, along with the fingerprint of each representation, in one
+     * transaction and with JDBC batches.
+     *
+     * @param ejecucion the id of the sync run staging them.
+     * @param dispositivoDTOs the remote dispositivos.
+     * @param huellas the fingerprint of each of them, by id.
+     * @return the number of rows written.
+     */
+    public int cargarStaging(long ejecucion, List<DispositivoDTO> dispositivoDTOs, Map<Long, String> huellas) {
+        LOG.debug("Request to stage {} Devices for sync run {}", dispositivoDTOs.size(), ejecucion);
+        return dispositivoRepository.cargarStaging(ejecucion, toEntities(dispositivoDTOs, huellas));
+    }
+
+    /**
+     * Apply the catalog staged by a sync run to the dispositivos, in one transaction.
+     *
+     * @param ejecucion the id of the sync run.
+     * @param dispositivos the number of dispositivos the run read.
+     * @return what was changed.
+     * @throws IllegalStateException if the run did not stage every dispositivo it read: the missing ones would be deleted.
+     */
+    public DispositivoRepository.Reconciliacion reconciliar(long ejecucion, long dispositivos) {
+        LOG.debug("Request to reconcile the Devices with the catalog staged by sync run {}", ejecucion);
+        long staged = dispositivoRepository.contarStaging(ejecucion);
+        if (staged != dispositivos) {
+            throw new IllegalStateException("Sync run " + ejecucion + " staged " + staged + " of the " + dispositivos + " devices it read");
+        }
+        DispositivoRepository.Reconciliacion reconciliacion = dispositivoRepository.reconciliar(ejecucion);
+        eventPublisher.publishEvent(reconciliacion.cambios());
+        return reconciliacion;
+    }
+
+    /**
+     * The catalog entries a write to the dispositivo affects, besides its own: the inverse side of its adicionales.
+     */
+    private CambioCatalogo.Builder cambiosDe(Dispositivo dispositivo) {
+        return CambioCatalogo.builder().dispositivo(dispositivo.getId()).adicionales(adicionalIds(dispositivo));
+    }
+
+    private static List<Long> adicionalIds(Dispositivo dispositivo) {
+        return dispositivo.getAdicionales().stream().map(Adicional::getId).toList();
+    }
+
+    private List<Dispositivo> toEntities(List<DispositivoDTO> dispositivoDTOs, Map<Long, String> huellas) {
+        List<Dispositivo> dispositivos = new ArrayList<>(dispositivoDTOs.size());
+        for (DispositivoDTO dispositivoDTO : dispositivoDTOs) {
+            dispositivos.add(dispositivoMapper.toEntity(dispositivoDTO).huella(huellas.get(dispositivoDTO.getId())));
+        }
+        return dispositivos;
+    }
+
     /**
      * Get all the dispositivos with eager load of many-to-many relationships.
      *
      * @return the list of entities.
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<DispositivoDTO> findAllWithEagerRelationships(Pageable pageable) {
         LOG.debug("Request to get all Devices with eager load of relationships. Pageable: {}", pageable);
-        Page<DispositivoDTO> result = dispositivoRepository.findAllWithEagerRelationships(pageable).map(dispositivoMapper::toDto);
+        Page<DispositivoDTO> result = enMemoria(pageable).orElseGet(() ->
+            lectura.execute(status -> dispositivoRepository.findAllWithEagerRelationships(pageable).map(dispositivoMapper::toDto))
+        );
         LOG.info("Retrieved {} devices with eager relationships", result.getTotalElements());
         return result;
     }
@@ -131,10 +318,13 @@ public class DispositivoService {
      * @param id the id of the entity.
      * @return the entity.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<DispositivoDTO> findOne(Long id) {
         LOG.debug("Request to get Device by ID: {}", id);
-        Optional<DispositivoDTO> result = dispositivoRepository.findOneWithEagerRelationships(id).map(dispositivoMapper::toDto);
+        Optional<DispositivoDTO> result = catalogoEnMemoria
+            .catalogo()
+            .map(catalogo -> catalogo.porId(id).map(CatalogoVista.DispositivoVista::toDto))
+            .orElseGet(() -> lectura.execute(status -> dispositivoRepository.findOneWithEagerRelationships(id).map(dispositivoMapper::toDto)));
         if (result.isPresent()) {
             LOG.info("Found device with ID: {}", id);
         } else {
@@ -143,6 +333,30 @@ public class DispositivoService {
         return result;
     }
 
+    /**
+     * Get one dispositivo by codigo; if several share it, the one with the lowest id.
+     *
+     * @param codigo the codigo of the entity.
+     * @return the entity.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<DispositivoDTO> findOneByCodigo(String codigo) {
+        LOG.debug("Request to get Device by codigo: {}", codigo);
+        return catalogoEnMemoria
+            .catalogo()
+            .map(catalogo -> catalogo.porCodigo(codigo).map(CatalogoVista.DispositivoVista::toDto))
+            .orElseGet(() ->
+                lectura.execute(status -> dispositivoRepository.findOneWithEagerRelationshipsByCodigo(codigo).map(dispositivoMapper::toDto))
+            );
+    }
+
+    private Optional<Page<DispositivoDTO>> enMemoria(Pageable pageable) {
+        return catalogoEnMemoria
+            .catalogo()
+            .flatMap(catalogo -> catalogo.pagina(pageable))
+            .map(pagina -> pagina.map(CatalogoVista.DispositivoVista::toDto));
+    }
+
     /**
      * Delete the dispositivo by id.
      *
@@ -151,7 +365,13 @@ public class DispositivoService {
     public void delete(Long id) {
         LOG.debug("Request to delete Device with ID: {}", id);
         LOG.debug("Executing deletion");
-        dispositivoRepository.deleteById(id);
+        dispositivoRepository
+            .findById(id)
+            .ifPresent(dispositivo -> {
+                CambioCatalogo cambio = cambiosDe(dispositivo).build();
+                dispositivoRepository.delete(dispositivo);
+                eventPublisher.publishEvent(cambio);
+            });
         LOG.info("Successfully deleted device with ID: {}", id);
     }
 }
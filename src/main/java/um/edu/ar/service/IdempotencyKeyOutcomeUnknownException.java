@@ -0,0 +1,14 @@
+package um.edu.ar.service;
+
+/**
+ * Thrown when the sale of an {@code Idempotency-Key} failed after it was sent to the catedra API, without an answer: it
+ * may or may not be registered, so it is never sent again with that key.
+ */
+public class IdempotencyKeyOutcomeUnknownException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyOutcomeUnknownException(String clave) {
+        super("The sale with idempotency key " + clave + " may already be registered, check it before sending it again");
+    }
+}
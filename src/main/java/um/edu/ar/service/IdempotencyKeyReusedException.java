@@ -0,0 +1,13 @@
+package um.edu.ar.service;
+
+/**
+ * Thrown when an {@code Idempotency-Key} already used by the current user comes with a different request.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyReusedException(String clave) {
+        super("Idempotency key " + clave + " was already used with a different request");
+    }
+}
@@ -0,0 +1,153 @@
+package um.edu.ar.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import um.edu.ar.service.CatalogoVista.DispositivoVista;
+import um.edu.ar.service.CatalogoVista.PersonalizacionVista;
+
+/**
+ * Immutable inverted index of the dispositivos of a {@link CatalogoVista}: for each term of their {@code nombre},
+ * {@code codigo}, {@code descripcion}, caracteristicas and opciones, the dispositivos holding it, each with the weight of
+ * the most relevant field it appears in.
+ * <p>
+ * A copy with some dispositivos read again only rebuilds the postings of their terms; the others are shared with this
+ * index.
+ */
+final class IndiceCatalogo {
+
+    // Weights of the fields, by relevance of a match in them
+    private static final int PESO_NOMBRE = 3;
+    private static final int PESO_DETALLE = 2;
+    private static final int PESO_DESCRIPCION = 1;
+
+    private static final Pattern SEPARADOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    private final TreeMap<String, Map<Long, Integer>> postings;
+    private final Map<Long, Set<String>> terminosDe;
+
+    IndiceCatalogo(Collection<DispositivoVista> dispositivos) {
+        this(new TreeMap<>(), new HashMap<>());
+        indexar(dispositivos, new HashMap<>());
+    }
+
+    private IndiceCatalogo(TreeMap<String, Map<Long, Integer>> postings, Map<Long, Set<String>> terminosDe) {
+        this.postings = postings;
+        this.terminosDe = terminosDe;
+    }
+
+    /**
+     * @return a copy with the given dispositivos removed, and the ones read again indexed anew.
+     */
+    IndiceCatalogo con(Set<Long> ids, Collection<DispositivoVista> leidos) {
+        IndiceCatalogo copia = new IndiceCatalogo(new TreeMap<>(postings), new HashMap<>(terminosDe));
+        // Copy on write: the postings left as they are stay shared with this index
+        Map<String, Map<Long, Integer>> cambiados = new HashMap<>();
+        Set<Long> quitados = new HashSet<>(ids);
+        leidos.forEach(dispositivo -> quitados.add(dispositivo.id()));
+        for (Long id : quitados) {
+            for (String termino : copia.terminosDe.getOrDefault(id, Set.of())) {
+                cambiados.computeIfAbsent(termino, clave -> new HashMap<>(postings.get(clave))).remove(id);
+            }
+            copia.terminosDe.remove(id);
+        }
+        copia.indexar(leidos, cambiados);
+        return copia;
+    }
+
+    /**
+     * Find the dispositivos holding every term of a query; each term also matches the longer terms it starts.
+     *
+     * @param consulta the query.
+     * @return the relevance of each dispositivo found, or nothing if the query has no term: it does not restrict them.
+     */
+    Optional<Map<Long, Integer>> buscar(String consulta) {
+        List<String> terminos = terminos(consulta);
+        if (terminos.isEmpty()) {
+            return Optional.empty();
+        }
+        // From the rarest term: the others are only probed for the dispositivos still found
+        List<Collection<Map<Long, Integer>>> coincidencias = terminos
+            .stream()
+            .map(termino -> postings.subMap(termino, true, termino + Character.MAX_VALUE, false).values())
+            .sorted(Comparator.comparingLong(IndiceCatalogo::tamanio))
+            .toList();
+        Map<Long, Integer> resultado = new HashMap<>();
+        coincidencias.get(0).forEach(posting -> posting.forEach((id, peso) -> resultado.merge(id, peso, Math::max)));
+        for (Collection<Map<Long, Integer>> termino : coincidencias.subList(1, coincidencias.size())) {
+            resultado
+                .entrySet()
+                .removeIf(encontrado -> {
+                    int peso = 0;
+                    for (Map<Long, Integer> posting : termino) {
+                        peso = Math.max(peso, posting.getOrDefault(encontrado.getKey(), 0));
+                    }
+                    encontrado.setValue(encontrado.getValue() + peso);
+                    return peso == 0;
+                });
+        }
+        return Optional.of(resultado);
+    }
+
+    private static long tamanio(Collection<Map<Long, Integer>> postings) {
+        return postings.stream().mapToLong(Map::size).sum();
+    }
+
+    /**
+     * Add dispositivos to the postings, starting from the ones given, which may already be changed, then store them.
+     */
+    private void indexar(Collection<DispositivoVista> dispositivos, Map<String, Map<Long, Integer>> cambiados) {
+        for (DispositivoVista dispositivo : dispositivos) {
+            Map<String, Integer> pesos = pesos(dispositivo);
+            pesos.forEach((termino, peso) ->
+                cambiados.computeIfAbsent(termino, clave -> new HashMap<>(postings.getOrDefault(clave, Map.of()))).put(dispositivo.id(), peso)
+            );
+            terminosDe.put(dispositivo.id(), Set.copyOf(pesos.keySet()));
+        }
+        cambiados.forEach((termino, posting) -> {
+            if (posting.isEmpty()) {
+                postings.remove(termino);
+            } else {
+                postings.put(termino, Map.copyOf(posting));
+            }
+        });
+    }
+
+    private static Map<String, Integer> pesos(DispositivoVista dispositivo) {
+        Map<String, Integer> pesos = new HashMap<>();
+        pesar(pesos, dispositivo.nombre(), PESO_NOMBRE);
+        pesar(pesos, dispositivo.codigo(), PESO_NOMBRE);
+        dispositivo.caracteristicas().forEach(caracteristica -> pesar(pesos, caracteristica.nombre(), PESO_DETALLE));
+        for (PersonalizacionVista personalizacion : dispositivo.personalizaciones()) {
+            personalizacion.opciones().forEach(opcion -> pesar(pesos, opcion.nombre(), PESO_DETALLE));
+        }
+        pesar(pesos, dispositivo.descripcion(), PESO_DESCRIPCION);
+        return pesos;
+    }
+
+    private static void pesar(Map<String, Integer> pesos, String texto, int peso) {
+        terminos(texto).forEach(termino -> pesos.merge(termino, peso, Math::max));
+    }
+
+    /**
+     * @return the terms of a text: its words and numbers, lowercase and without diacritics.
+     */
+    static List<String> terminos(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARADOR.split(normalizado)).filter(termino -> !termino.isEmpty()).distinct().toList();
+    }
+}
@@ -0,0 +1,13 @@
+package um.edu.ar.service;
+
+/**
+ * Thrown when a pagination cursor sent by a client cannot be decoded.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidCursorException(String cursor, Throwable cause) {
+        super("Invalid cursor: " + cursor, cause);
+    }
+}
@@ -3,11 +3,15 @@ package um.edu.ar.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import um.edu.ar.domain.Opcion;
+import um.edu.ar.domain.Personalizacion;
+import um.edu.ar.domain.event.CambioCatalogo;
+import um.edu.ar.repository.DispositivoRepository;
 import um.edu.ar.repository.OpcionRepository;
 import um.edu.ar.service.dto.OpcionDTO;
 import um.edu.ar.service.mapper.OpcionMapper;
@@ -23,10 +27,19 @@ public class OpcionService {
 
     private final OpcionRepository opcionRepository;
     private final OpcionMapper opcionMapper;
+    private final DispositivoRepository dispositivoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public OpcionService(OpcionRepository opcionRepository, OpcionMapper opcionMapper) {
+    public OpcionService(
+        OpcionRepository opcionRepository,
+        OpcionMapper opcionMapper,
+        DispositivoRepository dispositivoRepository,
+        ApplicationEventPublisher eventPublisher
+    ) {
         this.opcionRepository = opcionRepository;
         this.opcionMapper = opcionMapper;
+        this.dispositivoRepository = dispositivoRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -42,6 +55,7 @@ public class OpcionService {
         LOG.debug("Saving option entity");
         opcion = opcionRepository.save(opcion);
         LOG.info("Successfully saved option with ID: {}", opcion.getId());
+        publicar(cambiosDe(opcion).build());
         return opcionMapper.toDto(opcion);
     }
 
@@ -55,9 +69,12 @@ public class OpcionService {
         LOG.debug("Request to update Option: {}", opcionDTO);
         LOG.debug("Converting DTO to entity for update");
         Opcion opcion = opcionMapper.toEntity(opcionDTO);
+        // Loaded first for the personalizacion it had; the merge below reuses it
+        CambioCatalogo.Builder cambios = opcionRepository.findById(opcionDTO.getId()).map(this::cambiosDe).orElseGet(CambioCatalogo::builder);
         LOG.debug("Updating option entity");
         opcion = opcionRepository.save(opcion);
         LOG.info("Successfully updated option with ID: {}", opcion.getId());
+        publicar(cambios.opcion(opcion.getId()).personalizacion(personalizacionId(opcion)).build());
         return opcionMapper.toDto(opcion);
     }
 
@@ -75,12 +92,12 @@ public class OpcionService {
             .findById(opcionDTO.getId())
             .map(existingOpcion -> {
                 LOG.debug("Found existing option, applying partial update");
+                CambioCatalogo.Builder cambios = cambiosDe(existingOpcion);
                 opcionMapper.partialUpdate(existingOpcion, opcionDTO);
-                return existingOpcion;
-            })
-            .map(opcion -> {
                 LOG.debug("Saving partially updated option");
-                return opcionRepository.save(opcion);
+                Opcion opcion = opcionRepository.save(existingOpcion);
+                publicar(cambios.personalizacion(personalizacionId(opcion)).build());
+                return opcion;
             })
             .map(opcion -> {
                 LOG.info("Successfully completed partial update of option with ID: {}", opcion.getId());
@@ -128,7 +145,36 @@ public class OpcionService {
     public void delete(Long id) {
         LOG.debug("Request to delete Option with ID: {}", id);
         LOG.debug("Executing deletion");
-        opcionRepository.deleteById(id);
+        opcionRepository
+            .findById(id)
+            .ifPresent(opcion -> {
+                CambioCatalogo cambio = cambiosDe(opcion).build();
+                opcionRepository.delete(opcion);
+                publicar(cambio);
+            });
         LOG.info("Successfully deleted option with ID: {}", id);
     }
+
+    /**
+     * Publish a change of the catalog, clearing the sync fingerprint of the dispositivos owning the personalizaciones it
+     * writes: they no longer match the catedra version, so the next sync restores them.
+     */
+    private void publicar(CambioCatalogo cambio) {
+        if (!cambio.personalizaciones().isEmpty()) {
+            dispositivoRepository.borrarHuellasDePersonalizaciones(cambio.personalizaciones());
+        }
+        eventPublisher.publishEvent(cambio);
+    }
+
+    /**
+     * The catalog entries a write to the opcion affects, besides its own: the opciones of its personalizacion.
+     */
+    private CambioCatalogo.Builder cambiosDe(Opcion opcion) {
+        return CambioCatalogo.builder().opcion(opcion.getId()).personalizacion(personalizacionId(opcion));
+    }
+
+    private static Long personalizacionId(Opcion opcion) {
+        Personalizacion personalizacion = opcion.getPersonalizacion();
+        return personalizacion == null ? null : personalizacion.getId();
+    }
 }
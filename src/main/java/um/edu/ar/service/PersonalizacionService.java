@@ -3,11 +3,15 @@ package um.edu.ar.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import um.edu.ar.domain.Dispositivo;
 import um.edu.ar.domain.Personalizacion;
+import um.edu.ar.domain.event.CambioCatalogo;
+import um.edu.ar.repository.DispositivoRepository;
 import um.edu.ar.repository.PersonalizacionRepository;
 import um.edu.ar.service.dto.PersonalizacionDTO;
 import um.edu.ar.service.mapper.PersonalizacionMapper;
@@ -23,10 +27,19 @@ public class PersonalizacionService {
 
     private final PersonalizacionRepository personalizacionRepository;
     private final PersonalizacionMapper personalizacionMapper;
+    private final DispositivoRepository dispositivoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PersonalizacionService(PersonalizacionRepository personalizacionRepository, PersonalizacionMapper personalizacionMapper) {
+    public PersonalizacionService(
+        PersonalizacionRepository personalizacionRepository,
+        PersonalizacionMapper personalizacionMapper,
+        DispositivoRepository dispositivoRepository,
+        ApplicationEventPublisher eventPublisher
+    ) {
         this.personalizacionRepository = personalizacionRepository;
         this.personalizacionMapper = personalizacionMapper;
+        this.dispositivoRepository = dispositivoRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -42,6 +55,7 @@ public class PersonalizacionService {
         LOG.debug("Saving personalization entity");
         personalizacion = personalizacionRepository.save(personalizacion);
         LOG.info("Successfully saved personalization with ID: {}", personalizacion.getId());
+        publicar(cambiosDe(personalizacion).build());
         return personalizacionMapper.toDto(personalizacion);
     }
 
@@ -55,9 +69,15 @@ public class PersonalizacionService {
         LOG.debug("Request to update Personalization: {}", personalizacionDTO);
         LOG.debug("Converting DTO to entity for update");
         Personalizacion personalizacion = personalizacionMapper.toEntity(personalizacionDTO);
+        // Loaded first for the dispositivo it had; the merge below reuses it
+        CambioCatalogo.Builder cambios = personalizacionRepository
+            .findById(personalizacionDTO.getId())
+            .map(this::cambiosDe)
+            .orElseGet(CambioCatalogo::builder);
         LOG.debug("Updating personalization entity");
         personalizacion = personalizacionRepository.save(personalizacion);
         LOG.info("Successfully updated personalization with ID: {}", personalizacion.getId());
+        publicar(cambios.personalizacion(personalizacion.getId()).dispositivo(dispositivoId(personalizacion)).build());
         return personalizacionMapper.toDto(personalizacion);
     }
 
@@ -75,12 +95,12 @@ public class PersonalizacionService {
             .findById(personalizacionDTO.getId())
             .map(existingPersonalizacion -> {
                 LOG.debug("Found existing personalization, applying partial update");
+                CambioCatalogo.Builder cambios = cambiosDe(existingPersonalizacion);
                 personalizacionMapper.partialUpdate(existingPersonalizacion, personalizacionDTO);
-                return existingPersonalizacion;
-            })
-            .map(personalizacion -> {
                 LOG.debug("Saving partially updated personalization");
-                return personalizacionRepository.save(personalizacion);
+                Personalizacion personalizacion = personalizacionRepository.save(existingPersonalizacion);
+                publicar(cambios.dispositivo(dispositivoId(personalizacion)).build());
+                return personalizacion;
             })
             .map(personalizacion -> {
                 LOG.info("Successfully completed partial update of personalization with ID: {}", personalizacion.getId());
@@ -128,7 +148,36 @@ public class PersonalizacionService {
     public void delete(Long id) {
         LOG.debug("Request to delete Personalization with ID: {}", id);
         LOG.debug("Executing deletion");
-        personalizacionRepository.deleteById(id);
+        personalizacionRepository
+            .findById(id)
+            .ifPresent(personalizacion -> {
+                CambioCatalogo cambio = cambiosDe(personalizacion).build();
+                personalizacionRepository.delete(personalizacion);
+                publicar(cambio);
+            });
         LOG.info("Successfully deleted personalization with ID: {}", id);
     }
+
+    /**
+     * Publish a change of the catalog, clearing the sync fingerprint of the dispositivos it writes: they no longer match
+     * the catedra version, so the next sync restores them.
+     */
+    private void publicar(CambioCatalogo cambio) {
+        if (!cambio.dispositivos().isEmpty()) {
+            dispositivoRepository.borrarHuellas(cambio.dispositivos());
+        }
+        eventPublisher.publishEvent(cambio);
+    }
+
+    /**
+     * The catalog entries a write to the personalizacion affects, besides its own: the personalizaciones of its dispositivo.
+     */
+    private CambioCatalogo.Builder cambiosDe(Personalizacion personalizacion) {
+        return CambioCatalogo.builder().personalizacion(personalizacion.getId()).dispositivo(dispositivoId(personalizacion));
+    }
+
+    private static Long dispositivoId(Personalizacion personalizacion) {
+        Dispositivo dispositivo = personalizacion.getDispositivo();
+        return dispositivo == null ? null : dispositivo.getId();
+    }
 }
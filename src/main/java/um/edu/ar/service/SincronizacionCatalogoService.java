@@ -0,0 +1,273 @@
+package um.edu.ar.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import um.edu.ar.domain.SincronizacionCatalogo;
+import um.edu.ar.domain.enumeration.EstadoSincronizacion;
+import um.edu.ar.domain.enumeration.OrigenSincronizacion;
+import um.edu.ar.repository.SincronizacionCatalogoRepository;
+import um.edu.ar.service.dto.SincronizacionCatalogoDTO;
+import um.edu.ar.service.mapper.SincronizacionCatalogoMapper;
+
+/**
+ * Records the runs of the catalog sync in {@link SincronizacionCatalogo} and publishes their metrics:
+ * <ul>
+ * <li>{@code catalog.sync.duration}, a timer tagged with the origin and the outcome of each run;</li>
+ * <li>{@code catalog.sync.lag}, the time since the last successful run;</li>
+ * <li>{@code catalog.sync.devices.changed}, a counter of the devices written, whose rate is the changed-device rate.</li>
+ * </ul>
+ */
+@Service
+@Transactional
+public class SincronizacionCatalogoService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SincronizacionCatalogoService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final EnumSet<EstadoSincronizacion> EXITOSAS = EnumSet.of(
+        EstadoSincronizacion.COMPLETADA,
+        EstadoSincronizacion.SIN_CAMBIOS
+    );
+
+    private final SincronizacionCatalogoRepository sincronizacionCatalogoRepository;
+    private final SincronizacionCatalogoMapper sincronizacionCatalogoMapper;
+    private final MeterRegistry meterRegistry;
+    private final Counter dispositivosActualizados;
+    private final AtomicReference<Instant> ultimoExito = new AtomicReference<>();
+    private volatile Ejecucion enCurso;
+
+    public SincronizacionCatalogoService(
+        SincronizacionCatalogoRepository sincronizacionCatalogoRepository,
+        SincronizacionCatalogoMapper sincronizacionCatalogoMapper,
+        MeterRegistry meterRegistry
+    ) {
+        this.sincronizacionCatalogoRepository = sincronizacionCatalogoRepository;
+        this.sincronizacionCatalogoMapper = sincronizacionCatalogoMapper;
+        this.meterRegistry = meterRegistry;
+        this.dispositivosActualizados = Counter.builder("catalog.sync.devices.changed")
+            .description("Devices written by the catalog sync")
+            .register(meterRegistry);
+        TimeGauge.builder("catalog.sync.lag", this, TimeUnit.MILLISECONDS, SincronizacionCatalogoService::lagMillis)
+            .description("Time since the last successful catalog sync")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Start the lag from the last successful run recorded, so that it survives restarts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargarUltimoExito() {
+        sincronizacionCatalogoRepository
+            .findFirstByEstadoInOrderByIdDesc(EXITOSAS)
+            .map(SincronizacionCatalogo::getFin)
+            .ifPresent(fin -> ultimoExito.accumulateAndGet(fin, SincronizacionCatalogoService::masReciente));
+    }
+
+    /**
+     * Record the start of a run.
+     *
+     * @param origen what started the run.
+     * @return the run, to report its progress and then {@link #terminar} it.
+     */
+    public Ejecucion iniciar(OrigenSincronizacion origen) {
+        SincronizacionCatalogo sincronizacion = new SincronizacionCatalogo();
+        sincronizacion.setOrigen(origen);
+        sincronizacion.setEstado(EstadoSincronizacion.EN_CURSO);
+        sincronizacion.setInicio(Instant.now());
+        sincronizacion = sincronizacionCatalogoRepository.save(sincronizacion);
+        Ejecucion ejecucion = new Ejecucion(sincronizacion.getId(), origen, sincronizacion.getInicio());
+        enCurso = ejecucion;
+        return ejecucion;
+    }
+
+    /**
+     * Record the end of a run, with its timings and counts.
+     *
+     * @param ejecucion the run.
+     * @param estado how it ended.
+     * @param error what made it fail, {@code null} if it did not.
+     */
+    public void terminar(Ejecucion ejecucion, EstadoSincronizacion estado, String error) {
+        enCurso = null;
+        Instant fin = Instant.now();
+        Duration duracion = Duration.ofNanos(System.nanoTime() - ejecucion.inicioNanos);
+        Timer.builder("catalog.sync.duration")
+            .description("Duration of the catalog sync runs")
+            .tag("origin", ejecucion.origen.name().toLowerCase())
+            .tag("outcome", estado.name().toLowerCase())
+            .register(meterRegistry)
+            .record(duracion);
+        dispositivosActualizados.increment(ejecucion.getDispositivosActualizados());
+        if (EXITOSAS.contains(estado)) {
+            ultimoExito.accumulateAndGet(fin, SincronizacionCatalogoService::masReciente);
+        }
+
+        Optional<SincronizacionCatalogo> registrada = sincronizacionCatalogoRepository.findById(ejecucion.id);
+        if (registrada.isEmpty()) {
+            LOG.warn("Catalog sync run {} not found to record its end", ejecucion.id);
+            return;
+        }
+        SincronizacionCatalogo sincronizacion = registrada.orElseThrow();
+        sincronizacion.setEstado(estado);
+        sincronizacion.setFin(fin);
+        sincronizacion.setDescargaMs(TimeUnit.NANOSECONDS.toMillis(ejecucion.descargaNanos));
+        sincronizacion.setLecturaMs(TimeUnit.NANOSECONDS.toMillis(ejecucion.lecturaNanos));
+        sincronizacion.setEscrituraMs(TimeUnit.NANOSECONDS.toMillis(ejecucion.getEscrituraNanos()));
+        sincronizacion.setDispositivosLeidos(ejecucion.leidos);
+        sincronizacion.setDispositivosActualizados(ejecucion.getDispositivosActualizados());
+        sincronizacion.setFilasEscritas(ejecucion.getFilasEscritas());
+        sincronizacion.setError(StringUtils.abbreviate(error, MAX_ERROR_LENGTH));
+    }
+
+    /**
+     * Get the most recent runs, the last one first.
+     *
+     * @param cantidad how many runs.
+     * @return the runs.
+     */
+    @Transactional(readOnly = true)
+    public List<SincronizacionCatalogoDTO> recientes(int cantidad) {
+        return sincronizacionCatalogoRepository
+            .findAllByOrderByIdDesc(PageRequest.of(0, cantidad))
+            .stream()
+            .map(sincronizacionCatalogoMapper::toDto)
+            .toList();
+    }
+
+    /**
+     * @param desde the earliest end of the run.
+     * @return when the last successful run with the remote catalog recorded by any node ended, if it ended after the
+     * given time.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Instant> ultimoExitoDesde(Instant desde) {
+        return sincronizacionCatalogoRepository
+            .findFirstByEstadoInAndOrigenNotOrderByIdDesc(EXITOSAS, OrigenSincronizacion.SNAPSHOT)
+            .map(SincronizacionCatalogo::getFin)
+            .filter(fin -> fin.isAfter(desde));
+    }
+
+    /**
+     * @return the run in progress, if any.
+     */
+    public Optional<Ejecucion> enCurso() {
+        return Optional.ofNullable(enCurso);
+    }
+
+    private double lagMillis() {
+        Instant ultimo = ultimoExito.get();
+        return ultimo == null ? Double.NaN : Duration.between(ultimo, Instant.now()).toMillis();
+    }
+
+    private static Instant masReciente(Instant a, Instant b) {
+        return a == null || b.isAfter(a) ? b : a;
+    }
+
+    /**
+     * Progress of a run. Reads are counted by the thread running the sync, writes by the partition writers.
+     */
+    public static final class Ejecucion {
+
+        private final Long id;
+        private final OrigenSincronizacion origen;
+        private final Instant inicio;
+        private final long inicioNanos = System.nanoTime();
+        private volatile long descargaNanos;
+        private volatile long lecturaNanos;
+        private volatile long esperaNanos;
+        private volatile int leidos;
+        private final AtomicLong escrituraNanos = new AtomicLong();
+        private final AtomicInteger actualizados = new AtomicInteger();
+        private final AtomicInteger filas = new AtomicInteger();
+
+        Ejecucion(Long id, OrigenSincronizacion origen, Instant inicio) {
+            this.id = id;
+            this.origen = origen;
+            this.inicio = inicio;
+        }
+
+        /**
+         * Mark the catalog as received: the time since the start is the fetch time.
+         */
+        void descargado() {
+            descargaNanos = System.nanoTime() - inicioNanos;
+        }
+
+        /**
+         * Mark the catalog as read: the time since it was received, less the time spent waiting for the writers, is the
+         * parse time.
+         */
+        void leido() {
+            lecturaNanos = System.nanoTime() - inicioNanos - descargaNanos - esperaNanos;
+        }
+
+        /**
+         * Count time the reading thread spent waiting for the writers.
+         */
+        void esperado(long nanos) {
+            esperaNanos += nanos;
+        }
+
+        void dispositivoLeido() {
+            leidos++;
+        }
+
+        /**
+         * Count a written partition; the write time is the sum of the partitions, which run in parallel.
+         */
+        void escrito(int dispositivos, int filasEscritas, long nanos) {
+            actualizados.addAndGet(dispositivos);
+            filas.addAndGet(filasEscritas);
+            escrituraNanos.addAndGet(nanos);
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public OrigenSincronizacion getOrigen() {
+            return origen;
+        }
+
+        public Instant getInicio() {
+            return inicio;
+        }
+
+        public int getDispositivosLeidos() {
+            return leidos;
+        }
+
+        public int getDispositivosActualizados() {
+            return actualizados.get();
+        }
+
+        public int getFilasEscritas() {
+            return filas.get();
+        }
+
+        long getEscrituraNanos() {
+            return escrituraNanos.get();
+        }
+    }
+}
@@ -1,129 +1,586 @@
 package um.edu.ar.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import org.json.JSONObject;
+import java.util.OptionalInt;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.*;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import um.edu.ar.config.Constants;
+import um.edu.ar.config.ApplicationProperties;
+import um.edu.ar.domain.enumeration.EstadoSincronizacion;
+import um.edu.ar.domain.enumeration.OrigenSincronizacion;
+import um.edu.ar.repository.DispositivoRepository;
+import um.edu.ar.service.SincronizacionCatalogoService.Ejecucion;
 import um.edu.ar.service.dto.DispositivoDTO;
 
 @Service
 public class UpdateDatabase {
 
     private static final Logger LOG = LoggerFactory.getLogger(UpdateDatabase.class);
-    //    private static final String DEVICES_URL = "http://192.168.194.254:8080/api/catedra/dispositivos";
-    private static final String DEVICES_URL = Constants.API_URL + "/dispositivos";
 
-    @Autowired
-    private DispositivoService dispositivoService;
+    // Returned by the catalog reader when the body is the same as the snapshot one
+    private static final int BODY_UNCHANGED = -1;
 
-    private final RestTemplate restTemplate;
+    private static final long PARTITION_RETRY_DELAY_MILLIS = 50;
 
-    public UpdateDatabase() {
-        this.restTemplate = new RestTemplate();
-    }
+    private static final String SYNC_JOB = "catalogo-sync";
 
-    private String loadTokenFromFile() {
-        LOG.debug("Attempting to load authentication token from file");
-        try {
-            byte[] bytes = Files.readAllBytes(Paths.get("token.json"));
-            JSONObject jsonObject = new JSONObject(new String(bytes));
-            return jsonObject.getString("token");
-        } catch (IOException e) {
-            LOG.error("Failed to load authentication token from file: {}", e.getMessage());
-            throw new RuntimeException("Error loading token from file", e);
-        }
+    private final DispositivoService dispositivoService;
+
+    private final CatedraClient catedraClient;
+
+    private final CatalogoSnapshot catalogoSnapshot;
+
+    private final SincronizacionCatalogoService sincronizacionCatalogoService;
+
+    private final BloqueoTareaService bloqueoTareaService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Executor taskExecutor;
+
+    private final Executor catalogoSyncExecutor;
+
+    private final int parallelism;
+
+    private final int chunkSize;
+
+    private final int partitionAttempts;
+
+    private final boolean streaming;
+
+    private final boolean reconcile;
+
+    // Startup, scheduled and background syncs would otherwise race on the same rows
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile Instant startedAt;
+
+    private volatile Instant lastSync;
+
+    private volatile boolean snapshotLoaded;
+
+    public UpdateDatabase(
+        DispositivoService dispositivoService,
+        CatedraClient catedraClient,
+        CatalogoSnapshot catalogoSnapshot,
+        SincronizacionCatalogoService sincronizacionCatalogoService,
+        BloqueoTareaService bloqueoTareaService,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        @Qualifier("catalogoSyncExecutor") ThreadPoolTaskExecutor catalogoSyncExecutor
+    ) {
+        this.dispositivoService = dispositivoService;
+        this.catedraClient = catedraClient;
+        this.catalogoSnapshot = catalogoSnapshot;
+        this.sincronizacionCatalogoService = sincronizacionCatalogoService;
+        this.bloqueoTareaService = bloqueoTareaService;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+        this.catalogoSyncExecutor = catalogoSyncExecutor;
+        this.parallelism = catalogoSyncExecutor.getMaxPoolSize();
+        this.chunkSize = applicationProperties.getCatedra().getSync().getChunkSize();
+        this.partitionAttempts = Math.max(1, applicationProperties.getCatedra().getSync().getPartitionAttempts());
+        this.streaming = applicationProperties.getCatedra().getSync().isStreaming();
+        this.reconcile = applicationProperties.getCatedra().getSync().isReconcile();
     }
 
+    /**
+     * Starts the first catalog sync in the background, so a slow or unreachable catedra host does not hold up startup.
+     * Until it completes, {@link CatalogoHealthIndicator} keeps the node out of the readiness group.
+     */
     @EventListener(ApplicationReadyEvent.class)
     public void initialize() {
         LOG.info("Initializing UpdateDatabase service");
-        try {
-            syncData();
-            LOG.info("UpdateDatabase service initialized successfully");
-        } catch (Exception e) {
-            LOG.error("Failed to initialize UpdateDatabase service: {}", e.getMessage());
-            throw new RuntimeException("Service initialization failed", e);
-        }
+        startedAt = Instant.now();
+        taskExecutor.execute(this::initialSync);
     }
 
-    @Scheduled(fixedRate = 600000)
+    /**
+     * Syncs the catalog on one node of the cluster: the catalog is shared, so the other nodes skip the run.
+     */
+    @Scheduled(fixedRate = 600000, initialDelay = 600000)
     public void scheduledSync() {
-        try {
-            syncData();
-        } catch (Exception e) {
-            LOG.error("Scheduled sync failed: {}", e.getMessage());
-            LOG.debug("Detailed error in scheduled sync: ", e);
+        bloqueoTareaService.ejecutar(SYNC_JOB, () -> {
+            try {
+                syncData(OrigenSincronizacion.PROGRAMADA);
+            } catch (Exception e) {
+                LOG.error("Scheduled sync failed: {}", e.getMessage());
+                LOG.debug("Detailed error in scheduled sync: ", e);
+            }
+        });
+    }
+
+    /**
+     * @return when the catalog was last synced with the remote one, by this node or, since this node started, by another
+     * one; {@code null} if it has not been yet.
+     */
+    public Instant getLastSync() {
+        Instant last = lastSync;
+        if (last == null && startedAt != null) {
+            // The catalog is shared: a run of the node holding the sync job counts as well
+            last = sincronizacionCatalogoService.ultimoExitoDesde(startedAt).orElse(null);
         }
+        return last;
     }
 
-    private void syncData() {
-        LOG.info("Starting data synchronization process");
-        try {
-            String token = loadTokenFromFile();
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(token);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<List<DispositivoDTO>> response = restTemplate.exchange(
-                DEVICES_URL,
-                HttpMethod.GET,
-                entity,
-                new ParameterizedTypeReference<>() {}
-            );
+    /**
+     * @return when {@link #initialize()} ran, {@code null} before that.
+     */
+    public Instant getStartedAt() {
+        return startedAt;
+    }
 
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                List<DispositivoDTO> devices = response.getBody();
-                LOG.info("Successfully retrieved {} devices from external API", devices.size());
-                updateLocalDatabase(devices);
-            } else {
-                LOG.error("External API request failed with status code: {}", response.getStatusCode());
-                throw new RuntimeException("Failed to sync data: Invalid response");
+    /**
+     * @return whether the catalog was loaded from the on-disk snapshot since startup.
+     */
+    public boolean isSnapshotLoaded() {
+        return snapshotLoaded;
+    }
+
+    /**
+     * Syncs the catalog unless another node is already syncing it: the catalog is shared, so this node serves the one
+     * that node writes.
+     */
+    private void initialSync() {
+        boolean ran = bloqueoTareaService.ejecutar(SYNC_JOB, () -> {
+            if (streaming && catalogoSnapshot.existe()) {
+                // The last good catalog is on disk: start from it while the remote call is pending
+                syncFromSnapshot();
+            }
+            try {
+                syncData(OrigenSincronizacion.INICIO);
+                LOG.info("UpdateDatabase service initialized successfully");
+            } catch (Exception e) {
+                LOG.error("Initial sync failed, retrying on schedule: {}", e.getMessage());
+                LOG.debug("Detailed error in initial sync: ", e);
+            }
+        });
+        if (!ran) {
+            LOG.info("Catalog is being synced by another node, skipping the initial sync");
+        }
+    }
+
+    /**
+     * Starts a sync in the background, unless one is already running on any node of the cluster.
+     *
+     * @return whether the sync was started.
+     */
+    public boolean requestSync() {
+        if (syncLock.isLocked()) {
+            return false;
+        }
+        return bloqueoTareaService.ejecutarEn(SYNC_JOB, taskExecutor, () -> {
+            try {
+                syncData(OrigenSincronizacion.MANUAL);
+            } catch (Exception e) {
+                LOG.error("Requested sync failed: {}", e.getMessage());
+                LOG.debug("Detailed error in requested sync: ", e);
             }
+        });
+    }
+
+    private void syncData(OrigenSincronizacion origen) {
+        if (!syncLock.tryLock()) {
+            LOG.info("Data synchronization already in progress, skipping");
+            return;
+        }
+        LOG.info("Starting data synchronization process");
+        try {
+            recordRun(origen, this::updateLocalDatabase);
+            lastSync = Instant.now();
         } catch (Exception e) {
             LOG.error("Data synchronization failed: {}", e.getMessage());
             throw new RuntimeException("Error during data sync", e);
+        } finally {
+            syncLock.unlock();
         }
     }
 
-    private void updateLocalDatabase(List<DispositivoDTO> devices) {
-        LOG.info("Starting local database update with {} devices", devices.size());
+    private void syncFromSnapshot() {
+        syncLock.lock();
         try {
-            List<DispositivoDTO> localDevices = dispositivoService.findAllNoPag();
-            Map<Long, DispositivoDTO> localDeviceMap = localDevices
-                .stream()
-                .collect(Collectors.toMap(DispositivoDTO::getId, device -> device));
-
-            int updatedCount = 0;
-            int unchangedCount = 0;
-
-            for (DispositivoDTO remoteDevice : devices) {
-                DispositivoDTO localDevice = localDeviceMap.get(remoteDevice.getId());
-                if (localDevice == null || !localDevice.equals(remoteDevice)) {
-                    dispositivoService.save(remoteDevice);
-                    updatedCount++;
-                } else {
-                    unchangedCount++;
+            recordRun(OrigenSincronizacion.SNAPSHOT, this::readSnapshot);
+            snapshotLoaded = true;
+        } catch (Exception e) {
+            LOG.warn("Failed to sync from the catalog snapshot: {}", e.getMessage());
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Runs one sync, recorded in the sync history with its outcome.
+     */
+    private void recordRun(OrigenSincronizacion origen, SyncStep step) throws Exception {
+        Ejecucion run = sincronizacionCatalogoService.iniciar(origen);
+        EstadoSincronizacion estado;
+        try {
+            estado = step.run(run);
+        } catch (Exception e) {
+            String error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            sincronizacionCatalogoService.terminar(run, EstadoSincronizacion.FALLIDA, error);
+            throw e;
+        }
+        sincronizacionCatalogoService.terminar(run, estado, null);
+    }
+
+    private EstadoSincronizacion readSnapshot(Ejecucion run) throws IOException {
+        try (InputStream snapshot = catalogoSnapshot.abrir(); CatalogWriter writer = new CatalogWriter(localHuellas(run), run)) {
+            run.descargado();
+            int devices = catedraClient.leerDispositivos(snapshot, writer::add);
+            writer.flush();
+            run.leido();
+            LOG.info("Synchronized {} devices from the catalog snapshot, {} updated", devices, run.getDispositivosActualizados());
+            return EstadoSincronizacion.COMPLETADA;
+        }
+    }
+
+    /**
+     * Stores the remote devices whose fingerprint differs from the local one. An unchanged catalog costs a single
+     * id-to-fingerprint query: no local device is loaded or mapped. Changed devices are written in partitions of
+     * {@code chunkSize} on several connections at once, each partition in its own transaction and with JDBC batches.
+     * <p>
+     * In streaming mode the request is conditional on the validators of the snapshot, and a {@code 304} ends the sync
+     * there, as does a body identical to the snapshot one. Both only hold while the local devices are those of the
+     * snapshot: after a write outside the sync, or a delete, the catalog is read in full to restore them. Otherwise the catalog is parsed as it is received and each chunk is written as soon as it is full, so
+     * memory use depends on the chunk size instead of the size of the catalog.
+     * <p>
+     * In reconcile mode every device goes to the staging tables instead, and the database applies them once the whole
+     * catalog is staged, deleting the devices that are no longer in it.
+     */
+    private EstadoSincronizacion updateLocalDatabase(Ejecucion run) {
+        long start = System.nanoTime();
+        boolean unchangedLocally = streaming && dispositivoService.isSincronizado(catalogoSnapshot.dispositivos());
+        try (CatalogWriter writer = new CatalogWriter(localHuellas(run), run)) {
+            int devices;
+            if (streaming) {
+                CatedraClient.Validadores previous = unchangedLocally ? catalogoSnapshot.validadores() : CatedraClient.Validadores.NINGUNO;
+                OptionalInt read = catedraClient.descargarDispositivos(previous, (body, validadores) -> {
+                    run.descargado();
+                    return readCatalog(body, validadores, writer, unchangedLocally);
+                });
+                if (read.isEmpty()) {
+                    LOG.info("Catalog not modified since the last sync");
+                    return EstadoSincronizacion.SIN_CAMBIOS;
                 }
+                if (read.getAsInt() == BODY_UNCHANGED) {
+                    LOG.info("Catalog body unchanged since the last sync");
+                    return EstadoSincronizacion.SIN_CAMBIOS;
+                }
+                devices = read.getAsInt();
+            } else {
+                List<DispositivoDTO> remoteDevices = catedraClient.obtenerDispositivos();
+                run.descargado();
+                remoteDevices.forEach(writer::add);
+                writer.flush();
+                devices = remoteDevices.size();
             }
+            run.leido();
+            LOG.info("Successfully retrieved {} devices from external API", devices);
 
-            LOG.info("Database update completed - Updated: {}, Unchanged: {}", updatedCount, unchangedCount);
+            int updated = run.getDispositivosActualizados();
+            int rows = run.getFilasEscritas();
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            LOG.info(
+                "Database update completed - Updated: {}, Unchanged: {}, {} rows written by {} writers in {} ms of writes, {} ms in total ({} rows/s)",
+                updated,
+                devices - updated,
+                rows,
+                parallelism,
+                run.getEscrituraNanos() / 1_000_000,
+                elapsedMillis,
+                rows * 1000L / elapsedMillis
+            );
+            return EstadoSincronizacion.COMPLETADA;
         } catch (Exception e) {
             LOG.error("Failed to update local database: {}", e.getMessage());
             throw new RuntimeException("Database update failed", e);
         }
     }
+
+    /**
+     * Syncs a downloaded catalog and makes it the new snapshot once every chunk is written.
+     * <p>
+     * With validators the body is synced as it is received and copied to the snapshot on the way. Without them, only the
+     * body tells whether the catalog changed: it is stored first, and synced from disk only if its hash differs from the
+     * snapshot one, or if the local devices changed since.
+     */
+    private int readCatalog(InputStream body, CatedraClient.Validadores validadores, CatalogWriter writer, boolean unchangedLocally)
+        throws IOException {
+        try (CatalogoSnapshot.Escritura copy = catalogoSnapshot.escribir()) {
+            int devices;
+            if (validadores.isEmpty()) {
+                body.transferTo(copy.salida());
+                String huella = copy.terminar();
+                if (unchangedLocally && huella.equals(catalogoSnapshot.huella())) {
+                    return BODY_UNCHANGED;
+                }
+                try (InputStream stored = copy.abrir()) {
+                    devices = catedraClient.leerDispositivos(stored, writer::add);
+                }
+            } else {
+                devices = catedraClient.leerDispositivos(new CopyingInputStream(body, copy.salida()), writer::add);
+            }
+            writer.flush();
+            copy.confirmar(validadores, dispositivoService.count());
+            return devices;
+        }
+    }
+
+    /**
+     * The fingerprints the remote devices are compared with. When reconciling, the database compares them instead: every
+     * device is staged, so the staging tables are emptied for the run and no fingerprint is loaded.
+     */
+    private Map<Long, String> localHuellas(Ejecucion run) {
+        if (reconcile) {
+            dispositivoService.vaciarStaging(run.getId());
+            return Map.of();
+        }
+        return dispositivoService.findAllHuellas();
+    }
+
+    /**
+     * Collects the changed devices into partitions of {@code chunkSize}, in the order they are read, and writes them on the
+     * {@code catalogoSyncExecutor} pool while the catalog is still being read. Every partition has its own transaction and
+     * is retried on its own, so a failed one does not roll back the others. Reading waits when all the writers are busy,
+     * which bounds the memory used by pending partitions.
+     * <p>
+     * A device belongs to a single partition, but an adicional may be shared by several: the adicionales of a partition are
+     * written first, one partition at a time and in a transaction of their own. Two partitions then never insert the same
+     * adicional, nor lock the same ones in another order.
+     * <p>
+     * When reconciling, the partitions are written to the staging tables, which are applied once all of them are.
+     */
+    private final class CatalogWriter implements AutoCloseable {
+
+        private final Map<Long, String> localHuellas;
+        private final Ejecucion run;
+        private final Semaphore writers = new Semaphore(parallelism);
+        private final List<CompletableFuture<Void>> partitions = new ArrayList<>();
+        private final Queue<RuntimeException> failures = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock adicionalWriter = new ReentrantLock();
+        private List<DispositivoDTO> pending = new ArrayList<>(chunkSize);
+        private Map<Long, String> pendingHuellas = new HashMap<>();
+
+        CatalogWriter(Map<Long, String> localHuellas, Ejecucion run) {
+            this.localHuellas = localHuellas;
+            this.run = run;
+        }
+
+        void add(DispositivoDTO remoteDevice) {
+            run.dispositivoLeido();
+            String huella = DispositivoHuella.calcular(objectMapper, remoteDevice);
+            if (huella.equals(localHuellas.get(remoteDevice.getId()))) {
+                return;
+            }
+            pending.add(remoteDevice);
+            pendingHuellas.put(remoteDevice.getId(), huella);
+            if (pending.size() >= chunkSize) {
+                submit();
+            }
+        }
+
+        /**
+         * Writes the pending devices and waits for every partition, then applies the staged catalog when reconciling.
+         *
+         * @throws RuntimeException if a partition could not be written, once the others are.
+         */
+        void flush() {
+            submit();
+            await();
+            if (!failures.isEmpty()) {
+                RuntimeException first = failures.peek();
+                throw new RuntimeException(failures.size() + " catalog partition(s) failed: " + first.getMessage(), first);
+            }
+            if (reconcile) {
+                reconcileStaged();
+            }
+        }
+
+        @Override
+        public void close() {
+            // Partitions still running when reading fails must not outlive the sync
+            await();
+            if (reconcile) {
+                try {
+                    dispositivoService.vaciarStaging(run.getId());
+                } catch (RuntimeException e) {
+                    // The next run empties them anyway
+                    LOG.warn("Failed to empty the staging tables of sync run {}: {}", run.getId(), e.getMessage());
+                }
+            }
+        }
+
+        private void submit() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            if (!bloqueoTareaService.isRetenido(SYNC_JOB)) {
+                // Another node may be syncing by now: stop writing instead of racing it
+                throw new IllegalStateException("Lost the lock of the catalog sync, aborting it");
+            }
+            List<DispositivoDTO> partition = pending;
+            Map<Long, String> huellas = pendingHuellas;
+            pending = new ArrayList<>(chunkSize);
+            pendingHuellas = new HashMap<>();
+            partition.sort(Comparator.comparing(DispositivoDTO::getId));
+
+            long start = System.nanoTime();
+            writers.acquireUninterruptibly();
+            run.esperado(System.nanoTime() - start);
+            partitions.add(
+                CompletableFuture.runAsync(
+                    () -> {
+                        try {
+                            write(partition, huellas);
+                        } finally {
+                            writers.release();
+                        }
+                    },
+                    catalogoSyncExecutor
+                )
+            );
+        }
+
+        private void write(List<DispositivoDTO> partition, Map<Long, String> huellas) {
+            Long firstId = partition.get(0).getId();
+            Long lastId = partition.get(partition.size() - 1).getId();
+            for (int attempt = 1; ; attempt++) {
+                long start = System.nanoTime();
+                try {
+                    if (reconcile) {
+                        // Staged devices are counted as updated once the reconciliation tells which ones changed
+                        int rows = dispositivoService.cargarStaging(run.getId(), partition, huellas);
+                        run.escrito(0, rows, System.nanoTime() - start);
+                    } else {
+                        int rows = writeAdicionales(partition) + dispositivoService.sincronizar(partition, huellas);
+                        run.escrito(partition.size(), rows, System.nanoTime() - start);
+                    }
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt >= partitionAttempts) {
+                        LOG.error("Failed to write the partition of devices {} to {}: {}", firstId, lastId, e.getMessage());
+                        failures.add(e);
+                        return;
+                    }
+                    LOG.warn("Attempt {} to write the partition of devices {} to {} failed, retrying: {}", attempt, firstId, lastId, e.getMessage());
+                    try {
+                        Thread.sleep(PARTITION_RETRY_DELAY_MILLIS * attempt);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        failures.add(e);
+                        return;
+                    }
+                }
+            }
+        }
+
+        private int writeAdicionales(List<DispositivoDTO> partition) {
+            adicionalWriter.lock();
+            try {
+                return dispositivoService.sincronizarAdicionales(partition);
+            } finally {
+                adicionalWriter.unlock();
+            }
+        }
+
+        private void reconcileStaged() {
+            if (run.getDispositivosLeidos() == 0) {
+                // Far more likely a fault of the catedra than a catalog without devices, and it would delete them all
+                LOG.warn("Remote catalog is empty, skipping the reconciliation");
+                return;
+            }
+            long start = System.nanoTime();
+            // Under the lease of the sync, so that a run that lost it to another node cannot apply a stale catalog
+            DispositivoRepository.Reconciliacion reconciliacion = bloqueoTareaService.conBloqueo(SYNC_JOB, () ->
+                dispositivoService.reconciliar(run.getId(), run.getDispositivosLeidos())
+            );
+            run.escrito(reconciliacion.insertados() + reconciliacion.actualizados(), reconciliacion.filas(), System.nanoTime() - start);
+            LOG.info(
+                "Catalog reconciled - Inserted: {}, Updated: {}, Deleted: {}",
+                reconciliacion.insertados(),
+                reconciliacion.actualizados(),
+                reconciliacion.eliminados()
+            );
+        }
+
+        private void await() {
+            if (partitions.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            CompletableFuture.allOf(partitions.toArray(CompletableFuture[]::new)).join();
+            run.esperado(System.nanoTime() - start);
+            partitions.clear();
+        }
+    }
+
+    @FunctionalInterface
+    private interface SyncStep {
+        EstadoSincronizacion run(Ejecucion run) throws Exception;
+    }
+
+    /**
+     * Copies every byte read to another stream.
+     */
+    private static final class CopyingInputStream extends FilterInputStream {
+
+        private final OutputStream copy;
+
+        CopyingInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                copy.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                copy.write(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes must still reach the copy
+            long skipped = 0;
+            while (skipped < n && read() != -1) {
+                skipped++;
+            }
+            return skipped;
+        }
+    }
 }
@@ -33,6 +33,8 @@ public class UserService {
 
     private static final Logger LOG = LoggerFactory.getLogger(UserService.class);
 
+    private static final String REMOVE_NOT_ACTIVATED_USERS_JOB = "remove-not-activated-users";
+
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
@@ -41,16 +43,20 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
+    private final BloqueoTareaService bloqueoTareaService;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheManager cacheManager,
+        BloqueoTareaService bloqueoTareaService
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.bloqueoTareaService = bloqueoTareaService;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -345,19 +351,21 @@ public class UserService {
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am), and runs on one node of the cluster.
      */
     @Scheduled(cron = "0 0 1 * * ?")
     public void removeNotActivatedUsers() {
-        LOG.debug("Starting scheduled removal of non-activated users");
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                LOG.debug("Deleting non-activated user: {}", user.getLogin());
-                userRepository.delete(user);
-                this.clearUserCaches(user);
-            });
-        LOG.info("Completed scheduled removal of non-activated users");
+        bloqueoTareaService.ejecutar(REMOVE_NOT_ACTIVATED_USERS_JOB, () -> {
+            LOG.debug("Starting scheduled removal of non-activated users");
+            userRepository
+                .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
+                .forEach(user -> {
+                    LOG.debug("Deleting non-activated user: {}", user.getLogin());
+                    userRepository.delete(user);
+                    this.clearUserCaches(user);
+                });
+            LOG.info("Completed scheduled removal of non-activated users");
+        });
     }
 
     /**
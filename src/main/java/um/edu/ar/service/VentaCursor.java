@@ -0,0 +1,39 @@
+package um.edu.ar.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import um.edu.ar.domain.Venta;
+
+/**
+ * Position of a {@link Venta} in the keyset ordering {@code (fechaVenta desc, id desc)}, encoded for clients as an
+ * opaque URL-safe token.
+ */
+record VentaCursor(Instant fechaVenta, long id) {
+    private static final char SEPARATOR = ':';
+
+    static VentaCursor of(Venta venta) {
+        return new VentaCursor(venta.getFechaVenta().toInstant(), venta.getId());
+    }
+
+    static VentaCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new VentaCursor(Instant.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(token, e);
+        }
+    }
+
+    String encode() {
+        String value = fechaVenta.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    ZonedDateTime fechaVentaUtc() {
+        return fechaVenta.atZone(ZoneOffset.UTC);
+    }
+}
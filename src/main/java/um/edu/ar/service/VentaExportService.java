@@ -0,0 +1,159 @@
+package um.edu.ar.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.TimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import um.edu.ar.repository.VentaExportRepository;
+
+/**
+ * Writes every venta, optionally filtered by {@code fechaVenta}, straight from the JDBC cursor to an output stream.
+ */
+@Service
+public class VentaExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaExportService.class);
+
+    private static final String CSV_HEADER = "id,fechaVenta,ganancia,userId\n";
+
+    private final VentaExportRepository ventaExportRepository;
+    private final ObjectMapper objectMapper;
+
+    public VentaExportService(VentaExportRepository ventaExportRepository, ObjectMapper objectMapper) {
+        this.ventaExportRepository = ventaExportRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Supported export formats.
+     */
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Export the ventas ordered by {@code (fechaVenta, id)}.
+     *
+     * @param formato the output format.
+     * @param desde the inclusive lower bound on {@code fechaVenta}, or {@code null}.
+     * @param hasta the exclusive upper bound on {@code fechaVenta}, or {@code null}.
+     * @param out the stream to write to; it is flushed but not closed.
+     * @throws IOException if writing fails.
+     */
+    public void exportar(Formato formato, ZonedDateTime desde, ZonedDateTime hasta, OutputStream out) throws IOException {
+        LOG.debug("Request to export Sales as {} from {} to {}", formato, desde, hasta);
+        long inicio = System.nanoTime();
+        long filas;
+        try {
+            filas = formato == Formato.CSV ? exportarCsv(desde, hasta, out) : exportarNdjson(desde, hasta, out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        LOG.info("Exported {} sales as {} in {} ms", filas, formato, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private long exportarNdjson(ZonedDateTime desde, ZonedDateTime hasta, OutputStream out) throws IOException {
+        long[] filas = { 0 };
+        Calendar utc = utc();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            ventaExportRepository.recorrer(desde, hasta, rs -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", rs.getLong(1));
+                    generator.writeStringField("fechaVenta", fechaVenta(rs, utc));
+                    BigDecimal ganancia = rs.getBigDecimal(3);
+                    if (ganancia == null) {
+                        generator.writeNullField("ganancia");
+                    } else {
+                        generator.writeNumberField("ganancia", ganancia);
+                    }
+                    long userId = rs.getLong(4);
+                    if (rs.wasNull()) {
+                        generator.writeNullField("userId");
+                    } else {
+                        generator.writeNumberField("userId", userId);
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    filas[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        }
+        return filas[0];
+    }
+
+    private long exportarCsv(ZonedDateTime desde, ZonedDateTime hasta, OutputStream out) throws IOException {
+        long[] filas = { 0 };
+        Calendar utc = utc();
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(CSV_HEADER);
+        ventaExportRepository.recorrer(desde, hasta, rs -> {
+            try {
+                writer.write(Long.toString(rs.getLong(1)));
+                writer.write(',');
+                writer.write(fechaVenta(rs, utc));
+                writer.write(',');
+                BigDecimal ganancia = rs.getBigDecimal(3);
+                if (ganancia != null) {
+                    writer.write(ganancia.toPlainString());
+                }
+                writer.write(',');
+                long userId = rs.getLong(4);
+                if (!rs.wasNull()) {
+                    writer.write(Long.toString(userId));
+                }
+                writer.write('\n');
+                filas[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return filas[0];
+    }
+
+    private static String fechaVenta(ResultSet rs, Calendar utc) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(2, utc);
+        return timestamp.toInstant().toString();
+    }
+
+    private static Calendar utc() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+}
@@ -0,0 +1,319 @@
+package um.edu.ar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpClientErrorException;
+import um.edu.ar.config.ApplicationProperties;
+import um.edu.ar.config.Constants;
+import um.edu.ar.domain.VentaIdempotencia;
+import um.edu.ar.repository.VentaIdempotenciaRepository;
+import um.edu.ar.security.SecurityUtils;
+import um.edu.ar.service.dto.VentaDTO;
+
+/**
+ * Deduplicates sale submissions carrying the same {@code Idempotency-Key}.
+ * <p>
+ * A key belongs to the user that sent it, and to the request it first came with: the same key with another request is
+ * rejected with {@link IdempotencyKeyReusedException}. It is reserved with a row of the {@code venta_idempotencia}
+ * table before the sale is sent to the catedra API, so that only one request per key sends it across all the nodes;
+ * the others wait for its outcome. Completed results are looked up through a bounded, TTL-evicting cache.
+ * <p>
+ * The id of the remote sale is recorded on the key as soon as the catedra API returns it: if the local sale then fails,
+ * a retry with the key only saves it again. A key whose sale failed without an answer from the catedra API is kept, and
+ * its retries are rejected with {@link IdempotencyKeyOutcomeUnknownException}; only a sale not sent, or rejected by the
+ * catedra API, releases the key.
+ * <p>
+ * This service is deliberately not transactional: no transaction is held while the sale is in flight.
+ */
+@Service
+public class VentaIdempotenciaService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaIdempotenciaService.class);
+
+    // Between two reads of a key reserved by another node
+    private static final Duration INTERVALO_ESPERA = Duration.ofMillis(100);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final VentaIdempotenciaRepository ventaIdempotenciaRepository;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+    private final ApplicationProperties.Ventas.Idempotencia properties;
+
+    // The keys in flight on this node, whose requests wait for the first one without polling the database
+    private final ConcurrentMap<Clave, EnCurso> enCurso = new ConcurrentHashMap<>();
+
+    public VentaIdempotenciaService(
+        VentaIdempotenciaRepository ventaIdempotenciaRepository,
+        ObjectMapper objectMapper,
+        CacheManager cacheManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.ventaIdempotenciaRepository = ventaIdempotenciaRepository;
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.properties = applicationProperties.getVentas().getIdempotencia();
+    }
+
+    /**
+     * Run {@code accion} at most once for the given key of the current user.
+     *
+     * @param clave the idempotency key sent by the client.
+     * @param peticion the sale requested, which must be the same for every request with the key.
+     * @param registrar registers the sale in the catedra API when the key is new, and returns its id.
+     * @param guardar saves the local sale of the id registered.
+     * @return the sale, and whether it is a replay of a request already completed.
+     * @throws IdempotencyKeyReusedException if the key was already used with another request.
+     * @throws IdempotencyKeyOutcomeUnknownException if the sale of the key may be registered, but its id is unknown.
+     */
+    public Resultado ejecutar(String clave, VentaDTO peticion, Supplier<Long> registrar, Function<Long, VentaDTO> guardar) {
+        Clave propia = new Clave(SecurityUtils.getCurrentUserLogin().orElse(Constants.SYSTEM), clave);
+        String huella = huella(peticion);
+
+        EnCurso propio = new EnCurso(huella, new CompletableFuture<>());
+        EnCurso existente = enCurso.putIfAbsent(propia, propio);
+        if (existente != null) {
+            comprobar(clave, existente.huella(), huella);
+            LOG.info("Sale with idempotency key {} already in flight, waiting for it", clave);
+            // The outcome of the request it waited for, which is its own
+            return new Resultado(esperar(clave, existente.venta()), false);
+        }
+
+        try {
+            Resultado resultado = ejecutarUnaVez(propia, huella, registrar, guardar);
+            propio.venta().complete(resultado.venta());
+            return resultado;
+        } catch (RuntimeException e) {
+            propio.venta().completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(propia, propio);
+        }
+    }
+
+    private Resultado ejecutarUnaVez(Clave clave, String huella, Supplier<Long> registrar, Function<Long, VentaDTO> guardar) {
+        Optional<VentaIdempotencia> previa = buscar(clave);
+        if (previa.isPresent()) {
+            return repetir(clave, previa.orElseThrow(), huella, guardar);
+        }
+
+        VentaIdempotencia reserva;
+        try {
+            reserva = reservar(clave, huella);
+        } catch (DataIntegrityViolationException e) {
+            // Reserved by another node since the lookup
+            LOG.debug("Idempotency key {} was reserved concurrently: {}", clave.valor(), e.getMessage());
+            return repetir(
+                clave,
+                buscar(clave).orElseThrow(() -> new IllegalStateException("Sale with idempotency key " + clave.valor() + " failed")),
+                huella,
+                guardar
+            );
+        }
+
+        Long ventaId;
+        try {
+            ventaId = registrar.get();
+        } catch (CatedraUnavailableException | HttpClientErrorException e) {
+            // Not sent, or rejected: a retry with the key may try again
+            ventaIdempotenciaRepository.delete(reserva);
+            throw e;
+        } catch (RuntimeException e) {
+            // It may be registered: a retry with the key must not send it again
+            fallar(reserva, "No answer from the catedra API: " + e.getMessage());
+            throw e;
+        }
+        // Before the local sale: from here on, a retry with the key only saves it
+        reserva.setVentaId(ventaId);
+        reserva = ventaIdempotenciaRepository.save(reserva);
+        return new Resultado(guardar(reserva, guardar), false);
+    }
+
+    private Resultado repetir(Clave clave, VentaIdempotencia registro, String huella, Function<Long, VentaDTO> guardar) {
+        comprobar(clave.valor(), registro.getHuellaPeticion(), huella);
+        if (registro.getRespuesta() != null) {
+            LOG.info("Replaying sale for idempotency key: {}", clave.valor());
+            return new Resultado(leer(registro), true);
+        }
+        if (registro.getError() != null) {
+            if (registro.getVentaId() == null) {
+                LOG.warn("Sale with idempotency key {} failed without an answer, not sending it again", clave.valor());
+                throw new IdempotencyKeyOutcomeUnknownException(clave.valor());
+            }
+            if (ventaIdempotenciaRepository.reintentar(registro.getId()) == 1) {
+                LOG.info("Saving sale ID: {} of idempotency key {} again", registro.getVentaId(), clave.valor());
+                registro.setError(null);
+                return new Resultado(guardar(registro, guardar), false);
+            }
+        }
+        LOG.info("Sale with idempotency key {} in flight on another node, waiting for it", clave.valor());
+        return new Resultado(esperarRegistro(clave), false);
+    }
+
+    /**
+     * Save the local sale of a key whose remote sale is registered, and store it as the response to its retries.
+     */
+    private VentaDTO guardar(VentaIdempotencia reserva, Function<Long, VentaDTO> guardar) {
+        VentaDTO venta;
+        try {
+            venta = guardar.apply(reserva.getVentaId());
+        } catch (RuntimeException e) {
+            fallar(reserva, "Could not save the sale locally: " + e.getMessage());
+            throw e;
+        }
+        reserva.setRespuesta(escribir(venta));
+        ventaIdempotenciaRepository.save(reserva);
+        return venta;
+    }
+
+    // Keeps the key with its error, for its retries; the error of the sale is the one to report
+    private void fallar(VentaIdempotencia reserva, String error) {
+        reserva.setError(StringUtils.abbreviate(error, MAX_ERROR_LENGTH));
+        try {
+            ventaIdempotenciaRepository.save(reserva);
+        } catch (RuntimeException e) {
+            LOG.error("Could not record the failure of idempotency key {}: {}", reserva.getClave(), e.getMessage());
+        }
+    }
+
+    private static void comprobar(String clave, String huellaOriginal, String huella) {
+        if (!huellaOriginal.equals(huella)) {
+            LOG.warn("Idempotency key {} reused with a different request", clave);
+            throw new IdempotencyKeyReusedException(clave);
+        }
+    }
+
+    /**
+     * Remove keys older than the configured TTL.
+     * <p>
+     * This is scheduled to get fired every hour.
+     */
+    @Scheduled(cron = "0 30 * * * ?")
+    @Transactional
+    public void removeExpiredKeys() {
+        int eliminadas = ventaIdempotenciaRepository.deleteByFechaCreacionBefore(Instant.now().minus(properties.getTtl()));
+        LOG.debug("Removed {} expired idempotency keys", eliminadas);
+    }
+
+    private Optional<VentaIdempotencia> buscar(Clave clave) {
+        Optional<VentaIdempotencia> registro = ventaIdempotenciaRepository.findOneByUsuarioAndClave(clave.usuario(), clave.valor());
+        if (registro.isPresent() && !registro.orElseThrow().getFechaCreacion().isAfter(Instant.now().minus(properties.getTtl()))) {
+            // Expired but not removed yet: it must go for the key to be reserved again
+            ventaIdempotenciaRepository.delete(registro.orElseThrow());
+            Optional.ofNullable(cacheManager.getCache(VentaIdempotenciaRepository.VENTAS_BY_IDEMPOTENCY_KEY_CACHE)).ifPresent(cache ->
+                cache.evict(new SimpleKey(clave.usuario(), clave.valor()))
+            );
+            return Optional.empty();
+        }
+        return registro;
+    }
+
+    private VentaIdempotencia reservar(Clave clave, String huella) {
+        VentaIdempotencia reserva = new VentaIdempotencia();
+        reserva.setUsuario(clave.usuario());
+        reserva.setClave(clave.valor());
+        reserva.setHuellaPeticion(huella);
+        reserva.setFechaCreacion(Instant.now());
+        return ventaIdempotenciaRepository.saveAndFlush(reserva);
+    }
+
+    private VentaDTO esperarRegistro(Clave clave) {
+        Instant limite = Instant.now().plus(properties.getEsperaMaxima());
+        while (Instant.now().isBefore(limite)) {
+            try {
+                Thread.sleep(INTERVALO_ESPERA.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for sale with idempotency key " + clave.valor(), e);
+            }
+            Optional<VentaIdempotencia> registro = ventaIdempotenciaRepository.findOneByUsuarioAndClave(clave.usuario(), clave.valor());
+            if (registro.isEmpty() || registro.orElseThrow().getError() != null) {
+                // Its reservation is released, or kept with its error, when the sale fails
+                throw new IllegalStateException("Sale with idempotency key " + clave.valor() + " failed");
+            }
+            if (registro.orElseThrow().getRespuesta() != null) {
+                return leer(registro.orElseThrow());
+            }
+        }
+        throw new IllegalStateException("Timed out waiting for sale with idempotency key " + clave.valor());
+    }
+
+    private VentaDTO esperar(String clave, CompletableFuture<VentaDTO> existente) {
+        Duration espera = properties.getEsperaMaxima();
+        try {
+            return existente.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Sale with idempotency key " + clave + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for sale with idempotency key " + clave, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for sale with idempotency key " + clave, e);
+        }
+    }
+
+    private VentaDTO leer(VentaIdempotencia registro) {
+        try {
+            return objectMapper.readValue(registro.getRespuesta(), VentaDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid stored response for idempotency key " + registro.getClave(), e);
+        }
+    }
+
+    private String huella(VentaDTO peticion) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(peticion));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize sale", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String escribir(VentaDTO venta) {
+        try {
+            return objectMapper.writeValueAsString(venta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize sale", e);
+        }
+    }
+
+    /**
+     * The outcome of an idempotent sale.
+     *
+     * @param venta the sale.
+     * @param repetida {@code true} if the sale was completed by an earlier request with the same key.
+     */
+    public record Resultado(VentaDTO venta, boolean repetida) {}
+
+    private record Clave(String usuario, String valor) {}
+
+    private record EnCurso(String huella, CompletableFuture<VentaDTO> venta) {}
+}
@@ -0,0 +1,168 @@
+package um.edu.ar.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import um.edu.ar.config.ApplicationProperties;
+import um.edu.ar.domain.User;
+import um.edu.ar.domain.Venta;
+import um.edu.ar.repository.UserRepository;
+import um.edu.ar.repository.VentaRepository;
+import um.edu.ar.service.dto.VentaDTO;
+import um.edu.ar.service.dto.VentaLoteResultadoDTO;
+import um.edu.ar.service.mapper.VentaMapper;
+
+/**
+ * Processes several sales in one request.
+ * <p>
+ * Users are resolved with one query, and each sale is sent to {@code /vender} and saved locally as soon as the catedra
+ * API accepts it, concurrently on the bounded {@code ventaLoteExecutor} pool. A failure on one sale does not affect
+ * the others; a sale accepted remotely whose local save fails is handed to the outbox, which saves it without sending
+ * it again.
+ * <p>
+ * Not transactional on purpose: each local save runs in its own transaction, never the remote calls.
+ */
+@Service
+public class VentaLoteService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaLoteService.class);
+
+    private final CatedraClient catedraClient;
+    private final VentaRepository ventaRepository;
+    private final UserRepository userRepository;
+    private final VentaMapper ventaMapper;
+    private final VentaOutboxService ventaOutboxService;
+    private final ThreadPoolTaskExecutor ventaLoteExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxItems;
+
+    public VentaLoteService(
+        CatedraClient catedraClient,
+        VentaRepository ventaRepository,
+        UserRepository userRepository,
+        VentaMapper ventaMapper,
+        VentaOutboxService ventaOutboxService,
+        @Qualifier("ventaLoteExecutor") ThreadPoolTaskExecutor ventaLoteExecutor,
+        TransactionTemplate transactionTemplate,
+        ApplicationProperties applicationProperties
+    ) {
+        this.catedraClient = catedraClient;
+        this.ventaRepository = ventaRepository;
+        this.userRepository = userRepository;
+        this.ventaMapper = ventaMapper;
+        this.ventaOutboxService = ventaOutboxService;
+        this.ventaLoteExecutor = ventaLoteExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.maxItems = applicationProperties.getVentas().getLote().getMaxItems();
+    }
+
+    /**
+     * @return the maximum number of sales accepted in one batch.
+     */
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Process a batch of sales.
+     *
+     * @param ventas the sales to process.
+     * @return one result per sale, in the same order as {@code ventas}.
+     */
+    public List<VentaLoteResultadoDTO> realizarVentas(List<VentaDTO> ventas) {
+        LOG.debug("Request to process a batch of {} sales", ventas.size());
+        Map<Long, User> usuarios = buscarUsuarios(ventas);
+
+        List<VentaLoteResultadoDTO> resultados = new ArrayList<>(ventas.size());
+        List<CompletableFuture<VentaLoteResultadoDTO>> envios = new ArrayList<>(ventas.size());
+        for (int i = 0; i < ventas.size(); i++) {
+            int indice = i;
+            VentaDTO ventaDTO = ventas.get(i);
+            String error = validar(ventaDTO, usuarios);
+            CompletableFuture<VentaLoteResultadoDTO> envio = null;
+            if (error == null) {
+                try {
+                    envio = CompletableFuture.supplyAsync(() -> realizarVenta(indice, ventaDTO, usuarios), ventaLoteExecutor);
+                } catch (TaskRejectedException e) {
+                    LOG.warn("Sale batch executor saturated, rejecting sale {} of batch", indice);
+                    error = "Too many sales in flight, try again later";
+                }
+            }
+            resultados.add(error != null ? VentaLoteResultadoDTO.fallo(i, error) : null);
+            envios.add(envio);
+        }
+
+        for (int i = 0; i < ventas.size(); i++) {
+            if (envios.get(i) != null) {
+                resultados.set(i, envios.get(i).join());
+            }
+        }
+        LOG.info("Batch processed: {} of {} sales done", resultados.stream().filter(VentaLoteResultadoDTO::isExitosa).count(), ventas.size());
+        return resultados;
+    }
+
+    private VentaLoteResultadoDTO realizarVenta(int indice, VentaDTO ventaDTO, Map<Long, User> usuarios) {
+        Long idVenta;
+        try {
+            idVenta = catedraClient.vender(ventaDTO);
+        } catch (RuntimeException e) {
+            LOG.warn("Sale {} of batch rejected by the catedra API: {}", indice, e.getMessage());
+            return VentaLoteResultadoDTO.fallo(indice, e.getMessage());
+        }
+        if (idVenta == null) {
+            return VentaLoteResultadoDTO.fallo(indice, "No sale id returned by the catedra API");
+        }
+
+        Venta venta = new Venta();
+        venta.setId(idVenta);
+        venta.setFechaVenta(ventaDTO.getFechaVenta());
+        venta.setGanancia(ventaDTO.getPrecioFinal());
+        venta.setUser(usuarios.get(ventaDTO.getUser().getId()));
+        try {
+            transactionTemplate.executeWithoutResult(status -> ventaRepository.save(venta));
+        } catch (RuntimeException e) {
+            LOG.error("Sale {} of batch registered as sale ID: {} but not saved, handing it to the outbox: {}", indice, idVenta, e.getMessage());
+            try {
+                ventaOutboxService.encolarRegistrada(ventaDTO, idVenta);
+            } catch (RuntimeException outbox) {
+                LOG.error("Sale ID: {} could not be handed to the outbox: {}", idVenta, outbox.getMessage());
+                return VentaLoteResultadoDTO.fallo(indice, "Registered as sale " + idVenta + " but could not be saved, do not send it again");
+            }
+        }
+        return VentaLoteResultadoDTO.exito(indice, ventaMapper.toDto(venta));
+    }
+
+    private Map<Long, User> buscarUsuarios(Collection<VentaDTO> ventas) {
+        List<Long> ids = ventas
+            .stream()
+            .filter(venta -> venta.getUser() != null && venta.getUser().getId() != null)
+            .map(venta -> venta.getUser().getId())
+            .distinct()
+            .toList();
+        return userRepository.findAllById(ids).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private static String validar(VentaDTO ventaDTO, Map<Long, User> usuarios) {
+        if (ventaDTO.getId() != null) {
+            return "A new venta cannot already have an ID";
+        }
+        if (ventaDTO.getUser() == null || !usuarios.containsKey(ventaDTO.getUser().getId())) {
+            return "User not found";
+        }
+        if (ventaDTO.getFechaVenta() == null) {
+            return "fechaVenta is required";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,249 @@
+package um.edu.ar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import um.edu.ar.domain.VentaPendiente;
+import um.edu.ar.domain.enumeration.EstadoVentaPendiente;
+import um.edu.ar.repository.VentaPendienteRepository;
+import um.edu.ar.service.dto.VentaDTO;
+import um.edu.ar.service.dto.VentaPendienteDTO;
+import um.edu.ar.service.mapper.VentaPendienteMapper;
+
+/**
+ * Service managing the {@link VentaPendiente} outbox used by the asynchronous sale pipeline.
+ * <p>
+ * Every method runs in its own short transaction; the remote call to the catedra API is never
+ * made while one of these transactions is open.
+ */
+@Service
+@Transactional
+public class VentaOutboxService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaOutboxService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String SIN_RESPUESTA = "No answer from the catedra API: the sale may or may not be registered";
+
+    private final VentaPendienteRepository ventaPendienteRepository;
+    private final VentaPendienteMapper ventaPendienteMapper;
+    private final ObjectMapper objectMapper;
+
+    public VentaOutboxService(
+        VentaPendienteRepository ventaPendienteRepository,
+        VentaPendienteMapper ventaPendienteMapper,
+        ObjectMapper objectMapper
+    ) {
+        this.ventaPendienteRepository = ventaPendienteRepository;
+        this.ventaPendienteMapper = ventaPendienteMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Accept a sale for asynchronous processing.
+     *
+     * @param ventaDTO the sale to submit.
+     * @return the tracking information of the accepted sale.
+     */
+    public VentaPendienteDTO encolar(VentaDTO ventaDTO) {
+        LOG.debug("Request to enqueue Sale: {}", ventaDTO);
+        VentaPendiente pendiente = ventaPendienteRepository.save(nueva(ventaDTO, null));
+        LOG.info("Sale enqueued with tracking ID: {}", pendiente.getTrackingId());
+        return ventaPendienteMapper.toDto(pendiente);
+    }
+
+    /**
+     * Accept a sale already registered in the catedra API, only to be saved locally: it is never sent again.
+     *
+     * @param ventaDTO the sale registered.
+     * @param ventaId the id assigned by the catedra API.
+     * @return the tracking information of the accepted sale.
+     */
+    public VentaPendienteDTO encolarRegistrada(VentaDTO ventaDTO, Long ventaId) {
+        LOG.debug("Request to enqueue Sale registered as sale ID: {}", ventaId);
+        VentaPendiente pendiente = ventaPendienteRepository.save(nueva(ventaDTO, ventaId));
+        LOG.info("Sale registered as sale ID: {} enqueued with tracking ID: {}", ventaId, pendiente.getTrackingId());
+        return ventaPendienteMapper.toDto(pendiente);
+    }
+
+    private VentaPendiente nueva(VentaDTO ventaDTO, Long ventaId) {
+        Instant ahora = Instant.now();
+        VentaPendiente pendiente = new VentaPendiente();
+        pendiente.setTrackingId(UUID.randomUUID().toString());
+        pendiente.setEstado(EstadoVentaPendiente.PENDIENTE);
+        pendiente.setPayload(escribirPayload(ventaDTO));
+        pendiente.setIntentos(0);
+        pendiente.setVentaId(ventaId);
+        pendiente.setFechaCreacion(ahora);
+        pendiente.setFechaActualizacion(ahora);
+        return pendiente;
+    }
+
+    /**
+     * Get the tracking status of a pending sale.
+     *
+     * @param trackingId the tracking id returned when the sale was accepted.
+     * @return the tracking status.
+     */
+    @Transactional(readOnly = true)
+    public Optional<VentaPendienteDTO> findByTrackingId(String trackingId) {
+        LOG.debug("Request to get pending Sale by tracking ID: {}", trackingId);
+        return ventaPendienteRepository.findOneByTrackingId(trackingId).map(ventaPendienteMapper::toDto);
+    }
+
+    /**
+     * Claim up to {@code max} pending rows, moving them to {@link EstadoVentaPendiente#EN_PROCESO}.
+     *
+     * @param max the maximum number of rows to claim.
+     * @return the claimed rows.
+     */
+    public List<VentaPendiente> reclamar(int max) {
+        List<VentaPendiente> candidatas = ventaPendienteRepository.findByEstadoOrderByIdAsc(
+            EstadoVentaPendiente.PENDIENTE,
+            PageRequest.of(0, max)
+        );
+        Instant ahora = Instant.now();
+        List<VentaPendiente> reclamadas = new ArrayList<>(candidatas.size());
+        for (VentaPendiente candidata : candidatas) {
+            int actualizadas = ventaPendienteRepository.cambiarEstado(
+                candidata.getId(),
+                EstadoVentaPendiente.PENDIENTE,
+                EstadoVentaPendiente.EN_PROCESO,
+                ahora
+            );
+            if (actualizadas == 1) {
+                reclamadas.add(candidata);
+            }
+        }
+        LOG.debug("Claimed {} of {} pending sales", reclamadas.size(), candidatas.size());
+        return reclamadas;
+    }
+
+    /**
+     * Hand rows stuck since before {@code limite} back to the queue, unless they may be a sale already sent to the
+     * catedra API: a row stuck in {@link EstadoVentaPendiente#ENVIADA} without the id of its remote sale is marked
+     * {@link EstadoVentaPendiente#FALLIDA} instead, as sending it again could register the sale twice.
+     *
+     * @param limite rows last updated before this instant are released.
+     * @return the number of released rows.
+     */
+    public int liberarBloqueadas(Instant limite) {
+        Instant ahora = Instant.now();
+        int liberadas =
+            ventaPendienteRepository.liberarBloqueadas(EstadoVentaPendiente.EN_PROCESO, EstadoVentaPendiente.PENDIENTE, limite, ahora) +
+            ventaPendienteRepository.liberarRegistradas(EstadoVentaPendiente.ENVIADA, EstadoVentaPendiente.PENDIENTE, limite, ahora);
+        if (liberadas > 0) {
+            LOG.warn("Released {} pending sales stuck in process", liberadas);
+        }
+        int abandonadas = ventaPendienteRepository.abandonarSinRegistrar(
+            EstadoVentaPendiente.ENVIADA,
+            EstadoVentaPendiente.FALLIDA,
+            SIN_RESPUESTA,
+            limite,
+            ahora
+        );
+        if (abandonadas > 0) {
+            LOG.error("{} pending sales were sent to the catedra API without an answer, check them before sending again", abandonadas);
+        }
+        return liberadas;
+    }
+
+    /**
+     * Hand a claimed row back to the queue without counting it as an attempt; only for a row whose sale was not sent.
+     */
+    public void devolver(Long id) {
+        Instant ahora = Instant.now();
+        if (ventaPendienteRepository.cambiarEstado(id, EstadoVentaPendiente.ENVIADA, EstadoVentaPendiente.PENDIENTE, ahora) == 0) {
+            ventaPendienteRepository.cambiarEstado(id, EstadoVentaPendiente.EN_PROCESO, EstadoVentaPendiente.PENDIENTE, ahora);
+        }
+    }
+
+    /**
+     * Move a claimed row to {@link EstadoVentaPendiente#ENVIADA} before its sale is sent to the catedra API.
+     *
+     * @return {@code false} if the row is no longer claimed, as {@link #liberarBloqueadas} handed it to another worker:
+     * the sale must not be sent.
+     */
+    public boolean marcarEnviada(Long id) {
+        return (
+            ventaPendienteRepository.cambiarEstado(id, EstadoVentaPendiente.EN_PROCESO, EstadoVentaPendiente.ENVIADA, Instant.now()) == 1
+        );
+    }
+
+    /**
+     * Record the id of the sale registered in the catedra API, as soon as it returns it: from then on the row is never
+     * sent again, even if saving the local sale fails.
+     */
+    public void registrarVentaRemota(Long id, Long ventaId) {
+        ventaPendienteRepository.registrarVentaId(id, ventaId, Instant.now());
+        LOG.debug("Pending sale {} registered as sale ID: {}", id, ventaId);
+    }
+
+    public void marcarCompletada(Long id, Long ventaId) {
+        ventaPendienteRepository
+            .findById(id)
+            .ifPresent(pendiente -> {
+                pendiente.setEstado(EstadoVentaPendiente.COMPLETADA);
+                pendiente.setVentaId(ventaId);
+                pendiente.setIntentos(pendiente.getIntentos() + 1);
+                pendiente.setError(null);
+                pendiente.setFechaActualizacion(Instant.now());
+                LOG.info("Pending sale {} completed as sale ID: {}", pendiente.getTrackingId(), ventaId);
+            });
+    }
+
+    /**
+     * Record a failed attempt; the row goes back to the queue until {@code maxIntentos} is reached, unless its sale may
+     * already be registered in the catedra API: a row failing in {@link EstadoVentaPendiente#ENVIADA} without the id of
+     * its remote sale is marked {@link EstadoVentaPendiente#FALLIDA} instead, as {@link #liberarBloqueadas} does.
+     */
+    public void registrarFallo(Long id, String error, int maxIntentos) {
+        ventaPendienteRepository
+            .findById(id)
+            .ifPresent(pendiente -> {
+                int intentos = pendiente.getIntentos() + 1;
+                pendiente.setIntentos(intentos);
+                pendiente.setFechaActualizacion(Instant.now());
+                if (pendiente.getEstado() == EstadoVentaPendiente.ENVIADA && pendiente.getVentaId() == null) {
+                    pendiente.setError(StringUtils.abbreviate(SIN_RESPUESTA + ": " + error, MAX_ERROR_LENGTH));
+                    pendiente.setEstado(EstadoVentaPendiente.FALLIDA);
+                    LOG.error(
+                        "Pending sale {} failed after it was sent to the catedra API, check it before sending again: {}",
+                        pendiente.getTrackingId(),
+                        error
+                    );
+                    return;
+                }
+                pendiente.setError(StringUtils.abbreviate(error, MAX_ERROR_LENGTH));
+                pendiente.setEstado(intentos >= maxIntentos ? EstadoVentaPendiente.FALLIDA : EstadoVentaPendiente.PENDIENTE);
+                LOG.warn("Pending sale {} failed (attempt {}): {}", pendiente.getTrackingId(), intentos, error);
+            });
+    }
+
+    public VentaDTO leerPayload(VentaPendiente pendiente) {
+        try {
+            return objectMapper.readValue(pendiente.getPayload(), VentaDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid payload for pending sale " + pendiente.getTrackingId(), e);
+        }
+    }
+
+    private String escribirPayload(VentaDTO ventaDTO) {
+        try {
+            return objectMapper.writeValueAsString(ventaDTO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize sale", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package um.edu.ar.service;
+
+import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import um.edu.ar.config.ApplicationProperties;
+import um.edu.ar.domain.VentaPendiente;
+import um.edu.ar.service.dto.VentaDTO;
+
+/**
+ * Drains the {@link VentaPendiente} outbox: claims pending rows and submits each one to the catedra
+ * API on the bounded {@code ventaOutboxExecutor}, then records the outcome.
+ * <p>
+ * A row is sent at most once: the id of its remote sale is recorded as soon as the catedra API returns it, and a
+ * row holding one only has its local sale saved on a later attempt.
+ */
+@Service
+public class VentaOutboxWorker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaOutboxWorker.class);
+
+    private final VentaOutboxService ventaOutboxService;
+    private final VentaService ventaService;
+    private final ThreadPoolTaskExecutor executor;
+    private final ApplicationProperties.Ventas.Outbox properties;
+
+    public VentaOutboxWorker(
+        VentaOutboxService ventaOutboxService,
+        VentaService ventaService,
+        @Qualifier("ventaOutboxExecutor") ThreadPoolTaskExecutor executor,
+        ApplicationProperties applicationProperties
+    ) {
+        this.ventaOutboxService = ventaOutboxService;
+        this.ventaService = ventaService;
+        this.executor = executor;
+        this.properties = applicationProperties.getVentas().getOutbox();
+    }
+
+    @Scheduled(fixedDelayString = "${application.ventas.outbox.poll-interval:PT1S}")
+    public void procesarPendientes() {
+        ventaOutboxService.liberarBloqueadas(Instant.now().minus(properties.getLeaseTimeout()));
+
+        int libres = properties.getWorkerThreads() - executor.getActiveCount();
+        if (libres <= 0) {
+            LOG.debug("All sale outbox workers busy, skipping poll");
+            return;
+        }
+
+        List<VentaPendiente> reclamadas = ventaOutboxService.reclamar(Math.min(libres, properties.getBatchSize()));
+        for (VentaPendiente pendiente : reclamadas) {
+            try {
+                executor.execute(() -> procesar(pendiente));
+            } catch (TaskRejectedException e) {
+                LOG.warn("Sale outbox executor saturated, returning {} to the queue", pendiente.getTrackingId());
+                ventaOutboxService.devolver(pendiente.getId());
+            }
+        }
+    }
+
+    void procesar(VentaPendiente pendiente) {
+        LOG.debug("Processing pending sale {}", pendiente.getTrackingId());
+        try {
+            VentaDTO ventaDTO = ventaOutboxService.leerPayload(pendiente);
+            Long ventaId = pendiente.getVentaId();
+            if (ventaId == null) {
+                if (!ventaOutboxService.marcarEnviada(pendiente.getId())) {
+                    LOG.warn("Pending sale {} was released while waiting, leaving it to its new worker", pendiente.getTrackingId());
+                    return;
+                }
+                ventaId = ventaService.registrarVentaRemota(ventaDTO);
+                // In its own transaction, before the local sale: a failure from here on never sends the sale again
+                ventaOutboxService.registrarVentaRemota(pendiente.getId(), ventaId);
+                ventaService.guardarVentaRemota(ventaId, ventaDTO);
+            } else if (ventaService.findOne(ventaId).isEmpty()) {
+                LOG.debug("Pending sale {} already registered as sale ID: {}, saving it locally", pendiente.getTrackingId(), ventaId);
+                ventaService.guardarVentaRemota(ventaId, ventaDTO);
+            }
+            ventaOutboxService.marcarCompletada(pendiente.getId(), ventaId);
+        } catch (CatedraUnavailableException e) {
+            // Not the sale's fault, and it was not sent: hand it back without consuming an attempt
+            LOG.warn("Catedra API unavailable, returning {} to the queue", pendiente.getTrackingId());
+            ventaOutboxService.devolver(pendiente.getId());
+        } catch (Exception e) {
+            LOG.error("Pending sale {} could not be processed: {}", pendiente.getTrackingId(), e.getMessage());
+            ventaOutboxService.registrarFallo(pendiente.getId(), e.getMessage(), properties.getMaxIntentos());
+        }
+    }
+}
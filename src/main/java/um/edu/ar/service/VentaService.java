@@ -1,31 +1,18 @@
 package um.edu.ar.service;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
-import um.edu.ar.config.Constants;
-import um.edu.ar.domain.User;
 import um.edu.ar.domain.Venta;
 import um.edu.ar.repository.UserRepository;
 import um.edu.ar.repository.VentaRepository;
 import um.edu.ar.service.dto.VentaDTO;
-import um.edu.ar.service.dto.VentaProfeDTO;
 import um.edu.ar.service.mapper.UserMapper;
 import um.edu.ar.service.mapper.VentaMapper;
 
@@ -41,16 +28,20 @@ public class VentaService {
     private final VentaRepository ventaRepository;
     private final UserRepository userRepository;
     private final VentaMapper ventaMapper;
+    private final CatedraClient catedraClient;
 
-    private static final RestTemplate restTemplate = new RestTemplate();
-    //    private static final String postUrl = "http://192.168.194.254:8080/api/catedra/";
-    private static final String postUrl = Constants.API_URL;
-
-    public VentaService(VentaRepository ventaRepository, UserRepository userRepository, UserMapper userMapper, VentaMapper ventaMapper) {
+    public VentaService(
+        VentaRepository ventaRepository,
+        UserRepository userRepository,
+        UserMapper userMapper,
+        VentaMapper ventaMapper,
+        CatedraClient catedraClient
+    ) {
         LOG.info("Initializing VentaService");
         this.ventaRepository = ventaRepository;
         this.userRepository = userRepository;
         this.ventaMapper = ventaMapper;
+        this.catedraClient = catedraClient;
     }
 
     /**
@@ -79,6 +70,7 @@ public class VentaService {
         LOG.debug("Request to update Sale : {}", ventaDTO);
         LOG.debug("Converting DTO to entity for update");
         Venta venta = ventaMapper.toEntity(ventaDTO);
+        venta.setIsPersisted();
         LOG.debug("Updating sale entity");
         venta = ventaRepository.save(venta);
         LOG.info("Sale successfully updated with ID: {}", venta.getId());
@@ -158,61 +150,115 @@ public class VentaService {
 
     public VentaDTO realizarVenta(VentaDTO ventaDTO) {
         LOG.debug("Request to process new Sale: {}", ventaDTO);
-        LOG.debug("Loading authentication token");
-        String token = loadTokenFromFile();
-
-        LOG.debug("Looking up user with ID: {}", ventaDTO.getUser().getId());
-        User user = userRepository
-            .findById(ventaDTO.getUser().getId())
-            .orElseThrow(() -> {
-                LOG.error("User not found with ID: {}", ventaDTO.getUser().getId());
-                return new RuntimeException("User not found");
-            });
+        return guardarVentaRemota(registrarVentaRemota(ventaDTO), ventaDTO);
+    }
 
-        LOG.debug("Preparing HTTP request to external service");
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(token);
-        HttpEntity<VentaDTO> entity = new HttpEntity<>(ventaDTO, headers);
-
-        LOG.debug("Sending sale request to external service");
-        ResponseEntity<VentaProfeDTO> response = restTemplate.exchange(postUrl + "/vender", HttpMethod.POST, entity, VentaProfeDTO.class);
-
-        if (response.getStatusCode().is2xxSuccessful()) {
-            LOG.debug("External service request successful, creating local sale record");
-            Venta venta = new Venta();
-            venta.setId(Objects.requireNonNull(response.getBody()).getIdVenta());
-            venta.setFechaVenta(ventaDTO.getFechaVenta());
-            venta.setGanancia(ventaDTO.getPrecioFinal());
-            venta.setUser(user);
-
-            LOG.debug("Saving sale to local database");
-            venta = ventaRepository.save(venta);
-            LOG.info("Sale successfully processed and saved with ID: {}", venta.getId());
-            return ventaMapper.toDto(venta);
-        } else {
-            LOG.error("External service request failed with status code: {}", response.getStatusCode());
+    /**
+     * Register a sale in the catedra API, without saving it locally: see {@link #guardarVentaRemota(Long, VentaDTO)}.
+     *
+     * @param ventaDTO the sale to register.
+     * @return the id assigned by the catedra API.
+     */
+    public Long registrarVentaRemota(VentaDTO ventaDTO) {
+        Long userId = ventaDTO.getUser().getId();
+        LOG.debug("Checking user with ID: {}", userId);
+        if (!userRepository.existsById(userId)) {
+            LOG.error("User not found with ID: {}", userId);
+            throw new RuntimeException("User not found");
+        }
+
+        Long idVenta = catedraClient.vender(ventaDTO);
+        if (idVenta == null) {
+            LOG.error("External service accepted the sale without returning its ID");
             throw new RuntimeException("Error during sale request");
         }
+        return idVenta;
     }
 
-    public List<VentaDTO> getVentasByUserId(Long userId) {
-        LOG.debug("Request to get all Sales for user with ID: {}", userId);
-        List<Venta> ventas = ventaRepository.findByUserId(userId);
-        List<VentaDTO> result = ventas.stream().map(ventaMapper::toDto).collect(Collectors.toList());
-        LOG.info("Found {} sales for user ID: {}", result.size(), userId);
-        return result;
+    /**
+     * Save the local record of a sale already registered in the catedra API.
+     *
+     * @param idVenta the id assigned by the catedra API.
+     * @param ventaDTO the sale registered.
+     * @return the persisted entity.
+     */
+    public VentaDTO guardarVentaRemota(Long idVenta, VentaDTO ventaDTO) {
+        LOG.debug("External service request successful, creating local sale record");
+        Venta venta = new Venta();
+        venta.setId(idVenta);
+        venta.setFechaVenta(ventaDTO.getFechaVenta());
+        venta.setGanancia(ventaDTO.getPrecioFinal());
+        venta.setUser(userRepository.getReferenceById(ventaDTO.getUser().getId()));
+
+        // New despite its remote id, so this is a plain persist: one INSERT, no SELECT to merge it
+        LOG.debug("Saving sale to local database");
+        venta = ventaRepository.save(venta);
+        LOG.info("Sale successfully processed and saved with ID: {}", venta.getId());
+
+        // Mapping the user reference loads it, from the second-level cache once the user has been read
+        return ventaMapper.toDto(venta);
+    }
+
+    /**
+     * Get a page of ventas, newest first, using keyset pagination on {@code (fechaVenta, id)}.
+     * <p>
+     * Unlike {@link #findAll(Pageable)}, the cost does not grow with the depth of the page and no count query is run.
+     *
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page.
+     * @param size the maximum number of ventas to return.
+     * @return the page and the cursor of the next one.
+     */
+    @Transactional(readOnly = true)
+    public Ventana findAllByCursor(String cursor, int size) {
+        LOG.debug("Request to get Sales after cursor: {}", cursor);
+        // One extra row tells whether there is a next page
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Venta> ventas;
+        if (cursor == null) {
+            ventas = ventaRepository.findFirstKeysetPage(limit);
+        } else {
+            VentaCursor posicion = VentaCursor.decode(cursor);
+            ventas = ventaRepository.findKeysetPageAfter(posicion.fechaVentaUtc(), posicion.id(), limit);
+        }
+        return toVentana(ventas, size);
     }
 
-    private String loadTokenFromFile() {
-        LOG.debug("Attempting to load authentication token from file");
-        try {
-            byte[] bytes = Files.readAllBytes(Paths.get("token.json"));
-            JSONObject jsonObject = new JSONObject(new String(bytes));
-            LOG.debug("Authentication token successfully loaded");
-            return jsonObject.getString("token");
-        } catch (IOException e) {
-            LOG.error("Failed to load authentication token from file", e);
-            throw new RuntimeException("Error loading token from file", e);
+    /**
+     * Get a page of the ventas of a user, newest first, using keyset pagination on {@code (fechaVenta, id)}.
+     *
+     * @param userId the id of the user.
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page.
+     * @param size the maximum number of ventas to return.
+     * @return the page and the cursor of the next one.
+     */
+    @Transactional(readOnly = true)
+    public Ventana getVentasByUserId(Long userId, String cursor, int size) {
+        LOG.debug("Request to get Sales for user with ID: {} after cursor: {}", userId, cursor);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Venta> ventas;
+        if (cursor == null) {
+            ventas = ventaRepository.findFirstKeysetPageByUserId(userId, limit);
+        } else {
+            VentaCursor posicion = VentaCursor.decode(cursor);
+            ventas = ventaRepository.findKeysetPageByUserIdAfter(userId, posicion.fechaVentaUtc(), posicion.id(), limit);
         }
+        Ventana result = toVentana(ventas, size);
+        LOG.info("Found {} sales for user ID: {}", result.ventas().size(), userId);
+        return result;
+    }
+
+    private Ventana toVentana(List<Venta> ventas, int size) {
+        boolean hasNext = ventas.size() > size;
+        List<Venta> page = hasNext ? ventas.subList(0, size) : ventas;
+        String siguienteCursor = hasNext ? VentaCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new Ventana(page.stream().map(ventaMapper::toDto).toList(), siguienteCursor);
     }
+
+    /**
+     * A keyset page of ventas.
+     *
+     * @param ventas the ventas of the page.
+     * @param siguienteCursor the cursor of the next page, or {@code null} if this is the last one.
+     */
+    public record Ventana(List<VentaDTO> ventas, String siguienteCursor) {}
 }
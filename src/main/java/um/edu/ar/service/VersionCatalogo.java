@@ -0,0 +1,208 @@
+package um.edu.ar.service;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import um.edu.ar.domain.event.CambioCatalogo;
+import um.edu.ar.repository.VersionCatalogoRepository;
+
+/**
+ * Version of the catalog, which clients can poll with conditional requests instead of reading it again, and which keeps
+ * the in-memory copies of the catalog of every node current.
+ * <p>
+ * The version is shared by the nodes through {@link VersionCatalogoRepository}: every {@link CambioCatalogo}, whether
+ * written by the catalog sync or through the services of the catalog entities, bumps it in the transaction that makes
+ * the change. Each node serves the version its {@link CatalogoEnMemoria} holds: it follows its own changes as they
+ * commit, and polls the shared version for the changes of the other nodes: when one comes in, it evicts the catalog from
+ * the second-level cache, which only the local changes keep current, and reloads its copy.
+ * <p>
+ * ETags are derived from the shared version alone, so that every node holding it answers them alike; they carry the
+ * time of its last change too, so that a version number reused after a database restore never matches an older one.
+ */
+@Service
+public class VersionCatalogo {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VersionCatalogo.class);
+
+    private final VersionCatalogoRepository versionCatalogoRepository;
+
+    private final CatalogoEnMemoria catalogoEnMemoria;
+
+    private final CatalogoCacheEvictor catalogoCacheEvictor;
+
+    // The version of each change of this node, from its commit until it is served
+    private final Map<CambioCatalogo, Version> confirmando = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    // Changes of this node served out of order, until the ones before them are
+    private final TreeMap<Long, Version> adelantadas = new TreeMap<>();
+
+    // Until the shared version is read, a version no ETag matches
+    private volatile Version actual = new Version(0, Instant.now());
+
+    public VersionCatalogo(
+        VersionCatalogoRepository versionCatalogoRepository,
+        CatalogoEnMemoria catalogoEnMemoria,
+        CatalogoCacheEvictor catalogoCacheEvictor
+    ) {
+        this.versionCatalogoRepository = versionCatalogoRepository;
+        this.catalogoEnMemoria = catalogoEnMemoria;
+        this.catalogoCacheEvictor = catalogoCacheEvictor;
+    }
+
+    /**
+     * @return the current version; read it before the data it tags, so that a change committed meanwhile is never hidden
+     * behind the version it follows.
+     */
+    public Version actual() {
+        return actual;
+    }
+
+    /**
+     * Load the in-memory catalog, at the shared version, once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        sondear();
+    }
+
+    /**
+     * Bump the shared version in the transaction of a change, right before it commits.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    @Order(CatalogoCacheEvictor.ORDER - 1)
+    public void registrar(CambioCatalogo cambio) {
+        if (cambio.isEmpty()) {
+            return;
+        }
+        confirmando.put(cambio, version(versionCatalogoRepository.incrementar(Instant.now())));
+    }
+
+    /**
+     * Serve the version of a change once it is committed, and served: after the in-memory catalog is refreshed with it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(CatalogoCacheEvictor.ORDER + 2)
+    public void incrementar(CambioCatalogo cambio) {
+        Version version = confirmando.remove(cambio);
+        if (version == null) {
+            return;
+        }
+        synchronized (this) {
+            // Unless a reload already served it
+            if (version.numero() > actual.numero()) {
+                adelantadas.put(version.numero(), version);
+                avanzar();
+            }
+        }
+    }
+
+    /**
+     * Forget the version of a change whose commit failed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void descartar(CambioCatalogo cambio) {
+        confirmando.remove(cambio);
+    }
+
+    /**
+     * Evict the cached catalog and reload the in-memory one if another node changed it: its copy may hold any of the
+     * changes committed before it is read, so it is served at the shared version read first.
+     */
+    @Scheduled(
+        fixedDelayString = "${application.catedra.cache.poll-interval:PT5S}",
+        initialDelayString = "${application.catedra.cache.poll-interval:PT5S}"
+    )
+    public void sondear() {
+        Version compartida;
+        try {
+            compartida = version(versionCatalogoRepository.leer());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not read the catalog version: {}", e.getMessage());
+            return;
+        }
+        boolean ajeno;
+        boolean atras;
+        synchronized (this) {
+            ajeno = cambioAjeno(compartida);
+            if (catalogoEnMemoria.isCargado() && !ajeno) {
+                return;
+            }
+            atras = compartida.numero() < actual.numero();
+        }
+        if (ajeno) {
+            LOG.debug("Catalog version is now {} on another node, reloading the catalog", compartida.numero());
+            // Before the reload, which reads through the cache
+            catalogoCacheEvictor.evictAll();
+        }
+        catalogoEnMemoria.cargar();
+        synchronized (this) {
+            // Changes of this node may have been served meanwhile
+            if (atras || compartida.numero() > actual.numero()) {
+                actual = compartida;
+            }
+            adelantadas.headMap(actual.numero(), true).clear();
+            avanzar();
+        }
+    }
+
+    /**
+     * @return the strong ETag of a version, the same on every node.
+     */
+    public String etag(Version version) {
+        return "\"" + version.numero() + "-" + Long.toHexString(version.modificado().toEpochMilli()) + "\"";
+    }
+
+    /**
+     * @return whether the shared version holds a change that is not of this node, or went back, which only a restored
+     * database does.
+     */
+    private boolean cambioAjeno(Version compartida) {
+        if (compartida.numero() < actual.numero()) {
+            return true;
+        }
+        Set<Long> propias = new HashSet<>(adelantadas.keySet());
+        synchronized (confirmando) {
+            confirmando.values().forEach(version -> propias.add(version.numero()));
+        }
+        for (long numero = actual.numero() + 1; numero <= compartida.numero(); numero++) {
+            if (!propias.contains(numero)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Serves the changes of this node that follow the current version
+    private void avanzar() {
+        Version siguiente;
+        while ((siguiente = adelantadas.remove(actual.numero() + 1)) != null) {
+            actual = siguiente;
+            LOG.debug("Catalog version is now {}", siguiente.numero());
+        }
+    }
+
+    private static Version version(VersionCatalogoRepository.Fila fila) {
+        return new Version(fila.numero(), fila.modificado());
+    }
+
+    /**
+     * A version of the catalog.
+     *
+     * @param numero the number of changes committed to the catalog.
+     * @param modificado when the last of them was committed.
+     */
+    public record Version(long numero, Instant modificado) {}
+}
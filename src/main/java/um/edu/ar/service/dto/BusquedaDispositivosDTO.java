@@ -0,0 +1,65 @@
+package um.edu.ar.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A page of a dispositivo search, with the number of dispositivos found by moneda and by precioBase bucket.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class BusquedaDispositivosDTO implements Serializable {
+
+    private List<DispositivoResumenDTO> dispositivos = new ArrayList<>();
+
+    private long total;
+
+    private Map<String, Long> monedas = new TreeMap<>();
+
+    private List<RangoPrecioDTO> precios = new ArrayList<>();
+
+    public List<DispositivoResumenDTO> getDispositivos() {
+        return dispositivos;
+    }
+
+    public void setDispositivos(List<DispositivoResumenDTO> dispositivos) {
+        this.dispositivos = dispositivos;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getMonedas() {
+        return monedas;
+    }
+
+    public void setMonedas(Map<String, Long> monedas) {
+        this.monedas = monedas;
+    }
+
+    public List<RangoPrecioDTO> getPrecios() {
+        return precios;
+    }
+
+    public void setPrecios(List<RangoPrecioDTO> precios) {
+        this.precios = precios;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BusquedaDispositivosDTO{" +
+            "dispositivos=" + getDispositivos() +
+            ", total=" + getTotal() +
+            ", monedas=" + getMonedas() +
+            ", precios=" + getPrecios() +
+            "}";
+    }
+}
@@ -0,0 +1,96 @@
+package um.edu.ar.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * A summary of the {@link um.edu.ar.domain.Dispositivo} entity for catalog listings, without its descripcion nor its
+ * relationships.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class DispositivoResumenDTO implements Serializable {
+
+    private Long id;
+
+    private String codigo;
+
+    private String nombre;
+
+    private BigDecimal precioBase;
+
+    private String moneda;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public BigDecimal getPrecioBase() {
+        return precioBase;
+    }
+
+    public void setPrecioBase(BigDecimal precioBase) {
+        this.precioBase = precioBase;
+    }
+
+    public String getMoneda() {
+        return moneda;
+    }
+
+    public void setMoneda(String moneda) {
+        this.moneda = moneda;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DispositivoResumenDTO)) {
+            return false;
+        }
+
+        DispositivoResumenDTO dispositivoResumenDTO = (DispositivoResumenDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, dispositivoResumenDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DispositivoResumenDTO{" +
+            "id=" + getId() +
+            ", codigo='" + getCodigo() + "'" +
+            ", nombre='" + getNombre() + "'" +
+            ", precioBase=" + getPrecioBase() +
+            ", moneda='" + getMoneda() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,75 @@
+package um.edu.ar.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * A precioBase bucket of a dispositivo search, from {@code desde} included to {@code hasta} excluded, with the number of
+ * dispositivos found in it. A {@code null} limit is open.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class RangoPrecioDTO implements Serializable {
+
+    private BigDecimal desde;
+
+    private BigDecimal hasta;
+
+    private long cantidad;
+
+    public BigDecimal getDesde() {
+        return desde;
+    }
+
+    public void setDesde(BigDecimal desde) {
+        this.desde = desde;
+    }
+
+    public BigDecimal getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(BigDecimal hasta) {
+        this.hasta = hasta;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(long cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RangoPrecioDTO)) {
+            return false;
+        }
+
+        RangoPrecioDTO rangoPrecioDTO = (RangoPrecioDTO) o;
+        return (
+            Objects.equals(this.desde, rangoPrecioDTO.desde) &&
+            Objects.equals(this.hasta, rangoPrecioDTO.hasta) &&
+            this.cantidad == rangoPrecioDTO.cantidad
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.desde, this.hasta, this.cantidad);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RangoPrecioDTO{" +
+            "desde=" + getDesde() +
+            ", hasta=" + getHasta() +
+            ", cantidad=" + getCantidad() +
+            "}";
+    }
+}
@@ -0,0 +1,174 @@
+package um.edu.ar.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import um.edu.ar.domain.enumeration.EstadoSincronizacion;
+import um.edu.ar.domain.enumeration.OrigenSincronizacion;
+
+/**
+ * A DTO for the {@link um.edu.ar.domain.SincronizacionCatalogo} entity.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class SincronizacionCatalogoDTO implements Serializable {
+
+    private Long id;
+
+    private OrigenSincronizacion origen;
+
+    private EstadoSincronizacion estado;
+
+    private Instant inicio;
+
+    private Instant fin;
+
+    private Long descargaMs;
+
+    private Long lecturaMs;
+
+    private Long escrituraMs;
+
+    private Integer dispositivosLeidos;
+
+    private Integer dispositivosActualizados;
+
+    private Integer filasEscritas;
+
+    private String error;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OrigenSincronizacion getOrigen() {
+        return origen;
+    }
+
+    public void setOrigen(OrigenSincronizacion origen) {
+        this.origen = origen;
+    }
+
+    public EstadoSincronizacion getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoSincronizacion estado) {
+        this.estado = estado;
+    }
+
+    public Instant getInicio() {
+        return inicio;
+    }
+
+    public void setInicio(Instant inicio) {
+        this.inicio = inicio;
+    }
+
+    public Instant getFin() {
+        return fin;
+    }
+
+    public void setFin(Instant fin) {
+        this.fin = fin;
+    }
+
+    public Long getDescargaMs() {
+        return descargaMs;
+    }
+
+    public void setDescargaMs(Long descargaMs) {
+        this.descargaMs = descargaMs;
+    }
+
+    public Long getLecturaMs() {
+        return lecturaMs;
+    }
+
+    public void setLecturaMs(Long lecturaMs) {
+        this.lecturaMs = lecturaMs;
+    }
+
+    public Long getEscrituraMs() {
+        return escrituraMs;
+    }
+
+    public void setEscrituraMs(Long escrituraMs) {
+        this.escrituraMs = escrituraMs;
+    }
+
+    public Integer getDispositivosLeidos() {
+        return dispositivosLeidos;
+    }
+
+    public void setDispositivosLeidos(Integer dispositivosLeidos) {
+        this.dispositivosLeidos = dispositivosLeidos;
+    }
+
+    public Integer getDispositivosActualizados() {
+        return dispositivosActualizados;
+    }
+
+    public void setDispositivosActualizados(Integer dispositivosActualizados) {
+        this.dispositivosActualizados = dispositivosActualizados;
+    }
+
+    public Integer getFilasEscritas() {
+        return filasEscritas;
+    }
+
+    public void setFilasEscritas(Integer filasEscritas) {
+        this.filasEscritas = filasEscritas;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SincronizacionCatalogoDTO)) {
+            return false;
+        }
+
+        SincronizacionCatalogoDTO sincronizacionCatalogoDTO = (SincronizacionCatalogoDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, sincronizacionCatalogoDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SincronizacionCatalogoDTO{" +
+            "id=" + getId() +
+            ", origen='" + getOrigen() + "'" +
+            ", estado='" + getEstado() + "'" +
+            ", inicio='" + getInicio() + "'" +
+            ", fin='" + getFin() + "'" +
+            ", descargaMs=" + getDescargaMs() +
+            ", lecturaMs=" + getLecturaMs() +
+            ", escrituraMs=" + getEscrituraMs() +
+            ", dispositivosLeidos=" + getDispositivosLeidos() +
+            ", dispositivosActualizados=" + getDispositivosActualizados() +
+            ", filasEscritas=" + getFilasEscritas() +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,77 @@
+package um.edu.ar.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of one sale of a {@code POST /api/ventas/batch} request.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class VentaLoteResultadoDTO implements Serializable {
+
+    private int indice;
+
+    private boolean exitosa;
+
+    private VentaDTO venta;
+
+    private String error;
+
+    public static VentaLoteResultadoDTO exito(int indice, VentaDTO venta) {
+        VentaLoteResultadoDTO resultado = new VentaLoteResultadoDTO();
+        resultado.setIndice(indice);
+        resultado.setExitosa(true);
+        resultado.setVenta(venta);
+        return resultado;
+    }
+
+    public static VentaLoteResultadoDTO fallo(int indice, String error) {
+        VentaLoteResultadoDTO resultado = new VentaLoteResultadoDTO();
+        resultado.setIndice(indice);
+        resultado.setExitosa(false);
+        resultado.setError(error);
+        return resultado;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public boolean isExitosa() {
+        return exitosa;
+    }
+
+    public void setExitosa(boolean exitosa) {
+        this.exitosa = exitosa;
+    }
+
+    public VentaDTO getVenta() {
+        return venta;
+    }
+
+    public void setVenta(VentaDTO venta) {
+        this.venta = venta;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaLoteResultadoDTO{" +
+            "indice=" + getIndice() +
+            ", exitosa=" + isExitosa() +
+            ", venta=" + getVenta() +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
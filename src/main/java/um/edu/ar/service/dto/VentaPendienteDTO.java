@@ -0,0 +1,118 @@
+package um.edu.ar.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import um.edu.ar.domain.enumeration.EstadoVentaPendiente;
+
+/**
+ * A DTO exposing the tracking status of a {@link um.edu.ar.domain.VentaPendiente}.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class VentaPendienteDTO implements Serializable {
+
+    private String trackingId;
+
+    private EstadoVentaPendiente estado;
+
+    private Integer intentos;
+
+    private Long ventaId;
+
+    private String error;
+
+    private Instant fechaCreacion;
+
+    private Instant fechaActualizacion;
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public void setTrackingId(String trackingId) {
+        this.trackingId = trackingId;
+    }
+
+    public EstadoVentaPendiente getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoVentaPendiente estado) {
+        this.estado = estado;
+    }
+
+    public Integer getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(Integer intentos) {
+        this.intentos = intentos;
+    }
+
+    public Long getVentaId() {
+        return ventaId;
+    }
+
+    public void setVentaId(Long ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(Instant fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    public Instant getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(Instant fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VentaPendienteDTO)) {
+            return false;
+        }
+
+        VentaPendienteDTO ventaPendienteDTO = (VentaPendienteDTO) o;
+        if (this.trackingId == null) {
+            return false;
+        }
+        return Objects.equals(this.trackingId, ventaPendienteDTO.trackingId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.trackingId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaPendienteDTO{" +
+            "trackingId='" + getTrackingId() + "'" +
+            ", estado='" + getEstado() + "'" +
+            ", intentos=" + getIntentos() +
+            ", ventaId=" + getVentaId() +
+            ", error='" + getError() + "'" +
+            ", fechaCreacion='" + getFechaCreacion() + "'" +
+            ", fechaActualizacion='" + getFechaActualizacion() + "'" +
+            "}";
+    }
+}
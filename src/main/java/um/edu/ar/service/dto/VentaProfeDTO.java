@@ -5,7 +5,7 @@ import java.util.List;
 
 public class VentaProfeDTO {
 
-    private static Long idVenta;
+    private Long idVenta;
     private Long idDispositivo;
     private String codigo;
     private String nombre;
@@ -29,4 +29,11 @@ public interface AdicionalMapper extends EntityMapper<AdicionalDTO, Adicional> {
     default Set<DispositivoDTO> toDtoDispositivoIdSet(Set<Dispositivo> dispositivo) {
         return dispositivo.stream().map(this::toDtoDispositivoId).collect(Collectors.toSet());
     }
+
+    @Mapping(target = "huella", ignore = true)
+    Dispositivo toEntityDispositivo(DispositivoDTO dispositivoDTO);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "huella", ignore = true)
+    void partialUpdateDispositivo(@MappingTarget Dispositivo dispositivo, DispositivoDTO dispositivoDTO);
 }
@@ -18,4 +18,11 @@ public interface CaracteristicaMapper extends EntityMapper<CaracteristicaDTO, Ca
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
     DispositivoDTO toDtoDispositivoId(Dispositivo dispositivo);
+
+    @Mapping(target = "huella", ignore = true)
+    Dispositivo toEntityDispositivo(DispositivoDTO dispositivoDTO);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "huella", ignore = true)
+    void partialUpdateDispositivo(@MappingTarget Dispositivo dispositivo, DispositivoDTO dispositivoDTO);
 }
@@ -5,6 +5,7 @@ import java.util.stream.Collectors;
 import org.mapstruct.*;
 import um.edu.ar.domain.Adicional;
 import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.repository.DispositivoRepository;
 import um.edu.ar.service.dto.*;
 
 /**
@@ -16,8 +17,16 @@ public interface DispositivoMapper extends EntityMapper<DispositivoDTO, Disposit
     @Mapping(target = "personalizaciones", source = "personalizaciones")
     @Mapping(target = "adicionales", source = "adicionales")
     @Mapping(target = "removeAdicionales", ignore = true)
+    @Mapping(target = "huella", ignore = true)
     Dispositivo toEntity(DispositivoDTO dispositivoDTO);
 
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "huella", ignore = true)
+    void partialUpdate(@MappingTarget Dispositivo entity, DispositivoDTO dto);
+
+    DispositivoResumenDTO toResumenDto(DispositivoRepository.ResumenDispositivo resumen);
+
     @Mapping(target = "caracteristicas", source = "caracteristicas")
     @Mapping(target = "personalizaciones", source = "personalizaciones")
     @Mapping(target = "adicionales", source = "adicionales")
@@ -1,8 +1,10 @@
 package um.edu.ar.service.mapper;
 
 import org.mapstruct.*;
+import um.edu.ar.domain.Dispositivo;
 import um.edu.ar.domain.Opcion;
 import um.edu.ar.domain.Personalizacion;
+import um.edu.ar.service.dto.DispositivoDTO;
 import um.edu.ar.service.dto.OpcionDTO;
 import um.edu.ar.service.dto.PersonalizacionDTO;
 
@@ -18,4 +20,11 @@ public interface OpcionMapper extends EntityMapper<OpcionDTO, Opcion> {
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
     PersonalizacionDTO toDtoPersonalizacionId(Personalizacion personalizacion);
+
+    @Mapping(target = "huella", ignore = true)
+    Dispositivo toEntityDispositivo(DispositivoDTO dispositivoDTO);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "huella", ignore = true)
+    void partialUpdateDispositivo(@MappingTarget Dispositivo dispositivo, DispositivoDTO dispositivoDTO);
 }
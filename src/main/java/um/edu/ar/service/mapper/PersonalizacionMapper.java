@@ -18,4 +18,11 @@ public interface PersonalizacionMapper extends EntityMapper<PersonalizacionDTO,
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
     DispositivoDTO toDtoDispositivoId(Dispositivo dispositivo);
+
+    @Mapping(target = "huella", ignore = true)
+    Dispositivo toEntityDispositivo(DispositivoDTO dispositivoDTO);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "huella", ignore = true)
+    void partialUpdateDispositivo(@MappingTarget Dispositivo dispositivo, DispositivoDTO dispositivoDTO);
 }
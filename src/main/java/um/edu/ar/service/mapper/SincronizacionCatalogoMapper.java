@@ -0,0 +1,13 @@
+package um.edu.ar.service.mapper;
+
+import org.mapstruct.*;
+import um.edu.ar.domain.SincronizacionCatalogo;
+import um.edu.ar.service.dto.SincronizacionCatalogoDTO;
+
+/**
+ * Mapper for the entity {@link SincronizacionCatalogo} and its DTO {@link SincronizacionCatalogoDTO}.
+ */
+@Mapper(componentModel = "spring")
+public interface SincronizacionCatalogoMapper {
+    SincronizacionCatalogoDTO toDto(SincronizacionCatalogo sincronizacionCatalogo);
+}
@@ -0,0 +1,13 @@
+package um.edu.ar.service.mapper;
+
+import org.mapstruct.*;
+import um.edu.ar.domain.VentaPendiente;
+import um.edu.ar.service.dto.VentaPendienteDTO;
+
+/**
+ * Mapper for the entity {@link VentaPendiente} and its tracking DTO {@link VentaPendienteDTO}.
+ */
+@Mapper(componentModel = "spring")
+public interface VentaPendienteMapper {
+    VentaPendienteDTO toDto(VentaPendiente ventaPendiente);
+}
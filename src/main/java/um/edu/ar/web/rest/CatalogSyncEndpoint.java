@@ -0,0 +1,51 @@
+package um.edu.ar.web.rest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import um.edu.ar.service.SincronizacionCatalogoService;
+import um.edu.ar.service.UpdateDatabase;
+
+/**
+ * Management endpoint of the catalog sync, mapped to {@code /management/catalog-sync}.
+ * <p>
+ * Reading it returns the run in progress, with the devices read and written so far, and the most recent runs.
+ * Writing to it starts a run in the background.
+ */
+@Component
+@Endpoint(id = "catalogsync")
+public class CatalogSyncEndpoint {
+
+    private static final int RECENT_RUNS = 20;
+
+    private final UpdateDatabase updateDatabase;
+
+    private final SincronizacionCatalogoService sincronizacionCatalogoService;
+
+    public CatalogSyncEndpoint(UpdateDatabase updateDatabase, SincronizacionCatalogoService sincronizacionCatalogoService) {
+        this.updateDatabase = updateDatabase;
+        this.sincronizacionCatalogoService = sincronizacionCatalogoService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> syncStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", sincronizacionCatalogoService.enCurso().orElse(null));
+        status.put("lastSync", updateDatabase.getLastSync());
+        status.put("runs", sincronizacionCatalogoService.recientes(RECENT_RUNS));
+        return status;
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> startSync() {
+        if (!updateDatabase.requestSync()) {
+            return new WebEndpointResponse<>(Map.of("started", false), HttpStatus.CONFLICT.value());
+        }
+        return new WebEndpointResponse<>(Map.of("started", true), HttpStatus.ACCEPTED.value());
+    }
+}
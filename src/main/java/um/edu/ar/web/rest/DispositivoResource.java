@@ -2,6 +2,7 @@ package um.edu.ar.web.rest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -11,17 +12,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 import um.edu.ar.repository.DispositivoRepository;
+import um.edu.ar.service.BusquedaDispositivoService;
 import um.edu.ar.service.DispositivoService;
+import um.edu.ar.service.VersionCatalogo;
+import um.edu.ar.service.dto.BusquedaDispositivosDTO;
 import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.DispositivoResumenDTO;
 import um.edu.ar.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -42,9 +49,20 @@ public class DispositivoResource {
 
     private final DispositivoRepository dispositivoRepository;
 
-    public DispositivoResource(DispositivoService dispositivoService, DispositivoRepository dispositivoRepository) {
+    private final VersionCatalogo versionCatalogo;
+
+    private final BusquedaDispositivoService busquedaDispositivoService;
+
+    public DispositivoResource(
+        DispositivoService dispositivoService,
+        DispositivoRepository dispositivoRepository,
+        VersionCatalogo versionCatalogo,
+        BusquedaDispositivoService busquedaDispositivoService
+    ) {
         this.dispositivoService = dispositivoService;
         this.dispositivoRepository = dispositivoRepository;
+        this.versionCatalogo = versionCatalogo;
+        this.busquedaDispositivoService = busquedaDispositivoService;
     }
 
     /**
@@ -157,14 +175,19 @@ public class DispositivoResource {
      *
      * @param pageable the pagination information.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
+     * @param request the request, to answer it with a {@code 304 (Not Modified)} if the catalog did not change.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of dispositivos in body.
      */
     @GetMapping("")
     public ResponseEntity<List<DispositivoDTO>> getAllDispositivos(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
-        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
+        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload,
+        WebRequest request
     ) {
         LOG.debug("REST request to get all Devices. Pageable: {}, Eagerload: {}", pageable, eagerload);
+        if (noModificado(request)) {
+            return null;
+        }
         LOG.debug("Retrieving page of devices");
         Page<DispositivoDTO> page;
         if (eagerload) {
@@ -180,15 +203,75 @@ public class DispositivoResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /dispositivos/summary} : get a summary of all the dispositivos, without their descripcion nor their relationships.
+     *
+     * @param pageable the pagination information.
+     * @param request the request, to answer it with a {@code 304 (Not Modified)} if the catalog did not change.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of summaries in body.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<List<DispositivoResumenDTO>> getAllDispositivoResumenes(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        WebRequest request
+    ) {
+        LOG.debug("REST request to get a summary of all Devices. Pageable: {}", pageable);
+        if (noModificado(request)) {
+            return null;
+        }
+        Page<DispositivoResumenDTO> page = dispositivoService.findAllResumenes(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /dispositivos/_search?q=:query} : search the dispositivos by nombre, codigo, descripcion, caracteristicas
+     * and opciones, and count the ones found by moneda and by precioBase bucket.
+     *
+     * @param query the terms to find; all the dispositivos if empty.
+     * @param moneda the moneda of the dispositivos to find.
+     * @param precioDesde the lowest precioBase of the dispositivos to find.
+     * @param precioHasta the precioBase the dispositivos to find must be below.
+     * @param pageable the pagination information; by relevance unless sorted.
+     * @param request the request, to answer it with a {@code 304 (Not Modified)} if the catalog did not change.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of summaries found with their counts in body,
+     * or with status {@code 400 (Bad Request)} if the sort is not supported.
+     */
+    @GetMapping("/_search")
+    public ResponseEntity<BusquedaDispositivosDTO> searchDispositivos(
+        @RequestParam(name = "q", required = false, defaultValue = "") String query,
+        @RequestParam(name = "moneda", required = false) String moneda,
+        @RequestParam(name = "precioDesde", required = false) BigDecimal precioDesde,
+        @RequestParam(name = "precioHasta", required = false) BigDecimal precioHasta,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        WebRequest request
+    ) {
+        LOG.debug("REST request to search Devices for query: {}", query);
+        if (!busquedaDispositivoService.isOrdenable(pageable.getSort())) {
+            throw new BadRequestAlertException("Unsupported sort", ENTITY_NAME, "sortinvalid");
+        }
+        if (noModificado(request)) {
+            return null;
+        }
+        BusquedaDispositivosDTO busqueda = busquedaDispositivoService.buscar(query, moneda, precioDesde, precioHasta, pageable);
+        Page<DispositivoResumenDTO> page = new PageImpl<>(busqueda.getDispositivos(), pageable, busqueda.getTotal());
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(busqueda);
+    }
+
     /**
      * {@code GET  /dispositivos/:id} : get the "id" dispositivo.
      *
      * @param id the id of the dispositivoDTO to retrieve.
+     * @param request the request, to answer it with a {@code 304 (Not Modified)} if the catalog did not change.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the dispositivoDTO, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<DispositivoDTO> getDispositivo(@PathVariable("id") Long id) {
+    public ResponseEntity<DispositivoDTO> getDispositivo(@PathVariable("id") Long id, WebRequest request) {
         LOG.debug("REST request to get Device with ID: {}", id);
+        if (noModificado(request)) {
+            return null;
+        }
         LOG.debug("Looking up device in service");
         Optional<DispositivoDTO> dispositivoDTO = dispositivoService.findOne(id);
         if (dispositivoDTO.isPresent()) {
@@ -199,6 +282,22 @@ public class DispositivoResource {
         return ResponseUtil.wrapOrNotFound(dispositivoDTO);
     }
 
+    /**
+     * {@code GET  /dispositivos/codigo/:codigo} : get the dispositivo with the given codigo.
+     *
+     * @param codigo the codigo of the dispositivoDTO to retrieve.
+     * @param request the request, to answer it with a {@code 304 (Not Modified)} if the catalog did not change.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the dispositivoDTO, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/codigo/{codigo}")
+    public ResponseEntity<DispositivoDTO> getDispositivoByCodigo(@PathVariable("codigo") String codigo, WebRequest request) {
+        LOG.debug("REST request to get Device with codigo: {}", codigo);
+        if (noModificado(request)) {
+            return null;
+        }
+        return ResponseUtil.wrapOrNotFound(dispositivoService.findOneByCodigo(codigo));
+    }
+
     /**
      * {@code DELETE  /dispositivos/:id} : delete the "id" dispositivo.
      *
@@ -215,4 +314,15 @@ public class DispositivoResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * Check a conditional GET against the catalog version, before reading anything, and tag the response with its ETag.
+     * There is no Last-Modified: its resolution of seconds would hide the changes committed within the same second.
+     *
+     * @return whether the client's copy is current: the response is then a {@code 304 (Not Modified)}, and the handler
+     * returns no body.
+     */
+    private boolean noModificado(WebRequest request) {
+        return request.checkNotModified(versionCatalogo.etag(versionCatalogo.actual()));
+    }
 }
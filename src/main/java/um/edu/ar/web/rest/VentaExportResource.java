@@ -0,0 +1,80 @@
+package um.edu.ar.web.rest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import um.edu.ar.config.ApplicationProperties;
+import um.edu.ar.service.VentaExportService;
+import um.edu.ar.web.rest.errors.BadRequestAlertException;
+
+/**
+ * REST controller exporting {@link um.edu.ar.domain.Venta} in bulk.
+ */
+@RestController
+@RequestMapping("/api/ventas")
+public class VentaExportResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaExportResource.class);
+
+    private static final String ENTITY_NAME = "venta";
+
+    private final VentaExportService ventaExportService;
+
+    private final long timeout;
+
+    public VentaExportResource(VentaExportService ventaExportService, ApplicationProperties applicationProperties) {
+        this.ventaExportService = ventaExportService;
+        this.timeout = applicationProperties.getVentas().getExportacion().getTimeout().toMillis();
+    }
+
+    /**
+     * {@code GET  /ventas/export} : stream all the ventas, ordered by {@code fechaVenta}, as NDJSON or CSV.
+     * <p>
+     * Rows are written as they are read from the database, so memory use does not depend on the number of ventas. The
+     * stream may last up to {@code application.ventas.exportacion.timeout}, instead of the default async request timeout.
+     *
+     * @param format {@code ndjson} (default) or {@code csv}.
+     * @param desde optional inclusive lower bound on {@code fechaVenta} (ISO-8601).
+     * @param hasta optional exclusive upper bound on {@code fechaVenta} (ISO-8601).
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed ventas in body,
+     * or with status {@code 400 (Bad Request)} if the format or the date range is invalid.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportVentas(
+        @RequestParam(name = "format", defaultValue = "ndjson") String format,
+        @RequestParam(name = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime desde,
+        @RequestParam(name = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime hasta,
+        HttpServletRequest request
+    ) {
+        LOG.debug("REST request to export Sales as {} from {} to {}", format, desde, hasta);
+        VentaExportService.Formato formato;
+        try {
+            formato = VentaExportService.Formato.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported export format: " + format, ENTITY_NAME, "formatinvalid");
+        }
+        if (desde != null && hasta != null && !desde.isBefore(hasta)) {
+            throw new BadRequestAlertException("desde must be before hasta", ENTITY_NAME, "daterangeinvalid");
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(formato.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment().filename("ventas." + formato.getExtension()).build());
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(timeout);
+        StreamingResponseBody body = out -> ventaExportService.exportar(formato, desde, hasta, out);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+}
@@ -1,7 +1,9 @@
 package um.edu.ar.web.rest;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -20,9 +22,15 @@ import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 import um.edu.ar.domain.Venta;
+import um.edu.ar.repository.UserRepository;
 import um.edu.ar.repository.VentaRepository;
+import um.edu.ar.service.VentaIdempotenciaService;
+import um.edu.ar.service.VentaLoteService;
+import um.edu.ar.service.VentaOutboxService;
 import um.edu.ar.service.VentaService;
 import um.edu.ar.service.dto.VentaDTO;
+import um.edu.ar.service.dto.VentaLoteResultadoDTO;
+import um.edu.ar.service.dto.VentaPendienteDTO;
 import um.edu.ar.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -35,37 +43,158 @@ public class VentaResource {
     private static final Logger LOG = LoggerFactory.getLogger(VentaResource.class);
     private static final String ENTITY_NAME = "venta";
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int IDEMPOTENCY_KEY_MAX_LENGTH = 255;
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_KEYSET_PAGE_SIZE = 2000;
+
+    // Ceiling of application.ventas.lote.max-items, checked before the sales of the batch are validated
+    private static final int MAX_BATCH_SIZE = 1000;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final VentaService ventaService;
     private final VentaRepository ventaRepository;
+    private final UserRepository userRepository;
+    private final VentaOutboxService ventaOutboxService;
+    private final VentaIdempotenciaService ventaIdempotenciaService;
+    private final VentaLoteService ventaLoteService;
 
-    public VentaResource(VentaService ventaService, VentaRepository ventaRepository) {
+    public VentaResource(
+        VentaService ventaService,
+        VentaRepository ventaRepository,
+        UserRepository userRepository,
+        VentaOutboxService ventaOutboxService,
+        VentaIdempotenciaService ventaIdempotenciaService,
+        VentaLoteService ventaLoteService
+    ) {
         this.ventaService = ventaService;
         this.ventaRepository = ventaRepository;
+        this.userRepository = userRepository;
+        this.ventaOutboxService = ventaOutboxService;
+        this.ventaIdempotenciaService = ventaIdempotenciaService;
+        this.ventaLoteService = ventaLoteService;
     }
 
     /**
      * {@code POST  /ventas} : Create a new venta.
+     * <p>
+     * When an {@code Idempotency-Key} header is sent, a retry with the same key returns the original sale
+     * (flagged with {@code Idempotent-Replayed: true}) without calling the catedra API again. Keys are scoped
+     * by user, and a key cannot be reused with a different sale.
      *
      * @param ventaDTO the ventaDTO to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new ventaDTO, or with status {@code 400 (Bad Request)} if the venta has already an ID.
+     * @param idempotencyKey optional key identifying retries of the same sale.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new ventaDTO, or with status {@code 400 (Bad Request)} if the venta has already an ID,
+     * or with status {@code 422 (Unprocessable Entity)} if the key was already used with a different sale, or with status
+     * {@code 409 (Conflict)} if the sale of the key failed and may already be registered.
      */
     @PostMapping("")
-    public ResponseEntity<VentaDTO> createVenta(@Valid @RequestBody VentaDTO ventaDTO) throws URISyntaxException {
+    public ResponseEntity<VentaDTO> createVenta(
+        @Valid @RequestBody VentaDTO ventaDTO,
+        @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) throws URISyntaxException {
         LOG.debug("REST request to save Sale: {}", ventaDTO);
         LOG.debug("Validating that sale has no existing ID");
         if (ventaDTO.getId() != null) {
             LOG.error("Attempt to create sale with existing ID: {}", ventaDTO.getId());
             throw new BadRequestAlertException("A new venta cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        LOG.debug("Processing sale through service");
-        VentaDTO result = ventaService.realizarVenta(ventaDTO);
+        VentaDTO result;
+        boolean replayed = false;
+        if (idempotencyKey == null) {
+            LOG.debug("Processing sale through service");
+            result = ventaService.realizarVenta(ventaDTO);
+        } else {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > IDEMPOTENCY_KEY_MAX_LENGTH) {
+                throw new BadRequestAlertException("Invalid Idempotency-Key", ENTITY_NAME, "idempotencykeyinvalid");
+            }
+            LOG.debug("Processing sale through service with idempotency key: {}", idempotencyKey);
+            VentaIdempotenciaService.Resultado resultado = ventaIdempotenciaService.ejecutar(
+                idempotencyKey,
+                ventaDTO,
+                () -> ventaService.registrarVentaRemota(ventaDTO),
+                ventaId -> ventaService.guardarVentaRemota(ventaId, ventaDTO)
+            );
+            result = resultado.venta();
+            replayed = resultado.repetida();
+        }
         LOG.info("Sale successfully created with ID: {}", result.getId());
-        return ResponseEntity.created(new URI("/api/ventas/" + result.getId()))
-            .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
-            .body(result);
+        HttpHeaders headers = HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString());
+        if (replayed) {
+            headers.add(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+        return ResponseEntity.created(new URI("/api/ventas/" + result.getId())).headers(headers).body(result);
+    }
+
+    /**
+     * {@code POST  /ventas/batch} : Create several ventas at once.
+     * <p>
+     * Every sale is processed independently; the response holds one result per sale, in request order.
+     *
+     * @param ventaDTOs the ventaDTOs to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each sale,
+     * or with status {@code 400 (Bad Request)} if the batch is empty, too large, or holds an invalid venta.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<VentaLoteResultadoDTO>> createVentas(
+        @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid VentaDTO> ventaDTOs
+    ) {
+        LOG.debug("REST request to save a batch of {} Sales", ventaDTOs.size());
+        if (ventaDTOs.size() > ventaLoteService.getMaxItems()) {
+            LOG.error("Rejected batch of {} sales", ventaDTOs.size());
+            throw new BadRequestAlertException(
+                "A batch must contain between 1 and " + ventaLoteService.getMaxItems() + " ventas",
+                ENTITY_NAME,
+                "batchsize"
+            );
+        }
+        return ResponseEntity.ok().body(ventaLoteService.realizarVentas(ventaDTOs));
+    }
+
+    /**
+     * {@code POST  /ventas/async} : Accept a new venta for asynchronous processing.
+     * <p>
+     * The sale is stored in the outbox and submitted to the catedra API in the background.
+     *
+     * @param ventaDTO the ventaDTO to create.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and with body the tracking information,
+     * or with status {@code 400 (Bad Request)} if the venta has already an ID or its user does not exist.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/async")
+    public ResponseEntity<VentaPendienteDTO> createVentaAsync(@Valid @RequestBody VentaDTO ventaDTO) throws URISyntaxException {
+        LOG.debug("REST request to enqueue Sale: {}", ventaDTO);
+        if (ventaDTO.getId() != null) {
+            LOG.error("Attempt to enqueue sale with existing ID: {}", ventaDTO.getId());
+            throw new BadRequestAlertException("A new venta cannot already have an ID", ENTITY_NAME, "idexists");
+        }
+        if (ventaDTO.getUser() == null || ventaDTO.getUser().getId() == null) {
+            LOG.error("Attempt to enqueue sale without user");
+            throw new BadRequestAlertException("A new venta must have a user", ENTITY_NAME, "usernull");
+        }
+        if (!userRepository.existsById(ventaDTO.getUser().getId())) {
+            LOG.error("User not found for asynchronous sale: {}", ventaDTO.getUser().getId());
+            throw new BadRequestAlertException("User not found", ENTITY_NAME, "usernotfound");
+        }
+        VentaPendienteDTO result = ventaOutboxService.encolar(ventaDTO);
+        LOG.info("Sale accepted for asynchronous processing. Tracking ID: {}", result.getTrackingId());
+        return ResponseEntity.accepted().location(new URI("/api/ventas/pending/" + result.getTrackingId())).body(result);
+    }
+
+    /**
+     * {@code GET  /ventas/pending/:trackingId} : get the status of a sale accepted through {@code POST /ventas/async}.
+     *
+     * @param trackingId the tracking id returned when the sale was accepted.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the tracking information, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/pending/{trackingId}")
+    public ResponseEntity<VentaPendienteDTO> getVentaPendiente(@PathVariable("trackingId") String trackingId) {
+        LOG.debug("REST request to get pending Sale with tracking ID: {}", trackingId);
+        return ResponseUtil.wrapOrNotFound(ventaOutboxService.findByTrackingId(trackingId));
     }
 
     /**
@@ -152,12 +281,25 @@ public class VentaResource {
 
     /**
      * {@code GET  /ventas} : get all the ventas.
+     * <p>
+     * When a {@code cursor} parameter is sent (empty for the first page), the ventas are returned newest first using
+     * keyset pagination: no count query is run and the cursor of the next page is returned in the {@code X-Next-Cursor}
+     * and {@code Link} headers. Otherwise the classic offset pagination is used.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the requested page, for keyset pagination.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ventas in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<VentaDTO>> getAllVentas(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<VentaDTO>> getAllVentas(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = "cursor", required = false) String cursor
+    ) {
+        if (cursor != null) {
+            LOG.debug("REST request to get Sales by cursor: {}, size: {}", cursor, pageable.getPageSize());
+            VentaService.Ventana ventana = ventaService.findAllByCursor(cursor.isEmpty() ? null : cursor, pageable.getPageSize());
+            return keysetResponse(ventana, pageable.getPageSize());
+        }
         LOG.debug("REST request to get all Sales. Pageable: {}", pageable);
         LOG.debug("Retrieving page of sales");
         Page<VentaDTO> page = ventaService.findAll(pageable);
@@ -204,16 +346,42 @@ public class VentaResource {
     }
 
     /**
-     * {@code GET  /user/:userId/ventas} : get all the ventas by user.
+     * {@code GET  /user/:userId/ventas} : get the ventas of a user, newest first.
+     * <p>
+     * Results are paginated by keyset; the cursor of the next page is returned in the {@code X-Next-Cursor} and
+     * {@code Link} headers.
+     *
      * @param userId the id of the owner of the sale to retrieve
+     * @param cursor the cursor of the requested page, absent for the first page.
+     * @param size the maximum number of ventas to return.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ventas in body
      */
     @GetMapping("/user/{userId}/ventas")
-    public ResponseEntity<List<VentaDTO>> getAllVentasByUserId(@PathVariable Long userId) {
-        LOG.debug("REST request to get all Sales for user with ID: {}", userId);
-        LOG.debug("Retrieving sales for user");
-        List<VentaDTO> ventas = ventaService.getVentasByUserId(userId);
-        LOG.info("Found {} sales for user ID: {}", ventas.size(), userId);
-        return ResponseEntity.ok().body(ventas);
+    public ResponseEntity<List<VentaDTO>> getAllVentasByUserId(
+        @PathVariable Long userId,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", defaultValue = "20") int size
+    ) {
+        LOG.debug("REST request to get Sales for user with ID: {}, cursor: {}", userId, cursor);
+        if (size < 1 || size > MAX_KEYSET_PAGE_SIZE) {
+            throw new BadRequestAlertException("size must be between 1 and " + MAX_KEYSET_PAGE_SIZE, ENTITY_NAME, "sizeinvalid");
+        }
+        VentaService.Ventana ventana = ventaService.getVentasByUserId(userId, cursor == null || cursor.isEmpty() ? null : cursor, size);
+        return keysetResponse(ventana, size);
+    }
+
+    private ResponseEntity<List<VentaDTO>> keysetResponse(VentaService.Ventana ventana, int size) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ventana.siguienteCursor() != null) {
+            headers.add(NEXT_CURSOR_HEADER, ventana.siguienteCursor());
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", ventana.siguienteCursor())
+                .replaceQueryParam("size", size)
+                .replaceQueryParam("page")
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        LOG.info("Returning {} sales", ventana.ventas().size());
+        return ResponseEntity.ok().headers(headers).body(ventana.ventas());
     }
 }
@@ -35,6 +35,10 @@ import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.web.rest.errors.ProblemDetailWithCause;
 import tech.jhipster.web.rest.errors.ProblemDetailWithCause.ProblemDetailWithCauseBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import um.edu.ar.service.CatedraUnavailableException;
+import um.edu.ar.service.IdempotencyKeyOutcomeUnknownException;
+import um.edu.ar.service.IdempotencyKeyReusedException;
+import um.edu.ar.service.InvalidCursorException;
 
 /**
  * Controller advice to translate the server side exceptions to client-friendly json structures.
@@ -210,6 +214,10 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
         if (err instanceof AccessDeniedException) return HttpStatus.FORBIDDEN;
         if (err instanceof ConcurrencyFailureException) return HttpStatus.CONFLICT;
         if (err instanceof BadCredentialsException) return HttpStatus.UNAUTHORIZED;
+        if (err instanceof CatedraUnavailableException) return HttpStatus.SERVICE_UNAVAILABLE;
+        if (err instanceof InvalidCursorException) return HttpStatus.BAD_REQUEST;
+        if (err instanceof IdempotencyKeyReusedException) return HttpStatus.UNPROCESSABLE_ENTITY;
+        if (err instanceof IdempotencyKeyOutcomeUnknownException) return HttpStatus.CONFLICT;
         return null;
     }
 
@@ -0,0 +1,69 @@
+package um.edu.ar.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+class CatedraMetricsInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(new CatedraMetricsInterceptor(meterRegistry)));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void shouldTimeCallsByEndpointAndStatus() {
+        server.expect(requestTo(Constants.API_URL + "/dispositivos")).andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(Constants.API_URL + "/vender")).andRespond(withServerError());
+
+        restTemplate.getForObject(Constants.API_URL + "/dispositivos", String.class);
+        assertThatThrownBy(() -> restTemplate.postForObject(Constants.API_URL + "/vender", "{}", String.class)).isInstanceOf(
+            HttpServerErrorException.class
+        );
+
+        assertThat(
+            meterRegistry
+                .get(CatedraMetricsInterceptor.METRIC_NAME)
+                .tag("endpoint", "/dispositivos")
+                .tag("method", "GET")
+                .tag("status", "200")
+                .timer()
+                .count()
+        ).isEqualTo(1);
+        assertThat(
+            meterRegistry
+                .get(CatedraMetricsInterceptor.METRIC_NAME)
+                .tag("endpoint", "/vender")
+                .tag("method", "POST")
+                .tag("status", "500")
+                .timer()
+                .count()
+        ).isEqualTo(1);
+        server.verify();
+    }
+
+    @Test
+    void endpointShouldStripCatedraBasePath() {
+        assertThat(CatedraMetricsInterceptor.endpoint(URI.create(Constants.API_URL + "/vender"))).isEqualTo("/vender");
+        assertThat(CatedraMetricsInterceptor.endpoint(URI.create("http://other-host/api/other"))).isEqualTo("/api/other");
+    }
+}
@@ -1,8 +1,10 @@
 package um.edu.ar.domain;
 
+import java.math.BigDecimal;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
+import um.edu.ar.service.dto.DispositivoDTO;
 
 public class DispositivoTestSamples {
 
@@ -24,4 +26,18 @@ public class DispositivoTestSamples {
             .nombre(UUID.randomUUID().toString())
             .moneda(UUID.randomUUID().toString());
     }
+
+    /**
+     * @return a dispositivo as received from the catedra API, without caracteristicas, personalizaciones or adicionales.
+     */
+    public static DispositivoDTO getDispositivoDTOSample(Long id, String codigo, String precioBase) {
+        DispositivoDTO dispositivo = new DispositivoDTO();
+        dispositivo.setId(id);
+        dispositivo.setCodigo(codigo);
+        dispositivo.setNombre("Dispositivo " + codigo);
+        dispositivo.setDescripcion("Dispositivo de prueba");
+        dispositivo.setPrecioBase(new BigDecimal(precioBase));
+        dispositivo.setMoneda("USD");
+        return dispositivo;
+    }
 }
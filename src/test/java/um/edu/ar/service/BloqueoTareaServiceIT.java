@@ -0,0 +1,148 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.repository.BloqueoTareaRepository;
+
+/**
+ * Integration tests for {@link BloqueoTareaService}, with another node played through {@link BloqueoTareaRepository}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.tareas.lease=PT0.3S")
+class BloqueoTareaServiceIT {
+
+    private static final String OTRO_NODO = "otro-nodo";
+
+    @Autowired
+    private BloqueoTareaService bloqueoTareaService;
+
+    @Autowired
+    private BloqueoTareaRepository bloqueoTareaRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String tarea;
+
+    @BeforeEach
+    public void initTest() {
+        tarea = "tarea-" + UUID.randomUUID();
+    }
+
+    @Test
+    void jobHeldByAnotherNodeShouldBeSkipped() {
+        Instant ahora = Instant.now();
+        assertThat(bloqueoTareaRepository.adquirir(tarea, OTRO_NODO, ahora, ahora.plus(Duration.ofMinutes(1)))).isTrue();
+        AtomicBoolean ejecutada = new AtomicBoolean();
+
+        assertThat(bloqueoTareaService.ejecutar(tarea, () -> ejecutada.set(true))).isFalse();
+
+        assertThat(ejecutada).isFalse();
+        assertThat(meterRegistry.get("scheduled.job.skips").tag("job", tarea).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("scheduled.job.lock.wait").tag("job", tarea).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredLeaseShouldBeTakenOver() {
+        Instant antes = Instant.now().minus(Duration.ofMinutes(2));
+        assertThat(bloqueoTareaRepository.adquirir(tarea, OTRO_NODO, antes, antes.plus(Duration.ofMinutes(1)))).isTrue();
+        AtomicBoolean ejecutada = new AtomicBoolean();
+
+        assertThat(bloqueoTareaService.ejecutar(tarea, () -> ejecutada.set(true))).isTrue();
+
+        assertThat(ejecutada).isTrue();
+        assertThat(meterRegistry.get("scheduled.job.runs").tags("job", tarea, "outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void heartbeatShouldKeepTheLeaseOfALongRun() {
+        AtomicBoolean tomadaPorOtro = new AtomicBoolean(true);
+
+        bloqueoTareaService.ejecutar(tarea, () -> {
+            dormir(Duration.ofMillis(900));
+            Instant ahora = Instant.now();
+            tomadaPorOtro.set(bloqueoTareaRepository.adquirir(tarea, OTRO_NODO, ahora, ahora.plus(Duration.ofMinutes(1))));
+        });
+
+        assertThat(tomadaPorOtro).isFalse();
+        Instant ahora = Instant.now();
+        assertThat(bloqueoTareaRepository.adquirir(tarea, OTRO_NODO, ahora, ahora.plus(Duration.ofMinutes(1)))).isTrue();
+    }
+
+    @Test
+    void failedRunShouldReleaseTheLease() {
+        assertThatThrownBy(() ->
+            bloqueoTareaService.ejecutar(tarea, () -> {
+                throw new IllegalStateException("boom");
+            })
+        ).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("scheduled.job.runs").tags("job", tarea, "outcome", "failure").timer().count()).isEqualTo(1);
+        Instant ahora = Instant.now();
+        assertThat(bloqueoTareaRepository.adquirir(tarea, OTRO_NODO, ahora, ahora.plus(Duration.ofMinutes(1)))).isTrue();
+    }
+
+    @Test
+    void lostLeaseShouldTellTheJobToStop() {
+        AtomicBoolean retenidoAlEmpezar = new AtomicBoolean();
+        AtomicBoolean retenidoAlPerderlo = new AtomicBoolean(true);
+
+        bloqueoTareaService.ejecutar(tarea, () -> {
+            retenidoAlEmpezar.set(bloqueoTareaService.isRetenido(tarea));
+            // Another node takes the lease over, as if this one had stalled past its expiry
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("update bloqueo_tarea set bloqueado_por = ? where nombre = ?", OTRO_NODO, tarea)
+            );
+            dormir(Duration.ofMillis(300));
+            retenidoAlPerderlo.set(bloqueoTareaService.isRetenido(tarea));
+        });
+
+        assertThat(retenidoAlEmpezar).isTrue();
+        assertThat(retenidoAlPerderlo).isFalse();
+        assertThat(bloqueoTareaService.isRetenido(tarea)).isFalse();
+    }
+
+    @Test
+    void jobStartedOnAnExecutorShouldHoldTheLeaseUntilItEnds() {
+        List<Runnable> pendientes = new ArrayList<>();
+        AtomicBoolean ejecutada = new AtomicBoolean();
+
+        assertThat(bloqueoTareaService.ejecutarEn(tarea, pendientes::add, () -> ejecutada.set(true))).isTrue();
+
+        Instant ahora = Instant.now();
+        assertThat(bloqueoTareaRepository.adquirir(tarea, OTRO_NODO, ahora, ahora.plus(Duration.ofMinutes(1)))).isFalse();
+        pendientes.forEach(Runnable::run);
+        assertThat(ejecutada).isTrue();
+        ahora = Instant.now();
+        assertThat(bloqueoTareaRepository.adquirir(tarea, OTRO_NODO, ahora, ahora.plus(Duration.ofMinutes(1)))).isTrue();
+    }
+
+    private static void dormir(Duration duracion) {
+        try {
+            Thread.sleep(duracion.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+import static um.edu.ar.domain.DispositivoTestSamples.getDispositivoDTOSample;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.domain.enumeration.EstadoSincronizacion;
+import um.edu.ar.repository.AdicionalRepository;
+import um.edu.ar.repository.CaracteristicaRepository;
+import um.edu.ar.repository.DispositivoRepository;
+import um.edu.ar.service.dto.AdicionalDTO;
+import um.edu.ar.service.dto.CaracteristicaDTO;
+import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.OpcionDTO;
+import um.edu.ar.service.dto.PersonalizacionDTO;
+import um.edu.ar.service.dto.SincronizacionCatalogoDTO;
+
+/**
+ * Integration tests for the catalog sync of {@link UpdateDatabase} in reconcile mode, through the staging tables.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.catedra.sync.chunk-size=1",
+        "application.catedra.sync.streaming=false",
+        "application.catedra.sync.reconcile=true",
+    }
+)
+class CatalogReconciliationIT {
+
+    private static final String SYNC_JOB = "catalogo-sync";
+
+    // Far above the ids of the sync runs of the tests
+    private static final long RUN = 9_900_001L;
+    private static final long OTHER_RUN = 9_900_002L;
+
+    @MockBean
+    private CatedraClient catedraClient;
+
+    @Autowired
+    private UpdateDatabase updateDatabase;
+
+    @Autowired
+    private DispositivoService dispositivoService;
+
+    @Autowired
+    private SincronizacionCatalogoService sincronizacionCatalogoService;
+
+    @Autowired
+    private BloqueoTareaService bloqueoTareaService;
+
+    @Autowired
+    private DispositivoRepository dispositivoRepository;
+
+    @Autowired
+    private CaracteristicaRepository caracteristicaRepository;
+
+    @Autowired
+    private AdicionalRepository adicionalRepository;
+
+    @BeforeEach
+    public void initTest() {
+        dispositivoRepository.deleteAll();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        dispositivoService.vaciarStaging(Long.MAX_VALUE);
+        dispositivoRepository.deleteAll();
+        adicionalRepository.deleteAll();
+    }
+
+    @Test
+    void devicesMissingFromTheCatalogShouldBeDeleted() {
+        DispositivoDTO retirado = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        retirado.setCaracteristicas(Set.of(caracteristica(9_101L)));
+        retirado.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L, "50.00"))));
+        retirado.setAdicionales(Set.of(adicional(9_401L)));
+        DispositivoDTO vigente = getDispositivoDTOSample(9_002L, "NB-02", "1500.00");
+        vigente.setCaracteristicas(Set.of(caracteristica(9_102L)));
+        vigente.setAdicionales(Set.of(adicional(9_402L)));
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(retirado, vigente));
+        updateDatabase.scheduledSync();
+        assertThat(dispositivoRepository.findAll()).extracting(Dispositivo::getId).containsExactlyInAnyOrder(9_001L, 9_002L);
+
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(vigente));
+        updateDatabase.scheduledSync();
+
+        assertThat(dispositivoRepository.findAll()).extracting(Dispositivo::getId).containsExactly(9_002L);
+        assertThat(caracteristicaRepository.findAll()).extracting(c -> c.getId()).containsExactly(9_102L);
+        assertThat(adicionalRepository.findAll()).extracting(a -> a.getId()).containsExactly(9_402L);
+        DispositivoDTO local = dispositivoService.findOne(9_002L).orElseThrow();
+        assertThat(local.getAdicionales()).extracting(AdicionalDTO::getId).containsExactly(9_402L);
+    }
+
+    @Test
+    void onlyChangedDevicesShouldHaveTheirChildrenReplaced() {
+        DispositivoDTO cambiado = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        cambiado.setCaracteristicas(Set.of(caracteristica(9_101L), caracteristica(9_102L)));
+        cambiado.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L, "50.00"))));
+        DispositivoDTO igual = getDispositivoDTOSample(9_002L, "NB-02", "1500.00");
+        igual.setCaracteristicas(Set.of(caracteristica(9_103L)));
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(cambiado, igual));
+        updateDatabase.scheduledSync();
+        String huellaIgual = dispositivoService.findAllHuellas().get(9_002L);
+
+        cambiado.setPrecioBase(new BigDecimal("900.00"));
+        cambiado.setCaracteristicas(Set.of(caracteristica(9_102L)));
+        cambiado.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L, "75.00"))));
+        updateDatabase.scheduledSync();
+
+        DispositivoDTO local = dispositivoService.findOne(9_001L).orElseThrow();
+        assertThat(local.getPrecioBase()).isEqualByComparingTo("900.00");
+        assertThat(local.getCaracteristicas()).extracting(CaracteristicaDTO::getId).containsExactly(9_102L);
+        OpcionDTO opcion = local.getPersonalizaciones().iterator().next().getOpciones().iterator().next();
+        assertThat(opcion.getPrecioAdicional()).isEqualByComparingTo("75.00");
+        assertThat(dispositivoService.findOne(9_002L).orElseThrow().getCaracteristicas())
+            .extracting(CaracteristicaDTO::getId)
+            .containsExactly(9_103L);
+        assertThat(dispositivoService.findAllHuellas()).containsEntry(9_002L, huellaIgual);
+
+        SincronizacionCatalogoDTO run = sincronizacionCatalogoService.recientes(1).get(0);
+        assertThat(run.getEstado()).isEqualTo(EstadoSincronizacion.COMPLETADA);
+        assertThat(run.getDispositivosLeidos()).isEqualTo(2);
+        assertThat(run.getDispositivosActualizados()).isEqualTo(1);
+    }
+
+    @Test
+    void emptyCatalogShouldNotDeleteTheDevices() {
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(getDispositivoDTOSample(9_001L, "NB-01", "1000.00")));
+        updateDatabase.scheduledSync();
+
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of());
+        updateDatabase.scheduledSync();
+
+        assertThat(dispositivoRepository.findAll()).extracting(Dispositivo::getId).containsExactly(9_001L);
+    }
+
+    @Test
+    void aRunShouldOnlyReconcileTheDevicesItStaged() {
+        when(catedraClient.obtenerDispositivos()).thenReturn(
+            List.of(getDispositivoDTOSample(9_001L, "NB-01", "1000.00"), getDispositivoDTOSample(9_002L, "NB-02", "1500.00"))
+        );
+        updateDatabase.scheduledSync();
+        dispositivoService.cargarStaging(
+            RUN,
+            List.of(getDispositivoDTOSample(9_001L, "NB-01", "900.00"), getDispositivoDTOSample(9_002L, "NB-02", "1500.00")),
+            Map.of()
+        );
+        // A concurrent run staging part of the catalog
+        dispositivoService.cargarStaging(OTHER_RUN, List.of(getDispositivoDTOSample(9_002L, "NB-02", "1400.00")), Map.of());
+
+        dispositivoService.reconciliar(RUN, 2);
+
+        assertThat(dispositivoRepository.findAll()).extracting(Dispositivo::getId).containsExactlyInAnyOrder(9_001L, 9_002L);
+        assertThat(dispositivoService.findOne(9_002L).orElseThrow().getPrecioBase()).isEqualByComparingTo("1500.00");
+    }
+
+    @Test
+    void aRunMissingStagedDevicesShouldNotBeReconciled() {
+        when(catedraClient.obtenerDispositivos()).thenReturn(
+            List.of(getDispositivoDTOSample(9_001L, "NB-01", "1000.00"), getDispositivoDTOSample(9_002L, "NB-02", "1500.00"))
+        );
+        updateDatabase.scheduledSync();
+        dispositivoService.cargarStaging(RUN, List.of(getDispositivoDTOSample(9_002L, "NB-02", "1500.00")), Map.of());
+
+        assertThatThrownBy(() -> dispositivoService.reconciliar(RUN, 2)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(dispositivoRepository.findAll()).extracting(Dispositivo::getId).containsExactlyInAnyOrder(9_001L, 9_002L);
+    }
+
+    @Test
+    void aRunShouldNotBeReconciledWithoutTheLeaseOfTheSync() {
+        when(catedraClient.obtenerDispositivos()).thenReturn(
+            List.of(getDispositivoDTOSample(9_001L, "NB-01", "1000.00"), getDispositivoDTOSample(9_002L, "NB-02", "1500.00"))
+        );
+        updateDatabase.scheduledSync();
+        dispositivoService.cargarStaging(RUN, List.of(getDispositivoDTOSample(9_002L, "NB-02", "1500.00")), Map.of());
+
+        assertThatThrownBy(() -> bloqueoTareaService.conBloqueo(SYNC_JOB, () -> dispositivoService.reconciliar(RUN, 1))).isInstanceOf(
+            IllegalStateException.class
+        );
+
+        assertThat(dispositivoRepository.findAll()).extracting(Dispositivo::getId).containsExactlyInAnyOrder(9_001L, 9_002L);
+    }
+
+    private static CaracteristicaDTO caracteristica(Long id) {
+        CaracteristicaDTO caracteristica = new CaracteristicaDTO();
+        caracteristica.setId(id);
+        caracteristica.setNombre("Caracteristica " + id);
+        caracteristica.setDescripcion("Caracteristica de prueba");
+        return caracteristica;
+    }
+
+    private static PersonalizacionDTO personalizacion(Long id, OpcionDTO opcion) {
+        PersonalizacionDTO personalizacion = new PersonalizacionDTO();
+        personalizacion.setId(id);
+        personalizacion.setNombre("Personalizacion " + id);
+        personalizacion.setDescripcion("Personalizacion de prueba");
+        personalizacion.setOpciones(Set.of(opcion));
+        return personalizacion;
+    }
+
+    private static OpcionDTO opcion(Long id, String precioAdicional) {
+        OpcionDTO opcion = new OpcionDTO();
+        opcion.setId(id);
+        opcion.setCodigo("OP-" + id);
+        opcion.setNombre("Opcion " + id);
+        opcion.setDescripcion("Opcion de prueba");
+        opcion.setPrecioAdicional(new BigDecimal(precioAdicional));
+        return opcion;
+    }
+
+    private static AdicionalDTO adicional(Long id) {
+        AdicionalDTO adicional = new AdicionalDTO();
+        adicional.setId(id);
+        adicional.setNombre("Adicional " + id);
+        adicional.setDescripcion("Adicional de prueba");
+        adicional.setPrecio(new BigDecimal("10.00"));
+        return adicional;
+    }
+}
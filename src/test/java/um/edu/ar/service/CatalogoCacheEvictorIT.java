@@ -0,0 +1,172 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static um.edu.ar.domain.DispositivoTestSamples.getDispositivoDTOSample;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.domain.Opcion;
+import um.edu.ar.domain.Personalizacion;
+import um.edu.ar.repository.AdicionalRepository;
+import um.edu.ar.repository.DispositivoRepository;
+import um.edu.ar.repository.VersionCatalogoRepository;
+import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.OpcionDTO;
+import um.edu.ar.service.dto.PersonalizacionDTO;
+
+/**
+ * Integration tests for {@link CatalogoCacheEvictor}: writes evict exactly the second-level cache entries they change.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.catedra.sync.chunk-size=1",
+        "application.catedra.sync.streaming=false",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    }
+)
+class CatalogoCacheEvictorIT {
+
+    private static final String DISPOSITIVO_PERSONALIZACIONES = Dispositivo.class.getName() + ".personalizaciones";
+
+    private static final String PERSONALIZACION_OPCIONES = Personalizacion.class.getName() + ".opciones";
+
+    @MockBean
+    private CatedraClient catedraClient;
+
+    // Reads the changed rows back, and so into the cache, once they are evicted
+    @MockBean
+    private CatalogoEnMemoria catalogoEnMemoria;
+
+    @Autowired
+    private UpdateDatabase updateDatabase;
+
+    @Autowired
+    private DispositivoService dispositivoService;
+
+    @Autowired
+    private OpcionService opcionService;
+
+    @Autowired
+    private VersionCatalogo versionCatalogo;
+
+    @Autowired
+    private DispositivoRepository dispositivoRepository;
+
+    @Autowired
+    private VersionCatalogoRepository versionCatalogoRepository;
+
+    @Autowired
+    private AdicionalRepository adicionalRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache cache;
+
+    @BeforeEach
+    public void initTest() {
+        dispositivoRepository.deleteAll();
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictAllRegions();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        dispositivoRepository.deleteAll();
+        adicionalRepository.deleteAll();
+    }
+
+    @Test
+    void syncShouldEvictOnlyTheChangedDevices() {
+        DispositivoDTO cambiado = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        cambiado.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L))));
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(cambiado, getDispositivoDTOSample(9_002L, "NB-02", "1500.00")));
+        updateDatabase.scheduledSync();
+        dispositivoService.findOne(9_001L);
+        dispositivoService.findOne(9_002L);
+        assertThat(cache.containsEntity(Dispositivo.class, 9_001L)).isTrue();
+        assertThat(cache.containsEntity(Dispositivo.class, 9_002L)).isTrue();
+        assertThat(cache.containsCollection(PERSONALIZACION_OPCIONES, 9_201L)).isTrue();
+
+        cambiado.setPrecioBase(new BigDecimal("900.00"));
+        updateDatabase.scheduledSync();
+
+        assertThat(cache.containsEntity(Dispositivo.class, 9_001L)).isFalse();
+        assertThat(cache.containsCollection(DISPOSITIVO_PERSONALIZACIONES, 9_001L)).isFalse();
+        assertThat(cache.containsEntity(Personalizacion.class, 9_201L)).isFalse();
+        assertThat(cache.containsCollection(PERSONALIZACION_OPCIONES, 9_201L)).isFalse();
+        assertThat(cache.containsEntity(Opcion.class, 9_301L)).isFalse();
+        assertThat(cache.containsEntity(Dispositivo.class, 9_002L)).isTrue();
+        assertThat(dispositivoService.findOne(9_001L).orElseThrow().getPrecioBase()).isEqualByComparingTo("900.00");
+    }
+
+    @Test
+    void deletedOpcionShouldBeEvictedFromItsPersonalizacion() {
+        DispositivoDTO remoto = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        remoto.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L))));
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(remoto));
+        updateDatabase.scheduledSync();
+        dispositivoService.findOne(9_001L);
+        assertThat(cache.containsCollection(PERSONALIZACION_OPCIONES, 9_201L)).isTrue();
+
+        opcionService.delete(9_301L);
+
+        assertThat(cache.containsCollection(PERSONALIZACION_OPCIONES, 9_201L)).isFalse();
+        PersonalizacionDTO personalizacion = dispositivoService.findOne(9_001L).orElseThrow().getPersonalizaciones().iterator().next();
+        assertThat(personalizacion.getOpciones()).isEmpty();
+    }
+
+    @Test
+    void changeOfAnotherNodeShouldEvictTheWholeCatalog() {
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(getDispositivoDTOSample(9_001L, "NB-01", "1000.00")));
+        updateDatabase.scheduledSync();
+        versionCatalogo.sondear();
+        dispositivoService.findOne(9_001L);
+        assertThat(cache.containsEntity(Dispositivo.class, 9_001L)).isTrue();
+
+        // No change of another node: the cache is left as it is
+        versionCatalogo.sondear();
+        assertThat(cache.containsEntity(Dispositivo.class, 9_001L)).isTrue();
+
+        // Another node commits a change of the catalog
+        versionCatalogoRepository.incrementar(Instant.now());
+        versionCatalogo.sondear();
+
+        assertThat(cache.containsEntity(Dispositivo.class, 9_001L)).isFalse();
+        assertThat(cache.containsCollection(DISPOSITIVO_PERSONALIZACIONES, 9_001L)).isFalse();
+    }
+
+    private static PersonalizacionDTO personalizacion(Long id, OpcionDTO opcion) {
+        PersonalizacionDTO personalizacion = new PersonalizacionDTO();
+        personalizacion.setId(id);
+        personalizacion.setNombre("Personalizacion " + id);
+        personalizacion.setDescripcion("Personalizacion de prueba");
+        personalizacion.setOpciones(Set.of(opcion));
+        return personalizacion;
+    }
+
+    private static OpcionDTO opcion(Long id) {
+        OpcionDTO opcion = new OpcionDTO();
+        opcion.setId(id);
+        opcion.setCodigo("OP-" + id);
+        opcion.setNombre("Opcion " + id);
+        opcion.setDescripcion("Opcion de prueba");
+        opcion.setPrecioAdicional(new BigDecimal("50.00"));
+        return opcion;
+    }
+}
@@ -0,0 +1,246 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static um.edu.ar.domain.DispositivoTestSamples.getDispositivoDTOSample;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.repository.AdicionalRepository;
+import um.edu.ar.repository.DispositivoRepository;
+import um.edu.ar.repository.VersionCatalogoRepository;
+import um.edu.ar.service.dto.BusquedaDispositivosDTO;
+import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.DispositivoResumenDTO;
+import um.edu.ar.service.dto.OpcionDTO;
+import um.edu.ar.service.dto.PersonalizacionDTO;
+
+/**
+ * Integration tests for {@link CatalogoEnMemoria}, through the reads of {@link DispositivoService}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = { "application.catedra.sync.chunk-size=1", "application.catedra.sync.streaming=false" })
+class CatalogoEnMemoriaIT {
+
+    @MockBean
+    private CatedraClient catedraClient;
+
+    @Autowired
+    private UpdateDatabase updateDatabase;
+
+    @Autowired
+    private DispositivoService dispositivoService;
+
+    @Autowired
+    private OpcionService opcionService;
+
+    @Autowired
+    private CatalogoEnMemoria catalogoEnMemoria;
+
+    @Autowired
+    private VersionCatalogo versionCatalogo;
+
+    @Autowired
+    private CatalogoCacheEvictor catalogoCacheEvictor;
+
+    @Autowired
+    private BusquedaDispositivoService busquedaDispositivoService;
+
+    @Autowired
+    private DispositivoRepository dispositivoRepository;
+
+    @Autowired
+    private AdicionalRepository adicionalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VersionCatalogoRepository versionCatalogoRepository;
+
+    @BeforeEach
+    public void initTest() {
+        dispositivoRepository.deleteAll();
+        catalogoEnMemoria.cargar();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        dispositivoRepository.deleteAll();
+        adicionalRepository.deleteAll();
+        catalogoEnMemoria.cargar();
+    }
+
+    @Test
+    void readsShouldBeServedFromMemory() {
+        DispositivoDTO remoto = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        remoto.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L))));
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(remoto));
+        updateDatabase.scheduledSync();
+
+        // Behind the back of the application: no change is published
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update("update dispositivo set nombre = 'Cambiado' where id = 9001")
+        );
+
+        DispositivoDTO local = dispositivoService.findOne(9_001L).orElseThrow();
+        assertThat(local.getNombre()).isEqualTo("Dispositivo NB-01");
+        assertThat(local.getPersonalizaciones().iterator().next().getOpciones()).extracting(OpcionDTO::getId).containsExactly(9_301L);
+        assertThat(dispositivoService.findOneByCodigo("NB-01")).map(DispositivoDTO::getId).contains(9_001L);
+    }
+
+    @Test
+    void committedChangesShouldBeApplied() {
+        DispositivoDTO remoto = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        remoto.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L))));
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(remoto, getDispositivoDTOSample(9_002L, "NB-02", "1500.00")));
+        updateDatabase.scheduledSync();
+        long version = versionCatalogo.actual().numero();
+
+        opcionService.delete(9_301L);
+
+        assertThat(versionCatalogo.actual().numero()).isGreaterThan(version);
+        PersonalizacionDTO personalizacion = dispositivoService.findOne(9_001L).orElseThrow().getPersonalizaciones().iterator().next();
+        assertThat(personalizacion.getOpciones()).isEmpty();
+
+        dispositivoService.delete(9_002L);
+
+        assertThat(dispositivoService.findOne(9_002L)).isEmpty();
+        assertThat(dispositivoService.findOneByCodigo("NB-02")).isEmpty();
+    }
+
+    @Test
+    void changesOfAnotherNodeShouldBeLoaded() {
+        // Another node, sharing the database
+        CatalogoEnMemoria otroCatalogo = new CatalogoEnMemoria(dispositivoRepository, transactionManager);
+        VersionCatalogo otraVersion = new VersionCatalogo(versionCatalogoRepository, otroCatalogo, catalogoCacheEvictor);
+        otraVersion.cargar();
+        long version = otraVersion.actual().numero();
+
+        DispositivoDTO remoto = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(remoto));
+        updateDatabase.scheduledSync();
+        remoto.setNombre("Cambiado");
+        dispositivoService.update(remoto);
+
+        assertThat(otroCatalogo.catalogoCargado().porId(9_001L)).isEmpty();
+        otraVersion.sondear();
+
+        assertThat(otroCatalogo.catalogoCargado().porId(9_001L)).map(CatalogoVista.DispositivoVista::nombre).contains("Cambiado");
+        assertThat(otraVersion.actual().numero()).isGreaterThan(version).isEqualTo(versionCatalogoRepository.leer().numero());
+        // Up to date: no reload until the next change
+        CatalogoVista cargado = otroCatalogo.catalogoCargado();
+        otraVersion.sondear();
+        assertThat(otroCatalogo.catalogoCargado()).isSameAs(cargado);
+    }
+
+    @Test
+    void fullLoadShouldReadTheCatalogInChunks() {
+        // More than two chunks, the last one partial
+        List<Object[]> filas = new ArrayList<>();
+        for (long id = 9_001L; id <= 10_201L; id++) {
+            filas.add(new Object[] { id, "NB-" + id, "Dispositivo " + id, "Descripcion", new BigDecimal("1000.00"), "USD" });
+        }
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate(
+                "insert into dispositivo (id, codigo, nombre, descripcion, precio_base, moneda) values (?, ?, ?, ?, ?, ?)",
+                filas
+            )
+        );
+
+        catalogoEnMemoria.cargar();
+
+        CatalogoVista catalogo = catalogoEnMemoria.catalogoCargado();
+        assertThat(catalogo.size()).isEqualTo(filas.size());
+        assertThat(catalogo.porId(9_001L)).map(CatalogoVista.DispositivoVista::codigo).contains("NB-9001");
+        assertThat(catalogo.porId(10_201L)).map(CatalogoVista.DispositivoVista::codigo).contains("NB-10201");
+    }
+
+    @Test
+    void pagesShouldBeSortedInMemory() {
+        when(catedraClient.obtenerDispositivos())
+            .thenReturn(
+                List.of(
+                    getDispositivoDTOSample(9_001L, "NB-01", "1500.00"),
+                    getDispositivoDTOSample(9_002L, "NB-02", "900.00"),
+                    getDispositivoDTOSample(9_003L, "NB-03", "1200.00")
+                )
+            );
+        updateDatabase.scheduledSync();
+
+        assertThat(dispositivoService.findAllWithEagerRelationships(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "precioBase"))))
+            .extracting(DispositivoDTO::getId)
+            .containsExactly(9_001L, 9_003L);
+        assertThat(dispositivoService.findAll(PageRequest.of(1, 2, Sort.by("id")))).extracting(DispositivoDTO::getId).containsExactly(9_003L);
+    }
+
+    @Test
+    void searchShouldFollowCommittedChanges() {
+        DispositivoDTO remoto = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        remoto.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L))));
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(remoto, getDispositivoDTOSample(9_002L, "NB-02", "1500.00")));
+        updateDatabase.scheduledSync();
+
+        BusquedaDispositivosDTO busqueda = busquedaDispositivoService.buscar("opcion 9301", null, null, null, PageRequest.of(0, 10));
+        assertThat(busqueda.getDispositivos()).extracting(DispositivoResumenDTO::getId).containsExactly(9_001L);
+        assertThat(busquedaDispositivoService.buscar("dispositivo", "USD", null, null, PageRequest.of(0, 10)).getMonedas()).containsEntry(
+            "USD",
+            2L
+        );
+
+        opcionService.delete(9_301L);
+
+        assertThat(busquedaDispositivoService.buscar("opcion 9301", null, null, null, PageRequest.of(0, 10)).getTotal()).isZero();
+    }
+
+    @Test
+    void readsInATransactionShouldSeeItsWrites() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Dispositivo dispositivo = dispositivoRepository.saveAndFlush(
+                new Dispositivo().codigo("NB-04").nombre("Nuevo").descripcion("Nuevo").precioBase(BigDecimal.TEN).moneda("USD")
+            );
+            assertThat(dispositivoService.findOne(dispositivo.getId())).isPresent();
+            status.setRollbackOnly();
+        });
+    }
+
+    private static PersonalizacionDTO personalizacion(Long id, OpcionDTO opcion) {
+        PersonalizacionDTO personalizacion = new PersonalizacionDTO();
+        personalizacion.setId(id);
+        personalizacion.setNombre("Personalizacion " + id);
+        personalizacion.setDescripcion("Personalizacion de prueba");
+        personalizacion.setOpciones(Set.of(opcion));
+        return personalizacion;
+    }
+
+    private static OpcionDTO opcion(Long id) {
+        OpcionDTO opcion = new OpcionDTO();
+        opcion.setId(id);
+        opcion.setCodigo("OP-" + id);
+        opcion.setNombre("Opcion " + id);
+        opcion.setDescripcion("Opcion de prueba");
+        opcion.setPrecioAdicional(new BigDecimal("50.00"));
+        return opcion;
+    }
+}
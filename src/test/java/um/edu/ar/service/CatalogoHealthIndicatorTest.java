@@ -0,0 +1,66 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import um.edu.ar.config.ApplicationProperties;
+
+class CatalogoHealthIndicatorTest {
+
+    private UpdateDatabase updateDatabase;
+
+    private CatalogoHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        updateDatabase = mock(UpdateDatabase.class);
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getCatedra().getSync().setReadinessGracePeriod(Duration.ofMinutes(2));
+        healthIndicator = new CatalogoHealthIndicator(updateDatabase, properties);
+    }
+
+    @Test
+    void shouldBeOutOfServiceBeforeTheFirstSync() {
+        when(updateDatabase.getStartedAt()).thenReturn(Instant.now());
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    }
+
+    @Test
+    void shouldBeUpOnceTheCatalogIsSynced() {
+        when(updateDatabase.getStartedAt()).thenReturn(Instant.now());
+        when(updateDatabase.getLastSync()).thenReturn(Instant.now());
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void shouldWaitForTheGracePeriodBeforeServingTheSnapshot() {
+        when(updateDatabase.getStartedAt()).thenReturn(Instant.now().minusSeconds(30));
+        when(updateDatabase.isSnapshotLoaded()).thenReturn(true);
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    }
+
+    @Test
+    void shouldServeStaleSnapshotAfterTheGracePeriod() {
+        when(updateDatabase.getStartedAt()).thenReturn(Instant.now().minus(Duration.ofMinutes(3)));
+        when(updateDatabase.isSnapshotLoaded()).thenReturn(true);
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(healthIndicator.health().getDetails()).containsEntry("stale", true);
+    }
+
+    @Test
+    void shouldStayOutOfServiceWithoutSnapshotAfterTheGracePeriod() {
+        when(updateDatabase.getStartedAt()).thenReturn(Instant.now().minus(Duration.ofMinutes(3)));
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    }
+}
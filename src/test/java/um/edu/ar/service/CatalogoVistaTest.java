@@ -0,0 +1,145 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import um.edu.ar.service.CatalogoVista.CaracteristicaVista;
+import um.edu.ar.service.CatalogoVista.DispositivoVista;
+import um.edu.ar.service.CatalogoVista.OpcionVista;
+import um.edu.ar.service.CatalogoVista.PersonalizacionVista;
+import um.edu.ar.service.CatalogoVista.RangoPrecio;
+import um.edu.ar.service.CatalogoVista.ResultadoBusqueda;
+
+class CatalogoVistaTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogoVistaTest.class);
+
+    private static final List<BigDecimal> RANGOS = List.of(new BigDecimal("1000"), new BigDecimal("2000"));
+
+    private final CatalogoVista catalogo = new CatalogoVista(
+        List.of(
+            dispositivo(1L, "NB-01", "Notebook Liviana", "Ideal para viajar", "USD", "900", "Pantalla táctil", "Memoria 16GB"),
+            dispositivo(2L, "NB-02", "Notebook Gamer", "Placa de video dedicada", "USD", "1500", "Teclado RGB", "Memoria 32GB"),
+            dispositivo(3L, "PC-01", "Escritorio", "Incluye notebook stand", "ARS", "1200", "Gabinete", "Disco SSD")
+        )
+    );
+
+    @Test
+    void shouldFindAllTheTermsIgnoringCaseAndDiacritics() {
+        assertThat(ids(buscar("PANTALLA tactil"))).containsExactly(1L);
+        assertThat(ids(buscar("memoria 32gb"))).containsExactly(2L);
+        assertThat(ids(buscar("memoria disco"))).isEmpty();
+    }
+
+    @Test
+    void termsShouldMatchTheWordsTheyStart() {
+        assertThat(ids(buscar("note"))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(ids(buscar("nb"))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void matchesInTheNombreShouldComeFirst() {
+        // Dispositivo 3 only holds "notebook" in its descripcion
+        assertThat(ids(buscar("notebook"))).last().isEqualTo(3L);
+        assertThat(ids(catalogo.buscar("notebook", null, null, null, RANGOS, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id")))))
+            .containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void emptyQueryShouldFindEverything() {
+        assertThat(buscar("  ").pagina().getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void facetsShouldCountWithTheFiltersOfTheOtherFacet() {
+        ResultadoBusqueda resultado = catalogo.buscar("", "USD", null, new BigDecimal("1000"), RANGOS, PageRequest.of(0, 10));
+
+        assertThat(ids(resultado)).containsExactly(1L);
+        // Within the price filter only
+        assertThat(resultado.monedas()).containsExactlyEntriesOf(Map.of("USD", 1L));
+        // Within the moneda filter only
+        assertThat(resultado.precios()).containsExactly(
+            new RangoPrecio(null, new BigDecimal("1000"), 1),
+            new RangoPrecio(new BigDecimal("1000"), new BigDecimal("2000"), 1),
+            new RangoPrecio(new BigDecimal("2000"), null, 0)
+        );
+    }
+
+    @Test
+    void copyShouldReindexOnlyTheDispositivosReadAgain() {
+        CatalogoVista copia = catalogo.con(
+            Set.of(1L, 3L),
+            List.of(dispositivo(1L, "NB-01", "Ultrabook", "Ideal para viajar", "USD", "900", "Pantalla OLED", "Memoria 16GB"))
+        );
+
+        assertThat(ids(copia.buscar("notebook", null, null, null, RANGOS, PageRequest.of(0, 10)))).containsExactly(2L);
+        assertThat(ids(copia.buscar("ultrabook oled", null, null, null, RANGOS, PageRequest.of(0, 10)))).containsExactly(1L);
+        assertThat(ids(copia.buscar("escritorio", null, null, null, RANGOS, PageRequest.of(0, 10)))).isEmpty();
+        // The original copy is left as it was
+        assertThat(ids(buscar("notebook"))).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void searchShouldBeFastOnALargeCatalog() {
+        List<DispositivoVista> dispositivos = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            dispositivos.add(
+                dispositivo(id, "D-" + id, "Dispositivo " + id, "Modelo x" + (id % 100) + "z", "USD", String.valueOf(id % 3000), "Caracteristica " + (id % 50), "Opcion " + (id % 20))
+            );
+        }
+        CatalogoVista grande = new CatalogoVista(dispositivos);
+        Pageable pageable = PageRequest.of(0, 20);
+
+        int busquedas = 1_000;
+        // Warm up first
+        for (int i = 0; i < busquedas; i++) {
+            grande.buscar("modelo x" + (i % 100) + "z", null, null, null, RANGOS, pageable);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < busquedas; i++) {
+            assertThat(grande.buscar("modelo x" + (i % 100) + "z", null, null, null, RANGOS, pageable).pagina().getTotalElements()).isEqualTo(100);
+        }
+        LOG.info("{} searches over {} dispositivos: {} µs per search", busquedas, dispositivos.size(), (System.nanoTime() - start) / 1_000 / busquedas);
+    }
+
+    private ResultadoBusqueda buscar(String consulta) {
+        return catalogo.buscar(consulta, null, null, null, RANGOS, PageRequest.of(0, 10));
+    }
+
+    private static List<Long> ids(ResultadoBusqueda resultado) {
+        return resultado.pagina().map(DispositivoVista::id).getContent();
+    }
+
+    private static DispositivoVista dispositivo(
+        Long id,
+        String codigo,
+        String nombre,
+        String descripcion,
+        String moneda,
+        String precioBase,
+        String caracteristica,
+        String opcion
+    ) {
+        return new DispositivoVista(
+            id,
+            codigo,
+            nombre,
+            descripcion,
+            new BigDecimal(precioBase),
+            moneda,
+            List.of(new CaracteristicaVista(id * 10, caracteristica, "")),
+            List.of(new PersonalizacionVista(id * 10, "Personalizacion", "", List.of(new OpcionVista(id * 10, "OP-" + id, opcion, "", BigDecimal.ONE)))),
+            List.of()
+        );
+    }
+}
@@ -0,0 +1,313 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import um.edu.ar.config.ApplicationProperties;
+import um.edu.ar.config.CatedraResilienceConfiguration;
+import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.VentaDTO;
+
+/**
+ * Runs {@link CatedraClient} against a local stub of the catedra API that injects failures and latency.
+ */
+class CatedraClientTest {
+
+    private static final String CATALOG_ETAG = "\"v1\"";
+    private static final String CATALOG_LAST_MODIFIED = "Sat, 17 Oct 2026 10:00:00 GMT";
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile String dispositivos = "[]";
+    private volatile CountDownLatch release;
+    private volatile Headers catalogRequestHeaders;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ApplicationProperties.Catedra.Resilience properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/catedra/vender", exchange -> respond(exchange, "{\"idVenta\": 42}"));
+        server.createContext("/api/catedra/dispositivos", this::respondCatalog);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ApplicationProperties().getCatedra().getResilience();
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumNumberOfCalls(4);
+        properties.setWaitDurationInOpenState(Duration.ofMinutes(1));
+        properties.setRetryInitialInterval(Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (release != null) {
+            release.countDown();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void shouldRetryIdempotentGetOnServerError() throws Exception {
+        statuses.add(503);
+        statuses.add(500);
+
+        assertThat(client().obtenerDispositivos()).isEmpty();
+        assertThat(hits).hasValue(3);
+    }
+
+    @Test
+    void shouldStreamDevicesOneAtATime() throws Exception {
+        dispositivos = "[{\"id\": 1, \"codigo\": \"NB-01\", \"extra\": [1, 2]}, {\"id\": 2, \"codigo\": \"NB-02\"}]";
+        List<DispositivoDTO> leidos = new ArrayList<>();
+
+        assertThat(client().recorrerDispositivos(leidos::add)).isEqualTo(2);
+        assertThat(leidos).extracting(DispositivoDTO::getCodigo).containsExactly("NB-01", "NB-02");
+    }
+
+    @Test
+    void shouldRejectStreamThatIsNotAList() throws Exception {
+        dispositivos = "{\"id\": 1}";
+        CatedraClient client = client();
+
+        assertThatThrownBy(() -> client.recorrerDispositivos(dispositivo -> {})).hasMessage("Failed to sync data: Invalid response");
+    }
+
+    @Test
+    void shouldDownloadCatalogWithItsValidators() throws Exception {
+        dispositivos = "[{\"id\": 1, \"codigo\": \"NB-01\"}]";
+        List<DispositivoDTO> leidos = new ArrayList<>();
+        List<CatedraClient.Validadores> recibidos = new ArrayList<>();
+        CatedraClient client = client();
+
+        OptionalInt resultado = client.descargarDispositivos(CatedraClient.Validadores.NINGUNO, (cuerpo, validadores) -> {
+            recibidos.add(validadores);
+            return client.leerDispositivos(cuerpo, leidos::add);
+        });
+
+        assertThat(resultado).hasValue(1);
+        assertThat(leidos).extracting(DispositivoDTO::getCodigo).containsExactly("NB-01");
+        assertThat(recibidos).containsExactly(new CatedraClient.Validadores(CATALOG_ETAG, CATALOG_LAST_MODIFIED));
+        assertThat(catalogRequestHeaders.containsKey("If-None-Match")).isFalse();
+        assertThat(catalogRequestHeaders.containsKey("If-Modified-Since")).isFalse();
+    }
+
+    @Test
+    void shouldSkipReaderWhenCatalogIsNotModified() throws Exception {
+        CatedraClient.Validadores previos = new CatedraClient.Validadores(CATALOG_ETAG, CATALOG_LAST_MODIFIED);
+
+        OptionalInt resultado = client()
+            .descargarDispositivos(previos, (cuerpo, validadores) -> {
+                throw new AssertionError("Catalog read although not modified");
+            });
+
+        assertThat(resultado).isEmpty();
+        assertThat(catalogRequestHeaders.getFirst("If-None-Match")).isEqualTo(CATALOG_ETAG);
+        assertThat(catalogRequestHeaders.getFirst("If-Modified-Since")).isEqualTo(CATALOG_LAST_MODIFIED);
+    }
+
+    @Test
+    void shouldNotRetrySale() throws Exception {
+        statuses.add(500);
+        CatedraClient client = client();
+
+        assertThatThrownBy(() -> client.vender(new VentaDTO())).isInstanceOf(HttpServerErrorException.class);
+        assertThat(hits).hasValue(1);
+    }
+
+    @Test
+    void shouldFailFastWhileCircuitIsOpen() throws Exception {
+        CatedraClient client = client();
+        for (int i = 0; i < 4; i++) {
+            statuses.add(500);
+            assertThatThrownBy(() -> client.vender(new VentaDTO())).isInstanceOf(HttpServerErrorException.class);
+        }
+
+        assertThatThrownBy(() -> client.vender(new VentaDTO())).isInstanceOf(CatedraUnavailableException.class);
+        assertThat(hits).hasValue(4);
+        assertThat(meterRegistry.get("catedra.client.rejected").tag("reason", "circuit_open").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.state").tag("state", "open").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldOpenCircuitOnSlowCalls() throws Exception {
+        properties.setSlowCallDurationThreshold(Duration.ofMillis(50));
+        latency = Duration.ofMillis(100);
+        CatedraClient client = client();
+        for (int i = 0; i < 4; i++) {
+            assertThat(client.vender(new VentaDTO())).isEqualTo(42L);
+        }
+
+        assertThatThrownBy(() -> client.vender(new VentaDTO())).isInstanceOf(CatedraUnavailableException.class);
+        assertThat(hits).hasValue(4);
+    }
+
+    @Test
+    void shouldRejectCallsBeyondBulkhead() throws Exception {
+        properties.setMaxConcurrentCalls(1);
+        release = new CountDownLatch(1);
+        CatedraClient client = client();
+
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> client.vender(new VentaDTO()));
+        await(() -> hits.get() == 1);
+
+        assertThatThrownBy(() -> client.vender(new VentaDTO())).isInstanceOf(CatedraUnavailableException.class);
+        assertThat(meterRegistry.get("catedra.client.rejected").tag("reason", "bulkhead_full").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+    }
+
+    @Test
+    void bulkheadRejectionsShouldNotOpenTheCircuit() throws Exception {
+        properties.setMaxConcurrentCalls(1);
+        release = new CountDownLatch(1);
+        CatedraClient client = client();
+
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> client.vender(new VentaDTO()));
+        await(() -> hits.get() == 1);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.vender(new VentaDTO())).isInstanceOf(CatedraUnavailableException.class);
+        }
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+
+        assertThat(client.vender(new VentaDTO())).isEqualTo(42L);
+        assertThat(meterRegistry.get("catedra.client.rejected").tag("reason", "circuit_open").counter().count()).isZero();
+    }
+
+    @Test
+    void catalogReaderShouldNotCountAgainstTheCatedraApi() throws Exception {
+        properties.setMaxConcurrentCalls(1);
+        properties.setSlowCallDurationThreshold(Duration.ofMillis(300));
+        dispositivos = "[{\"id\": 1, \"codigo\": \"NB-01\"}]";
+        CatedraClient client = client();
+        // Warm up first, the first call is slow in itself
+        client.vender(new VentaDTO());
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() ->
+                client.descargarDispositivos(CatedraClient.Validadores.NINGUNO, (cuerpo, validadores) -> {
+                    // The bulkhead permit is released once the catedra API answers
+                    assertThat(client.vender(new VentaDTO())).isEqualTo(42L);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(350));
+                    throw new IOException("Database unavailable");
+                })
+            ).hasRootCauseMessage("Database unavailable");
+        }
+
+        assertThat(client.vender(new VentaDTO())).isEqualTo(42L);
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.state").tag("state", "closed").gauge().value()).isEqualTo(1);
+    }
+
+    private CatedraClient client() throws IOException {
+        Path tokenFile = tempDir.resolve("token.json");
+        Files.writeString(tokenFile, "{\"token\": \"test-token\"}");
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofSeconds(1));
+        requestFactory.setReadTimeout(Duration.ofSeconds(5));
+        return new CatedraClient(
+            "http://127.0.0.1:" + server.getAddress().getPort() + "/api/catedra",
+            new RestTemplate(requestFactory),
+            new CatedraTokenProvider(tokenFile, Duration.ZERO, meterRegistry),
+            new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false),
+            circuitBreaker(),
+            Bulkhead.of("catedra", CatedraResilienceConfiguration.bulkheadConfig(properties)),
+            Retry.of("catedra", CatedraResilienceConfiguration.retryConfig(properties)),
+            meterRegistry
+        );
+    }
+
+    private CircuitBreaker circuitBreaker() {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CatedraResilienceConfiguration.circuitBreakerConfig(properties));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker("catedra");
+    }
+
+    private void respondCatalog(HttpExchange exchange) throws IOException {
+        catalogRequestHeaders = exchange.getRequestHeaders();
+        if (CATALOG_ETAG.equals(catalogRequestHeaders.getFirst("If-None-Match"))) {
+            hits.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("ETag", CATALOG_ETAG);
+        exchange.getResponseHeaders().add("Last-Modified", CATALOG_LAST_MODIFIED);
+        respond(exchange, dispositivos);
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        hits.incrementAndGet();
+        try {
+            if (release != null) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Integer status = statuses.poll();
+        byte[] bytes = (status == null ? body : "{}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status == null ? 200 : status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,89 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CatedraTokenProviderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldKeepTokenInMemoryUntilFileChanges() throws Exception {
+        Path tokenFile = tempDir.resolve("token.json");
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1)).truncatedTo(ChronoUnit.SECONDS);
+        writeToken(tokenFile, jwt(expiresAt), Instant.parse("2024-01-01T00:00:00Z"));
+        CatedraTokenProvider provider = new CatedraTokenProvider(tokenFile, Duration.ZERO, meterRegistry);
+
+        String first = provider.getToken();
+        assertThat(first).isEqualTo(jwt(expiresAt));
+        assertThat(provider.getExpiresAt()).isEqualTo(expiresAt);
+
+        // Same modification time: the content is not read again
+        writeToken(tokenFile, "ignored", Instant.parse("2024-01-01T00:00:00Z"));
+        assertThat(provider.getToken()).isEqualTo(first);
+
+        writeToken(tokenFile, "reloaded", Instant.parse("2024-01-01T00:00:10Z"));
+        assertThat(provider.getToken()).isEqualTo("reloaded");
+        assertThat(provider.getExpiresAt()).isNull();
+    }
+
+    @Test
+    void shouldNotCheckFileWithinCheckInterval() throws Exception {
+        Path tokenFile = tempDir.resolve("token.json");
+        writeToken(tokenFile, "first", Instant.parse("2024-01-01T00:00:00Z"));
+        CatedraTokenProvider provider = new CatedraTokenProvider(tokenFile, Duration.ofHours(1), meterRegistry);
+
+        assertThat(provider.getToken()).isEqualTo("first");
+        writeToken(tokenFile, "second", Instant.parse("2024-01-01T00:00:10Z"));
+        assertThat(provider.getToken()).isEqualTo("first");
+    }
+
+    @Test
+    void shouldExportTokenExpiryMetric() throws Exception {
+        Path tokenFile = tempDir.resolve("token.json");
+        writeToken(tokenFile, jwt(Instant.now().plus(Duration.ofHours(1))), Instant.now());
+        CatedraTokenProvider provider = new CatedraTokenProvider(tokenFile, Duration.ZERO, meterRegistry);
+        provider.getToken();
+
+        assertThat(meterRegistry.get("catedra.token.expires.in").gauge().value()).isBetween(3500.0, 3600.0);
+        assertThat(meterRegistry.get("catedra.token.age").gauge().value()).isBetween(0.0, 60.0);
+    }
+
+    @Test
+    void shouldFailWhenFileIsMissing() {
+        CatedraTokenProvider provider = new CatedraTokenProvider(tempDir.resolve("missing.json"), Duration.ZERO, meterRegistry);
+
+        assertThatThrownBy(provider::getToken).isInstanceOf(RuntimeException.class).hasMessage("Error loading token from file");
+    }
+
+    private static void writeToken(Path file, String token, Instant lastModified) throws Exception {
+        Files.writeString(file, "{\"token\": \"" + token + "\"}");
+        Files.setLastModifiedTime(file, FileTime.from(lastModified));
+    }
+
+    private static String jwt(Instant expiresAt) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"HS512\"}".getBytes(StandardCharsets.UTF_8));
+        String claims = encoder.encodeToString(
+            ("{\"sub\":\"test\",\"exp\":" + expiresAt.getEpochSecond() + ",\"iat\":" + Instant.now().getEpochSecond() + "}").getBytes(
+                    StandardCharsets.UTF_8
+                )
+        );
+        return header + "." + claims + ".signature";
+    }
+}
@@ -0,0 +1,67 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import um.edu.ar.service.dto.CaracteristicaDTO;
+import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.OpcionDTO;
+import um.edu.ar.service.dto.PersonalizacionDTO;
+
+class DispositivoHuellaTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldNotDependOnSetOrder() {
+        DispositivoDTO dispositivo = dispositivo(List.of(1L, 2L, 3L), "10.00");
+        DispositivoDTO reordenado = dispositivo(List.of(3L, 1L, 2L), "10.00");
+
+        assertThat(DispositivoHuella.calcular(objectMapper, dispositivo)).isEqualTo(DispositivoHuella.calcular(objectMapper, reordenado));
+    }
+
+    @Test
+    void shouldChangeWithNestedContent() {
+        DispositivoDTO dispositivo = dispositivo(List.of(1L, 2L), "10.00");
+        DispositivoDTO otroPrecio = dispositivo(List.of(1L, 2L), "12.50");
+
+        assertThat(DispositivoHuella.calcular(objectMapper, dispositivo))
+            .hasSize(64)
+            .isNotEqualTo(DispositivoHuella.calcular(objectMapper, otroPrecio));
+    }
+
+    private static DispositivoDTO dispositivo(List<Long> caracteristicaIds, String precioOpcion) {
+        DispositivoDTO dispositivo = new DispositivoDTO();
+        dispositivo.setId(1L);
+        dispositivo.setCodigo("NB-01");
+        dispositivo.setNombre("Notebook");
+        dispositivo.setDescripcion("Notebook de prueba");
+        dispositivo.setPrecioBase(new BigDecimal("1000.00"));
+        dispositivo.setMoneda("USD");
+
+        Set<CaracteristicaDTO> caracteristicas = new LinkedHashSet<>();
+        for (Long id : caracteristicaIds) {
+            CaracteristicaDTO caracteristica = new CaracteristicaDTO();
+            caracteristica.setId(id);
+            caracteristica.setNombre("Caracteristica " + id);
+            caracteristicas.add(caracteristica);
+        }
+        dispositivo.setCaracteristicas(caracteristicas);
+
+        OpcionDTO opcion = new OpcionDTO();
+        opcion.setId(1L);
+        opcion.setCodigo("RAM-16");
+        opcion.setPrecioAdicional(new BigDecimal(precioOpcion));
+        PersonalizacionDTO personalizacion = new PersonalizacionDTO();
+        personalizacion.setId(1L);
+        personalizacion.setNombre("Memoria");
+        personalizacion.setOpciones(Set.of(opcion));
+        dispositivo.setPersonalizaciones(Set.of(personalizacion));
+        return dispositivo;
+    }
+}
@@ -0,0 +1,164 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.domain.Adicional;
+import um.edu.ar.domain.Caracteristica;
+import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.domain.Opcion;
+import um.edu.ar.domain.Personalizacion;
+import um.edu.ar.repository.AdicionalRepository;
+import um.edu.ar.repository.DispositivoRepository;
+import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.DispositivoResumenDTO;
+import um.edu.ar.service.dto.PersonalizacionDTO;
+
+/**
+ * Checks, with the Hibernate statistics, that {@link DispositivoService} reads a page of dispositivos from the database
+ * with the same number of statements whatever its size, and compares the summary listing with the full one.
+ */
+@IntegrationTest
+// Keeps the outbox poller from adding its own statements to the global statistics
+@TestPropertySource(properties = "application.ventas.outbox.poll-interval=PT1H")
+class DispositivoServiceQueryCountIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DispositivoServiceQueryCountIT.class);
+
+    private static final int DISPOSITIVOS = 12;
+
+    private static final int REPETICIONES = 20;
+
+    // Sends the reads to the database
+    @MockBean
+    private CatalogoEnMemoria catalogoEnMemoria;
+
+    @Autowired
+    private DispositivoService dispositivoService;
+
+    @Autowired
+    private DispositivoRepository dispositivoRepository;
+
+    @Autowired
+    private AdicionalRepository adicionalRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void initTest() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Adicional adicional = adicionalRepository.save(
+                new Adicional().nombre("Funda").descripcion("Funda de prueba").precio(BigDecimal.TEN)
+            );
+            for (int i = 0; i < DISPOSITIVOS; i++) {
+                Personalizacion personalizacion = new Personalizacion().nombre("Color").descripcion("Color de prueba");
+                personalizacion.addOpciones(
+                    new Opcion().codigo("OP-" + i).nombre("Rojo").descripcion("Opcion de prueba").precioAdicional(BigDecimal.ONE)
+                );
+                Dispositivo dispositivo = new Dispositivo()
+                    .codigo("NB-" + i)
+                    .nombre("Dispositivo " + i)
+                    .descripcion("Dispositivo de prueba")
+                    .precioBase(BigDecimal.valueOf(1000 + i))
+                    .moneda("USD");
+                dispositivo.addCaracteristicas(new Caracteristica().nombre("Pantalla").descripcion("Caracteristica de prueba"));
+                dispositivo.addPersonalizaciones(personalizacion);
+                dispositivo.addAdicionales(adicional);
+                dispositivoRepository.save(dispositivo);
+            }
+        });
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        statistics.setStatisticsEnabled(false);
+        dispositivoRepository.deleteAll();
+        adicionalRepository.deleteAll();
+    }
+
+    @Test
+    void findAllShouldLoadThePageGraphInAFixedNumberOfStatements() {
+        assertThat(statementsToRead(2)).isEqualTo(statementsToRead(10));
+        // The page, its count, then the adicionales, the caracteristicas, and the personalizaciones with their opciones
+        assertThat(statementsToRead(10)).isEqualTo(5L);
+    }
+
+    @Test
+    void findAllResumenesShouldNotReadTheDescripcionNorTheRelationships() throws Exception {
+        statistics.clear();
+        Page<DispositivoResumenDTO> page = dispositivoService.findAllResumenes(PageRequest.of(0, 10, Sort.by("nombre")));
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(DISPOSITIVOS);
+        // The page of projections and its count: no entity, so no lazy collection either
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2L);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+
+        PageRequest pageable = PageRequest.of(0, DISPOSITIVOS, Sort.by("id"));
+        int completo = objectMapper.writeValueAsBytes(dispositivoService.findAllWithEagerRelationships(pageable).getContent()).length;
+        int resumen = objectMapper.writeValueAsBytes(dispositivoService.findAllResumenes(pageable).getContent()).length;
+        long completoMicros = microsToRead(() -> dispositivoService.findAllWithEagerRelationships(pageable));
+        long resumenMicros = microsToRead(() -> dispositivoService.findAllResumenes(pageable));
+        LOG.info(
+            "{} dispositivos: full listing {} bytes in {} µs, summary {} bytes in {} µs",
+            DISPOSITIVOS,
+            completo,
+            completoMicros,
+            resumen,
+            resumenMicros
+        );
+        assertThat(resumen).isLessThan(completo);
+    }
+
+    private static long microsToRead(Runnable lectura) {
+        long start = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            lectura.run();
+        }
+        return (System.nanoTime() - start) / 1_000 / REPETICIONES;
+    }
+
+    private long statementsToRead(int size) {
+        statistics.clear();
+        Page<DispositivoDTO> page = dispositivoService.findAll(PageRequest.of(0, size, Sort.by("id")));
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(page.getContent()).hasSize(size);
+        assertThat(page.getTotalElements()).isEqualTo(DISPOSITIVOS);
+        assertThat(page.getContent()).allSatisfy(dispositivo -> {
+            assertThat(dispositivo.getCaracteristicas()).hasSize(1);
+            assertThat(dispositivo.getAdicionales()).hasSize(1);
+            assertThat(dispositivo.getPersonalizaciones()).flatExtracting(PersonalizacionDTO::getOpciones).hasSize(1);
+        });
+        return statements;
+    }
+}
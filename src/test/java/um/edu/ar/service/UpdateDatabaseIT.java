@@ -0,0 +1,240 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static um.edu.ar.domain.DispositivoTestSamples.getDispositivoDTOSample;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.domain.Adicional;
+import um.edu.ar.domain.Dispositivo;
+import um.edu.ar.repository.AdicionalRepository;
+import um.edu.ar.repository.DispositivoRepository;
+import um.edu.ar.service.dto.AdicionalDTO;
+import um.edu.ar.service.dto.CaracteristicaDTO;
+import um.edu.ar.service.dto.DispositivoDTO;
+import um.edu.ar.service.dto.OpcionDTO;
+import um.edu.ar.service.dto.PersonalizacionDTO;
+
+/**
+ * Integration tests for the catalog sync of {@link UpdateDatabase}.
+ */
+@IntegrationTest
+// Keeps the outbox poller from adding its own statements to the global statistics
+@TestPropertySource(
+    properties = {
+        "application.ventas.outbox.poll-interval=PT1H",
+        "application.catedra.sync.chunk-size=1",
+        "application.catedra.sync.streaming=false",
+    }
+)
+class UpdateDatabaseIT {
+
+    @MockBean
+    private CatedraClient catedraClient;
+
+    @Autowired
+    private UpdateDatabase updateDatabase;
+
+    @Autowired
+    private DispositivoService dispositivoService;
+
+    @Autowired
+    private OpcionService opcionService;
+
+    @Autowired
+    private AdicionalService adicionalService;
+
+    @Autowired
+    private DispositivoRepository dispositivoRepository;
+
+    @Autowired
+    private AdicionalRepository adicionalRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void enableStatistics() {
+        dispositivoRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        statistics.setStatisticsEnabled(false);
+        dispositivoRepository.deleteAll();
+        adicionalRepository.deleteAll();
+    }
+
+    @Test
+    void unchangedCatalogShouldOnlyRunTheFingerprintQuery() {
+        List<DispositivoDTO> catalogo = List.of(
+            getDispositivoDTOSample(9_001L, "NB-01", "1000.00"),
+            getDispositivoDTOSample(9_002L, "NB-02", "1500.00")
+        );
+        when(catedraClient.obtenerDispositivos()).thenReturn(catalogo);
+        updateDatabase.scheduledSync();
+        assertThat(dispositivoRepository.findAll())
+            .extracting(Dispositivo::getId)
+            .containsExactlyInAnyOrder(9_001L, 9_002L);
+        assertThat(dispositivoRepository.findAll()).allSatisfy(dispositivo -> assertThat(dispositivo.getHuella()).hasSize(64));
+
+        statistics.clear();
+        updateDatabase.scheduledSync();
+
+        // The fingerprint query, plus the insert, load and update of the run in the sync history
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Dispositivo.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    void changedDeviceShouldBeTheOnlyOneStored() {
+        DispositivoDTO cambiado = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(cambiado, getDispositivoDTOSample(9_002L, "NB-02", "1500.00")));
+        updateDatabase.scheduledSync();
+        Map<Long, String> huellasAnteriores = dispositivoService.findAllHuellas();
+
+        cambiado.setPrecioBase(new BigDecimal("900.00"));
+        updateDatabase.scheduledSync();
+
+        Map<Long, String> huellas = dispositivoService.findAllHuellas();
+        assertThat(huellas.get(9_001L)).isNotEqualTo(huellasAnteriores.get(9_001L));
+        assertThat(huellas.get(9_002L)).isEqualTo(huellasAnteriores.get(9_002L));
+        assertThat(dispositivoRepository.findById(9_001L).orElseThrow().getPrecioBase()).isEqualByComparingTo("900.00");
+    }
+
+    @Test
+    void syncShouldReplaceTheChildrenOfChangedDevices() {
+        DispositivoDTO remoto = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        remoto.setCaracteristicas(Set.of(caracteristica(9_101L), caracteristica(9_102L)));
+        remoto.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L, "50.00"))));
+        remoto.setAdicionales(Set.of(adicional(9_401L)));
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(remoto, getDispositivoDTOSample(9_002L, "NB-02", "1500.00")));
+        updateDatabase.scheduledSync();
+
+        DispositivoDTO local = dispositivoService.findOne(9_001L).orElseThrow();
+        assertThat(local.getCaracteristicas()).extracting(CaracteristicaDTO::getId).containsExactlyInAnyOrder(9_101L, 9_102L);
+        assertThat(local.getPersonalizaciones()).singleElement().satisfies(p -> assertThat(p.getOpciones()).hasSize(1));
+        assertThat(local.getAdicionales()).extracting(AdicionalDTO::getId).containsExactly(9_401L);
+
+        remoto.setCaracteristicas(Set.of(caracteristica(9_102L)));
+        remoto.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L, "75.00"))));
+        remoto.setAdicionales(Set.of());
+        updateDatabase.scheduledSync();
+
+        local = dispositivoService.findOne(9_001L).orElseThrow();
+        assertThat(local.getCaracteristicas()).extracting(CaracteristicaDTO::getId).containsExactly(9_102L);
+        OpcionDTO opcion = local.getPersonalizaciones().iterator().next().getOpciones().iterator().next();
+        assertThat(opcion.getPrecioAdicional()).isEqualByComparingTo("75.00");
+        assertThat(local.getAdicionales()).isEmpty();
+    }
+
+    @Test
+    void syncShouldRestoreTheChildrenEditedLocally() {
+        DispositivoDTO remoto = getDispositivoDTOSample(9_001L, "NB-01", "1000.00");
+        remoto.setPersonalizaciones(Set.of(personalizacion(9_201L, opcion(9_301L, "50.00"))));
+        remoto.setAdicionales(Set.of(adicional(9_401L)));
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(remoto, getDispositivoDTOSample(9_002L, "NB-02", "1500.00")));
+        updateDatabase.scheduledSync();
+        String huella = dispositivoService.findAllHuellas().get(9_001L);
+
+        OpcionDTO opcion = new OpcionDTO();
+        opcion.setId(9_301L);
+        opcion.setPrecioAdicional(new BigDecimal("99.00"));
+        opcionService.partialUpdate(opcion);
+        assertThat(dispositivoService.findAllHuellas().get(9_001L)).isNull();
+        updateDatabase.scheduledSync();
+
+        DispositivoDTO local = dispositivoService.findOne(9_001L).orElseThrow();
+        assertThat(local.getPersonalizaciones().iterator().next().getOpciones().iterator().next().getPrecioAdicional()).isEqualByComparingTo(
+            "50.00"
+        );
+        assertThat(dispositivoService.findAllHuellas().get(9_001L)).isEqualTo(huella);
+
+        AdicionalDTO adicional = new AdicionalDTO();
+        adicional.setId(9_401L);
+        adicional.setPrecio(new BigDecimal("99.00"));
+        adicionalService.partialUpdate(adicional);
+        assertThat(dispositivoService.findAllHuellas().get(9_001L)).isNull();
+        updateDatabase.scheduledSync();
+
+        local = dispositivoService.findOne(9_001L).orElseThrow();
+        assertThat(local.getAdicionales()).singleElement().satisfies(a -> assertThat(a.getPrecio()).isEqualByComparingTo("10.00"));
+        assertThat(dispositivoService.findAllHuellas().get(9_001L)).isEqualTo(huella);
+    }
+
+    @Test
+    void partitionsSharingAdicionalesShouldAllBeWritten() {
+        // One device per partition, written in parallel, all of them with the same new adicionales
+        List<DispositivoDTO> catalogo = new ArrayList<>();
+        for (long id = 9_001L; id <= 9_020L; id++) {
+            DispositivoDTO remoto = getDispositivoDTOSample(id, "NB-" + id, "1000.00");
+            remoto.setAdicionales(Set.of(adicional(9_401L), adicional(9_402L)));
+            catalogo.add(remoto);
+        }
+        when(catedraClient.obtenerDispositivos()).thenReturn(catalogo);
+
+        updateDatabase.scheduledSync();
+
+        assertThat(updateDatabase.getLastSync()).isNotNull();
+        assertThat(dispositivoService.findAllHuellas()).hasSize(catalogo.size());
+        assertThat(adicionalRepository.findAll()).extracting(Adicional::getId).containsExactlyInAnyOrder(9_401L, 9_402L);
+        assertThat(dispositivoService.findOne(9_020L).orElseThrow().getAdicionales())
+            .extracting(AdicionalDTO::getId)
+            .containsExactlyInAnyOrder(9_401L, 9_402L);
+    }
+
+    private static CaracteristicaDTO caracteristica(Long id) {
+        CaracteristicaDTO caracteristica = new CaracteristicaDTO();
+        caracteristica.setId(id);
+        caracteristica.setNombre("Caracteristica " + id);
+        caracteristica.setDescripcion("Caracteristica de prueba");
+        return caracteristica;
+    }
+
+    private static PersonalizacionDTO personalizacion(Long id, OpcionDTO opcion) {
+        PersonalizacionDTO personalizacion = new PersonalizacionDTO();
+        personalizacion.setId(id);
+        personalizacion.setNombre("Personalizacion " + id);
+        personalizacion.setDescripcion("Personalizacion de prueba");
+        personalizacion.setOpciones(Set.of(opcion));
+        return personalizacion;
+    }
+
+    private static OpcionDTO opcion(Long id, String precioAdicional) {
+        OpcionDTO opcion = new OpcionDTO();
+        opcion.setId(id);
+        opcion.setCodigo("OP-" + id);
+        opcion.setNombre("Opcion " + id);
+        opcion.setDescripcion("Opcion de prueba");
+        opcion.setPrecioAdicional(new BigDecimal(precioAdicional));
+        return opcion;
+    }
+
+    private static AdicionalDTO adicional(Long id) {
+        AdicionalDTO adicional = new AdicionalDTO();
+        adicional.setId(id);
+        adicional.setNombre("Adicional " + id);
+        adicional.setDescripcion("Adicional de prueba");
+        adicional.setPrecio(new BigDecimal("10.00"));
+        return adicional;
+    }
+}
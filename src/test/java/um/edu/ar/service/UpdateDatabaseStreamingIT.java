@@ -0,0 +1,470 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.config.ApplicationProperties;
+import um.edu.ar.domain.enumeration.EstadoSincronizacion;
+import um.edu.ar.service.dto.CaracteristicaDTO;
+import um.edu.ar.service.dto.DispositivoDTO;
+
+/**
+ * Runs the streaming catalog sync of {@link UpdateDatabase} against a local stub of the catedra API: conditional
+ * requests, the on-disk snapshot, and a large synthetic catalog.
+ * <p>
+ * For the large catalog, the stub waits halfway through the response until the first devices are in the database: the
+ * sync only gets past that point if it writes chunks while the response is still being received. It is only a few MB by
+ * default; run it as a stress test with {@code -Dstress.catalogo.mb=256}.
+ * <p>
+ * The partition tests write the small catalog in partitions of {@value #SMALL_CHUNK_SIZE} devices through a service
+ * that fails on some of them.
+ */
+@IntegrationTest
+class UpdateDatabaseStreamingIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UpdateDatabaseStreamingIT.class);
+
+    private static final int CATALOGO_MB = Integer.getInteger("stress.catalogo.mb", 4);
+
+    private static final long FIRST_ID = 5_000_000L;
+
+    // Technical sheet the local model does not store, making up most of the payload as in the real catalog
+    private static final String FICHA = "x".repeat(8 * 1024);
+
+    private static final int CHUNK_SIZE = 100;
+
+    private static final int SMALL_CHUNK_SIZE = 2;
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private DispositivoService dispositivoService;
+
+    @Autowired
+    private CaracteristicaService caracteristicaService;
+
+    @Autowired
+    private SincronizacionCatalogoService sincronizacionCatalogoService;
+
+    @Autowired
+    private BloqueoTareaService bloqueoTareaService;
+
+    @Autowired
+    private ThreadPoolTaskExecutor catalogoSyncExecutor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CircuitBreaker catedraCircuitBreaker;
+
+    @Autowired
+    private Bulkhead catedraBulkhead;
+
+    @Autowired
+    private Retry catedraRetry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private HttpServer server;
+
+    private int dispositivos;
+
+    private volatile String etag;
+
+    private volatile boolean pauseHalfway = true;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    private final AtomicBoolean writtenWhileStreaming = new AtomicBoolean();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        dispositivos = (int) ((long) CATALOGO_MB * 1024 * 1024 / (FICHA.length() + 100));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/catedra/dispositivos", this::sendCatalog);
+        server.start();
+    }
+
+    @AfterEach
+    void cleanup() {
+        server.stop(0);
+        deleteDevices(FIRST_ID, Long.MAX_VALUE);
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.MINUTES)
+    void streamingSyncShouldWriteChunksWhileTheCatalogIsReceived() throws Exception {
+        etag = "\"v1\"";
+        long start = System.nanoTime();
+        updateDatabase().scheduledSync();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        LOG.info(
+            "Synchronized {} devices from {} MB in {} ms, peak heap {} MB",
+            dispositivos,
+            bytesSent.get() / (1024 * 1024),
+            elapsedMillis,
+            peakHeapMegabytes()
+        );
+        assertThat(bytesSent.get()).isGreaterThanOrEqualTo((long) CATALOGO_MB * 1024 * 1024);
+        assertThat(writtenWhileStreaming).isTrue();
+        assertThat(countDevices()).isEqualTo(dispositivos);
+        assertThat(dispositivoService.findAllHuellas()).containsKeys(FIRST_ID, FIRST_ID + dispositivos - 1);
+    }
+
+    @Test
+    void conditionalSyncShouldStopOnNotModified() throws Exception {
+        smallCatalog();
+        etag = "\"v1\"";
+        UpdateDatabase updateDatabase = updateDatabase();
+        updateDatabase.scheduledSync();
+        assertThat(countDevices()).isEqualTo(dispositivos);
+
+        updateDatabase.scheduledSync();
+
+        assertThat(requests).hasValue(2);
+        assertThat(notModified).hasValue(1);
+        assertThat(lastSyncEstado()).isEqualTo(EstadoSincronizacion.SIN_CAMBIOS);
+    }
+
+    @Test
+    void conditionalSyncShouldRestoreADevicePatchedLocally() throws Exception {
+        smallCatalog();
+        etag = "\"v1\"";
+        UpdateDatabase updateDatabase = updateDatabase();
+        updateDatabase.scheduledSync();
+        DispositivoDTO patch = new DispositivoDTO();
+        patch.setId(FIRST_ID);
+        patch.setNombre("Patched locally");
+        dispositivoService.partialUpdate(patch);
+
+        updateDatabase.scheduledSync();
+
+        // The catalog did not change, but the local device did: the validators would have hidden it
+        assertThat(requests).hasValue(2);
+        assertThat(notModified).hasValue(0);
+        assertThat(dispositivoService.findOne(FIRST_ID)).get().extracting(DispositivoDTO::getNombre).isEqualTo("Dispositivo 0");
+    }
+
+    @Test
+    void conditionalSyncShouldRestoreADeviceWhoseChildWasWrittenLocally() throws Exception {
+        smallCatalog();
+        etag = "\"v1\"";
+        UpdateDatabase updateDatabase = updateDatabase();
+        updateDatabase.scheduledSync();
+        DispositivoDTO dispositivo = new DispositivoDTO();
+        dispositivo.setId(FIRST_ID);
+        CaracteristicaDTO caracteristica = new CaracteristicaDTO();
+        caracteristica.setNombre("Added locally");
+        caracteristica.setDescripcion("Not in the catalog");
+        caracteristica.setDispositivo(dispositivo);
+        caracteristicaService.save(caracteristica);
+
+        updateDatabase.scheduledSync();
+
+        // The catalog did not change, but a child of the local device did: the validators would have hidden it
+        assertThat(requests).hasValue(2);
+        assertThat(notModified).hasValue(0);
+        assertThat(dispositivoService.findOne(FIRST_ID).orElseThrow().getCaracteristicas()).isEmpty();
+    }
+
+    @Test
+    void conditionalSyncShouldRestoreADeviceDeletedLocally() throws Exception {
+        smallCatalog();
+        etag = "\"v1\"";
+        UpdateDatabase updateDatabase = updateDatabase();
+        updateDatabase.scheduledSync();
+        deleteDevices(FIRST_ID, FIRST_ID);
+
+        updateDatabase.scheduledSync();
+
+        assertThat(notModified).hasValue(0);
+        assertThat(countDevices()).isEqualTo(dispositivos);
+    }
+
+    @Test
+    void syncWithoutValidatorsShouldSkipAnUnchangedBody() throws Exception {
+        smallCatalog();
+        UpdateDatabase updateDatabase = updateDatabase();
+        updateDatabase.scheduledSync();
+
+        updateDatabase.scheduledSync();
+
+        assertThat(requests).hasValue(2);
+        assertThat(notModified).hasValue(0);
+        assertThat(lastSyncEstado()).isEqualTo(EstadoSincronizacion.SIN_CAMBIOS);
+    }
+
+    @Test
+    void syncWithoutValidatorsShouldRestoreADeviceDeletedSinceAnUnchangedBody() throws Exception {
+        smallCatalog();
+        UpdateDatabase updateDatabase = updateDatabase();
+        updateDatabase.scheduledSync();
+        deleteDevices(FIRST_ID, FIRST_ID);
+
+        updateDatabase.scheduledSync();
+
+        assertThat(countDevices()).isEqualTo(dispositivos);
+        assertThat(lastSyncEstado()).isEqualTo(EstadoSincronizacion.COMPLETADA);
+    }
+
+    @Test
+    void startupShouldSyncFromTheSnapshotAndThenFromTheApi() throws Exception {
+        smallCatalog();
+        etag = "\"v1\"";
+        updateDatabase().scheduledSync();
+        deleteDevices(FIRST_ID, Long.MAX_VALUE);
+        server.stop(0);
+
+        // The API is down: the snapshot alone brings the catalog back, and the failed remote call does not stop startup
+        UpdateDatabase updateDatabase = updateDatabase();
+        updateDatabase.initialize();
+
+        assertThat(countDevices()).isEqualTo(dispositivos);
+        assertThat(requests).hasValue(1);
+        assertThat(updateDatabase.isSnapshotLoaded()).isTrue();
+        assertThat(updateDatabase.getLastSync()).isNull();
+    }
+
+    @Test
+    void startupShouldRecordTheFirstRemoteSync() throws Exception {
+        smallCatalog();
+        UpdateDatabase updateDatabase = updateDatabase();
+
+        updateDatabase.initialize();
+
+        assertThat(countDevices()).isEqualTo(dispositivos);
+        assertThat(updateDatabase.isSnapshotLoaded()).isFalse();
+        assertThat(updateDatabase.getLastSync()).isNotNull();
+    }
+
+    @Test
+    void failedPartitionShouldBeRetried() throws Exception {
+        smallCatalog();
+        DispositivoService failingOnce = failingService(1);
+        UpdateDatabase updateDatabase = updateDatabase(failingOnce, SMALL_CHUNK_SIZE);
+
+        updateDatabase.scheduledSync();
+
+        assertThat(countDevices()).isEqualTo(dispositivos);
+        assertThat(updateDatabase.getLastSync()).isNotNull();
+    }
+
+    @Test
+    void partitionFailingEveryAttemptShouldNotRollBackTheOthers() throws Exception {
+        smallCatalog();
+        etag = "\"v1\"";
+        UpdateDatabase updateDatabase = updateDatabase(failingService(Integer.MAX_VALUE), SMALL_CHUNK_SIZE);
+
+        updateDatabase.scheduledSync();
+
+        // Only the partition holding the first device is missing
+        assertThat(countDevices()).isEqualTo(dispositivos - SMALL_CHUNK_SIZE);
+        assertThat(updateDatabase.getLastSync()).isNull();
+
+        // The failed catalog was not kept as the snapshot, so the next request is not conditional
+        updateDatabase(dispositivoService, SMALL_CHUNK_SIZE).scheduledSync();
+
+        assertThat(notModified).hasValue(0);
+        assertThat(countDevices()).isEqualTo(dispositivos);
+    }
+
+    /**
+     * A service writing through the real one, except for the partition holding the first device, which fails the given
+     * number of times.
+     */
+    private DispositivoService failingService(int failures) {
+        AtomicInteger failed = new AtomicInteger();
+        DispositivoService service = mock(DispositivoService.class);
+        when(service.findAllHuellas()).thenAnswer(invocation -> dispositivoService.findAllHuellas());
+        when(service.sincronizarAdicionales(anyList())).thenAnswer(invocation ->
+            dispositivoService.sincronizarAdicionales(invocation.getArgument(0))
+        );
+        when(service.sincronizar(anyList(), any())).thenAnswer(invocation -> {
+            List<DispositivoDTO> partition = invocation.getArgument(0);
+            if (partition.get(0).getId() == FIRST_ID && failed.getAndIncrement() < failures) {
+                throw new IllegalStateException("Partition write failed");
+            }
+            Map<Long, String> huellas = invocation.getArgument(1);
+            return dispositivoService.sincronizar(partition, huellas);
+        });
+        return service;
+    }
+
+    private void smallCatalog() {
+        dispositivos = 10;
+        pauseHalfway = false;
+    }
+
+    // Connections do not auto-commit, so plain JDBC writes need a transaction of their own
+    private void deleteDevices(long firstId, long lastId) {
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update("delete from dispositivo where id between ? and ?", firstId, lastId)
+        );
+    }
+
+    private EstadoSincronizacion lastSyncEstado() {
+        return sincronizacionCatalogoService.recientes(1).get(0).getEstado();
+    }
+
+    private long countDevices() {
+        return jdbcTemplate.queryForObject("select count(*) from dispositivo where id >= ?", Long.class, FIRST_ID);
+    }
+
+    private UpdateDatabase updateDatabase() throws IOException {
+        return updateDatabase(dispositivoService, CHUNK_SIZE);
+    }
+
+    private UpdateDatabase updateDatabase(DispositivoService service, int chunkSize) throws IOException {
+        Path tokenFile = tempDir.resolve("token.json");
+        Files.writeString(tokenFile, "{\"token\": \"test-token\"}");
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setReadTimeout(Duration.ofMinutes(1));
+        CatedraClient client = new CatedraClient(
+            "http://127.0.0.1:" + server.getAddress().getPort() + "/api/catedra",
+            new RestTemplate(requestFactory),
+            new CatedraTokenProvider(tokenFile, Duration.ZERO, meterRegistry),
+            objectMapper,
+            catedraCircuitBreaker,
+            catedraBulkhead,
+            catedraRetry,
+            meterRegistry
+        );
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getCatedra().getSync().setChunkSize(chunkSize);
+        properties.getCatedra().getSync().setStreaming(true);
+        CatalogoSnapshot snapshot = new CatalogoSnapshot(tempDir.resolve("catalogo"));
+        return new UpdateDatabase(
+            service,
+            client,
+            snapshot,
+            sincronizacionCatalogoService,
+            bloqueoTareaService,
+            objectMapper,
+            properties,
+            Runnable::run,
+            catalogoSyncExecutor
+        );
+    }
+
+    private void sendCatalog(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        if (etag != null && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        if (etag != null) {
+            exchange.getResponseHeaders().add("ETag", etag);
+        }
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = new BufferedOutputStream(exchange.getResponseBody(), 64 * 1024)) {
+            out.write('[');
+            for (int i = 0; i < dispositivos; i++) {
+                if (pauseHalfway && i == dispositivos / 2) {
+                    out.flush();
+                    writtenWhileStreaming.set(awaitFirstChunk());
+                }
+                byte[] dispositivo = (
+                    (i == 0 ? "" : ",") +
+                    "{\"id\":" +
+                    (FIRST_ID + i) +
+                    ",\"codigo\":\"D-" +
+                    i +
+                    "\",\"nombre\":\"Dispositivo " +
+                    i +
+                    "\",\"descripcion\":\"Dispositivo de prueba\",\"precioBase\":" +
+                    (1000 + i % 500) +
+                    ".00,\"moneda\":\"USD\",\"ficha\":\"" +
+                    FICHA +
+                    "\"}"
+                ).getBytes(StandardCharsets.UTF_8);
+                out.write(dispositivo);
+                bytesSent.addAndGet(dispositivo.length);
+            }
+            out.write(']');
+        }
+    }
+
+    private boolean awaitFirstChunk() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline) {
+            if (countDevices() > 0) {
+                return true;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static long peakHeapMegabytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak / (1024 * 1024);
+    }
+}
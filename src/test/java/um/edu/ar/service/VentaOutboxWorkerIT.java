@@ -0,0 +1,184 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.domain.VentaPendiente;
+import um.edu.ar.domain.enumeration.EstadoVentaPendiente;
+import um.edu.ar.repository.UserRepository;
+import um.edu.ar.repository.VentaPendienteRepository;
+import um.edu.ar.repository.VentaRepository;
+import um.edu.ar.service.dto.UserDTO;
+import um.edu.ar.service.dto.VentaDTO;
+import um.edu.ar.service.dto.VentaProfeDTO;
+
+/**
+ * Integration tests for {@link VentaOutboxWorker}: a pending sale is never sent to the catedra API twice.
+ */
+@IntegrationTest
+// The rows are processed by the tests, not by the poller
+@TestPropertySource(properties = "application.ventas.outbox.poll-interval=PT1H")
+class VentaOutboxWorkerIT {
+
+    private static final long REMOTE_ID = 8_100_000L;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @SpyBean
+    private VentaService ventaService;
+
+    @Autowired
+    private VentaOutboxWorker ventaOutboxWorker;
+
+    @Autowired
+    private VentaOutboxService ventaOutboxService;
+
+    @Autowired
+    private VentaPendienteRepository ventaPendienteRepository;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<String> trackingIds = new ArrayList<>();
+
+    @BeforeEach
+    public void initTest() {
+        VentaProfeDTO ventaProfeDTO = new VentaProfeDTO();
+        ventaProfeDTO.setIdVenta(REMOTE_ID);
+        when(restTemplate.exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class))).thenReturn(
+            ResponseEntity.ok(ventaProfeDTO)
+        );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        trackingIds.forEach(trackingId -> ventaPendienteRepository.findOneByTrackingId(trackingId).ifPresent(ventaPendienteRepository::delete));
+        ventaRepository.findById(REMOTE_ID).ifPresent(ventaRepository::delete);
+    }
+
+    @Test
+    void aSaleRegisteredRemotelyShouldNotBeSentAgainWhenTheLocalSaveFails() {
+        doThrow(new RuntimeException("Database unavailable"))
+            .doCallRealMethod()
+            .when(ventaService)
+            .guardarVentaRemota(any(), any());
+        String trackingId = encolar();
+
+        ventaOutboxWorker.procesar(reclamar(trackingId));
+
+        VentaPendiente pendiente = ventaPendienteRepository.findOneByTrackingId(trackingId).orElseThrow();
+        assertThat(pendiente.getEstado()).isEqualTo(EstadoVentaPendiente.PENDIENTE);
+        assertThat(pendiente.getVentaId()).isEqualTo(REMOTE_ID);
+        assertThat(ventaRepository.existsById(REMOTE_ID)).isFalse();
+
+        ventaOutboxWorker.procesar(reclamar(trackingId));
+
+        pendiente = ventaPendienteRepository.findOneByTrackingId(trackingId).orElseThrow();
+        assertThat(pendiente.getEstado()).isEqualTo(EstadoVentaPendiente.COMPLETADA);
+        assertThat(ventaRepository.existsById(REMOTE_ID)).isTrue();
+        verify(restTemplate, times(1)).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+    }
+
+    @Test
+    void aSaleSentWithoutAnswerShouldNotBeReclaimed() {
+        when(restTemplate.exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class))).thenThrow(
+            new ResourceAccessException("Read timed out")
+        );
+        String trackingId = encolar();
+
+        ventaOutboxWorker.procesar(reclamar(trackingId));
+
+        VentaPendiente pendiente = ventaPendienteRepository.findOneByTrackingId(trackingId).orElseThrow();
+        assertThat(pendiente.getEstado()).isEqualTo(EstadoVentaPendiente.FALLIDA);
+        assertThat(pendiente.getVentaId()).isNull();
+        assertThat(pendiente.getError()).startsWith("No answer from the catedra API").contains("Read timed out");
+        assertThat(ventaOutboxService.reclamar(10)).extracting(VentaPendiente::getTrackingId).doesNotContain(trackingId);
+        verify(restTemplate, times(1)).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+    }
+
+    @Test
+    void aReleasedClaimShouldNotBeSent() {
+        String trackingId = encolar();
+        VentaPendiente reclamada = reclamar(trackingId);
+        // Its lease expires, and the row goes back to the queue
+        ventaOutboxService.liberarBloqueadas(Instant.now().plusSeconds(1));
+
+        ventaOutboxWorker.procesar(reclamada);
+
+        assertThat(ventaPendienteRepository.findOneByTrackingId(trackingId).orElseThrow().getEstado()).isEqualTo(EstadoVentaPendiente.PENDIENTE);
+        verify(restTemplate, times(0)).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+    }
+
+    @Test
+    void aSaleSentWithoutAnswerShouldNotBeReleased() {
+        String sinRespuesta = encolar();
+        ventaOutboxService.marcarEnviada(reclamar(sinRespuesta).getId());
+        String registrada = encolar();
+        Long registradaId = reclamar(registrada).getId();
+        ventaOutboxService.marcarEnviada(registradaId);
+        ventaOutboxService.registrarVentaRemota(registradaId, REMOTE_ID);
+
+        ventaOutboxService.liberarBloqueadas(Instant.now().plusSeconds(1));
+
+        VentaPendiente pendiente = ventaPendienteRepository.findOneByTrackingId(sinRespuesta).orElseThrow();
+        assertThat(pendiente.getEstado()).isEqualTo(EstadoVentaPendiente.FALLIDA);
+        assertThat(pendiente.getError()).isNotBlank();
+        assertThat(ventaPendienteRepository.findOneByTrackingId(registrada).orElseThrow().getEstado()).isEqualTo(
+            EstadoVentaPendiente.PENDIENTE
+        );
+    }
+
+    private String encolar() {
+        UserDTO user = new UserDTO();
+        user.setId(userRepository.findOneByLogin("user").orElseThrow().getId());
+        VentaDTO ventaDTO = new VentaDTO();
+        ventaDTO.setUser(user);
+        ventaDTO.setFechaVenta(ZonedDateTime.now());
+        ventaDTO.setPrecioFinal(BigDecimal.TEN);
+        ventaDTO.setIdDispositivo(1);
+        String trackingId = ventaOutboxService.encolar(ventaDTO).getTrackingId();
+        trackingIds.add(trackingId);
+        return trackingId;
+    }
+
+    // Claims the given row only, as the poller would
+    private VentaPendiente reclamar(String trackingId) {
+        VentaPendiente pendiente = ventaPendienteRepository.findOneByTrackingId(trackingId).orElseThrow();
+        transactionTemplate.executeWithoutResult(status ->
+            ventaPendienteRepository.cambiarEstado(pendiente.getId(), EstadoVentaPendiente.PENDIENTE, EstadoVentaPendiente.EN_PROCESO, Instant.now())
+        );
+        return pendiente;
+    }
+}
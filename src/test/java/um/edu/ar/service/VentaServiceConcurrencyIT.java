@@ -0,0 +1,124 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.RestTemplate;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.domain.Venta;
+import um.edu.ar.repository.UserRepository;
+import um.edu.ar.repository.VentaRepository;
+import um.edu.ar.service.dto.UserDTO;
+import um.edu.ar.service.dto.VentaDTO;
+import um.edu.ar.service.dto.VentaProfeDTO;
+
+/**
+ * Stress test for {@link VentaService#realizarVenta(VentaDTO)}: many concurrent sales against a stubbed {@code /vender}
+ * endpoint, checking that every local sale keeps the id the catedra API returned for it.
+ * <p>
+ * The load can be raised with {@code -Dstress.ventas=...} and {@code -Dstress.threads=...}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.catedra.resilience.max-concurrent-calls=256")
+class VentaServiceConcurrencyIT {
+
+    private static final int VENTAS = Integer.getInteger("stress.ventas", 300);
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 32);
+
+    private static final long FIRST_REMOTE_ID = 7_000_000L;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Remote id assigned to each sale, keyed by its unique precioFinal
+    private final Map<Integer, Long> remoteIds = new ConcurrentHashMap<>();
+
+    @AfterEach
+    public void cleanup() {
+        ventaRepository.deleteAllByIdInBatch(remoteIds.values());
+    }
+
+    @Test
+    void concurrentSalesShouldKeepTheirOwnRemoteId() throws Exception {
+        AtomicLong sequence = new AtomicLong(FIRST_REMOTE_ID);
+        when(restTemplate.exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class))).thenAnswer(
+            invocation -> {
+                VentaDTO sent = (VentaDTO) invocation.getArgument(2, HttpEntity.class).getBody();
+                VentaProfeDTO response = new VentaProfeDTO();
+                response.setIdVenta(sequence.incrementAndGet());
+                remoteIds.put(sent.getPrecioFinal().intValueExact(), response.getIdVenta());
+                // Widen the window between building the response and reading it
+                Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+                return ResponseEntity.ok(response);
+            }
+        );
+
+        UserDTO user = new UserDTO(userRepository.findOneByLogin("user").orElseThrow());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<VentaDTO>> results = new ArrayList<>();
+        List<Long> insertedIds = new ArrayList<>();
+        try {
+            for (int i = 0; i < VENTAS; i++) {
+                VentaDTO ventaDTO = new VentaDTO();
+                ventaDTO.setUser(user);
+                ventaDTO.setFechaVenta(ZonedDateTime.now());
+                ventaDTO.setPrecioFinal(BigDecimal.valueOf(i + 1));
+                results.add(
+                    executor.submit(() -> {
+                        start.await();
+                        return ventaService.realizarVenta(ventaDTO);
+                    })
+                );
+            }
+            start.countDown();
+
+            for (Future<VentaDTO> result : results) {
+                VentaDTO venta = result.get(60, TimeUnit.SECONDS);
+                insertedIds.add(venta.getId());
+                assertThat(venta.getId()).isEqualTo(remoteIds.get(venta.getGanancia().intValueExact()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(insertedIds).doesNotHaveDuplicates().hasSize(VENTAS);
+        for (Venta venta : ventaRepository.findAllById(insertedIds)) {
+            assertThat(remoteIds.get(venta.getGanancia().intValueExact())).isEqualTo(venta.getId());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package um.edu.ar.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.RestTemplate;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.domain.User;
+import um.edu.ar.domain.Venta;
+import um.edu.ar.repository.UserRepository;
+import um.edu.ar.repository.VentaRepository;
+import um.edu.ar.service.dto.UserDTO;
+import um.edu.ar.service.dto.VentaDTO;
+import um.edu.ar.service.dto.VentaProfeDTO;
+
+/**
+ * Benchmark of the statements {@link VentaService#realizarVenta(VentaDTO)} runs per sale, measured with the Hibernate
+ * statistics: the user existence check, a single insert of the sale with its remote id, and the load of its user for the
+ * response, which comes from the second-level cache outside of the tests.
+ * <p>
+ * The number of sales can be raised with {@code -Dbenchmark.ventas=...}.
+ */
+@IntegrationTest
+// Keeps the outbox poller from adding its own statements to the global statistics
+@TestPropertySource(properties = "application.ventas.outbox.poll-interval=PT1H")
+class VentaServiceQueryCountIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaServiceQueryCountIT.class);
+
+    private static final int VENTAS = Integer.getInteger("benchmark.ventas", 50);
+
+    private static final long FIRST_REMOTE_ID = 8_000_000L;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<Long> insertedIds = new ArrayList<>();
+
+    @BeforeEach
+    public void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        statistics.setStatisticsEnabled(false);
+        ventaRepository.deleteAllByIdInBatch(insertedIds);
+    }
+
+    @Test
+    void realizarVentaShouldRunOneInsertAndNoSaleLoadPerSale() {
+        AtomicLong sequence = new AtomicLong(FIRST_REMOTE_ID);
+        when(restTemplate.exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class))).thenAnswer(
+            invocation -> {
+                VentaProfeDTO response = new VentaProfeDTO();
+                response.setIdVenta(sequence.incrementAndGet());
+                return ResponseEntity.ok(response);
+            }
+        );
+        UserDTO user = new UserDTO(userRepository.findOneByLogin("user").orElseThrow());
+
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < VENTAS; i++) {
+            VentaDTO ventaDTO = new VentaDTO();
+            ventaDTO.setUser(user);
+            ventaDTO.setFechaVenta(ZonedDateTime.now());
+            ventaDTO.setPrecioFinal(BigDecimal.valueOf(i + 1));
+            VentaDTO result = ventaService.realizarVenta(ventaDTO);
+            insertedIds.add(result.getId());
+            assertThat(result.getId()).isEqualTo(FIRST_REMOTE_ID + i + 1);
+            assertThat(result.getUser().getId()).isEqualTo(user.getId());
+            assertThat(result.getUser().getLogin()).isEqualTo("user");
+        }
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+
+        LOG.info(
+            "{} sales: {} statements ({} per sale), {} entity loads, {} inserts, {} µs per sale",
+            VENTAS,
+            statistics.getPrepareStatementCount(),
+            (double) statistics.getPrepareStatementCount() / VENTAS,
+            statistics.getEntityLoadCount(),
+            statistics.getEntityInsertCount(),
+            elapsedMicros / VENTAS
+        );
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(VENTAS);
+        assertThat(statistics.getEntityStatistics(Venta.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isEqualTo(VENTAS);
+        // existsById on the user, the insert of the sale and the load of the user, the second-level cache being disabled
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3L * VENTAS);
+        assertThat(ventaRepository.findAllById(insertedIds)).extracting(Venta::getId).containsExactlyInAnyOrderElementsOf(insertedIds);
+    }
+}
@@ -0,0 +1,140 @@
+package um.edu.ar.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.repository.BloqueoTareaRepository;
+import um.edu.ar.repository.DispositivoRepository;
+import um.edu.ar.repository.SincronizacionCatalogoRepository;
+import um.edu.ar.security.AuthoritiesConstants;
+import um.edu.ar.service.CatedraClient;
+import um.edu.ar.service.dto.DispositivoDTO;
+
+/**
+ * Integration tests for the {@link CatalogSyncEndpoint} management endpoint.
+ * <p>
+ * Requested runs execute right away, as the test task executor is synchronous.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@TestPropertySource(properties = "application.catedra.sync.streaming=false")
+class CatalogSyncEndpointIT {
+
+    private static final String ENDPOINT_URL = "/management/catalog-sync";
+
+    private static final String SYNC_JOB = "catalogo-sync";
+
+    private static final String OTRO_NODO = "otro-nodo";
+
+    @MockBean
+    private CatedraClient catedraClient;
+
+    @Autowired
+    private SincronizacionCatalogoRepository sincronizacionCatalogoRepository;
+
+    @Autowired
+    private DispositivoRepository dispositivoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BloqueoTareaRepository bloqueoTareaRepository;
+
+    @Autowired
+    private MockMvc restMockMvc;
+
+    @BeforeEach
+    public void initTest() {
+        sincronizacionCatalogoRepository.deleteAll();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sincronizacionCatalogoRepository.deleteAll();
+        dispositivoRepository.deleteAll();
+    }
+
+    @Test
+    void startSyncShouldRecordTheRun() throws Exception {
+        DispositivoDTO dispositivo = new DispositivoDTO();
+        dispositivo.setId(9_101L);
+        dispositivo.setCodigo("NB-01");
+        dispositivo.setNombre("Notebook");
+        dispositivo.setDescripcion("Notebook de prueba");
+        dispositivo.setPrecioBase(new BigDecimal("1000.00"));
+        dispositivo.setMoneda("USD");
+        when(catedraClient.obtenerDispositivos()).thenReturn(List.of(dispositivo));
+        long manualRuns = meterRegistry.timer("catalog.sync.duration", "origin", "manual", "outcome", "completada").count();
+
+        restMockMvc.perform(post(ENDPOINT_URL)).andExpect(status().isAccepted()).andExpect(jsonPath("$.started").value(true));
+
+        restMockMvc
+            .perform(get(ENDPOINT_URL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.running").isEmpty())
+            .andExpect(jsonPath("$.lastSync").isNotEmpty())
+            .andExpect(jsonPath("$.runs.length()").value(1))
+            .andExpect(jsonPath("$.runs[0].origen").value("MANUAL"))
+            .andExpect(jsonPath("$.runs[0].estado").value("COMPLETADA"))
+            .andExpect(jsonPath("$.runs[0].dispositivosLeidos").value(1))
+            .andExpect(jsonPath("$.runs[0].dispositivosActualizados").value(1))
+            .andExpect(jsonPath("$.runs[0].fin").isNotEmpty());
+        assertThat(meterRegistry.timer("catalog.sync.duration", "origin", "manual", "outcome", "completada").count()).isEqualTo(
+            manualRuns + 1
+        );
+    }
+
+    @Test
+    void failedSyncShouldRecordTheError() throws Exception {
+        when(catedraClient.obtenerDispositivos()).thenThrow(new RuntimeException("catedra down"));
+
+        restMockMvc.perform(post(ENDPOINT_URL)).andExpect(status().isAccepted());
+
+        restMockMvc
+            .perform(get(ENDPOINT_URL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.runs[0].estado").value("FALLIDA"))
+            .andExpect(jsonPath("$.runs[0].error").value("catedra down"));
+    }
+
+    @Test
+    void startSyncShouldConflictWhileAnotherNodeSyncs() throws Exception {
+        Instant ahora = Instant.now();
+        assertThat(bloqueoTareaRepository.adquirir(SYNC_JOB, OTRO_NODO, ahora, ahora.plus(Duration.ofMinutes(1)))).isTrue();
+        try {
+            restMockMvc.perform(post(ENDPOINT_URL)).andExpect(status().isConflict()).andExpect(jsonPath("$.started").value(false));
+
+            assertThat(sincronizacionCatalogoRepository.count()).isZero();
+        } finally {
+            bloqueoTareaRepository.liberar(SYNC_JOB, OTRO_NODO, Instant.now());
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void endpointShouldBeAdminOnly() throws Exception {
+        restMockMvc.perform(get(ENDPOINT_URL)).andExpect(status().isForbidden());
+        restMockMvc.perform(post(ENDPOINT_URL)).andExpect(status().isForbidden());
+    }
+}
@@ -2,6 +2,7 @@ package um.edu.ar.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -12,6 +13,7 @@ import static um.edu.ar.web.rest.TestUtil.sameNumber;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -25,14 +27,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import um.edu.ar.IntegrationTest;
 import um.edu.ar.domain.Dispositivo;
 import um.edu.ar.repository.DispositivoRepository;
+import um.edu.ar.repository.VersionCatalogoRepository;
+import um.edu.ar.service.CatalogoCacheEvictor;
+import um.edu.ar.service.CatalogoEnMemoria;
 import um.edu.ar.service.DispositivoService;
+import um.edu.ar.service.VersionCatalogo;
 import um.edu.ar.service.dto.DispositivoDTO;
 import um.edu.ar.service.mapper.DispositivoMapper;
 
@@ -87,6 +97,18 @@ class DispositivoResourceIT {
     @Autowired
     private MockMvc restDispositivoMockMvc;
 
+    @Autowired
+    private VersionCatalogo versionCatalogo;
+
+    @Autowired
+    private VersionCatalogoRepository versionCatalogoRepository;
+
+    @Autowired
+    private CatalogoCacheEvictor catalogoCacheEvictor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private Dispositivo dispositivo;
 
     private Dispositivo insertedDispositivo;
@@ -263,6 +285,27 @@ class DispositivoResourceIT {
             .andExpect(jsonPath("$.[*].moneda").value(hasItem(DEFAULT_MONEDA)));
     }
 
+    @Test
+    @Transactional
+    void getAllDispositivoResumenes() throws Exception {
+        // Initialize the database
+        insertedDispositivo = dispositivoRepository.saveAndFlush(dispositivo);
+
+        // Get the summary of all the dispositivos
+        restDispositivoMockMvc
+            .perform(get(ENTITY_API_URL + "/summary?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(dispositivo.getId().intValue())))
+            .andExpect(jsonPath("$.[*].codigo").value(hasItem(DEFAULT_CODIGO)))
+            .andExpect(jsonPath("$.[*].nombre").value(hasItem(DEFAULT_NOMBRE)))
+            .andExpect(jsonPath("$.[*].precioBase").value(hasItem(sameNumber(DEFAULT_PRECIO_BASE))))
+            .andExpect(jsonPath("$.[*].moneda").value(hasItem(DEFAULT_MONEDA)))
+            .andExpect(jsonPath("$.[*].descripcion").doesNotExist())
+            .andExpect(jsonPath("$.[*].caracteristicas").doesNotExist());
+    }
+
     @SuppressWarnings({ "unchecked" })
     void getAllDispositivosWithEagerRelationshipsIsEnabled() throws Exception {
         when(dispositivoServiceMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
@@ -299,6 +342,89 @@ class DispositivoResourceIT {
             .andExpect(jsonPath("$.moneda").value(DEFAULT_MONEDA));
     }
 
+    @Test
+    void searchDispositivos() throws Exception {
+        restDispositivoMockMvc
+            .perform(get(ENTITY_API_URL + "/_search?q=&sort=precioBase,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.dispositivos").isArray())
+            .andExpect(jsonPath("$.monedas").isMap())
+            // The default limits of the price buckets make five of them
+            .andExpect(jsonPath("$.precios.length()").value(5));
+    }
+
+    @Test
+    void searchDispositivosWithUnsupportedSort() throws Exception {
+        restDispositivoMockMvc.perform(get(ENTITY_API_URL + "/_search?q=notebook&sort=descripcion,asc")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getDispositivoWithCurrentEtag() throws Exception {
+        // Initialize the database
+        insertedDispositivo = dispositivoRepository.saveAndFlush(dispositivo);
+
+        String etag = restDispositivoMockMvc
+            .perform(get(ENTITY_API_URL_ID, dispositivo.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        // The catalog did not change: no body
+        restDispositivoMockMvc
+            .perform(get(ENTITY_API_URL_ID, dispositivo.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""));
+        restDispositivoMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        // Another node commits a change of the catalog, and this one polls its version
+        TransactionTemplate otroNodo = new TransactionTemplate(transactionManager);
+        otroNodo.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        otroNodo.executeWithoutResult(status -> versionCatalogoRepository.incrementar(Instant.now()));
+        versionCatalogo.sondear();
+
+        String nuevoEtag = restDispositivoMockMvc
+            .perform(get(ENTITY_API_URL_ID, dispositivo.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+            .andExpect(jsonPath("$.id").value(dispositivo.getId().intValue()))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Any other node at the same version serves the same ETag
+        VersionCatalogo otraVersion = new VersionCatalogo(
+            versionCatalogoRepository,
+            new CatalogoEnMemoria(dispositivoRepository, transactionManager),
+            catalogoCacheEvictor
+        );
+        otraVersion.sondear();
+        assertThat(otraVersion.etag(otraVersion.actual())).isEqualTo(nuevoEtag);
+    }
+
+    @Test
+    @Transactional
+    void getDispositivoByCodigo() throws Exception {
+        // Initialize the database
+        insertedDispositivo = dispositivoRepository.saveAndFlush(dispositivo);
+
+        // Get the dispositivo
+        restDispositivoMockMvc
+            .perform(get(ENTITY_API_URL + "/codigo/{codigo}", DEFAULT_CODIGO))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(dispositivo.getId().intValue()))
+            .andExpect(jsonPath("$.codigo").value(DEFAULT_CODIGO));
+    }
+
     @Test
     @Transactional
     void getNonExistingDispositivo() throws Exception {
@@ -0,0 +1,124 @@
+package um.edu.ar.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import um.edu.ar.IntegrationTest;
+import um.edu.ar.domain.User;
+import um.edu.ar.domain.Venta;
+import um.edu.ar.repository.UserRepository;
+import um.edu.ar.repository.VentaRepository;
+
+/**
+ * Integration tests for the {@link VentaExportResource} REST controller.
+ * <p>
+ * Not transactional: the export streams on another thread, with its own connection, so the rows must be committed.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class VentaExportResourceIT {
+
+    private static final ZonedDateTime FECHA = ZonedDateTime.of(2200, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final Duration EXPORT_TIMEOUT = Duration.ofMinutes(30);
+
+    private static final String EXPORT_URL = "/api/ventas/export?desde=2200-01-01T00:00:00Z&hasta=2200-01-02T00:00:00Z";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MockMvc restVentaMockMvc;
+
+    private final List<Venta> insertedVentas = new ArrayList<>();
+
+    @BeforeEach
+    public void initTest() {
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        insertedVentas.add(ventaRepository.saveAndFlush(new Venta().fechaVenta(FECHA).ganancia(new BigDecimal("10.50")).user(user)));
+        insertedVentas.add(ventaRepository.saveAndFlush(new Venta().fechaVenta(FECHA.plusHours(1)).ganancia(null).user(user)));
+        // Outside the requested range
+        insertedVentas.add(ventaRepository.saveAndFlush(new Venta().fechaVenta(FECHA.plusDays(1)).ganancia(BigDecimal.ONE).user(user)));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        ventaRepository.deleteAll(insertedVentas);
+    }
+
+    @Test
+    void exportVentasAsCsv() throws Exception {
+        String content = export(EXPORT_URL + "&format=csv", "text/csv");
+        Venta first = insertedVentas.get(0);
+        Venta second = insertedVentas.get(1);
+
+        assertThat(content.split("\n")).containsExactly(
+            "id,fechaVenta,ganancia,userId",
+            first.getId() + ",2200-01-01T10:00:00Z,10.50," + first.getUser().getId(),
+            second.getId() + ",2200-01-01T11:00:00Z,," + second.getUser().getId()
+        );
+    }
+
+    @Test
+    void exportVentasAsNdjson() throws Exception {
+        String[] lines = export(EXPORT_URL, "application/x-ndjson").split("\n");
+
+        assertThat(lines).hasSize(2);
+        JsonNode first = om.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(insertedVentas.get(0).getId());
+        assertThat(first.get("fechaVenta").asText()).isEqualTo("2200-01-01T10:00:00Z");
+        assertThat(first.get("ganancia").decimalValue()).isEqualByComparingTo("10.50");
+        assertThat(om.readTree(lines[1]).get("ganancia").isNull()).isTrue();
+    }
+
+    @Test
+    void exportVentasWithUnknownFormatShouldFail() throws Exception {
+        restVentaMockMvc.perform(get("/api/ventas/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportVentasWithInvertedRangeShouldFail() throws Exception {
+        restVentaMockMvc
+            .perform(get("/api/ventas/export?desde=2200-01-02T00:00:00Z&hasta=2200-01-01T00:00:00Z"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private String export(String url, String contentType) throws Exception {
+        MvcResult result = restVentaMockMvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(EXPORT_TIMEOUT.toMillis());
+        return restVentaMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", contentType))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    }
+}
@@ -1,9 +1,12 @@
 package um.edu.ar.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static um.edu.ar.domain.VentaAsserts.*;
@@ -14,13 +17,18 @@ import static um.edu.ar.web.rest.TestUtil.sameNumber;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,11 +41,15 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import um.edu.ar.IntegrationTest;
 import um.edu.ar.domain.User;
 import um.edu.ar.domain.Venta;
+import um.edu.ar.domain.VentaIdempotencia;
 import um.edu.ar.repository.UserRepository;
+import um.edu.ar.repository.VentaIdempotenciaRepository;
+import um.edu.ar.repository.VentaPendienteRepository;
 import um.edu.ar.repository.VentaRepository;
 import um.edu.ar.service.dto.AdicionalDTO;
 import um.edu.ar.service.dto.PersonalizacionDTO;
@@ -77,6 +89,12 @@ class VentaResourceIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private VentaIdempotenciaRepository ventaIdempotenciaRepository;
+
+    @Autowired
+    private VentaPendienteRepository ventaPendienteRepository;
+
     @Autowired
     private VentaMapper ventaMapper;
 
@@ -159,11 +177,14 @@ class VentaResourceIT {
             createAdicional(4, BigDecimal.ZERO)
         );
         ventaDTO.setAdicionales(adicionales);
+        // Only the user id is checked: the login returned is the user's, not the one sent
+        ventaDTO.getUser().setLogin("not-" + ventaDTO.getUser().getLogin());
 
         var returnedVentaDTO = om.readValue(
             restVentaMockMvc
                 .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(ventaDTO)))
                 .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.user.login").value("user"))
                 .andReturn()
                 .getResponse()
                 .getContentAsString(),
@@ -171,12 +192,266 @@ class VentaResourceIT {
         );
 
         assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+        assertThat(returnedVentaDTO.getUser().getId()).isEqualTo(ventaDTO.getUser().getId());
         var returnedVenta = ventaMapper.toEntity(returnedVentaDTO);
         assertVentaUpdatableFieldsEquals(returnedVenta, getPersistedVenta(returnedVenta));
 
         insertedVenta = returnedVenta;
     }
 
+    @Test
+    @Transactional
+    void realizarVentaWithSameIdempotencyKeyShouldReplayFirstSale() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        VentaDTO ventaDTO = ventaMapper.toDto(venta);
+        ventaDTO.setId(null);
+        ventaDTO.setPrecioFinal(DEFAULT_GANANCIA);
+        ventaDTO.setIdDispositivo(2);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        var firstVentaDTO = om.readValue(
+            restVentaMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(ventaDTO))
+                )
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            VentaDTO.class
+        );
+
+        restVentaMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header("Idempotency-Key", idempotencyKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(ventaDTO))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(header().string("Idempotent-Replayed", "true"))
+            .andExpect(jsonPath("$.id").value(firstVentaDTO.getId().intValue()));
+
+        assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+        verify(restTemplate, times(1)).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+
+        insertedVenta = ventaMapper.toEntity(firstVentaDTO);
+    }
+
+    @Test
+    @Transactional
+    void realizarVentaWithSameIdempotencyKeyAndAnotherSaleShouldFail() throws Exception {
+        VentaDTO ventaDTO = ventaMapper.toDto(venta);
+        ventaDTO.setPrecioFinal(DEFAULT_GANANCIA);
+        ventaDTO.setIdDispositivo(2);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        var firstVentaDTO = om.readValue(
+            restVentaMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(ventaDTO))
+                )
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            VentaDTO.class
+        );
+
+        ventaDTO.setPrecioFinal(UPDATED_GANANCIA);
+        restVentaMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header("Idempotency-Key", idempotencyKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(ventaDTO))
+            )
+            .andExpect(status().isUnprocessableEntity());
+
+        verify(restTemplate, times(1)).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+
+        insertedVenta = ventaMapper.toEntity(firstVentaDTO);
+    }
+
+    @Test
+    @Transactional
+    void realizarVentaWithIdempotencyKeyOfAnotherUserShouldNotReplayItsSale() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        AtomicLong remoteIds = new AtomicLong(910_000L);
+        when(restTemplate.exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class))).thenAnswer(
+            invocation -> {
+                VentaProfeDTO body = new VentaProfeDTO();
+                body.setIdVenta(remoteIds.incrementAndGet());
+                return ResponseEntity.ok(body);
+            }
+        );
+        VentaDTO ventaDTO = ventaMapper.toDto(venta);
+        ventaDTO.setPrecioFinal(DEFAULT_GANANCIA);
+        ventaDTO.setIdDispositivo(2);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        for (String login : List.of("user", "admin")) {
+            restVentaMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .with(user(login))
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(ventaDTO))
+                )
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        }
+
+        assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeCreate + 2);
+        verify(restTemplate, times(2)).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+    }
+
+    @Test
+    void realizarVentaWithIdempotencyKeyReservedByAnotherNodeShouldWaitForItsSale() throws Exception {
+        VentaDTO ventaDTO = ventaMapper.toDto(venta);
+        ventaDTO.setPrecioFinal(DEFAULT_GANANCIA);
+        ventaDTO.setIdDispositivo(2);
+        String idempotencyKey = UUID.randomUUID().toString();
+        VentaIdempotencia reserva = new VentaIdempotencia();
+        reserva.setUsuario("user");
+        reserva.setClave(idempotencyKey);
+        reserva.setHuellaPeticion(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(om.writeValueAsBytes(ventaDTO))));
+        reserva.setFechaCreacion(Instant.now());
+        VentaIdempotencia enCurso = ventaIdempotenciaRepository.saveAndFlush(reserva);
+        VentaDTO remota = ventaMapper.toDto(venta);
+        remota.setId(920_001L);
+
+        try {
+            CompletableFuture<Void> otroNodo = CompletableFuture.runAsync(() -> {
+                try {
+                    Thread.sleep(300);
+                    enCurso.setVentaId(remota.getId());
+                    enCurso.setRespuesta(om.writeValueAsString(remota));
+                    ventaIdempotenciaRepository.save(enCurso);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            restVentaMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(ventaDTO))
+                )
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(jsonPath("$.id").value(remota.getId().intValue()));
+
+            otroNodo.get();
+            verify(restTemplate, never()).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+        } finally {
+            ventaIdempotenciaRepository.deleteById(enCurso.getId());
+        }
+    }
+
+    @Test
+    void realizarVentaWithIdempotencyKeyOfASaleNotSavedLocallyShouldOnlySaveItAgain() throws Exception {
+        // The catedra API registers both sales with the same id, so the second one cannot be saved until the first is gone
+        long remoteId = 940_001L;
+        VentaProfeDTO ventaProfeDTO = new VentaProfeDTO();
+        ventaProfeDTO.setIdVenta(remoteId);
+        when(restTemplate.exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class))).thenReturn(
+            ResponseEntity.ok(ventaProfeDTO)
+        );
+        VentaDTO ventaDTO = ventaMapper.toDto(venta);
+        ventaDTO.setPrecioFinal(DEFAULT_GANANCIA);
+        ventaDTO.setIdDispositivo(2);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        try {
+            restVentaMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(ventaDTO)))
+                .andExpect(status().isCreated());
+            restVentaMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(ventaDTO))
+                )
+                .andExpect(status().is5xxServerError());
+
+            VentaIdempotencia fallida = ventaIdempotenciaRepository.findOneByUsuarioAndClave("user", idempotencyKey).orElseThrow();
+            assertThat(fallida.getVentaId()).isEqualTo(remoteId);
+            assertThat(fallida.getError()).startsWith("Could not save the sale locally");
+
+            ventaRepository.deleteById(remoteId);
+            restVentaMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(ventaDTO))
+                )
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(remoteId));
+
+            assertThat(ventaRepository.existsById(remoteId)).isTrue();
+            // Once for the first sale and once for the sale of the key: its retry did not send it again
+            verify(restTemplate, times(2)).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+        } finally {
+            ventaIdempotenciaRepository.findOneByUsuarioAndClave("user", idempotencyKey).ifPresent(ventaIdempotenciaRepository::delete);
+            if (ventaRepository.existsById(remoteId)) {
+                ventaRepository.deleteById(remoteId);
+            }
+        }
+    }
+
+    @Test
+    void realizarVentaWithIdempotencyKeyOfASaleWithoutAnswerShouldNotSendItAgain() throws Exception {
+        when(restTemplate.exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class))).thenThrow(
+            new ResourceAccessException("Read timed out")
+        );
+        VentaDTO ventaDTO = ventaMapper.toDto(venta);
+        ventaDTO.setPrecioFinal(DEFAULT_GANANCIA);
+        ventaDTO.setIdDispositivo(2);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        try {
+            restVentaMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(ventaDTO))
+                )
+                .andExpect(status().is5xxServerError());
+
+            VentaIdempotencia fallida = ventaIdempotenciaRepository.findOneByUsuarioAndClave("user", idempotencyKey).orElseThrow();
+            assertThat(fallida.getVentaId()).isNull();
+            assertThat(fallida.getError()).startsWith("No answer from the catedra API").contains("Read timed out");
+
+            restVentaMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(ventaDTO))
+                )
+                .andExpect(status().isConflict());
+
+            verify(restTemplate, times(1)).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+        } finally {
+            ventaIdempotenciaRepository.findOneByUsuarioAndClave("user", idempotencyKey).ifPresent(ventaIdempotenciaRepository::delete);
+        }
+    }
+
     private VentaDTO.Personalizacion createPersonalizacion(Integer id, BigDecimal precio) {
         VentaDTO.Personalizacion personalizacion = new VentaDTO.Personalizacion();
         personalizacion.setId(id);
@@ -224,6 +499,207 @@ class VentaResourceIT {
             .andExpect(jsonPath("$.[*].ganancia").value(hasItem(sameNumber(DEFAULT_GANANCIA))));
     }
 
+    @Test
+    @Transactional
+    void getAllVentasByUserIdShouldPaginateByCursor() throws Exception {
+        // Future dates so these are the newest sales; two share the same date to exercise the id tie-break
+        ZonedDateTime fecha = ZonedDateTime.of(2100, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        Venta oldest = ventaRepository.saveAndFlush(createEntity().fechaVenta(fecha).user(venta.getUser()));
+        Venta middle = ventaRepository.saveAndFlush(createEntity().fechaVenta(fecha.plusDays(1)).user(venta.getUser()));
+        Venta newest = ventaRepository.saveAndFlush(createEntity().fechaVenta(fecha.plusDays(1)).user(venta.getUser()));
+        Long userId = venta.getUser().getId();
+
+        String cursor = restVentaMockMvc
+            .perform(get(ENTITY_API_URL + "/user/" + userId + "/ventas?size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].id").value(newest.getId().intValue()))
+            .andExpect(jsonPath("$[1].id").value(middle.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        restVentaMockMvc
+            .perform(get(ENTITY_API_URL + "/user/" + userId + "/ventas?size=2&cursor=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(oldest.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllVentasByCursorShouldReturnNextCursor() throws Exception {
+        insertedVenta = ventaRepository.saveAndFlush(venta);
+        ventaRepository.saveAndFlush(createEntity().user(venta.getUser()));
+
+        restVentaMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(header().doesNotExist("X-Total-Count"));
+    }
+
+    @Test
+    @Transactional
+    void getAllVentasWithInvalidCursorShouldFail() throws Exception {
+        restVentaMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void createVentaAsyncShouldReturnTrackingId() throws Exception {
+        VentaDTO ventaDTO = ventaMapper.toDto(venta);
+        ventaDTO.setPrecioFinal(DEFAULT_GANANCIA);
+        ventaDTO.setIdDispositivo(2);
+
+        String trackingId = om
+            .readTree(
+                restVentaMockMvc
+                    .perform(post(ENTITY_API_URL + "/async").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(ventaDTO)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string(HttpHeaders.LOCATION, startsWith(ENTITY_API_URL + "/pending/")))
+                    .andExpect(jsonPath("$.estado").value("PENDIENTE"))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString()
+            )
+            .get("trackingId")
+            .asText();
+
+        restVentaMockMvc
+            .perform(get(ENTITY_API_URL + "/pending/{trackingId}", trackingId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.trackingId").value(trackingId))
+            .andExpect(jsonPath("$.estado").value("PENDIENTE"));
+    }
+
+    @Test
+    void createVentasBatchShouldReturnOneResultPerSale() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        AtomicLong remoteIds = new AtomicLong(900_000L);
+        when(restTemplate.exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class))).thenAnswer(
+            invocation -> {
+                VentaProfeDTO body = mock(VentaProfeDTO.class);
+                when(body.getIdVenta()).thenReturn(remoteIds.incrementAndGet());
+                return ResponseEntity.ok(body);
+            }
+        );
+
+        VentaDTO first = ventaMapper.toDto(venta);
+        first.setPrecioFinal(DEFAULT_GANANCIA);
+        VentaDTO second = ventaMapper.toDto(venta);
+        second.setPrecioFinal(UPDATED_GANANCIA);
+        VentaDTO withoutUser = ventaMapper.toDto(venta);
+        withoutUser.getUser().setId(Long.MAX_VALUE);
+
+        // Each sale is committed on its own, so they are removed by hand
+        try {
+            restVentaMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(List.of(first, withoutUser, second)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].indice").value(0))
+                .andExpect(jsonPath("$[0].exitosa").value(true))
+                .andExpect(jsonPath("$[0].venta.id").isNumber())
+                .andExpect(jsonPath("$[1].exitosa").value(false))
+                .andExpect(jsonPath("$[1].error").value("User not found"))
+                .andExpect(jsonPath("$[2].exitosa").value(true))
+                .andExpect(jsonPath("$[2].venta.ganancia").value(sameNumber(UPDATED_GANANCIA)));
+
+            assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeCreate + 2);
+            verify(restTemplate, times(2)).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+        } finally {
+            for (long remoteId = 900_001L; remoteId <= remoteIds.get(); remoteId++) {
+                if (ventaRepository.existsById(remoteId)) {
+                    ventaRepository.deleteById(remoteId);
+                }
+            }
+        }
+    }
+
+    @Test
+    void createVentasBatchShouldHandASaleNotSavedLocallyToTheOutbox() throws Exception {
+        // The catedra API registers both sales with the same id, so the second one cannot be saved
+        long remoteId = 930_001L;
+        VentaProfeDTO ventaProfeDTO = new VentaProfeDTO();
+        ventaProfeDTO.setIdVenta(remoteId);
+        when(restTemplate.exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class))).thenReturn(
+            ResponseEntity.ok(ventaProfeDTO)
+        );
+        VentaDTO ventaDTO = ventaMapper.toDto(venta);
+        ventaDTO.setPrecioFinal(DEFAULT_GANANCIA);
+
+        try {
+            restVentaMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(List.of(ventaDTO, ventaDTO)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].exitosa").value(true))
+                .andExpect(jsonPath("$[1].exitosa").value(true))
+                .andExpect(jsonPath("$[1].venta.id").value(remoteId));
+
+            assertThat(ventaRepository.existsById(remoteId)).isTrue();
+            assertThat(ventaPendienteRepository.findAll()).anySatisfy(pendiente -> assertThat(pendiente.getVentaId()).isEqualTo(remoteId));
+        } finally {
+            ventaPendienteRepository.deleteAll(
+                ventaPendienteRepository.findAll().stream().filter(pendiente -> Long.valueOf(remoteId).equals(pendiente.getVentaId())).toList()
+            );
+            ventaRepository.deleteById(remoteId);
+        }
+    }
+
+    @Test
+    @Transactional
+    void createVentasBatchShouldRejectEmptyBatch() throws Exception {
+        restVentaMockMvc
+            .perform(post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void createVentasBatchShouldRejectAnInvalidSale() throws Exception {
+        VentaDTO valida = ventaMapper.toDto(venta);
+        VentaDTO sinFecha = ventaMapper.toDto(venta);
+        sinFecha.setFechaVenta(null);
+
+        restVentaMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(List.of(valida, sinFecha)))
+            )
+            .andExpect(status().isBadRequest());
+
+        verify(restTemplate, never()).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+    }
+
+    @Test
+    @Transactional
+    void createVentasBatchShouldRejectTooLargeBatch() throws Exception {
+        VentaDTO ventaDTO = ventaMapper.toDto(venta);
+
+        restVentaMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(Collections.nCopies(1001, ventaDTO)))
+            )
+            .andExpect(status().isBadRequest());
+
+        verify(restTemplate, never()).exchange(contains("/vender"), eq(HttpMethod.POST), any(HttpEntity.class), eq(VentaProfeDTO.class));
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingVentaPendiente() throws Exception {
+        restVentaMockMvc.perform(get(ENTITY_API_URL + "/pending/{trackingId}", "unknown")).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getAllVentasByUserIdShouldReturnEmptyList() throws Exception {